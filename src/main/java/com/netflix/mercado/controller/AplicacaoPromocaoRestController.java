@@ -6,7 +6,7 @@ import com.netflix.mercado.entity.User;
 import com.netflix.mercado.entity.Promocao;
 import com.netflix.mercado.security.UserPrincipal;
 import com.netflix.mercado.service.AplicacaoPromocaoService;
-import com.netflix.mercado.repository.PromocaoRepository;
+import com.netflix.mercado.service.PromocaoCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -35,7 +35,7 @@ public class AplicacaoPromocaoRestController {
 
     private static final Logger log = Logger.getLogger(AplicacaoPromocaoRestController.class.getName());
     private final AplicacaoPromocaoService aplicacaoPromocaoService;
-    private final PromocaoRepository promocaoRepository;
+    private final PromocaoCacheService promocaoCacheService;
 
     /**
      * Aplica uma promoção a um valor de compra
@@ -103,7 +103,7 @@ public class AplicacaoPromocaoRestController {
         try {
             log.info("Validando promoção: " + codigoPromocao);
             
-            var promocao = promocaoRepository.findByCodigo(codigoPromocao)
+            var promocao = promocaoCacheService.buscarPorCodigo(codigoPromocao)
                 .orElse(null);
             
             if (promocao == null) {
@@ -112,7 +112,7 @@ public class AplicacaoPromocaoRestController {
             }
             
             // Validações básicas
-            if (!promocao.getAtiva() || 
+            if (!promocao.isAtiva() || 
                 (promocao.getDataValidade() != null && 
                  promocao.getDataValidade().isBefore(LocalDateTime.now()))) {
                 return ResponseEntity.ok(new ValidacaoPromocaoResponse(false, 
@@ -3,11 +3,16 @@ package com.netflix.mercado.controller;
 import com.netflix.mercado.dto.avaliacao.CreateAvaliacaoRequest;
 import com.netflix.mercado.dto.avaliacao.UpdateAvaliacaoRequest;
 import com.netflix.mercado.dto.avaliacao.AvaliacaoResponse;
+import com.netflix.mercado.dto.avaliacao.AvaliacaoFeedResponse;
+import com.netflix.mercado.dto.avaliacao.ImportacaoAvaliacaoResponse;
 import com.netflix.mercado.dto.avaliacao.RatingStatsResponse;
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.entity.Avaliacao;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.security.UserPrincipal;
+import com.netflix.mercado.service.AvaliacaoFeedService;
 import com.netflix.mercado.service.AvaliacaoService;
+import com.netflix.mercado.service.ImportacaoAvaliacaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,6 +21,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -24,9 +30,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
 @RestController
@@ -39,6 +49,8 @@ public class AvaliacaoController {
     private static final Logger log = Logger.getLogger(AvaliacaoController.class.getName());
 
     private final AvaliacaoService avaliacaoService;
+    private final ImportacaoAvaliacaoService importacaoAvaliacaoService;
+    private final AvaliacaoFeedService avaliacaoFeedService;
 
     /**
      * Cria uma nova avaliação
@@ -100,6 +112,7 @@ public class AvaliacaoController {
             log.fine("Listando avaliações - page: " + size + ", size: ");
             Pageable pageable = PageRequest.of(page, size);
             Page<AvaliacaoResponse> avaliacoes = avaliacaoService.listAvaliacoes(pageable);
+            avaliacaoService.preencherVotosDoUsuario(avaliacoes.getContent(), getUsuarioOpcional());
             return ResponseEntity.ok(avaliacoes);
         } catch (Exception e) {
             log.severe("Erro ao listar avaliações: " + e.getMessage());
@@ -129,7 +142,9 @@ public class AvaliacaoController {
         try {
             log.fine("Obtendo avaliação: " + id + "");
             Avaliacao avaliacao = avaliacaoService.getAvaliacaoById(id);
-            return ResponseEntity.ok(AvaliacaoResponse.from(avaliacao));
+            AvaliacaoResponse response = avaliacaoService.converterParaResponse(avaliacao);
+            avaliacaoService.preencherVotosDoUsuario(List.of(response), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.severe("Erro ao obter avaliação: " + e.getMessage());
             throw new RuntimeException(e.getMessage());
@@ -225,6 +240,7 @@ public class AvaliacaoController {
             Pageable pageable = PageRequest.of(page, size);
             Page<AvaliacaoResponse> response = avaliacaoService
                     .listAvaliacoesByMercado(mercadoId, pageable);
+            avaliacaoService.preencherVotosDoUsuario(response.getContent(), getUsuarioOpcional());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.severe("Erro ao listar avaliações do mercado: " + e.getMessage());
@@ -232,6 +248,197 @@ public class AvaliacaoController {
         }
     }
 
+    /**
+     * Lista avaliações de um mercado por cursor (rolagem infinita)
+     */
+    @GetMapping("/mercado/{mercadoId}/scroll")
+    @Operation(
+        summary = "Rolar avaliações do mercado",
+        description = "Retorna avaliações do mercado das mais recentes para as mais antigas, paginadas por cursor, sem contagem total"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Avaliações retornadas com sucesso",
+            content = @Content(schema = @Schema(implementation = PageResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "404", description = "Mercado não encontrado")
+    })
+    public ResponseEntity<PageResponse<AvaliacaoResponse>> scrollAvaliacoesByMercado(
+            @Parameter(description = "ID do mercado")
+            @PathVariable Long mercadoId,
+            @Parameter(description = "Cursor retornado em proximoCursor; omitir na primeira página")
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            log.fine("Rolando avaliações do mercado: " + mercadoId + "");
+            PageResponse<AvaliacaoResponse> response = avaliacaoService
+                    .listAvaliacoesByMercadoCursor(mercadoId, after, size);
+            avaliacaoService.preencherVotosDoUsuario(response.getConteudo(), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao rolar avaliações do mercado: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Feed de avaliações de um mercado com autor, total de comentários e destaques
+     */
+    @GetMapping("/mercado/{mercadoId}/feed")
+    @Operation(
+        summary = "Feed de avaliações do mercado",
+        description = "Retorna avaliações do mercado das mais recentes para as mais antigas, cada uma com o resumo do autor, " +
+                      "o total de comentários e os dois comentários em destaque, paginadas por cursor. " +
+                      "Cada página é montada com três consultas"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Feed retornado com sucesso",
+            content = @Content(schema = @Schema(implementation = PageResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "404", description = "Mercado não encontrado")
+    })
+    public ResponseEntity<PageResponse<AvaliacaoFeedResponse>> feedAvaliacoesByMercado(
+            @Parameter(description = "ID do mercado")
+            @PathVariable Long mercadoId,
+            @Parameter(description = "Cursor retornado em proximoCursor; omitir na primeira página")
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            log.fine("Montando feed de avaliações do mercado: " + mercadoId);
+            PageResponse<AvaliacaoFeedResponse> response = avaliacaoFeedService.listarFeed(mercadoId, after, size);
+            avaliacaoService.preencherVotosDoUsuario(response.getConteudo().stream()
+                    .map(AvaliacaoFeedResponse::getAvaliacao)
+                    .collect(Collectors.toList()), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao montar feed de avaliações: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Marca uma avaliação como útil
+     */
+    @PostMapping("/{id}/util")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Marcar avaliação como útil",
+        description = "Registra o voto útil do usuário; repetir o voto não altera o contador e um voto inútil anterior é trocado"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Voto registrado"),
+        @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
+    })
+    public ResponseEntity<Void> marcarComoUtil(
+            @Parameter(description = "ID da avaliação")
+            @PathVariable Long id) {
+        try {
+            User user = getCurrentUser();
+            log.fine("Voto útil na avaliação: " + id + " por usuário: " + user.getId());
+            avaliacaoService.marcarComoUtil(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.severe("Erro ao votar na avaliação: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Marca uma avaliação como inútil
+     */
+    @PostMapping("/{id}/inutil")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Marcar avaliação como inútil",
+        description = "Registra o voto inútil do usuário; repetir o voto não altera o contador e um voto útil anterior é trocado"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Voto registrado"),
+        @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
+    })
+    public ResponseEntity<Void> marcarComoInutil(
+            @Parameter(description = "ID da avaliação")
+            @PathVariable Long id) {
+        try {
+            User user = getCurrentUser();
+            log.fine("Voto inútil na avaliação: " + id + " por usuário: " + user.getId());
+            avaliacaoService.marcarComoInutil(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.severe("Erro ao votar na avaliação: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Retira o voto do usuário em uma avaliação
+     */
+    @DeleteMapping("/{id}/voto")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Retirar voto",
+        description = "Retira o voto útil ou inútil do usuário na avaliação"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Voto retirado"),
+        @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
+    })
+    public ResponseEntity<Void> removerVoto(
+            @Parameter(description = "ID da avaliação")
+            @PathVariable Long id) {
+        try {
+            User user = getCurrentUser();
+            avaliacaoService.removerVoto(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.severe("Erro ao retirar voto da avaliação: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Importa avaliações em lote (JSONL ou CSV) enviadas no corpo da requisição
+     */
+    @PostMapping(value = "/importacao", consumes = {"application/x-ndjson", "application/jsonl", "text/csv", "text/plain", "application/octet-stream"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Operation(
+        summary = "Importar avaliações em lote",
+        description = "Importa avaliações de JSONL ou CSV; pares mercado/usuário já avaliados são ignorados e as linhas inválidas retornam com o número da linha"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Importação concluída",
+            content = @Content(schema = @Schema(implementation = ImportacaoAvaliacaoResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Conteúdo ilegível ou cabeçalho CSV incompleto"),
+        @ApiResponse(responseCode = "403", description = "Acesso restrito a administradores")
+    })
+    public ResponseEntity<ImportacaoAvaliacaoResponse> importarAvaliacoes(
+            @Parameter(description = "Formato do conteúdo: JSONL ou CSV")
+            @RequestParam(defaultValue = "JSONL") ImportacaoAvaliacaoService.Formato formato,
+            HttpServletRequest request) {
+        try {
+            User user = getCurrentUser();
+            log.info("Importação de avaliações em " + formato + " solicitada por usuário: " + user.getId());
+            ImportacaoAvaliacaoResponse response = importacaoAvaliacaoService.importar(request.getInputStream(), formato, user);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao importar avaliações: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Obtém estatísticas de rating de um mercado
      */
@@ -269,4 +476,15 @@ public class AvaliacaoController {
                 .getAuthentication().getPrincipal();
         return principal.getUser();
     }
+
+    /**
+     * Obtém o usuário autenticado, ou null em requisições anônimas
+     */
+    private User getUsuarioOpcional() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUser();
+        }
+        return null;
+    }
 }
@@ -3,9 +3,13 @@ package com.netflix.mercado.controller;
 import com.netflix.mercado.dto.comentario.CreateComentarioRequest;
 import com.netflix.mercado.dto.comentario.UpdateComentarioRequest;
 import com.netflix.mercado.dto.comentario.ComentarioResponse;
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.entity.User;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.security.UserPrincipal;
 import com.netflix.mercado.service.ComentarioService;
+import com.netflix.mercado.service.ModeracaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,6 +26,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -39,6 +44,7 @@ public class ComentarioController {
     private static final Logger log = Logger.getLogger(ComentarioController.class.getName());
 
     private final ComentarioService comentarioService;
+    private final ModeracaoService moderacaoService;
 
     /**
      * Cria novo comentário em uma avaliação
@@ -101,6 +107,7 @@ public class ComentarioController {
             Pageable pageable = PageRequest.of(page, size);
             Page<ComentarioResponse> response = comentarioService
                     .listComentarios(avaliacaoId, pageable);
+            comentarioService.preencherCurtidasDoUsuario(response.getContent(), getUsuarioOpcional());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.severe("Erro ao listar comentários: " + e.getMessage());
@@ -108,6 +115,137 @@ public class ComentarioController {
         }
     }
 
+    /**
+     * Lista comentários de uma avaliação por cursor (rolagem infinita)
+     */
+    @GetMapping("/avaliacoes/{avaliacaoId}/comentarios/scroll")
+    @Operation(
+        summary = "Rolar comentários",
+        description = "Retorna os comentários de primeiro nível de uma avaliação em ordem de conversa, paginados por cursor, sem contagem total"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Comentários retornados com sucesso",
+            content = @Content(schema = @Schema(implementation = PageResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
+    })
+    public ResponseEntity<PageResponse<ComentarioResponse>> scrollComentarios(
+            @Parameter(description = "ID da avaliação")
+            @PathVariable Long avaliacaoId,
+            @Parameter(description = "Cursor retornado em proximoCursor; omitir na primeira página")
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            log.fine("Rolando comentários da avaliação: " + avaliacaoId + "");
+            PageResponse<ComentarioResponse> response = comentarioService
+                    .listComentariosCursor(avaliacaoId, after, size);
+            comentarioService.preencherCurtidasDoUsuario(response.getConteudo(), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao rolar comentários: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Lista os comentários em destaque de uma avaliação
+     */
+    @GetMapping("/avaliacoes/{avaliacaoId}/comentarios/destaques")
+    @Operation(
+        summary = "Comentários em destaque",
+        description = "Retorna os comentários de primeiro nível de uma avaliação ordenados por curtidas com decaimento no tempo " +
+                      "(um comentário 8 horas mais antigo precisa do dobro de curtidas para empatar), paginados por cursor"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Comentários retornados com sucesso",
+            content = @Content(schema = @Schema(implementation = PageResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
+    })
+    public ResponseEntity<PageResponse<ComentarioResponse>> listarDestaques(
+            @Parameter(description = "ID da avaliação")
+            @PathVariable Long avaliacaoId,
+            @Parameter(description = "Cursor retornado em proximoCursor; omitir na primeira página")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Quantidade de comentários (até 100)")
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            log.fine("Listando destaques da avaliação: " + avaliacaoId);
+            PageResponse<ComentarioResponse> response = comentarioService.listarDestaques(avaliacaoId, after, size);
+            comentarioService.preencherCurtidasDoUsuario(response.getConteudo(), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao listar comentários em destaque: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Carrega a discussão completa de uma avaliação
+     */
+    @GetMapping("/avaliacoes/{avaliacaoId}/comentarios/thread")
+    @Operation(
+        summary = "Carregar discussão",
+        description = "Retorna comentários e respostas de uma avaliação em uma única consulta, em ordem de conversa (cada comentário seguido de suas respostas)"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Discussão retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Profundidade inválida"),
+        @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
+    })
+    public ResponseEntity<List<ComentarioResponse>> getThread(
+            @Parameter(description = "ID da avaliação")
+            @PathVariable Long avaliacaoId,
+            @Parameter(description = "Nível máximo (0 = só comentários de primeiro nível); omitir para todos")
+            @RequestParam(required = false) Integer profundidade) {
+        try {
+            log.fine("Carregando discussão da avaliação: " + avaliacaoId + "");
+            List<ComentarioResponse> response = comentarioService.listarThread(avaliacaoId, profundidade);
+            comentarioService.preencherCurtidasDoUsuario(response, getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao carregar discussão: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Carrega um comentário com suas respostas em árvore
+     */
+    @GetMapping("/comentarios/{id}/thread")
+    @Operation(
+        summary = "Carregar respostas em árvore",
+        description = "Retorna o comentário seguido de todas as respostas abaixo dele, até a profundidade pedida, em uma única consulta"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Respostas retornadas com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Profundidade inválida"),
+        @ApiResponse(responseCode = "404", description = "Comentário não encontrado")
+    })
+    public ResponseEntity<List<ComentarioResponse>> getSubarvore(
+            @Parameter(description = "ID do comentário")
+            @PathVariable Long id,
+            @Parameter(description = "Níveis abaixo do comentário; omitir para todos")
+            @RequestParam(required = false) Integer profundidade) {
+        try {
+            log.fine("Carregando respostas em árvore do comentário: " + id + "");
+            List<ComentarioResponse> response = comentarioService.listarSubarvore(id, profundidade);
+            comentarioService.preencherCurtidasDoUsuario(response, getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (ResourceNotFoundException | ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.severe("Erro ao carregar respostas em árvore: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Obtém um comentário específico
      */
@@ -130,6 +268,7 @@ public class ComentarioController {
         try {
             log.fine("Obtendo comentário: " + id + "");
             ComentarioResponse response = comentarioService.getComentarioById(id);
+            comentarioService.preencherCurtidasDoUsuario(List.of(response), getUsuarioOpcional());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.severe("Erro ao obter comentário: " + e.getMessage());
@@ -234,6 +373,89 @@ public class ComentarioController {
         }
     }
 
+    /**
+     * Curte um comentário
+     */
+    @PostMapping("/comentarios/{id}/curtidas")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Curtir comentário",
+        description = "Registra a curtida do usuário; curtir de novo não altera o contador"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Curtida registrada"),
+        @ApiResponse(responseCode = "404", description = "Comentário não encontrado")
+    })
+    public ResponseEntity<Void> curtirComentario(
+            @Parameter(description = "ID do comentário")
+            @PathVariable Long id) {
+        try {
+            User user = getCurrentUser();
+            comentarioService.adicionarCurtida(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.severe("Erro ao curtir comentário: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Retira a curtida de um comentário
+     */
+    @DeleteMapping("/comentarios/{id}/curtidas")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Descurtir comentário",
+        description = "Retira a curtida do usuário, se houver"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Curtida retirada"),
+        @ApiResponse(responseCode = "404", description = "Comentário não encontrado")
+    })
+    public ResponseEntity<Void> descurtirComentario(
+            @Parameter(description = "ID do comentário")
+            @PathVariable Long id) {
+        try {
+            User user = getCurrentUser();
+            comentarioService.removerCurtida(id, user);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.severe("Erro ao descurtir comentário: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Denuncia um comentário para a moderação
+     */
+    @PostMapping("/comentarios/{id}/denuncias")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Denunciar comentário",
+        description = "Registra a denúncia do usuário e antecipa o comentário na fila de moderação; denunciar de novo não tem efeito"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Denúncia registrada"),
+        @ApiResponse(responseCode = "404", description = "Comentário não encontrado")
+    })
+    public ResponseEntity<Void> denunciarComentario(
+            @Parameter(description = "ID do comentário")
+            @PathVariable Long id,
+            @Parameter(description = "Motivo da denúncia")
+            @RequestParam(required = false) String motivo) {
+        try {
+            User user = getCurrentUser();
+            moderacaoService.denunciar(id, motivo != null && motivo.length() > 500 ? motivo.substring(0, 500) : motivo, user);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.severe("Erro ao denunciar comentário: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Obtém o usuário autenticado do contexto de segurança
      */
@@ -242,4 +464,15 @@ public class ComentarioController {
                 .getAuthentication().getPrincipal();
         return principal.getUser();
     }
+
+    /**
+     * Obtém o usuário autenticado, ou null em requisições anônimas
+     */
+    private User getUsuarioOpcional() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUser();
+        }
+        return null;
+    }
 }
@@ -2,6 +2,8 @@ package com.netflix.mercado.controller;
 
 import com.netflix.mercado.dto.favorito.CreateFavoritoRequest;
 import com.netflix.mercado.dto.favorito.FavoritoResponse;
+import com.netflix.mercado.dto.favorito.VerificarFavoritosRequest;
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.security.UserPrincipal;
 import com.netflix.mercado.service.FavoritoService;
@@ -46,7 +48,7 @@ public class FavoritoController {
     @SecurityRequirement(name = "bearer-jwt")
     @Operation(
         summary = "Adicionar favorito",
-        description = "Adiciona um mercado aos favoritos do usuário"
+        description = "Adiciona um mercado aos favoritos do usuário; se já for favorito, devolve o existente"
     )
     @ApiResponses({
         @ApiResponse(
@@ -54,8 +56,7 @@ public class FavoritoController {
             description = "Favorito criado com sucesso",
             content = @Content(schema = @Schema(implementation = FavoritoResponse.class))
         ),
-        @ApiResponse(responseCode = "404", description = "Mercado não encontrado"),
-        @ApiResponse(responseCode = "409", description = "Já é favorito")
+        @ApiResponse(responseCode = "404", description = "Mercado não encontrado")
     })
     public ResponseEntity<FavoritoResponse> createFavorito(
             @Valid @RequestBody CreateFavoritoRequest request) {
@@ -100,6 +101,40 @@ public class FavoritoController {
         }
     }
 
+    /**
+     * Lista favoritos do usuário por cursor (rolagem infinita)
+     */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Rolar favoritos",
+        description = "Retorna os favoritos do usuário por prioridade e data, paginados por cursor, sem contagem total"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Favoritos retornados com sucesso",
+            content = @Content(schema = @Schema(implementation = PageResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    public ResponseEntity<PageResponse<FavoritoResponse>> scrollFavoritos(
+            @Parameter(description = "Cursor retornado em proximoCursor; omitir na primeira página")
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            User user = getCurrentUser();
+            log.info("Rolando favoritos do usuário: " + user.getId());
+            PageResponse<FavoritoResponse> response = favoritoService.listFavoritosCursor(user, after, size);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao rolar favoritos: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Deleta um favorito
      */
@@ -108,11 +143,10 @@ public class FavoritoController {
     @SecurityRequirement(name = "bearer-jwt")
     @Operation(
         summary = "Remover favorito",
-        description = "Remove um mercado dos favoritos do usuário"
+        description = "Remove um mercado dos favoritos do usuário; sem efeito se ele não for favorito"
     )
     @ApiResponses({
-        @ApiResponse(responseCode = "204", description = "Favorito removido com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Favorito não encontrado")
+        @ApiResponse(responseCode = "204", description = "Favorito removido com sucesso")
     })
     public ResponseEntity<Void> deleteFavorito(
             @Parameter(description = "ID do mercado")
@@ -218,6 +252,37 @@ public class FavoritoController {
         }
     }
 
+    /**
+     * Verifica de uma vez quais mercados são favoritos do usuário
+     */
+    @PostMapping("/check")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Verificar favoritos em lote",
+        description = "Informa, para cada mercado da lista, se ele está nos favoritos do usuário. " +
+                      "Mercados inexistentes são informados como não favoritos"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Status verificado com sucesso",
+            content = @Content(schema = @Schema(implementation = Map.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Lista vazia ou com mais de 200 mercados")
+    })
+    public ResponseEntity<Map<Long, Boolean>> checkFavoritos(
+            @Valid @RequestBody VerificarFavoritosRequest request) {
+        try {
+            User user = getCurrentUser();
+            Map<Long, Boolean> response = favoritoService.verificarFavoritos(request.getMercadoIds(), user);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao verificar favoritos: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Obtém o usuário autenticado do contexto de segurança
      */
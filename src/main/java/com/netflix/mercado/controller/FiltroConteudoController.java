@@ -0,0 +1,158 @@
+package com.netflix.mercado.controller;
+
+import com.netflix.mercado.dto.comentario.AnaliseConteudoRequest;
+import com.netflix.mercado.dto.comentario.AnaliseConteudoResponse;
+import com.netflix.mercado.dto.comentario.TermosBloqueadosRequest;
+import com.netflix.mercado.dto.comentario.TermosBloqueadosResponse;
+import com.netflix.mercado.service.FiltroConteudoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+@RestController
+@RequestMapping("/api/v1/moderacao/termos")
+@RequiredArgsConstructor
+@Transactional
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearer-jwt")
+@Tag(name = "Moderação", description = "Filtro de termos proibidos e spam")
+public class FiltroConteudoController {
+
+    private static final Logger log = Logger.getLogger(FiltroConteudoController.class.getName());
+
+    private final FiltroConteudoService filtroConteudoService;
+
+    /**
+     * Lista os termos bloqueados
+     */
+    @GetMapping
+    @Operation(
+        summary = "Listar termos",
+        description = "Retorna os termos e frases bloqueados em comentários e avaliações"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Termos retornados")
+    })
+    public ResponseEntity<List<String>> listar() {
+        try {
+            return ResponseEntity.ok(filtroConteudoService.listarTermos());
+        } catch (Exception e) {
+            log.severe("Erro ao listar termos bloqueados: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Inclui termos no filtro
+     */
+    @PostMapping
+    @Operation(
+        summary = "Incluir termos",
+        description = "Inclui termos no dicionário; o filtro é recompilado sem interromper as verificações em andamento"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Termos incluídos",
+            content = @Content(schema = @Schema(implementation = TermosBloqueadosResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Lista vazia ou termo muito longo")
+    })
+    public ResponseEntity<TermosBloqueadosResponse> adicionar(@Valid @RequestBody TermosBloqueadosRequest request) {
+        try {
+            int incluidos = filtroConteudoService.adicionarTermos(request.getTermos());
+            return ResponseEntity.ok(new TermosBloqueadosResponse(incluidos, filtroConteudoService.contarTermos()));
+        } catch (Exception e) {
+            log.severe("Erro ao incluir termos bloqueados: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Remove termos do filtro
+     */
+    @PostMapping("/remocoes")
+    @Operation(
+        summary = "Remover termos",
+        description = "Remove termos do dicionário; o filtro é recompilado sem interromper as verificações em andamento"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Termos removidos",
+            content = @Content(schema = @Schema(implementation = TermosBloqueadosResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Lista vazia")
+    })
+    public ResponseEntity<TermosBloqueadosResponse> remover(@Valid @RequestBody TermosBloqueadosRequest request) {
+        try {
+            int removidos = filtroConteudoService.removerTermos(request.getTermos());
+            return ResponseEntity.ok(new TermosBloqueadosResponse(removidos, filtroConteudoService.contarTermos()));
+        } catch (Exception e) {
+            log.severe("Erro ao remover termos bloqueados: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Recompila o filtro a partir do banco
+     */
+    @PostMapping("/recarga")
+    @Operation(
+        summary = "Recarregar filtro",
+        description = "Recompila o dicionário a partir do banco, por exemplo após uma carga direta na tabela"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Filtro recarregado",
+            content = @Content(schema = @Schema(implementation = TermosBloqueadosResponse.class))
+        )
+    })
+    public ResponseEntity<TermosBloqueadosResponse> recarregar() {
+        try {
+            int total = filtroConteudoService.recarregar();
+            return ResponseEntity.ok(new TermosBloqueadosResponse(0, total));
+        } catch (Exception e) {
+            log.severe("Erro ao recarregar filtro de conteúdo: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Analisa um texto sem gravá-lo
+     */
+    @PostMapping("/analise")
+    @Operation(
+        summary = "Analisar texto",
+        description = "Retorna os termos bloqueados encontrados, com suas posições, e o texto com escape HTML"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Análise concluída",
+            content = @Content(schema = @Schema(implementation = AnaliseConteudoResponse.class))
+        )
+    })
+    public ResponseEntity<AnaliseConteudoResponse> analisar(@Valid @RequestBody AnaliseConteudoRequest request) {
+        try {
+            return ResponseEntity.ok(AnaliseConteudoResponse.from(filtroConteudoService.analisar(request.getTexto())));
+        } catch (Exception e) {
+            log.severe("Erro ao analisar texto: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+}
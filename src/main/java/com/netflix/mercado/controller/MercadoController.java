@@ -4,11 +4,22 @@ import com.netflix.mercado.dto.mercado.CreateMercadoRequest;
 import com.netflix.mercado.dto.mercado.UpdateMercadoRequest;
 import com.netflix.mercado.dto.horario.CreateHorarioRequest;
 import com.netflix.mercado.dto.mercado.MercadoResponse;
+import com.netflix.mercado.dto.mercado.MercadoBuscaPage;
+import com.netflix.mercado.dto.mercado.MercadoClusterResponse;
 import com.netflix.mercado.dto.mercado.MercadoDetailResponse;
+import com.netflix.mercado.dto.mercado.MercadoFacetasResponse;
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
+import com.netflix.mercado.dto.mercado.SugestaoResponse;
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.dto.horario.HorarioResponse;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.security.UserPrincipal;
+import com.netflix.mercado.service.FavoritoService;
+import com.netflix.mercado.service.MercadoBuscaTextualService;
+import com.netflix.mercado.service.MercadoClusterService;
+import com.netflix.mercado.service.MercadoFacetaService;
 import com.netflix.mercado.service.MercadoService;
+import com.netflix.mercado.service.MercadoSugestaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -25,11 +36,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.Logger;
 
 @RestController
@@ -41,6 +56,11 @@ public class MercadoController {
 
     private static final Logger log = Logger.getLogger(MercadoController.class.getName());
     private final MercadoService mercadoService;
+    private final MercadoClusterService mercadoClusterService;
+    private final MercadoBuscaTextualService mercadoBuscaTextualService;
+    private final MercadoSugestaoService mercadoSugestaoService;
+    private final MercadoFacetaService mercadoFacetaService;
+    private final FavoritoService favoritoService;
 
     /**
      * Cria um novo mercado (apenas SELLER)
@@ -81,39 +101,101 @@ public class MercadoController {
     @GetMapping
     @Operation(
         summary = "Listar mercados",
-        description = "Retorna lista paginada de mercados aprovados"
+        description = "Retorna lista paginada de mercados aprovados e, opcionalmente, a quantidade de " +
+                      "resultados por UF, cidade, avaliação mínima e abertos agora"
     )
     @ApiResponses({
         @ApiResponse(
             responseCode = "200",
             description = "Lista retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = Page.class))
+            content = @Content(schema = @Schema(implementation = MercadoBuscaPage.class))
         ),
         @ApiResponse(responseCode = "400", description = "Parâmetros de paginação inválidos")
     })
-    public ResponseEntity<Page<MercadoResponse>> listMercados(
+    public ResponseEntity<MercadoBuscaPage> listMercados(
             @Parameter(description = "Número da página (começando de 0)")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Tamanho da página")
             @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Busca textual em nome, descrição, bairro e cidade (ignora acentos)")
+            @RequestParam(required = false) String q,
             @Parameter(description = "Filtro por nome")
             @RequestParam(required = false) String nome,
-            @Parameter(description = "Filtro por tipo")
+            @Parameter(description = "Tolerar erros de digitação no nome (ex.: \"supermecado\", \"carefour\")")
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @Parameter(description = "Filtro por tipo (mercados ainda não possuem tipo; parâmetro ignorado)")
             @RequestParam(required = false) String tipo,
             @Parameter(description = "Filtro por cidade")
-            @RequestParam(required = false) String cidade) {
+            @RequestParam(required = false) String cidade,
+            @Parameter(description = "Filtro por UF")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Avaliação mínima (0-5)")
+            @RequestParam(required = false) BigDecimal minAvaliacao,
+            @Parameter(description = "Ordenação: RELEVANCIA, AVALIACAO, DISTANCIA, NOME ou FAVORITOS")
+            @RequestParam(required = false) MercadoSearchRequest.Ordenacao ordenarPor,
+            @Parameter(description = "Latitude de referência (para distância)")
+            @RequestParam(required = false) Double latitude,
+            @Parameter(description = "Longitude de referência (para distância)")
+            @RequestParam(required = false) Double longitude,
+            @Parameter(description = "Incluir contagens por filtro (facetas)")
+            @RequestParam(defaultValue = "true") boolean facetas) {
         try {
             log.fine("Listando mercados - page: " + page + ", size: " + size);
             Pageable pageable = PageRequest.of(page, size);
-            // TODO: implementar filtros (nome, tipo, cidade) no service
-            Page<MercadoResponse> response = mercadoService.getAllMercados(pageable);
-            return ResponseEntity.ok(response);
+            MercadoSearchRequest filtro = new MercadoSearchRequest(nome, cidade, estado, minAvaliacao, page, size);
+            filtro.setTexto(q);
+            filtro.setFuzzy(fuzzy);
+            filtro.setOrdenarPor(ordenarPor);
+            filtro.setLatitude(latitude);
+            filtro.setLongitude(longitude);
+            // Busca em memória uma vez só: página e facetas contam sobre os mesmos candidatos
+            Optional<List<Long>> candidatos = mercadoBuscaTextualService.buscarCandidatos(filtro);
+            Page<MercadoResponse> resultados = mercadoService.buscarMercados(filtro, candidatos, pageable);
+            favoritoService.preencherFavoritosDoUsuario(resultados.getContent(), getUsuarioOpcional());
+            MercadoFacetasResponse contagens = facetas
+                    ? mercadoFacetaService.calcular(filtro, candidatos, LocalDateTime.now())
+                    : null;
+            return ResponseEntity.ok(new MercadoBuscaPage(resultados, contagens));
         } catch (Exception e) {
             log.severe("Erro ao listar mercados: " + e.getMessage());
             throw new RuntimeException(e.getMessage());
         }
     }
 
+    /**
+     * Lista mercados por cursor (rolagem infinita)
+     */
+    @GetMapping("/scroll")
+    @Operation(
+        summary = "Rolar mercados",
+        description = "Retorna mercados ativos dos mais bem avaliados para os menos, paginados por cursor, sem contagem total. " +
+                      "O cursor guarda a avaliação média, que muda com novas avaliações: um mercado reavaliado " +
+                      "durante a rolagem pode ser pulado ou repetido"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lista retornada com sucesso",
+            content = @Content(schema = @Schema(implementation = PageResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    public ResponseEntity<PageResponse<MercadoResponse>> scrollMercados(
+            @Parameter(description = "Cursor retornado em proximoCursor; omitir na primeira página")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Tamanho da página")
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            log.fine("Rolando mercados - size: " + size);
+            PageResponse<MercadoResponse> response = mercadoService.getAllMercadosCursor(after, size);
+            favoritoService.preencherFavoritosDoUsuario(response.getConteudo(), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao rolar mercados: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Obtém detalhes de um mercado específico
      */
@@ -137,6 +219,7 @@ public class MercadoController {
             log.fine("Obtendo mercado: " + id);
             // TODO: converter para MercadoDetailResponse quando implementado
             MercadoResponse response = mercadoService.getMercadoById(id);
+            favoritoService.preencherFavoritosDoUsuario(List.of(response), getUsuarioOpcional());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.severe("Erro ao obter mercado: " + e.getMessage());
@@ -239,6 +322,33 @@ public class MercadoController {
         }
     }
 
+    /**
+     * Reconstrói o índice de busca textual a partir do banco (apenas ADMIN)
+     */
+    @PostMapping("/search-index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Reconstruir índice de busca",
+        description = "Recarrega do banco o índice textual, as sugestões de autocompletar e as facetas de mercados. Apenas ADMIN"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Índice reconstruído"),
+        @ApiResponse(responseCode = "403", description = "Sem permissão")
+    })
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        try {
+            log.info("Reconstruindo índice de busca textual de mercados");
+            mercadoBuscaTextualService.reconstruirIndice();
+            mercadoSugestaoService.reconstruirIndice();
+            mercadoFacetaService.reconstruirIndice();
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            log.severe("Erro ao reconstruir índice de busca: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Rejeita um mercado (apenas ADMIN)
      */
@@ -278,7 +388,7 @@ public class MercadoController {
     @GetMapping("/nearby")
     @Operation(
         summary = "Buscar mercados próximos",
-        description = "Busca mercados na proximidade de uma localização (raio em km)"
+        description = "Busca mercados na proximidade de uma localização (raio em km), ordenados pela distância"
     )
     @ApiResponses({
         @ApiResponse(
@@ -299,19 +409,160 @@ public class MercadoController {
             @RequestParam(defaultValue = "20") int size) {
         try {
             log.fine("Buscando mercados próximos: lat=" + latitude + ", lon=" + longitude + ", raio=" + raioKm);
-            // TODO: buscarPorProximidade retorna List<Mercado>, não Page<MercadoResponse>
-            // Implementar conversão para paginado
-            throw new UnsupportedOperationException("Método ainda não implementado");
-            // Pageable pageable = PageRequest.of(page, size);
-            // Page<MercadoResponse> response = mercadoService.findNearby(
-            //         latitude, longitude, raioKm, pageable);
-            // return ResponseEntity.ok(response);
+            Pageable pageable = PageRequest.of(page, size);
+            Page<MercadoResponse> response = mercadoService.findNearby(
+                    latitude, longitude, raioKm, pageable);
+            favoritoService.preencherFavoritosDoUsuario(response.getContent(), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             log.severe("Erro ao buscar mercados próximos: " + e.getMessage());
             throw new RuntimeException(e.getMessage());
         }
     }
 
+    /**
+     * Busca mercados próximos que estão abertos agora
+     */
+    @GetMapping("/nearby/open-now")
+    @Operation(
+        summary = "Buscar mercados próximos abertos agora",
+        description = "Busca mercados abertos no momento dentro do raio (km), ordenados pela distância"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Mercados encontrados",
+            content = @Content(schema = @Schema(implementation = Page.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Coordenadas inválidas")
+    })
+    public ResponseEntity<Page<MercadoResponse>> findNearbyOpenNow(
+            @Parameter(description = "Latitude da busca")
+            @RequestParam Double latitude,
+            @Parameter(description = "Longitude da busca")
+            @RequestParam Double longitude,
+            @Parameter(description = "Raio de busca em km")
+            @RequestParam(defaultValue = "3") Double raioKm,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            log.fine("Buscando mercados abertos próximos: lat=" + latitude + ", lon=" + longitude + ", raio=" + raioKm);
+            Pageable pageable = PageRequest.of(page, size);
+            Page<MercadoResponse> response = mercadoService.buscarProximosAbertosAgora(
+                    latitude, longitude, raioKm, pageable);
+            favoritoService.preencherFavoritosDoUsuario(response.getContent(), getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao buscar mercados abertos próximos: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Busca os k mercados mais próximos, sem raio fixo
+     */
+    @GetMapping("/nearby/nearest")
+    @Operation(
+        summary = "Buscar os mercados mais próximos",
+        description = "Retorna os k mercados mais próximos de uma localização, ordenados pela distância"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Mercados encontrados",
+            content = @Content(schema = @Schema(implementation = List.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Coordenadas ou quantidade inválidas")
+    })
+    public ResponseEntity<List<MercadoResponse>> findNearest(
+            @Parameter(description = "Latitude da busca")
+            @RequestParam Double latitude,
+            @Parameter(description = "Longitude da busca")
+            @RequestParam Double longitude,
+            @Parameter(description = "Quantidade de mercados (máximo 100)")
+            @RequestParam(defaultValue = "10") int k) {
+        try {
+            log.fine("Buscando " + k + " mercados mais próximos: lat=" + latitude + ", lon=" + longitude);
+            List<MercadoResponse> response = mercadoService.buscarMaisProximos(latitude, longitude, k);
+            favoritoService.preencherFavoritosDoUsuario(response, getUsuarioOpcional());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao buscar mercados mais próximos: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Busca os agrupamentos de mercados para uma área do mapa
+     */
+    @GetMapping("/clusters")
+    @Operation(
+        summary = "Agrupar mercados no mapa",
+        description = "Retorna agrupamentos com quantidade, centróide e avaliação média dos mercados " +
+                      "de uma área do mapa no zoom informado"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Agrupamentos encontrados",
+            content = @Content(schema = @Schema(implementation = List.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Área ou zoom inválidos")
+    })
+    public ResponseEntity<List<MercadoClusterResponse>> findClusters(
+            @Parameter(description = "Latitude sul da área")
+            @RequestParam Double latMin,
+            @Parameter(description = "Latitude norte da área")
+            @RequestParam Double latMax,
+            @Parameter(description = "Longitude oeste da área")
+            @RequestParam Double lonMin,
+            @Parameter(description = "Longitude leste da área")
+            @RequestParam Double lonMax,
+            @Parameter(description = "Nível de zoom do mapa (0 a 20)")
+            @RequestParam Integer zoom) {
+        try {
+            log.fine("Buscando agrupamentos do mapa: zoom=" + zoom + ", área=[" + latMin + "," + lonMin
+                    + " ; " + latMax + "," + lonMax + "]");
+            List<MercadoClusterResponse> response = mercadoClusterService.buscarClusters(
+                    latMin, latMax, lonMin, lonMax, zoom);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao buscar agrupamentos do mapa: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Sugere nomes de mercados, bairros e cidades para o texto digitado
+     */
+    @GetMapping("/autocomplete")
+    @Operation(
+        summary = "Autocompletar busca",
+        description = "Retorna sugestões de mercados, bairros e cidades que começam com o texto digitado, " +
+                      "das mais avaliadas para as menos avaliadas. Acentos e maiúsculas são ignorados"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Sugestões encontradas",
+            content = @Content(schema = @Schema(implementation = List.class))
+        )
+    })
+    public ResponseEntity<List<SugestaoResponse>> autocomplete(
+            @Parameter(description = "Texto digitado")
+            @RequestParam String q,
+            @Parameter(description = "Quantidade máxima de sugestões (até 10)")
+            @RequestParam(defaultValue = "10") Integer limite) {
+        try {
+            log.fine("Buscando sugestões para: " + q);
+            List<SugestaoResponse> response = mercadoSugestaoService.sugerir(q, limite);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao buscar sugestões: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Adiciona um mercado aos favoritos do usuário
      */
@@ -448,4 +699,15 @@ public class MercadoController {
                 .getAuthentication().getPrincipal();
         return principal.getUser();
     }
+
+    /**
+     * Obtém o usuário autenticado, ou null em requisições anônimas
+     */
+    private User getUsuarioOpcional() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUser();
+        }
+        return null;
+    }
 }
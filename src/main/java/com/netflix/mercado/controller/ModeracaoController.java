@@ -0,0 +1,172 @@
+package com.netflix.mercado.controller;
+
+import com.netflix.mercado.dto.comentario.DecisaoModeracaoRequest;
+import com.netflix.mercado.dto.comentario.DecisaoModeracaoResponse;
+import com.netflix.mercado.dto.comentario.FilaModeracaoResponse;
+import com.netflix.mercado.dto.comentario.ReservaModeracaoResponse;
+import com.netflix.mercado.entity.User;
+import com.netflix.mercado.security.UserPrincipal;
+import com.netflix.mercado.service.ModeracaoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.logging.Logger;
+
+@RestController
+@RequestMapping("/api/v1/moderacao/comentarios")
+@RequiredArgsConstructor
+@Transactional
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearer-jwt")
+@Tag(name = "Moderação", description = "Fila de moderação de comentários")
+public class ModeracaoController {
+
+    private static final Logger log = Logger.getLogger(ModeracaoController.class.getName());
+
+    private final ModeracaoService moderacaoService;
+
+    /**
+     * Reserva os próximos comentários da fila para o moderador
+     */
+    @PostMapping("/reservas")
+    @Operation(
+        summary = "Reservar comentários",
+        description = "Reserva os próximos comentários da fila, por prioridade, para o moderador autenticado. " +
+                      "Cada comentário fica com um único moderador até a reserva vencer"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Comentários reservados",
+            content = @Content(schema = @Schema(implementation = ReservaModeracaoResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Quantidade inválida")
+    })
+    public ResponseEntity<ReservaModeracaoResponse> reservar(
+            @Parameter(description = "Quantidade de comentários (1 a 100)")
+            @RequestParam(defaultValue = "20") int quantidade) {
+        try {
+            return ResponseEntity.ok(moderacaoService.reservar(getCurrentUser(), quantidade));
+        } catch (Exception e) {
+            log.severe("Erro ao reservar comentários: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Devolve à fila as reservas do moderador
+     */
+    @DeleteMapping("/reservas")
+    @Operation(
+        summary = "Liberar reservas",
+        description = "Devolve à fila os comentários ainda reservados pelo moderador autenticado"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Reservas liberadas")
+    })
+    public ResponseEntity<Void> liberar() {
+        try {
+            moderacaoService.liberar(getCurrentUser());
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.severe("Erro ao liberar reservas: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Aprova comentários em lote
+     */
+    @PostMapping("/aprovacoes")
+    @Operation(
+        summary = "Aprovar em lote",
+        description = "Aprova até 500 comentários pendentes; os reservados por outro moderador ou já moderados são ignorados"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Decisão aplicada",
+            content = @Content(schema = @Schema(implementation = DecisaoModeracaoResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Lista vazia ou acima do limite")
+    })
+    public ResponseEntity<DecisaoModeracaoResponse> aprovar(@Valid @RequestBody DecisaoModeracaoRequest request) {
+        try {
+            return ResponseEntity.ok(moderacaoService.aprovar(request.getIds(), getCurrentUser()));
+        } catch (Exception e) {
+            log.severe("Erro ao aprovar comentários: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Rejeita comentários em lote
+     */
+    @PostMapping("/rejeicoes")
+    @Operation(
+        summary = "Rejeitar em lote",
+        description = "Rejeita até 500 comentários pendentes com o mesmo motivo; os reservados por outro moderador ou já moderados são ignorados"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Decisão aplicada",
+            content = @Content(schema = @Schema(implementation = DecisaoModeracaoResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Lista vazia ou acima do limite")
+    })
+    public ResponseEntity<DecisaoModeracaoResponse> rejeitar(@Valid @RequestBody DecisaoModeracaoRequest request) {
+        try {
+            return ResponseEntity.ok(moderacaoService.rejeitar(request.getIds(), request.getMotivo(), getCurrentUser()));
+        } catch (Exception e) {
+            log.severe("Erro ao rejeitar comentários: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Métricas da fila de moderação
+     */
+    @GetMapping("/fila")
+    @Operation(
+        summary = "Métricas da fila",
+        description = "Retorna pendentes, reservados, denunciados e a idade do pendente mais antigo"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Métricas retornadas",
+            content = @Content(schema = @Schema(implementation = FilaModeracaoResponse.class))
+        )
+    })
+    public ResponseEntity<FilaModeracaoResponse> metricas() {
+        try {
+            return ResponseEntity.ok(moderacaoService.metricas());
+        } catch (Exception e) {
+            log.severe("Erro ao obter métricas da fila de moderação: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtém o usuário autenticado do contexto de segurança
+     */
+    private User getCurrentUser() {
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        return principal.getUser();
+    }
+}
@@ -1,5 +1,6 @@
 package com.netflix.mercado.controller;
 
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.dto.notificacao.NotificacaoResponse;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.security.UserPrincipal;
@@ -75,6 +76,42 @@ public class NotificacaoController {
         }
     }
 
+    /**
+     * Lista notificações do usuário autenticado por cursor (rolagem infinita)
+     */
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearer-jwt")
+    @Operation(
+        summary = "Rolar notificações",
+        description = "Retorna as notificações do usuário autenticado das mais recentes para as mais antigas, paginadas por cursor, sem contagem total"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Notificações retornadas com sucesso",
+            content = @Content(schema = @Schema(implementation = PageResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    public ResponseEntity<PageResponse<NotificacaoResponse>> scrollNotificacoes(
+            @Parameter(description = "Cursor retornado em proximoCursor; omitir na primeira página")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Tamanho da página")
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            User user = getCurrentUser();
+            log.info("Rolando notificações do usuário: " + user.getId());
+            PageResponse<NotificacaoResponse> response = notificacaoService
+                    .listNotificacoesCursor(user, after, size);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.severe("Erro ao rolar notificações: " + e.getMessage());
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
     /**
      * Conta notificações não lidas
      */
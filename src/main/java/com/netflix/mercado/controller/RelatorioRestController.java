@@ -5,6 +5,7 @@ import com.netflix.mercado.dto.relatorio.RelatorioMercadoResponse;
 import com.netflix.mercado.dto.relatorio.RankingMercadoResponse;
 import com.netflix.mercado.dto.relatorio.MercadoPoucasAvaliacoesResponse;
 import com.netflix.mercado.dto.relatorio.RelatorioComentariosResponse;
+import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.service.RelatorioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -109,14 +110,14 @@ public class RelatorioRestController {
     }
 
     /**
-     * Ranking de mercados por avaliação média
+     * Ranking de mercados por média bayesiana das avaliações, global, por estado ou por cidade
      */
     @GetMapping("/ranking")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SELLER') or hasRole('USER')")
     @SecurityRequirement(name = "bearer-jwt")
     @Operation(
         summary = "Ranking de mercados",
-        description = "Retorna top N mercados ordenados por avaliação média"
+        description = "Retorna top N mercados ordenados pela média bayesiana das avaliações, que pondera a quantidade de avaliações; opcionalmente por estado ou cidade"
     )
     @ApiResponses({
         @ApiResponse(
@@ -124,20 +125,30 @@ public class RelatorioRestController {
             description = "Ranking gerado com sucesso",
             content = @Content(schema = @Schema(implementation = RankingMercadoResponse.class))
         ),
+        @ApiResponse(responseCode = "400", description = "Cidade informada sem estado"),
         @ApiResponse(responseCode = "401", description = "Não autenticado"),
         @ApiResponse(responseCode = "500", description = "Erro ao gerar ranking")
     })
     public ResponseEntity<List<RankingMercadoResponse>> ranking(
             @Parameter(description = "Limite de mercados no ranking (padrão: 20)")
-            @RequestParam(defaultValue = "20") int limite) {
+            @RequestParam(defaultValue = "20") int limite,
+            @Parameter(description = "UF para ranking estadual (opcional)")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Cidade para ranking municipal (opcional; exige estado)")
+            @RequestParam(required = false) String cidade) {
         try {
             log.info("Gerando ranking dos top " + limite + " mercados");
             
-            List<RankingMercadoResponse> ranking = relatorioService.gerarRankingMercados(limite);
+            List<RankingMercadoResponse> ranking = estado == null && cidade == null
+                    ? relatorioService.gerarRankingMercados(limite)
+                    : relatorioService.gerarRankingMercados(limite, estado, cidade);
             
             log.info("Ranking gerado: " + ranking.size() + " mercados");
             return ResponseEntity.ok(ranking);
             
+        } catch (ValidationException e) {
+            log.warning("Parâmetros de ranking inválidos: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.severe("Erro ao gerar ranking: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -0,0 +1,50 @@
+package com.netflix.mercado.dto.avaliacao;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resumo do autor de uma avaliação ou comentário")
+public class AutorResumoResponse {
+
+    @Schema(description = "ID do usuário", example = "7")
+    private Long id;
+
+    @Schema(description = "Nome do usuário", example = "João Silva")
+    private String nome;
+
+    @Schema(description = "URL do avatar; ausente se o usuário não tiver")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String avatarUrl;
+    public AutorResumoResponse() {
+    }
+
+    public AutorResumoResponse(Long id, String nome, String avatarUrl) {
+        this.id = id;
+        this.nome = nome;
+        this.avatarUrl = avatarUrl;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return this.nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public String getAvatarUrl() {
+        return this.avatarUrl;
+    }
+
+    public void setAvatarUrl(String avatarUrl) {
+        this.avatarUrl = avatarUrl;
+    }
+}
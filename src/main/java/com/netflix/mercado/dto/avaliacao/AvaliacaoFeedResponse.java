@@ -0,0 +1,62 @@
+package com.netflix.mercado.dto.avaliacao;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Avaliação do feed com autor, total de comentários e comentários em destaque")
+public class AvaliacaoFeedResponse {
+
+    @Schema(description = "Dados da avaliação")
+    private AvaliacaoResponse avaliacao;
+
+    @Schema(description = "Autor da avaliação")
+    private AutorResumoResponse autor;
+
+    @Schema(description = "Total de comentários ativos, incluindo respostas", example = "14")
+    private Long totalComentarios;
+
+    @Schema(description = "Até dois comentários de primeiro nível, pelos mais destacados")
+    private List<RespostaResumoResponse> respostasEmDestaque;
+    public AvaliacaoFeedResponse() {
+    }
+
+    public AvaliacaoFeedResponse(AvaliacaoResponse avaliacao, AutorResumoResponse autor, Long totalComentarios, List<RespostaResumoResponse> respostasEmDestaque) {
+        this.avaliacao = avaliacao;
+        this.autor = autor;
+        this.totalComentarios = totalComentarios;
+        this.respostasEmDestaque = respostasEmDestaque;
+    }
+
+    public AvaliacaoResponse getAvaliacao() {
+        return this.avaliacao;
+    }
+
+    public void setAvaliacao(AvaliacaoResponse avaliacao) {
+        this.avaliacao = avaliacao;
+    }
+
+    public AutorResumoResponse getAutor() {
+        return this.autor;
+    }
+
+    public void setAutor(AutorResumoResponse autor) {
+        this.autor = autor;
+    }
+
+    public Long getTotalComentarios() {
+        return this.totalComentarios;
+    }
+
+    public void setTotalComentarios(Long totalComentarios) {
+        this.totalComentarios = totalComentarios;
+    }
+
+    public List<RespostaResumoResponse> getRespostasEmDestaque() {
+        return this.respostasEmDestaque;
+    }
+
+    public void setRespostasEmDestaque(List<RespostaResumoResponse> respostasEmDestaque) {
+        this.respostasEmDestaque = respostasEmDestaque;
+    }
+}
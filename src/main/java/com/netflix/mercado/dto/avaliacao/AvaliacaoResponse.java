@@ -1,5 +1,6 @@
 package com.netflix.mercado.dto.avaliacao;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.LocalDateTime;
@@ -40,6 +41,10 @@ public class AvaliacaoResponse {
     @Schema(description = "Data de atualização")
     @JsonProperty("updatedAt")
     private LocalDateTime updatedAt;
+
+    @Schema(description = "Voto do usuário autenticado (UTIL ou INUTIL); ausente sem voto ou sem autenticação", example = "UTIL")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String votoUsuario;
     public AvaliacaoResponse() {
     }
 
@@ -136,6 +141,14 @@ public class AvaliacaoResponse {
         this.updatedAt = updatedAt;
     }
 
+    public String getVotoUsuario() {
+        return this.votoUsuario;
+    }
+
+    public void setVotoUsuario(String votoUsuario) {
+        this.votoUsuario = votoUsuario;
+    }
+
     /**
      * Método factory para criar AvaliacaoResponse a partir de Avaliacao
      */
@@ -0,0 +1,51 @@
+package com.netflix.mercado.dto.avaliacao;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de uma importação de avaliações em lote")
+public class ImportacaoAvaliacaoResponse {
+
+    @Schema(description = "Linhas de dados lidas (sem cabeçalho e linhas vazias)", example = "100000")
+    private Long totalLinhas;
+
+    @Schema(description = "Avaliações inseridas", example = "98500")
+    private Long importadas;
+
+    @Schema(description = "Linhas ignoradas por já existir avaliação do usuário para o mercado", example = "1200")
+    private Long duplicadas;
+
+    @Schema(description = "Linhas rejeitadas por erro", example = "300")
+    private Long comErro;
+
+    @Schema(description = "Mercados com agregados recalculados", example = "850")
+    private Integer mercadosAtualizados;
+
+    @Schema(description = "Duração da importação em milissegundos", example = "2150")
+    private Long duracaoMs;
+
+    @Schema(description = "Erros por linha (limitados às primeiras ocorrências)")
+    private List<ErroLinha> erros;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(description = "Erro de uma linha da importação")
+    public static class ErroLinha {
+
+        @Schema(description = "Número da linha no arquivo (1 = primeira linha)", example = "42")
+        private Long linha;
+
+        @Schema(description = "Motivo da rejeição", example = "Estrelas deve estar entre 1 e 5")
+        private String mensagem;
+    }
+}
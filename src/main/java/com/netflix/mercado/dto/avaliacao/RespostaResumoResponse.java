@@ -0,0 +1,76 @@
+package com.netflix.mercado.dto.avaliacao;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Prévia de um comentário em uma avaliação")
+public class RespostaResumoResponse {
+
+    @Schema(description = "ID do comentário", example = "31")
+    private Long id;
+
+    @Schema(description = "Conteúdo do comentário", example = "Concordo, o hortifrúti é ótimo")
+    private String conteudo;
+
+    @Schema(description = "Total de curtidas", example = "5")
+    private Long curtidas;
+
+    @Schema(description = "Data de criação")
+    @JsonProperty("createdAt")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Autor do comentário")
+    private AutorResumoResponse autor;
+    public RespostaResumoResponse() {
+    }
+
+    public RespostaResumoResponse(Long id, String conteudo, Long curtidas, LocalDateTime createdAt, AutorResumoResponse autor) {
+        this.id = id;
+        this.conteudo = conteudo;
+        this.curtidas = curtidas;
+        this.createdAt = createdAt;
+        this.autor = autor;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getConteudo() {
+        return this.conteudo;
+    }
+
+    public void setConteudo(String conteudo) {
+        this.conteudo = conteudo;
+    }
+
+    public Long getCurtidas() {
+        return this.curtidas;
+    }
+
+    public void setCurtidas(Long curtidas) {
+        this.curtidas = curtidas;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public AutorResumoResponse getAutor() {
+        return this.autor;
+    }
+
+    public void setAutor(AutorResumoResponse autor) {
+        this.autor = autor;
+    }
+}
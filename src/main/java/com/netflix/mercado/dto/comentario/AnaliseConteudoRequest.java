@@ -0,0 +1,28 @@
+package com.netflix.mercado.dto.comentario;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Texto a analisar pelo filtro de conteúdo")
+public class AnaliseConteudoRequest {
+
+    @NotNull(message = "Texto é obrigatório")
+    @Size(max = 10000, message = "Texto deve ter no máximo 10000 caracteres")
+    @Schema(description = "Texto a analisar", example = "Ganhe dinheiro rápido aqui")
+    private String texto;
+    public AnaliseConteudoRequest() {
+    }
+
+    public AnaliseConteudoRequest(String texto) {
+        this.texto = texto;
+    }
+
+    public String getTexto() {
+        return this.texto;
+    }
+
+    public void setTexto(String texto) {
+        this.texto = texto;
+    }
+}
@@ -0,0 +1,91 @@
+package com.netflix.mercado.dto.comentario;
+
+import com.netflix.mercado.util.FiltroConteudo;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Schema(description = "Resultado da análise de um texto pelo filtro de conteúdo")
+public class AnaliseConteudoResponse {
+
+    @Schema(description = "Texto com escape HTML e sem espaços nas pontas")
+    private String textoEscapado;
+
+    @Schema(description = "Termos encontrados, com as posições no texto original")
+    private List<Ocorrencia> ocorrencias;
+    public AnaliseConteudoResponse() {
+    }
+
+    public AnaliseConteudoResponse(String textoEscapado, List<Ocorrencia> ocorrencias) {
+        this.textoEscapado = textoEscapado;
+        this.ocorrencias = ocorrencias;
+    }
+
+    public static AnaliseConteudoResponse from(FiltroConteudo.Resultado resultado) {
+        return new AnaliseConteudoResponse(resultado.getTextoEscapado(), resultado.getOcorrencias().stream()
+                .map(o -> new Ocorrencia(o.getTermo(), o.getInicio(), o.getFim()))
+                .collect(Collectors.toList()));
+    }
+
+    public String getTextoEscapado() {
+        return this.textoEscapado;
+    }
+
+    public void setTextoEscapado(String textoEscapado) {
+        this.textoEscapado = textoEscapado;
+    }
+
+    public List<Ocorrencia> getOcorrencias() {
+        return this.ocorrencias;
+    }
+
+    public void setOcorrencias(List<Ocorrencia> ocorrencias) {
+        this.ocorrencias = ocorrencias;
+    }
+
+    @Schema(description = "Ocorrência de um termo bloqueado")
+    public static class Ocorrencia {
+
+        @Schema(description = "Termo como cadastrado", example = "ganhe dinheiro rápido")
+        private String termo;
+
+        @Schema(description = "Posição inicial (inclusiva) no texto original", example = "0")
+        private Integer inicio;
+
+        @Schema(description = "Posição final (exclusiva) no texto original", example = "21")
+        private Integer fim;
+        public Ocorrencia() {
+        }
+
+        public Ocorrencia(String termo, Integer inicio, Integer fim) {
+            this.termo = termo;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        public String getTermo() {
+            return this.termo;
+        }
+
+        public void setTermo(String termo) {
+            this.termo = termo;
+        }
+
+        public Integer getInicio() {
+            return this.inicio;
+        }
+
+        public void setInicio(Integer inicio) {
+            this.inicio = inicio;
+        }
+
+        public Integer getFim() {
+            return this.fim;
+        }
+
+        public void setFim(Integer fim) {
+            this.fim = fim;
+        }
+    }
+}
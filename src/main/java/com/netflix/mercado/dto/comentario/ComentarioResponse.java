@@ -1,5 +1,6 @@
 package com.netflix.mercado.dto.comentario;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.netflix.mercado.entity.Comentario;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -28,6 +29,9 @@ public class ComentarioResponse {
     @JsonProperty("comentarioPaiId")
     private Long comentarioPaiId;
 
+    @Schema(description = "Nível na discussão (0 = comentário de primeiro nível)", example = "1")
+    private Integer profundidade;
+
     @Schema(description = "Data de criação")
     @JsonProperty("createdAt")
     private LocalDateTime createdAt;
@@ -35,6 +39,10 @@ public class ComentarioResponse {
     @Schema(description = "Data de atualização")
     @JsonProperty("updatedAt")
     private LocalDateTime updatedAt;
+
+    @Schema(description = "Se o usuário autenticado curtiu o comentário; ausente sem autenticação", example = "true")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean curtidoPeloUsuario;
     public ComentarioResponse() {
     }
 
@@ -97,6 +105,14 @@ public class ComentarioResponse {
         this.comentarioPaiId = comentarioPaiId;
     }
 
+    public Integer getProfundidade() {
+        return this.profundidade;
+    }
+
+    public void setProfundidade(Integer profundidade) {
+        this.profundidade = profundidade;
+    }
+
     public LocalDateTime getCreatedAt() {
         return this.createdAt;
     }
@@ -113,6 +129,14 @@ public class ComentarioResponse {
         this.updatedAt = updatedAt;
     }
 
+    public Boolean getCurtidoPeloUsuario() {
+        return this.curtidoPeloUsuario;
+    }
+
+    public void setCurtidoPeloUsuario(Boolean curtidoPeloUsuario) {
+        this.curtidoPeloUsuario = curtidoPeloUsuario;
+    }
+
     // Método estático para converter Entity em DTO
     public static ComentarioResponse from(Comentario comentario) {
         if (comentario == null) {
@@ -126,6 +150,7 @@ public class ComentarioResponse {
         response.setUsuarioUsername(comentario.getUser() != null ? comentario.getUser().getEmail() : null);
         response.setCurtidas(comentario.getCurtidas() != null ? comentario.getCurtidas().intValue() : 0);
         response.setComentarioPaiId(comentario.getComentarioPai() != null ? comentario.getComentarioPai().getId() : null);
+        response.setProfundidade(comentario.getProfundidade());
         response.setCreatedAt(comentario.getCreatedAt());
         response.setUpdatedAt(comentario.getUpdatedAt());
         return response;
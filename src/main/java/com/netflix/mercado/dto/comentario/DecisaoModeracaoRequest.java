@@ -0,0 +1,43 @@
+package com.netflix.mercado.dto.comentario;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Requisição para aprovar ou rejeitar comentários em lote")
+public class DecisaoModeracaoRequest {
+
+    @NotEmpty(message = "Informe ao menos um comentário")
+    @Size(max = 500, message = "No máximo 500 comentários por decisão")
+    @Schema(description = "IDs dos comentários", example = "[10, 11, 12]")
+    private List<Long> ids;
+
+    @Size(max = 500, message = "Motivo deve ter no máximo 500 caracteres")
+    @Schema(description = "Motivo da rejeição; ignorado na aprovação", example = "Conteúdo ofensivo")
+    private String motivo;
+    public DecisaoModeracaoRequest() {
+    }
+
+    public DecisaoModeracaoRequest(List<Long> ids, String motivo) {
+        this.ids = ids;
+        this.motivo = motivo;
+    }
+
+    public List<Long> getIds() {
+        return this.ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getMotivo() {
+        return this.motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+}
@@ -0,0 +1,50 @@
+package com.netflix.mercado.dto.comentario;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Resultado de uma decisão de moderação em lote")
+public class DecisaoModeracaoResponse {
+
+    @Schema(description = "Quantidade de IDs recebidos", example = "3")
+    private Integer solicitados;
+
+    @Schema(description = "IDs moderados nesta decisão")
+    private List<Long> aplicados;
+
+    @Schema(description = "IDs já moderados, inexistentes ou reservados por outro moderador")
+    private List<Long> ignorados;
+    public DecisaoModeracaoResponse() {
+    }
+
+    public DecisaoModeracaoResponse(Integer solicitados, List<Long> aplicados, List<Long> ignorados) {
+        this.solicitados = solicitados;
+        this.aplicados = aplicados;
+        this.ignorados = ignorados;
+    }
+
+    public Integer getSolicitados() {
+        return this.solicitados;
+    }
+
+    public void setSolicitados(Integer solicitados) {
+        this.solicitados = solicitados;
+    }
+
+    public List<Long> getAplicados() {
+        return this.aplicados;
+    }
+
+    public void setAplicados(List<Long> aplicados) {
+        this.aplicados = aplicados;
+    }
+
+    public List<Long> getIgnorados() {
+        return this.ignorados;
+    }
+
+    public void setIgnorados(List<Long> ignorados) {
+        this.ignorados = ignorados;
+    }
+}
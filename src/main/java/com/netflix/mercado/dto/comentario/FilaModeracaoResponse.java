@@ -0,0 +1,86 @@
+package com.netflix.mercado.dto.comentario;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Métricas da fila de moderação")
+public class FilaModeracaoResponse {
+
+    @Schema(description = "Comentários aguardando moderação", example = "12000")
+    private Long pendentes;
+
+    @Schema(description = "Pendentes com reserva ativa", example = "300")
+    private Long reservados;
+
+    @Schema(description = "Pendentes livres para reserva", example = "11700")
+    private Long disponiveis;
+
+    @Schema(description = "Pendentes com ao menos uma denúncia", example = "42")
+    private Long comDenuncia;
+
+    @Schema(description = "Criação do pendente mais antigo")
+    private LocalDateTime maisAntigoEm;
+
+    @Schema(description = "Idade do pendente mais antigo, em segundos", example = "86400")
+    private Long idadeMaisAntigoSegundos;
+    public FilaModeracaoResponse() {
+    }
+
+    public FilaModeracaoResponse(Long pendentes, Long reservados, Long disponiveis, Long comDenuncia, LocalDateTime maisAntigoEm, Long idadeMaisAntigoSegundos) {
+        this.pendentes = pendentes;
+        this.reservados = reservados;
+        this.disponiveis = disponiveis;
+        this.comDenuncia = comDenuncia;
+        this.maisAntigoEm = maisAntigoEm;
+        this.idadeMaisAntigoSegundos = idadeMaisAntigoSegundos;
+    }
+
+    public Long getPendentes() {
+        return this.pendentes;
+    }
+
+    public void setPendentes(Long pendentes) {
+        this.pendentes = pendentes;
+    }
+
+    public Long getReservados() {
+        return this.reservados;
+    }
+
+    public void setReservados(Long reservados) {
+        this.reservados = reservados;
+    }
+
+    public Long getDisponiveis() {
+        return this.disponiveis;
+    }
+
+    public void setDisponiveis(Long disponiveis) {
+        this.disponiveis = disponiveis;
+    }
+
+    public Long getComDenuncia() {
+        return this.comDenuncia;
+    }
+
+    public void setComDenuncia(Long comDenuncia) {
+        this.comDenuncia = comDenuncia;
+    }
+
+    public LocalDateTime getMaisAntigoEm() {
+        return this.maisAntigoEm;
+    }
+
+    public void setMaisAntigoEm(LocalDateTime maisAntigoEm) {
+        this.maisAntigoEm = maisAntigoEm;
+    }
+
+    public Long getIdadeMaisAntigoSegundos() {
+        return this.idadeMaisAntigoSegundos;
+    }
+
+    public void setIdadeMaisAntigoSegundos(Long idadeMaisAntigoSegundos) {
+        this.idadeMaisAntigoSegundos = idadeMaisAntigoSegundos;
+    }
+}
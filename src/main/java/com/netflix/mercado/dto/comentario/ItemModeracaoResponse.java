@@ -0,0 +1,124 @@
+package com.netflix.mercado.dto.comentario;
+
+import com.netflix.mercado.entity.Comentario;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Comentário reservado para moderação")
+public class ItemModeracaoResponse {
+
+    @Schema(description = "ID do comentário", example = "1")
+    private Long id;
+
+    @Schema(description = "Conteúdo do comentário")
+    private String conteudo;
+
+    @Schema(description = "ID do autor", example = "7")
+    private Long usuarioId;
+
+    @Schema(description = "Email do autor", example = "joao.silva@example.com")
+    private String usuarioUsername;
+
+    @Schema(description = "ID da avaliação comentada", example = "3")
+    private Long avaliacaoId;
+
+    @Schema(description = "ID do comentário pai (para respostas)", example = "1")
+    private Long comentarioPaiId;
+
+    @Schema(description = "Denúncias recebidas", example = "2")
+    private Long denuncias;
+
+    @Schema(description = "Data de criação")
+    private LocalDateTime createdAt;
+    public ItemModeracaoResponse() {
+    }
+
+    public ItemModeracaoResponse(Long id, String conteudo, Long usuarioId, String usuarioUsername, Long avaliacaoId, Long comentarioPaiId, Long denuncias, LocalDateTime createdAt) {
+        this.id = id;
+        this.conteudo = conteudo;
+        this.usuarioId = usuarioId;
+        this.usuarioUsername = usuarioUsername;
+        this.avaliacaoId = avaliacaoId;
+        this.comentarioPaiId = comentarioPaiId;
+        this.denuncias = denuncias;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getConteudo() {
+        return this.conteudo;
+    }
+
+    public void setConteudo(String conteudo) {
+        this.conteudo = conteudo;
+    }
+
+    public Long getUsuarioId() {
+        return this.usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public String getUsuarioUsername() {
+        return this.usuarioUsername;
+    }
+
+    public void setUsuarioUsername(String usuarioUsername) {
+        this.usuarioUsername = usuarioUsername;
+    }
+
+    public Long getAvaliacaoId() {
+        return this.avaliacaoId;
+    }
+
+    public void setAvaliacaoId(Long avaliacaoId) {
+        this.avaliacaoId = avaliacaoId;
+    }
+
+    public Long getComentarioPaiId() {
+        return this.comentarioPaiId;
+    }
+
+    public void setComentarioPaiId(Long comentarioPaiId) {
+        this.comentarioPaiId = comentarioPaiId;
+    }
+
+    public Long getDenuncias() {
+        return this.denuncias;
+    }
+
+    public void setDenuncias(Long denuncias) {
+        this.denuncias = denuncias;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public static ItemModeracaoResponse from(Comentario comentario) {
+        return new ItemModeracaoResponse(
+                comentario.getId(),
+                comentario.getConteudo(),
+                comentario.getUser() != null ? comentario.getUser().getId() : null,
+                comentario.getUser() != null ? comentario.getUser().getEmail() : null,
+                comentario.getAvaliacao() != null ? comentario.getAvaliacao().getId() : null,
+                comentario.getComentarioPai() != null ? comentario.getComentarioPai().getId() : null,
+                comentario.getDenuncias(),
+                comentario.getCreatedAt());
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.netflix.mercado.dto.comentario;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(description = "Lote de comentários reservados para um moderador")
+public class ReservaModeracaoResponse {
+
+    @Schema(description = "Fim da reserva; depois disso os itens voltam para a fila")
+    private LocalDateTime reservadoAte;
+
+    @Schema(description = "Comentários reservados, em ordem de prioridade")
+    private List<ItemModeracaoResponse> itens;
+    public ReservaModeracaoResponse() {
+    }
+
+    public ReservaModeracaoResponse(LocalDateTime reservadoAte, List<ItemModeracaoResponse> itens) {
+        this.reservadoAte = reservadoAte;
+        this.itens = itens;
+    }
+
+    public LocalDateTime getReservadoAte() {
+        return this.reservadoAte;
+    }
+
+    public void setReservadoAte(LocalDateTime reservadoAte) {
+        this.reservadoAte = reservadoAte;
+    }
+
+    public List<ItemModeracaoResponse> getItens() {
+        return this.itens;
+    }
+
+    public void setItens(List<ItemModeracaoResponse> itens) {
+        this.itens = itens;
+    }
+}
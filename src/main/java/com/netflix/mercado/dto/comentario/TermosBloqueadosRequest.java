@@ -0,0 +1,31 @@
+package com.netflix.mercado.dto.comentario;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Requisição para incluir ou remover termos do filtro de conteúdo")
+public class TermosBloqueadosRequest {
+
+    @NotEmpty(message = "Informe ao menos um termo")
+    @Size(max = 5000, message = "No máximo 5000 termos por requisição")
+    @Schema(description = "Termos ou frases; maiúsculas, acentos e espaços repetidos são ignorados na comparação",
+            example = "[\"ganhe dinheiro rápido\", \"golpe\"]")
+    private List<String> termos;
+    public TermosBloqueadosRequest() {
+    }
+
+    public TermosBloqueadosRequest(List<String> termos) {
+        this.termos = termos;
+    }
+
+    public List<String> getTermos() {
+        return this.termos;
+    }
+
+    public void setTermos(List<String> termos) {
+        this.termos = termos;
+    }
+}
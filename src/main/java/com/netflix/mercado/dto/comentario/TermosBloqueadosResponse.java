@@ -0,0 +1,36 @@
+package com.netflix.mercado.dto.comentario;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de uma alteração no filtro de conteúdo")
+public class TermosBloqueadosResponse {
+
+    @Schema(description = "Quantidade de termos incluídos ou removidos", example = "2")
+    private Integer alterados;
+
+    @Schema(description = "Quantidade de termos cadastrados após a alteração", example = "4821")
+    private Integer totalTermos;
+    public TermosBloqueadosResponse() {
+    }
+
+    public TermosBloqueadosResponse(Integer alterados, Integer totalTermos) {
+        this.alterados = alterados;
+        this.totalTermos = totalTermos;
+    }
+
+    public Integer getAlterados() {
+        return this.alterados;
+    }
+
+    public void setAlterados(Integer alterados) {
+        this.alterados = alterados;
+    }
+
+    public Integer getTotalTermos() {
+        return this.totalTermos;
+    }
+
+    public void setTotalTermos(Integer totalTermos) {
+        this.totalTermos = totalTermos;
+    }
+}
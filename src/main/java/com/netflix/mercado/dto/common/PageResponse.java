@@ -1,7 +1,9 @@
 package com.netflix.mercado.dto.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.Slice;
 import java.util.List;
 
 @Schema(description = "Resposta paginada genérica")
@@ -12,14 +14,17 @@ public class PageResponse<T> {
 
     @Schema(description = "Número da página atual (0-indexed)", example = "0")
     @JsonProperty("paginaAtual")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Integer paginaAtual;
 
     @Schema(description = "Total de páginas", example = "5")
     @JsonProperty("totalPaginas")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Integer totalPaginas;
 
     @Schema(description = "Total de elementos", example = "100")
     @JsonProperty("totalElementos")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Long totalElementos;
 
     @Schema(description = "Quantidade de elementos nesta página", example = "20")
@@ -41,6 +46,11 @@ public class PageResponse<T> {
     @Schema(description = "Indica se está na última página", example = "false")
     @JsonProperty("ultimaPage")
     private Boolean ultimaPage;
+
+    @Schema(description = "Cursor opaco para a próxima página (paginação por cursor)", example = "MjAyNC0wMS0xNVQxMDowMHw0Mg")
+    @JsonProperty("proximoCursor")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String proximoCursor;
     public PageResponse() {
     }
 
@@ -56,6 +66,25 @@ public class PageResponse<T> {
         this.ultimaPage = ultimaPage;
     }
 
+    /**
+     * Página lida por cursor: não há total nem número de página, apenas o cursor da próxima.
+     *
+     * @param fatia fatia já convertida para o DTO
+     * @param proximoCursor cursor da próxima página, ou null na última
+     * @param temAnterior se a fatia foi lida a partir de um cursor
+     */
+    public static <T> PageResponse<T> deCursor(Slice<T> fatia, String proximoCursor, boolean temAnterior) {
+        PageResponse<T> response = new PageResponse<>();
+        response.setConteudo(fatia.getContent());
+        response.setQuantidadeElementos(fatia.getNumberOfElements());
+        response.setTemProxima(proximoCursor != null);
+        response.setTemAnterior(temAnterior);
+        response.setPrimeiraPage(!temAnterior);
+        response.setUltimaPage(proximoCursor == null);
+        response.setProximoCursor(proximoCursor);
+        return response;
+    }
+
     public List<T> getConteudo() {
         return this.conteudo;
     }
@@ -128,4 +157,12 @@ public class PageResponse<T> {
         this.ultimaPage = ultimaPage;
     }
 
+    public String getProximoCursor() {
+        return this.proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
 }
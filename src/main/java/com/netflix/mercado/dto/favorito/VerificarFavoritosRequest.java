@@ -0,0 +1,31 @@
+package com.netflix.mercado.dto.favorito;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Requisição para verificar de uma vez quais mercados são favoritos do usuário")
+public class VerificarFavoritosRequest {
+
+    @NotEmpty(message = "Informe ao menos um mercado")
+    @Size(max = 200, message = "No máximo 200 mercados por requisição")
+    @Schema(description = "IDs dos mercados, por exemplo os cartões de uma página", example = "[1, 2, 3]")
+    private List<@NotNull(message = "ID do mercado não pode ser nulo") Long> mercadoIds;
+    public VerificarFavoritosRequest() {
+    }
+
+    public VerificarFavoritosRequest(List<Long> mercadoIds) {
+        this.mercadoIds = mercadoIds;
+    }
+
+    public List<Long> getMercadoIds() {
+        return this.mercadoIds;
+    }
+
+    public void setMercadoIds(List<Long> mercadoIds) {
+        this.mercadoIds = mercadoIds;
+    }
+}
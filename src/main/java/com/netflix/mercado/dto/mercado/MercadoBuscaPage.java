@@ -0,0 +1,29 @@
+package com.netflix.mercado.dto.mercado;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * Página de resultados da busca de mercados com as contagens por filtro.
+ * Serializa como uma {@link Page} comum acrescida do campo {@code facetas}.
+ */
+@Schema(description = "Página de mercados com contagens por filtro")
+public class MercadoBuscaPage extends PageImpl<MercadoResponse> {
+
+    @Schema(description = "Contagens por filtro sobre todos os resultados da busca")
+    @JsonProperty("facetas")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final MercadoFacetasResponse facetas;
+
+    public MercadoBuscaPage(Page<MercadoResponse> pagina, MercadoFacetasResponse facetas) {
+        super(pagina.getContent(), pagina.getPageable(), pagina.getTotalElements());
+        this.facetas = facetas;
+    }
+
+    public MercadoFacetasResponse getFacetas() {
+        return this.facetas;
+    }
+}
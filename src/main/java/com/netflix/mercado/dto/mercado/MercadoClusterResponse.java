@@ -0,0 +1,78 @@
+package com.netflix.mercado.dto.mercado;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Agrupamento de mercados para exibição no mapa")
+public class MercadoClusterResponse {
+
+    @Schema(description = "Latitude do centróide", example = "-23.5505")
+    private Double latitude;
+
+    @Schema(description = "Longitude do centróide", example = "-46.6333")
+    private Double longitude;
+
+    @Schema(description = "Quantidade de mercados no agrupamento", example = "37")
+    @JsonProperty("quantidade")
+    private Integer quantidade;
+
+    @Schema(description = "Média das avaliações dos mercados avaliados do agrupamento (0-5)", example = "4.2")
+    @JsonProperty("avaliacaoMedia")
+    private Double avaliacaoMedia;
+
+    @Schema(description = "ID do mercado quando o agrupamento contém um único mercado", example = "1")
+    @JsonProperty("mercadoId")
+    private Long mercadoId;
+
+    public MercadoClusterResponse() {
+    }
+
+    public MercadoClusterResponse(Double latitude, Double longitude, Integer quantidade, Double avaliacaoMedia, Long mercadoId) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.quantidade = quantidade;
+        this.avaliacaoMedia = avaliacaoMedia;
+        this.mercadoId = mercadoId;
+    }
+
+    public Double getLatitude() {
+        return this.latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return this.longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Integer getQuantidade() {
+        return this.quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public Double getAvaliacaoMedia() {
+        return this.avaliacaoMedia;
+    }
+
+    public void setAvaliacaoMedia(Double avaliacaoMedia) {
+        this.avaliacaoMedia = avaliacaoMedia;
+    }
+
+    public Long getMercadoId() {
+        return this.mercadoId;
+    }
+
+    public void setMercadoId(Long mercadoId) {
+        this.mercadoId = mercadoId;
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.netflix.mercado.dto.mercado;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Contagens por filtro para os mercados que atendem à busca")
+public class MercadoFacetasResponse {
+
+    @Schema(description = "Quantidade de mercados por UF, da maior para a menor")
+    @JsonProperty("estados")
+    private List<Valor> estados;
+
+    @Schema(description = "Quantidade de mercados por cidade, da maior para a menor")
+    @JsonProperty("cidades")
+    private List<Valor> cidades;
+
+    @Schema(description = "Quantidade de mercados com avaliação média de pelo menos N estrelas (N de 1 a 5)")
+    @JsonProperty("avaliacaoMinima")
+    private List<Valor> avaliacaoMinima;
+
+    @Schema(description = "Quantidade de mercados abertos agora", example = "42")
+    @JsonProperty("abertosAgora")
+    private Integer abertosAgora;
+
+    @Schema(description = "Valor de um filtro e a quantidade de mercados com esse valor")
+    public static class Valor {
+
+        @Schema(description = "Valor do filtro", example = "SP")
+        @JsonProperty("valor")
+        private String valor;
+
+        @Schema(description = "UF da cidade (apenas na faceta de cidades)", example = "SP")
+        @JsonProperty("estado")
+        private String estado;
+
+        @Schema(description = "Quantidade de mercados", example = "1203")
+        @JsonProperty("quantidade")
+        private Integer quantidade;
+
+        public Valor() {
+        }
+
+        public Valor(String valor, String estado, Integer quantidade) {
+            this.valor = valor;
+            this.estado = estado;
+            this.quantidade = quantidade;
+        }
+
+        public String getValor() {
+            return this.valor;
+        }
+
+        public void setValor(String valor) {
+            this.valor = valor;
+        }
+
+        public String getEstado() {
+            return this.estado;
+        }
+
+        public void setEstado(String estado) {
+            this.estado = estado;
+        }
+
+        public Integer getQuantidade() {
+            return this.quantidade;
+        }
+
+        public void setQuantidade(Integer quantidade) {
+            this.quantidade = quantidade;
+        }
+    }
+
+    public MercadoFacetasResponse() {
+    }
+
+    public MercadoFacetasResponse(List<Valor> estados, List<Valor> cidades, List<Valor> avaliacaoMinima, Integer abertosAgora) {
+        this.estados = estados;
+        this.cidades = cidades;
+        this.avaliacaoMinima = avaliacaoMinima;
+        this.abertosAgora = abertosAgora;
+    }
+
+    public List<Valor> getEstados() {
+        return this.estados;
+    }
+
+    public void setEstados(List<Valor> estados) {
+        this.estados = estados;
+    }
+
+    public List<Valor> getCidades() {
+        return this.cidades;
+    }
+
+    public void setCidades(List<Valor> cidades) {
+        this.cidades = cidades;
+    }
+
+    public List<Valor> getAvaliacaoMinima() {
+        return this.avaliacaoMinima;
+    }
+
+    public void setAvaliacaoMinima(List<Valor> avaliacaoMinima) {
+        this.avaliacaoMinima = avaliacaoMinima;
+    }
+
+    public Integer getAbertosAgora() {
+        return this.abertosAgora;
+    }
+
+    public void setAbertosAgora(Integer abertosAgora) {
+        this.abertosAgora = abertosAgora;
+    }
+}
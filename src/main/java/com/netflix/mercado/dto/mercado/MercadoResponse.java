@@ -1,5 +1,6 @@
 package com.netflix.mercado.dto.mercado;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
@@ -56,6 +57,11 @@ public class MercadoResponse {
     @JsonProperty("totalAvaliacoes")
     private Integer totalAvaliacoes;
 
+    @Schema(description = "Quantas vezes o mercado foi favoritado; nos mercados mais populares pode " +
+            "ficar alguns segundos atrás das últimas alterações", example = "128")
+    @JsonProperty("totalFavoritos")
+    private Long totalFavoritos;
+
     @Schema(description = "Data de criação")
     @JsonProperty("createdAt")
     private LocalDateTime createdAt;
@@ -63,6 +69,15 @@ public class MercadoResponse {
     @Schema(description = "Data de atualização")
     @JsonProperty("updatedAt")
     private LocalDateTime updatedAt;
+
+    @Schema(description = "Distância até o ponto de busca em km (apenas em buscas por proximidade)", example = "1.25")
+    @JsonProperty("distanciaKm")
+    private Double distanciaKm;
+
+    @Schema(description = "Se o mercado é favorito do usuário autenticado; ausente sem autenticação", example = "true")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("favorito")
+    private Boolean favorito;
     public MercadoResponse() {
     }
 
@@ -206,6 +221,14 @@ public class MercadoResponse {
         this.totalAvaliacoes = totalAvaliacoes;
     }
 
+    public Long getTotalFavoritos() {
+        return this.totalFavoritos;
+    }
+
+    public void setTotalFavoritos(Long totalFavoritos) {
+        this.totalFavoritos = totalFavoritos;
+    }
+
     public LocalDateTime getCreatedAt() {
         return this.createdAt;
     }
@@ -222,4 +245,20 @@ public class MercadoResponse {
         this.updatedAt = updatedAt;
     }
 
+    public Double getDistanciaKm() {
+        return this.distanciaKm;
+    }
+
+    public void setDistanciaKm(Double distanciaKm) {
+        this.distanciaKm = distanciaKm;
+    }
+
+    public Boolean getFavorito() {
+        return this.favorito;
+    }
+
+    public void setFavorito(Boolean favorito) {
+        this.favorito = favorito;
+    }
+
 }
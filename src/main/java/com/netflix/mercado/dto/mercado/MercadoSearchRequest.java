@@ -1,5 +1,6 @@
 package com.netflix.mercado.dto.mercado;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -10,6 +11,10 @@ import java.math.BigDecimal;
 @Schema(description = "Requisição para buscar mercados com filtros")
 public class MercadoSearchRequest {
 
+    @Size(max = 200, message = "Texto de busca deve ter no máximo 200 caracteres")
+    @Schema(description = "Texto livre buscado em nome, descrição, bairro e cidade (sem diferenciar acentos)", example = "padaria sao paulo")
+    private String texto;
+
     @Size(min = 1, max = 100, message = "Nome deve ter entre 1 e 100 caracteres")
     @Schema(description = "Nome ou parte do nome do mercado (busca parcial)", example = "Mercado")
     private String nome;
@@ -35,6 +40,30 @@ public class MercadoSearchRequest {
     @Min(value = 1, message = "Tamanho deve ser no mínimo 1")
     @Schema(description = "Quantidade de resultados por página", example = "20")
     private Integer size;
+
+    @Schema(description = "Latitude de referência (obrigatória para ordenar por distância)", example = "-23.5505")
+    private Double latitude;
+
+    @Schema(description = "Longitude de referência (obrigatória para ordenar por distância)", example = "-46.6333")
+    private Double longitude;
+
+    @Schema(description = "Critério de ordenação", example = "AVALIACAO")
+    private Ordenacao ordenarPor;
+
+    @Schema(description = "Tolerar erros de digitação no nome (até duas letras trocadas por palavra)", example = "false")
+    private Boolean fuzzy;
+
+    /**
+     * Critérios de ordenação da busca
+     */
+    public enum Ordenacao {
+        RELEVANCIA,
+        AVALIACAO,
+        DISTANCIA,
+        NOME,
+        FAVORITOS
+    }
+
     public MercadoSearchRequest() {
     }
 
@@ -95,4 +124,52 @@ public class MercadoSearchRequest {
         this.size = size;
     }
 
+    public String getTexto() {
+        return this.texto;
+    }
+
+    public void setTexto(String texto) {
+        this.texto = texto;
+    }
+
+    public Double getLatitude() {
+        return this.latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return this.longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Ordenacao getOrdenarPor() {
+        return this.ordenarPor;
+    }
+
+    public void setOrdenarPor(Ordenacao ordenarPor) {
+        this.ordenarPor = ordenarPor;
+    }
+
+    public Boolean getFuzzy() {
+        return this.fuzzy;
+    }
+
+    public void setFuzzy(Boolean fuzzy) {
+        this.fuzzy = fuzzy;
+    }
+
+    /**
+     * Indica se o nome deve ser buscado de forma aproximada.
+     */
+    @JsonIgnore
+    public boolean isNomeAproximado() {
+        return Boolean.TRUE.equals(this.fuzzy) && this.nome != null && !this.nome.isBlank();
+    }
+
 }
@@ -0,0 +1,70 @@
+package com.netflix.mercado.dto.mercado;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Sugestão de autocompletar para a busca de mercados")
+public class SugestaoResponse {
+
+    @Schema(description = "Tipo da sugestão", example = "MERCADO")
+    @JsonProperty("tipo")
+    private Tipo tipo;
+
+    @Schema(description = "Texto sugerido", example = "Supermercado Central")
+    @JsonProperty("texto")
+    private String texto;
+
+    @Schema(description = "Complemento exibido junto ao texto (cidade e UF)", example = "São Paulo - SP")
+    @JsonProperty("detalhe")
+    private String detalhe;
+
+    @Schema(description = "ID do mercado quando a sugestão é um mercado", example = "1")
+    @JsonProperty("mercadoId")
+    private Long mercadoId;
+
+    public enum Tipo {
+        MERCADO, BAIRRO, CIDADE
+    }
+
+    public SugestaoResponse() {
+    }
+
+    public SugestaoResponse(Tipo tipo, String texto, String detalhe, Long mercadoId) {
+        this.tipo = tipo;
+        this.texto = texto;
+        this.detalhe = detalhe;
+        this.mercadoId = mercadoId;
+    }
+
+    public Tipo getTipo() {
+        return this.tipo;
+    }
+
+    public void setTipo(Tipo tipo) {
+        this.tipo = tipo;
+    }
+
+    public String getTexto() {
+        return this.texto;
+    }
+
+    public void setTexto(String texto) {
+        this.texto = texto;
+    }
+
+    public String getDetalhe() {
+        return this.detalhe;
+    }
+
+    public void setDetalhe(String detalhe) {
+        this.detalhe = detalhe;
+    }
+
+    public Long getMercadoId() {
+        return this.mercadoId;
+    }
+
+    public void setMercadoId(Long mercadoId) {
+        this.mercadoId = mercadoId;
+    }
+}
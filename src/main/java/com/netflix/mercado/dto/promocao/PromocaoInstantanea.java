@@ -0,0 +1,93 @@
+package com.netflix.mercado.dto.promocao;
+
+import com.netflix.mercado.entity.Promocao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Cópia imutável dos dados de uma promoção usados na validação e no cálculo do desconto,
+ * guardada no cache de códigos promocionais. Não inclui utilizacoesAtuais: o contador muda
+ * a cada uso e é lido sempre do banco.
+ */
+public final class PromocaoInstantanea {
+
+    private final Long id;
+    private final String codigo;
+    private final BigDecimal percentualDesconto;
+    private final BigDecimal valorDescontoMaximo;
+    private final BigDecimal valorMinimoCompra;
+    private final LocalDateTime dataInicio;
+    private final LocalDateTime dataValidade;
+    private final Long maxUtilizacoes;
+    private final boolean ativa;
+
+    private PromocaoInstantanea(Promocao promocao) {
+        this.id = promocao.getId();
+        this.codigo = promocao.getCodigo();
+        this.percentualDesconto = promocao.getPercentualDesconto();
+        this.valorDescontoMaximo = promocao.getValorDescontoMaximo();
+        this.valorMinimoCompra = promocao.getValorMinimoCompra();
+        this.dataInicio = promocao.getDataInicio();
+        this.dataValidade = promocao.getDataValidade();
+        this.maxUtilizacoes = promocao.getMaxUtilizacoes();
+        this.ativa = Boolean.TRUE.equals(promocao.getAtiva());
+    }
+
+    public static PromocaoInstantanea de(Promocao promocao) {
+        return new PromocaoInstantanea(promocao);
+    }
+
+    /**
+     * Desconto sobre o valor da compra, limitado ao desconto máximo; zero abaixo da compra
+     * mínima. Não verifica validade nem utilizações.
+     */
+    public BigDecimal calcularDesconto(BigDecimal valorCompra) {
+        if (valorMinimoCompra != null && valorCompra.compareTo(valorMinimoCompra) < 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal desconto = valorCompra.multiply(percentualDesconto)
+                .divide(new BigDecimal(100), 2, RoundingMode.HALF_UP);
+        if (valorDescontoMaximo != null && desconto.compareTo(valorDescontoMaximo) > 0) {
+            desconto = valorDescontoMaximo;
+        }
+        return desconto;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public String getCodigo() {
+        return this.codigo;
+    }
+
+    public BigDecimal getPercentualDesconto() {
+        return this.percentualDesconto;
+    }
+
+    public BigDecimal getValorDescontoMaximo() {
+        return this.valorDescontoMaximo;
+    }
+
+    public BigDecimal getValorMinimoCompra() {
+        return this.valorMinimoCompra;
+    }
+
+    public LocalDateTime getDataInicio() {
+        return this.dataInicio;
+    }
+
+    public LocalDateTime getDataValidade() {
+        return this.dataValidade;
+    }
+
+    public Long getMaxUtilizacoes() {
+        return this.maxUtilizacoes;
+    }
+
+    public boolean isAtiva() {
+        return this.ativa;
+    }
+}
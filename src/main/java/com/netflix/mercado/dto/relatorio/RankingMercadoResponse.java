@@ -17,4 +17,6 @@ public class RankingMercadoResponse {
     private String estado;
     private BigDecimal avaliacaoMedia;
     private Long totalAvaliacoes;
+    /** Média bayesiana usada na ordenação */
+    private BigDecimal pontuacaoRanking;
 }
@@ -14,16 +14,19 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@DynamicUpdate // só colunas alteradas: os contadores de votos são escritos por UPDATE atômico
 @Table(name = "avaliacoes", indexes = {
         @Index(name = "idx_avaliacao_mercado", columnList = "mercado_id"),
         @Index(name = "idx_avaliacao_usuario", columnList = "usuario_id"),
         @Index(name = "idx_avaliacao_estrelas", columnList = "estrelas"),
-        @Index(name = "idx_avaliacao_criada_em", columnList = "created_at")
+        @Index(name = "idx_avaliacao_criada_em", columnList = "created_at"),
+        @Index(name = "idx_avaliacao_mercado_criada_id", columnList = "mercado_id,created_at,id")
 })
 public class Avaliacao extends BaseEntity {
 
@@ -50,10 +53,11 @@ public class Avaliacao extends BaseEntity {
     @Column(name = "verificado", nullable = false)
     private Boolean verificado = false;
 
-    @Column(name = "uteis", nullable = false)
+    // Escritos só pelo ContadorVotosService; um save da avaliação não devolve o valor lido
+    @Column(name = "uteis", nullable = false, updatable = false)
     private Long uteis = 0L;
 
-    @Column(name = "inutils", nullable = false)
+    @Column(name = "inutils", nullable = false, updatable = false)
     private Long inutils = 0L;
 
     @OneToMany(mappedBy = "avaliacao", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
@@ -12,19 +12,51 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@DynamicUpdate // só colunas alteradas: contadores, pontuação e reservas também são escritos por UPDATE atômico
 @Table(name = "comentarios", indexes = {
         @Index(name = "idx_comentario_avaliacao", columnList = "avaliacao_id"),
         @Index(name = "idx_comentario_usuario", columnList = "usuario_id"),
         @Index(name = "idx_comentario_pai", columnList = "comentario_pai_id"),
-        @Index(name = "idx_comentario_criada_em", columnList = "created_at")
+        @Index(name = "idx_comentario_criada_em", columnList = "created_at"),
+        @Index(name = "idx_comentario_avaliacao_pai_criada_id", columnList = "avaliacao_id,comentario_pai_id,created_at,id"),
+        @Index(name = "idx_comentario_avaliacao_caminho", columnList = "avaliacao_id,caminho"),
+        @Index(name = "idx_comentario_fila_moderacao", columnList = "moderado,moderado_por_id,prazo_moderacao,id"),
+        @Index(name = "idx_comentario_reservado_por", columnList = "reservado_por_id"),
+        @Index(name = "idx_comentario_avaliacao_pai_destaque_id", columnList = "avaliacao_id,comentario_pai_id,pontuacao_destaque,id")
 })
 public class Comentario extends BaseEntity {
 
+    /** Profundidade máxima de uma resposta (comentários de primeiro nível têm profundidade 0). */
+    public static final int PROFUNDIDADE_MAXIMA = 30;
+
+    /** Dígitos de cada segmento do caminho; o ID é completado com zeros à esquerda. */
+    public static final int LARGURA_SEGMENTO = 12;
+
+    /**
+     * Meia-vida do destaque, em segundos: a cada 8 horas de diferença, o comentário mais
+     * antigo precisa do dobro de (curtidas + 1) para empatar com o mais novo.
+     */
+    public static final long MEIA_VIDA_DESTAQUE = 8 * 3600L;
+
+    /** Origem do componente de tempo do destaque (2024-01-01T00:00:00Z), para manter os valores pequenos. */
+    public static final long EPOCA_DESTAQUE = 1704067200L;
+
+    /**
+     * Expressão SQL da pontuação de destaque, igual a {@link #pontuacaoDestaque(long, LocalDateTime)}.
+     * LN(2) vai como literal porque nem todo banco tem LOG na base 2.
+     */
+    public static final String SQL_PONTUACAO_DESTAQUE =
+            "LN(GREATEST(curtidas, 0) + 1) / 0.6931471805599453 + " +
+            "(CAST(EXTRACT(EPOCH FROM created_at) AS DOUBLE PRECISION) - " + EPOCA_DESTAQUE + ") / " + MEIA_VIDA_DESTAQUE;
+
     @NotBlank(message = "O conteúdo do comentário é obrigatório")
     @Size(min = 5, max = 1000, message = "O comentário deve ter entre 5 e 1000 caracteres")
     @Column(name = "conteudo", nullable = false, columnDefinition = "TEXT")
@@ -45,7 +77,8 @@ public class Comentario extends BaseEntity {
     @OneToMany(mappedBy = "comentarioPai", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Comentario> respostas = new HashSet<>();
 
-    @Column(name = "curtidas", nullable = false)
+    // Curtidas, denúncias e pontuação são escritas só por UPDATE atômico; um save não devolve o valor lido
+    @Column(name = "curtidas", nullable = false, updatable = false)
     private Long curtidas = 0L;
 
     @Column(name = "moderado", nullable = false)
@@ -58,6 +91,40 @@ public class Comentario extends BaseEntity {
     @Column(name = "motivo_rejeicao", length = 500)
     private String motivoRejeicao;
 
+    // Caminho materializado: IDs dos ancestrais e do próprio comentário, com largura fixa,
+    // cada um seguido de '/'. Ordenar por caminho devolve a discussão em profundidade, com
+    // as respostas de um mesmo pai em ordem de criação; uma subárvore é um prefixo.
+    @Column(name = "caminho", length = 1300)
+    private String caminho;
+
+    @Column(name = "profundidade")
+    private Integer profundidade;
+
+    @Column(name = "denuncias", nullable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    private Long denuncias = 0L;
+
+    // Chave de ordenação da fila de moderação, em segundos desde a época (UTC): a criação,
+    // antecipada pelo histórico de rejeições do autor e por cada denúncia recebida
+    @Column(name = "prazo_moderacao")
+    private Long prazoModeracao;
+
+    @Column(name = "reservado_por_id")
+    private Long reservadoPorId;
+
+    @Column(name = "reservado_ate")
+    private LocalDateTime reservadoAte;
+
+    // Identifica a última reserva ou decisão em lote que alterou a linha
+    @Column(name = "reserva_token", length = 36)
+    private String reservaToken;
+
+    // Destaque com decaimento no tempo: log2(curtidas + 1) + (criação - época) / meia-vida.
+    // Equivale a (curtidas + 1) dividido por 2 a cada meia-vida de idade, mas a ordem entre
+    // dois comentários não muda com o passar do tempo, então a pontuação pode ficar em um
+    // índice e só precisa ser recalculada quando as curtidas mudam.
+    @Column(name = "pontuacao_destaque", updatable = false)
+    private Double pontuacaoDestaque;
+
     public void adicionarResposta(Comentario resposta) {
         respostas.add(resposta);
         resposta.comentarioPai = this;
@@ -71,6 +138,56 @@ public class Comentario extends BaseEntity {
     public boolean ehResposta() {
         return comentarioPai != null;
     }
+
+    /**
+     * Calcula caminho e profundidade a partir do pai. Exige o ID já gerado.
+     */
+    public void posicionar() {
+        if (getId() == null) {
+            throw new IllegalStateException("Comentário precisa estar salvo para ter caminho");
+        }
+        if (comentarioPai == null) {
+            caminho = segmento(getId());
+            profundidade = 0;
+            return;
+        }
+        if (comentarioPai.getCaminho() == null) {
+            throw new IllegalStateException("Caminho do comentário pai ainda não calculado. ID: " + comentarioPai.getId());
+        }
+        caminho = comentarioPai.getCaminho() + segmento(getId());
+        profundidade = comentarioPai.getProfundidade() + 1;
+    }
+
+    /**
+     * @param outro comentário a comparar
+     * @return true se este comentário é o próprio outro ou um de seus ancestrais
+     */
+    public boolean ehAncestralDe(Comentario outro) {
+        return caminho != null && outro.getCaminho() != null && outro.getCaminho().startsWith(caminho);
+    }
+
+    /**
+     * Recalcula a pontuação de destaque com as curtidas atuais.
+     */
+    public void pontuarDestaque() {
+        LocalDateTime criadoEm = getCreatedAt() != null ? getCreatedAt() : LocalDateTime.now();
+        pontuacaoDestaque = pontuacaoDestaque(curtidas != null ? curtidas : 0L, criadoEm);
+    }
+
+    /**
+     * @param curtidas total de curtidas
+     * @param criadoEm data de criação (UTC)
+     * @return pontuação de destaque
+     */
+    public static double pontuacaoDestaque(long curtidas, LocalDateTime criadoEm) {
+        double segundos = criadoEm.toEpochSecond(ZoneOffset.UTC) - EPOCA_DESTAQUE + criadoEm.getNano() / 1e9;
+        return Math.log(Math.max(curtidas, 0) + 1) / Math.log(2) + segundos / MEIA_VIDA_DESTAQUE;
+    }
+
+    public static String segmento(Long id) {
+        String digitos = Long.toString(id);
+        return "0".repeat(Math.max(0, LARGURA_SEGMENTO - digitos.length())) + digitos + "/";
+    }
     public Comentario() {
     }
 
@@ -156,4 +273,68 @@ public class Comentario extends BaseEntity {
         this.motivoRejeicao = motivoRejeicao;
     }
 
+    public String getCaminho() {
+        return this.caminho;
+    }
+
+    public void setCaminho(String caminho) {
+        this.caminho = caminho;
+    }
+
+    public Long getDenuncias() {
+        return this.denuncias;
+    }
+
+    public void setDenuncias(Long denuncias) {
+        this.denuncias = denuncias;
+    }
+
+    public Long getPrazoModeracao() {
+        return this.prazoModeracao;
+    }
+
+    public void setPrazoModeracao(Long prazoModeracao) {
+        this.prazoModeracao = prazoModeracao;
+    }
+
+    public Long getReservadoPorId() {
+        return this.reservadoPorId;
+    }
+
+    public void setReservadoPorId(Long reservadoPorId) {
+        this.reservadoPorId = reservadoPorId;
+    }
+
+    public LocalDateTime getReservadoAte() {
+        return this.reservadoAte;
+    }
+
+    public void setReservadoAte(LocalDateTime reservadoAte) {
+        this.reservadoAte = reservadoAte;
+    }
+
+    public String getReservaToken() {
+        return this.reservaToken;
+    }
+
+    public void setReservaToken(String reservaToken) {
+        this.reservaToken = reservaToken;
+    }
+
+    public Double getPontuacaoDestaque() {
+        return this.pontuacaoDestaque;
+    }
+
+    public void setPontuacaoDestaque(Double pontuacaoDestaque) {
+        this.pontuacaoDestaque = pontuacaoDestaque;
+    }
+
+    public Integer getProfundidade() {
+        return this.profundidade;
+    }
+
+    public void setProfundidade(Integer profundidade) {
+        this.profundidade = profundidade;
+    }
+
 }
@@ -0,0 +1,107 @@
+package com.netflix.mercado.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Usuários que votaram em uma avaliação ou curtiram um comentário, gravados como um
+ * bitmap comprimido de IDs (ver {@link com.netflix.mercado.util.BitmapCompacto}).
+ * Uma linha por entidade, tipo de voto e bloco de 65536 IDs de usuário ({@code id >>> 16}),
+ * então cada voto regrava no máximo 8 KB e a verificação de um usuário lê só o seu bloco.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true, exclude = "bitmap")
+@Entity
+@Table(name = "conjuntos_votantes", indexes = {
+        @Index(name = "idx_conjunto_votantes_tipo_entidade", columnList = "tipo,entidade_id,bloco", unique = true)
+}, uniqueConstraints = @UniqueConstraint(name = "uk_conjunto_votantes_tipo_entidade", columnNames = {"tipo", "entidade_id", "bloco"}))
+public class ConjuntoVotantes extends BaseEntity {
+
+    public enum Tipo {
+        AVALIACAO_UTIL, AVALIACAO_INUTIL, COMENTARIO_CURTIDA
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 30)
+    private Tipo tipo;
+
+    @Column(name = "entidade_id", nullable = false)
+    private Long entidadeId;
+
+    @Column(name = "bloco", nullable = false)
+    private Integer bloco;
+
+    @Column(name = "bitmap", nullable = false, length = 16384)
+    private byte[] bitmap = new byte[0];
+
+    @Column(name = "quantidade", nullable = false)
+    private Long quantidade = 0L;
+
+    // Incrementada a cada gravação; ordena as versões publicadas no cache em memória
+    @Column(name = "revisao", nullable = false)
+    private Long revisao = 0L;
+
+    public ConjuntoVotantes() {
+    }
+
+    public ConjuntoVotantes(Tipo tipo, Long entidadeId, Integer bloco) {
+        this.tipo = tipo;
+        this.entidadeId = entidadeId;
+        this.bloco = bloco;
+    }
+
+    public Tipo getTipo() {
+        return this.tipo;
+    }
+
+    public void setTipo(Tipo tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getEntidadeId() {
+        return this.entidadeId;
+    }
+
+    public void setEntidadeId(Long entidadeId) {
+        this.entidadeId = entidadeId;
+    }
+
+    public Integer getBloco() {
+        return this.bloco;
+    }
+
+    public void setBloco(Integer bloco) {
+        this.bloco = bloco;
+    }
+
+    public byte[] getBitmap() {
+        return this.bitmap;
+    }
+
+    public void setBitmap(byte[] bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    public Long getQuantidade() {
+        return this.quantidade;
+    }
+
+    public void setQuantidade(Long quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public Long getRevisao() {
+        return this.revisao;
+    }
+
+    public void setRevisao(Long revisao) {
+        this.revisao = revisao;
+    }
+}
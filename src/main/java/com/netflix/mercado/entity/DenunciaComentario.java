@@ -0,0 +1,64 @@
+package com.netflix.mercado.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Denúncia de um comentário por um usuário. A restrição única garante uma denúncia por
+ * usuário e comentário; o total fica desnormalizado em {@link Comentario#getDenuncias()}.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "denuncias_comentarios", indexes = {
+        @Index(name = "idx_denuncia_comentario_usuario", columnList = "comentario_id,usuario_id", unique = true)
+}, uniqueConstraints = @UniqueConstraint(name = "uk_denuncia_comentario_usuario", columnNames = {"comentario_id", "usuario_id"}))
+public class DenunciaComentario extends BaseEntity {
+
+    @Column(name = "comentario_id", nullable = false)
+    private Long comentarioId;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "motivo", length = 500)
+    private String motivo;
+
+    public DenunciaComentario() {
+    }
+
+    public DenunciaComentario(Long comentarioId, Long usuarioId, String motivo) {
+        this.comentarioId = comentarioId;
+        this.usuarioId = usuarioId;
+        this.motivo = motivo;
+    }
+
+    public Long getComentarioId() {
+        return this.comentarioId;
+    }
+
+    public void setComentarioId(Long comentarioId) {
+        this.comentarioId = comentarioId;
+    }
+
+    public Long getUsuarioId() {
+        return this.usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public String getMotivo() {
+        return this.motivo;
+    }
+
+    public void setMotivo(String motivo) {
+        this.motivo = motivo;
+    }
+}
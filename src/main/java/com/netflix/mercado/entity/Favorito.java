@@ -19,7 +19,8 @@ import lombok.EqualsAndHashCode;
         @Index(name = "idx_favorito_usuario", columnList = "usuario_id"),
         @Index(name = "idx_favorito_mercado", columnList = "mercado_id"),
         @Index(name = "idx_favorito_unico", columnList = "usuario_id,mercado_id", unique = true),
-        @Index(name = "idx_favorito_criada_em", columnList = "created_at")
+        @Index(name = "idx_favorito_criada_em", columnList = "created_at"),
+        @Index(name = "idx_favorito_usuario_prioridade_id", columnList = "usuario_id,active,prioridade,created_at,id")
 }, uniqueConstraints = @UniqueConstraint(name = "uk_usuario_mercado", columnNames = {"usuario_id", "mercado_id"}))
 public class Favorito extends BaseEntity {
 
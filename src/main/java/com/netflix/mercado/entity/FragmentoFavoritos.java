@@ -0,0 +1,70 @@
+package com.netflix.mercado.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Parcela do contador de favoritos de um mercado muito favoritado.
+ * Um mercado com essas linhas deixa de somar direto em {@code mercados.total_favoritos}:
+ * cada inclusão ou remoção soma em uma das {@value #FAIXAS} faixas, sorteada, e a
+ * consolidação periódica ({@link com.netflix.mercado.service.ContadorFavoritosService})
+ * transfere as parcelas para o mercado. Assim toques simultâneos no mesmo mercado
+ * disputam linhas diferentes em vez da linha do mercado.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "favoritos_fragmentos", indexes = {
+        @Index(name = "idx_favoritos_fragmento_mercado_faixa", columnList = "mercado_id,faixa", unique = true)
+}, uniqueConstraints = @UniqueConstraint(name = "uk_favoritos_fragmento_mercado_faixa", columnNames = {"mercado_id", "faixa"}))
+public class FragmentoFavoritos extends BaseEntity {
+
+    public static final int FAIXAS = 8;
+
+    @Column(name = "mercado_id", nullable = false)
+    private Long mercadoId;
+
+    @Column(name = "faixa", nullable = false)
+    private Integer faixa;
+
+    // Inclusões menos remoções ainda não transferidas para o mercado; pode ser negativo
+    @Column(name = "total", nullable = false)
+    private Long total = 0L;
+
+    public FragmentoFavoritos() {
+    }
+
+    public FragmentoFavoritos(Long mercadoId, Integer faixa) {
+        this.mercadoId = mercadoId;
+        this.faixa = faixa;
+    }
+
+    public Long getMercadoId() {
+        return this.mercadoId;
+    }
+
+    public void setMercadoId(Long mercadoId) {
+        this.mercadoId = mercadoId;
+    }
+
+    public Integer getFaixa() {
+        return this.faixa;
+    }
+
+    public void setFaixa(Integer faixa) {
+        this.faixa = faixa;
+    }
+
+    public Long getTotal() {
+        return this.total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
@@ -1,5 +1,6 @@
 package com.netflix.mercado.entity;
 
+import com.netflix.mercado.util.GeoUtils;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -18,6 +19,7 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -27,15 +29,31 @@ import java.util.Set;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@DynamicUpdate // só colunas alteradas: os agregados de avaliação são escritos por UPDATE atômico
 @Table(name = "mercados", indexes = {
         @Index(name = "idx_mercado_email", columnList = "email", unique = true),
         @Index(name = "idx_mercado_cnpj", columnList = "cnpj", unique = true),
         @Index(name = "idx_mercado_avaliacao", columnList = "avaliacao_media"),
         @Index(name = "idx_mercado_coordenadas", columnList = "latitude,longitude"),
-        @Index(name = "idx_mercado_active", columnList = "active")
+        @Index(name = "idx_mercado_estado_cidade", columnList = "estado,cidade"),
+        @Index(name = "idx_mercado_active", columnList = "active"),
+        @Index(name = "idx_mercado_ativo_avaliacao_id", columnList = "active,avaliacao_media,id"),
+        @Index(name = "idx_mercado_ativo_ranking_id", columnList = "active,pontuacao_ranking,id"),
+        @Index(name = "idx_mercado_ativo_favoritos_id", columnList = "active,total_favoritos,id"),
+        @Index(name = "idx_mercado_estado_ranking_id", columnList = "estado,active,pontuacao_ranking,id"),
+        @Index(name = "idx_mercado_cidade_ranking_id", columnList = "estado,cidade,active,pontuacao_ranking,id")
 })
 public class Mercado extends BaseEntity {
 
+    /**
+     * Priori da média bayesiana do ranking: cada mercado começa como se tivesse
+     * {@value #RANKING_VOTOS_PRIORI} avaliações de {@value #RANKING_MEDIA_PRIORI} estrelas,
+     * então poucas avaliações extremas não superam muitas avaliações consistentes.
+     */
+    public static final int RANKING_VOTOS_PRIORI = 10;
+    public static final int RANKING_MEDIA_PRIORI = 3;
+    public static final int RANKING_SOMA_PRIORI = RANKING_VOTOS_PRIORI * RANKING_MEDIA_PRIORI;
+
     @NotBlank(message = "O nome do mercado é obrigatório")
     @Size(min = 3, max = 150, message = "O nome deve ter entre 3 e 150 caracteres")
     @Column(name = "nome", nullable = false, length = 150)
@@ -108,6 +126,34 @@ public class Mercado extends BaseEntity {
     @Column(name = "total_avaliacoes", nullable = false)
     private Long totalAvaliacoes = 0L;
 
+    // Agregados mantidos por delta a cada escrita de avaliação (AvaliacaoAgregadoService)
+    @Column(name = "soma_estrelas", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long somaEstrelas = 0L;
+
+    @Column(name = "estrelas_1", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long estrelas1 = 0L;
+
+    @Column(name = "estrelas_2", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long estrelas2 = 0L;
+
+    @Column(name = "estrelas_3", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long estrelas3 = 0L;
+
+    @Column(name = "estrelas_4", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long estrelas4 = 0L;
+
+    @Column(name = "estrelas_5", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long estrelas5 = 0L;
+
+    // (soma_estrelas + votos * média da priori) / (total_avaliacoes + votos), atualizada junto com os agregados
+    @Column(name = "pontuacao_ranking", precision = 6, scale = 4)
+    private BigDecimal pontuacaoRanking = BigDecimal.valueOf(RANKING_MEDIA_PRIORI).setScale(4);
+
+    // Mantido pelo mesmo comando que inclui ou remove o favorito (FavoritoEscritaService); nos mercados
+    // com FragmentoFavoritos as parcelas chegam aqui na consolidação. Nulo até a contagem inicial
+    @Column(name = "total_favoritos", columnDefinition = "bigint")
+    private Long totalFavoritos = 0L;
+
     @OneToMany(mappedBy = "mercado", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Avaliacao> avaliacoes = new HashSet<>();
 
@@ -136,19 +182,9 @@ public class Mercado extends BaseEntity {
     }
 
     public double calcularDistancia(BigDecimal latitude2, BigDecimal longitude2) {
-        double lat1 = this.latitude.doubleValue();
-        double lon1 = this.longitude.doubleValue();
-        double lat2 = latitude2.doubleValue();
-        double lon2 = longitude2.doubleValue();
-
-        double r = 6371;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return r * c;
+        return GeoUtils.calcularDistanciaKm(
+                this.latitude.doubleValue(), this.longitude.doubleValue(),
+                latitude2.doubleValue(), longitude2.doubleValue());
     }
     public Mercado() {
     }
@@ -313,6 +349,70 @@ public class Mercado extends BaseEntity {
         this.totalAvaliacoes = totalAvaliacoes;
     }
 
+    public Long getSomaEstrelas() {
+        return this.somaEstrelas;
+    }
+
+    public void setSomaEstrelas(Long somaEstrelas) {
+        this.somaEstrelas = somaEstrelas;
+    }
+
+    public Long getEstrelas1() {
+        return this.estrelas1;
+    }
+
+    public void setEstrelas1(Long estrelas1) {
+        this.estrelas1 = estrelas1;
+    }
+
+    public Long getEstrelas2() {
+        return this.estrelas2;
+    }
+
+    public void setEstrelas2(Long estrelas2) {
+        this.estrelas2 = estrelas2;
+    }
+
+    public Long getEstrelas3() {
+        return this.estrelas3;
+    }
+
+    public void setEstrelas3(Long estrelas3) {
+        this.estrelas3 = estrelas3;
+    }
+
+    public Long getEstrelas4() {
+        return this.estrelas4;
+    }
+
+    public void setEstrelas4(Long estrelas4) {
+        this.estrelas4 = estrelas4;
+    }
+
+    public Long getEstrelas5() {
+        return this.estrelas5;
+    }
+
+    public void setEstrelas5(Long estrelas5) {
+        this.estrelas5 = estrelas5;
+    }
+
+    public BigDecimal getPontuacaoRanking() {
+        return this.pontuacaoRanking;
+    }
+
+    public void setPontuacaoRanking(BigDecimal pontuacaoRanking) {
+        this.pontuacaoRanking = pontuacaoRanking;
+    }
+
+    public Long getTotalFavoritos() {
+        return this.totalFavoritos;
+    }
+
+    public void setTotalFavoritos(Long totalFavoritos) {
+        this.totalFavoritos = totalFavoritos;
+    }
+
     public Set<Avaliacao> getAvaliacoes() {
         return this.avaliacoes;
     }
@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
         @Index(name = "idx_notificacao_usuario", columnList = "usuario_id"),
         @Index(name = "idx_notificacao_lida", columnList = "lida"),
         @Index(name = "idx_notificacao_tipo", columnList = "tipo"),
-        @Index(name = "idx_notificacao_criada_em", columnList = "created_at")
+        @Index(name = "idx_notificacao_criada_em", columnList = "created_at"),
+        @Index(name = "idx_notificacao_usuario_criada_id", columnList = "usuario_id,active,created_at,id")
 })
 public class Notificacao extends BaseEntity {
 
@@ -8,6 +8,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -60,12 +61,20 @@ public class Promocao extends BaseEntity {
     @Column(name = "max_utilizacoes", nullable = false)
     private Long maxUtilizacoes = Long.MAX_VALUE;
 
-    @Column(name = "utilizacoes_atuais", nullable = false)
+    // Só alterado pelas instruções atômicas de PromocaoRepository: salvar a entidade não
+    // sobrescreve utilizações registradas depois que ela foi lida
+    @Column(name = "utilizacoes_atuais", nullable = false, updatable = false)
     private Long utilizacoesAtuais = 0L;
 
     @Column(name = "ativa", nullable = false)
     private Boolean ativa = true;
 
+    // Edições simultâneas da mesma promoção falham em vez de uma apagar a outra.
+    // Nula até a inclusão, para que save() reconheça a promoção como nova
+    @Version
+    @Column(name = "versao", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long versao;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "mercado_id", nullable = false, foreignKey = @ForeignKey(name = "fk_promocao_mercado"))
     private Mercado mercado;
@@ -198,6 +207,14 @@ public class Promocao extends BaseEntity {
         this.ativa = ativa;
     }
 
+    public Long getVersao() {
+        return this.versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     public Mercado getMercado() {
         return this.mercado;
     }
@@ -0,0 +1,38 @@
+package com.netflix.mercado.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Termo proibido ou frase de spam que não pode aparecer em comentários e avaliações. O dicionário completo é
+ * compilado em memória pelo {@link com.netflix.mercado.service.FiltroConteudoService}.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "termos_bloqueados",
+        uniqueConstraints = @UniqueConstraint(name = "uk_termo_bloqueado_termo", columnNames = "termo"))
+public class TermoBloqueado extends BaseEntity {
+
+    @Column(name = "termo", nullable = false, length = 200)
+    private String termo;
+
+    public TermoBloqueado() {
+    }
+
+    public TermoBloqueado(String termo) {
+        this.termo = termo;
+    }
+
+    public String getTermo() {
+        return this.termo;
+    }
+
+    public void setTermo(String termo) {
+        this.termo = termo;
+    }
+}
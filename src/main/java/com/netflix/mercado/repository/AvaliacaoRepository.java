@@ -5,12 +5,14 @@ import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -44,7 +46,31 @@ public interface AvaliacaoRepository extends JpaRepository<Avaliacao, Long> {
 
     // Métodos por ID para facilitar uso
     Page<Avaliacao> findByMercadoId(Long mercadoId, Pageable pageable);
+
+    // Paginação por cursor em (createdAt, id), servida pelo índice idx_avaliacao_mercado_criada_id
+    @Query("SELECT a FROM Avaliacao a WHERE a.mercado.id = :mercadoId ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<Avaliacao> findByMercadoIdCursor(@Param("mercadoId") Long mercadoId, Pageable pageable);
+
+    @Query("SELECT a FROM Avaliacao a WHERE a.mercado.id = :mercadoId " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<Avaliacao> findByMercadoIdApos(@Param("mercadoId") Long mercadoId, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Pageable pageable);
     
+    // Feed do mercado: só as colunas exibidas, com autor e mercado no mesmo SELECT (sem carregar User e seus papéis)
+    String CAMPOS_FEED = "SELECT a.id, a.estrelas, a.comentario, a.uteis, a.createdAt, a.updatedAt, " +
+                         "u.id, u.fullName, u.email, u.avatarUrl, m.id, m.nome " +
+                         "FROM Avaliacao a JOIN a.user u JOIN a.mercado m ";
+
+    @Query(CAMPOS_FEED + "WHERE m.id = :mercadoId AND a.active = true ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<Object[]> findFeedByMercadoId(@Param("mercadoId") Long mercadoId, Pageable pageable);
+
+    @Query(CAMPOS_FEED + "WHERE m.id = :mercadoId AND a.active = true " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    Slice<Object[]> findFeedByMercadoIdApos(@Param("mercadoId") Long mercadoId, @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id, Pageable pageable);
+
     Page<Avaliacao> findByUserId(Long userId, Pageable pageable);
     
     long countByMercadoIdAndEstrelas(Long mercadoId, int estrelas);
@@ -6,11 +6,15 @@ import com.netflix.mercado.entity.User;
 import com.netflix.mercado.entity.Mercado;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -43,12 +47,111 @@ public interface ComentarioRepository extends JpaRepository<Comentario, Long> {
     // Métodos por ID para facilitar uso
     @Query("SELECT c FROM Comentario c WHERE c.avaliacao.id = :avaliacaoId AND c.comentarioPai IS NULL AND c.active = true")
     Page<Comentario> findByAvaliacaoIdAndComentarioPaiIsNull(@Param("avaliacaoId") Long avaliacaoId, Pageable pageable);
+
+    // Paginação por cursor em (createdAt, id), em ordem de conversa, servida pelo índice idx_comentario_avaliacao_pai_criada_id
+    @Query("SELECT c FROM Comentario c WHERE c.avaliacao.id = :avaliacaoId AND c.comentarioPai IS NULL AND c.active = true " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    Slice<Comentario> findByAvaliacaoIdAndComentarioPaiIsNullCursor(@Param("avaliacaoId") Long avaliacaoId, Pageable pageable);
+
+    @Query("SELECT c FROM Comentario c WHERE c.avaliacao.id = :avaliacaoId AND c.comentarioPai IS NULL AND c.active = true " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    Slice<Comentario> findByAvaliacaoIdAndComentarioPaiIsNullApos(@Param("avaliacaoId") Long avaliacaoId,
+                                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                                  @Param("id") Long id, Pageable pageable);
     
+    // Destaques por cursor em (pontuacaoDestaque, id), servidos pelo índice idx_comentario_avaliacao_pai_destaque_id
+    @Query("SELECT c FROM Comentario c WHERE c.avaliacao.id = :avaliacaoId AND c.comentarioPai IS NULL AND c.active = true " +
+           "ORDER BY c.pontuacaoDestaque DESC, c.id DESC")
+    Slice<Comentario> findDestaquesByAvaliacaoId(@Param("avaliacaoId") Long avaliacaoId, Pageable pageable);
+
+    @Query("SELECT c FROM Comentario c WHERE c.avaliacao.id = :avaliacaoId AND c.comentarioPai IS NULL AND c.active = true " +
+           "AND (c.pontuacaoDestaque < :pontuacao OR (c.pontuacaoDestaque = :pontuacao AND c.id < :id)) " +
+           "ORDER BY c.pontuacaoDestaque DESC, c.id DESC")
+    Slice<Comentario> findDestaquesByAvaliacaoIdApos(@Param("avaliacaoId") Long avaliacaoId,
+                                                      @Param("pontuacao") Double pontuacao,
+                                                      @Param("id") Long id, Pageable pageable);
+
     Page<Comentario> findByUserId(Long userId, Pageable pageable);
 
+    // Discussão inteira em uma consulta, em ordem de caminho, servida pelo índice idx_comentario_avaliacao_caminho
+    @Query("SELECT c FROM Comentario c JOIN FETCH c.user WHERE c.avaliacao.id = :avaliacaoId " +
+           "AND c.profundidade <= :profundidadeMaxima AND c.active = true ORDER BY c.caminho ASC")
+    List<Comentario> findThreadByAvaliacaoId(@Param("avaliacaoId") Long avaliacaoId,
+                                             @Param("profundidadeMaxima") Integer profundidadeMaxima,
+                                             Pageable pageable);
+
+    // Subárvore de um comentário: todos os caminhos com o prefixo do comentário
+    @Query("SELECT c FROM Comentario c JOIN FETCH c.user WHERE c.avaliacao.id = :avaliacaoId " +
+           "AND c.caminho LIKE CONCAT(:caminho, '%') AND c.profundidade <= :profundidadeMaxima AND c.active = true " +
+           "ORDER BY c.caminho ASC")
+    List<Comentario> findSubarvore(@Param("avaliacaoId") Long avaliacaoId,
+                                   @Param("caminho") String caminho,
+                                   @Param("profundidadeMaxima") Integer profundidadeMaxima,
+                                   Pageable pageable);
+
+    // Respostas diretas de vários pais, para percorrer subárvores legadas ainda sem caminho
+    @Query("SELECT c FROM Comentario c JOIN FETCH c.user WHERE c.comentarioPai.id IN :paiIds ORDER BY c.id ASC")
+    List<Comentario> findRespostasDe(@Param("paiIds") Collection<Long> paiIds);
+
+    // Preenchimento do caminho de comentários anteriores à coluna: raízes primeiro, depois um nível por execução.
+    // Respostas abaixo de profundidadeMaxima ficam sem caminho e são lidas pelo pai
+    @Modifying
+    @Query(value = "UPDATE comentarios SET caminho = CONCAT(LPAD(CAST(id AS VARCHAR(12)), 12, '0'), '/'), profundidade = 0 " +
+                   "WHERE caminho IS NULL AND comentario_pai_id IS NULL", nativeQuery = true)
+    int preencherCaminhoRaizes();
+
+    @Modifying
+    @Query(value = "UPDATE comentarios SET " +
+                   "caminho = CONCAT((SELECT p.caminho FROM comentarios p WHERE p.id = comentarios.comentario_pai_id), " +
+                   "LPAD(CAST(id AS VARCHAR(12)), 12, '0'), '/'), " +
+                   "profundidade = (SELECT p.profundidade + 1 FROM comentarios p WHERE p.id = comentarios.comentario_pai_id) " +
+                   "WHERE caminho IS NULL AND comentario_pai_id IN " +
+                   "(SELECT p.id FROM comentarios p WHERE p.caminho IS NOT NULL AND p.profundidade < :profundidadeMaxima)",
+           nativeQuery = true)
+    int preencherCaminhoRespostas(@Param("profundidadeMaxima") int profundidadeMaxima);
+
     @Query("SELECT c FROM Comentario c WHERE c.comentarioPai.id = :comentarioPaiId AND c.active = true")
     Page<Comentario> findByComentarioPaiId(@Param("comentarioPaiId") Long comentarioPaiId, Pageable pageable);
 
+    // Rejeições anteriores do autor: pesam na prioridade de moderação dos novos comentários
+    @Query("SELECT COUNT(c) FROM Comentario c WHERE c.user.id = :usuarioId AND c.moderado = false AND c.moderadoPor IS NOT NULL")
+    long countRejeitadosDoAutor(@Param("usuarioId") Long usuarioId);
+
+    // Itens efetivamente reservados por uma reserva em lote, lidos pela chave primária
+    @Query("SELECT c FROM Comentario c JOIN FETCH c.user WHERE c.id IN :ids AND c.reservaToken = :token " +
+           "ORDER BY c.prazoModeracao ASC, c.id ASC")
+    List<Comentario> findReservados(@Param("ids") Collection<Long> ids, @Param("token") String token);
+
+    @Modifying
+    @Query(value = "UPDATE comentarios SET prazo_moderacao = CAST(EXTRACT(EPOCH FROM created_at) AS BIGINT) " +
+                   "WHERE prazo_moderacao IS NULL", nativeQuery = true)
+    int preencherPrazoModeracao();
+
+    @Modifying
+    @Query(value = "UPDATE comentarios SET pontuacao_destaque = " + Comentario.SQL_PONTUACAO_DESTAQUE + " " +
+                   "WHERE pontuacao_destaque IS NULL", nativeQuery = true)
+    int preencherPontuacaoDestaque();
+
+    // Total de comentários ativos de várias avaliações em uma consulta: (avaliacaoId, total)
+    @Query("SELECT c.avaliacao.id, COUNT(c) FROM Comentario c WHERE c.avaliacao.id IN :avaliacaoIds AND c.active = true " +
+           "GROUP BY c.avaliacao.id")
+    List<Object[]> countAtivosPorAvaliacao(@Param("avaliacaoIds") Collection<Long> avaliacaoIds);
+
+    /**
+     * Os {@code limite} comentários de primeiro nível mais destacados de cada avaliação, em uma consulta:
+     * (id, avaliacaoId, conteudo, curtidas, createdAt, usuarioId, nome, avatarUrl), por avaliação e posição.
+     */
+    @Query(value = "SELECT r.id, r.avaliacao_id, r.conteudo, r.curtidas, r.created_at, r.usuario_id, r.full_name, r.avatar_url " +
+                   "FROM (SELECT c.id, c.avaliacao_id, CAST(c.conteudo AS VARCHAR(1000)) AS conteudo, c.curtidas, c.created_at, " +
+                   "c.usuario_id, u.full_name, u.avatar_url, " +
+                   "ROW_NUMBER() OVER (PARTITION BY c.avaliacao_id ORDER BY c.pontuacao_destaque DESC, c.id DESC) AS posicao " +
+                   "FROM comentarios c JOIN users u ON u.id = c.usuario_id " +
+                   "WHERE c.avaliacao_id IN (:avaliacaoIds) AND c.comentario_pai_id IS NULL AND c.active = true) r " +
+                   "WHERE r.posicao <= :limite ORDER BY r.avaliacao_id, r.posicao", nativeQuery = true)
+    List<Object[]> findDestaquesPorAvaliacoes(@Param("avaliacaoIds") Collection<Long> avaliacaoIds,
+                                              @Param("limite") int limite);
+
     // ✅ NOVO: Contar comentários por mercado (via avaliação)
     long countByAvaliacao_Mercado(Mercado mercado);
 }
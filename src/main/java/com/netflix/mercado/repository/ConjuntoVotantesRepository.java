@@ -0,0 +1,32 @@
+package com.netflix.mercado.repository;
+
+import com.netflix.mercado.entity.ConjuntoVotantes;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConjuntoVotantesRepository extends JpaRepository<ConjuntoVotantes, Long> {
+
+    // SELECT ... FOR UPDATE: votos no mesmo bloco de uma entidade são serializados pela linha
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ConjuntoVotantes c WHERE c.tipo = :tipo AND c.entidadeId = :entidadeId AND c.bloco = :bloco")
+    Optional<ConjuntoVotantes> findParaAtualizacao(@Param("tipo") ConjuntoVotantes.Tipo tipo,
+                                                  @Param("entidadeId") Long entidadeId,
+                                                  @Param("bloco") Integer bloco);
+
+    // Uma consulta pelo índice único para a página inteira, lendo só o bloco do usuário
+    @Query("SELECT c FROM ConjuntoVotantes c WHERE c.tipo = :tipo AND c.bloco = :bloco AND c.entidadeId IN :entidadeIds")
+    List<ConjuntoVotantes> findByTipoAndBlocoAndEntidadeIdIn(@Param("tipo") ConjuntoVotantes.Tipo tipo,
+                                                            @Param("bloco") Integer bloco,
+                                                            @Param("entidadeIds") Collection<Long> entidadeIds);
+
+    boolean existsByTipoAndEntidadeIdAndBloco(ConjuntoVotantes.Tipo tipo, Long entidadeId, Integer bloco);
+}
@@ -0,0 +1,11 @@
+package com.netflix.mercado.repository;
+
+import com.netflix.mercado.entity.DenunciaComentario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DenunciaComentarioRepository extends JpaRepository<DenunciaComentario, Long> {
+
+    boolean existsByComentarioIdAndUsuarioId(Long comentarioId, Long usuarioId);
+}
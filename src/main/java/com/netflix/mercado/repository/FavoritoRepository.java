@@ -5,11 +5,14 @@ import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,13 +21,32 @@ public interface FavoritoRepository extends JpaRepository<Favorito, Long> {
     @Query("SELECT f FROM Favorito f WHERE f.user = :user AND f.active = true ORDER BY f.prioridade DESC, f.createdAt DESC")
     Page<Favorito> findByUser(@Param("user") User user, Pageable pageable);
 
+    // Paginação por cursor em (prioridade, createdAt, id), servida pelo índice idx_favorito_usuario_prioridade_id
+    @Query("SELECT f FROM Favorito f WHERE f.user = :user AND f.active = true ORDER BY f.prioridade DESC, f.createdAt DESC, f.id DESC")
+    Slice<Favorito> findByUserCursor(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT f FROM Favorito f WHERE f.user = :user AND f.active = true " +
+           "AND (f.prioridade < :prioridade " +
+           "OR (f.prioridade = :prioridade AND f.createdAt < :createdAt) " +
+           "OR (f.prioridade = :prioridade AND f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.prioridade DESC, f.createdAt DESC, f.id DESC")
+    Slice<Favorito> findByUserApos(@Param("user") User user, @Param("prioridade") Integer prioridade,
+                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
     @Query("SELECT f FROM Favorito f WHERE f.user = :user AND f.mercado = :mercado AND f.active = true")
     Optional<Favorito> findByUserAndMercado(@Param("user") User user, @Param("mercado") Mercado mercado);
 
+    @Query("SELECT f FROM Favorito f JOIN FETCH f.mercado WHERE f.user.id = :usuarioId AND f.mercado.id = :mercadoId")
+    Optional<Favorito> findByUsuarioIdAndMercadoId(@Param("usuarioId") Long usuarioId, @Param("mercadoId") Long mercadoId);
+
     @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Favorito f " +
             "WHERE f.user = :user AND f.mercado = :mercado AND f.active = true")
     boolean existsByUserAndMercado(@Param("user") User user, @Param("mercado") Mercado mercado);
 
+    // Só os IDs, para montar o conjunto de favoritos do usuário sem carregar mercados
+    @Query("SELECT f.mercado.id FROM Favorito f WHERE f.user.id = :usuarioId AND f.active = true")
+    List<Long> findMercadoIdsByUsuarioId(@Param("usuarioId") Long usuarioId);
+
     @Query("SELECT COUNT(f) FROM Favorito f WHERE f.user = :user AND f.active = true")
     long countByUser(@Param("user") User user);
 
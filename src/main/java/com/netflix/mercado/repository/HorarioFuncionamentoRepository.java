@@ -32,4 +32,12 @@ public interface HorarioFuncionamentoRepository extends JpaRepository<HorarioFun
     @Query("SELECT h FROM HorarioFuncionamento h WHERE h.mercado.id = :mercadoId AND h.diaSemana = :diaSemana AND h.active = true")
     Optional<HorarioFuncionamento> findByMercadoIdAndDiaSemana(@Param("mercadoId") Long mercadoId, 
                                                                 @Param("diaSemana") HorarioFuncionamento.DiaSemana diaSemana);
+
+    /**
+     * Períodos abertos de todos os mercados (mercadoId, diaSemana, horaAbertura, horaFechamento),
+     * sem carregar entidades.
+     */
+    @Query("SELECT h.mercado.id, h.diaSemana, h.horaAbertura, h.horaFechamento FROM HorarioFuncionamento h " +
+            "WHERE h.aberto = true AND h.active = true")
+    List<Object[]> findPeriodosAbertos();
 }
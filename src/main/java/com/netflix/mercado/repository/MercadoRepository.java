@@ -1,9 +1,13 @@
 package com.netflix.mercado.repository;
 
 import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.util.GeoUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,7 +17,8 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MercadoRepository extends JpaRepository<Mercado, Long> {
+public interface MercadoRepository extends JpaRepository<Mercado, Long>, JpaSpecificationExecutor<Mercado>,
+        MercadoRepositoryCustom {
 
     Optional<Mercado> findByCnpj(String cnpj);
 
@@ -22,7 +27,17 @@ public interface MercadoRepository extends JpaRepository<Mercado, Long> {
     @Query("SELECT m FROM Mercado m WHERE m.active = true")
     Page<Mercado> findAllActive(Pageable pageable);
 
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome%")
+    // Paginação por cursor em (avaliacaoMedia, id), servida pelo índice idx_mercado_ativo_avaliacao_id.
+    // avaliacaoMedia é mutável: a posição de um mercado reavaliado muda entre páginas
+    @Query("SELECT m FROM Mercado m WHERE m.active = true ORDER BY m.avaliacaoMedia DESC, m.id DESC")
+    Slice<Mercado> findAllActiveCursor(Pageable pageable);
+
+    @Query("SELECT m FROM Mercado m WHERE m.active = true " +
+           "AND (m.avaliacaoMedia < :avaliacao OR (m.avaliacaoMedia = :avaliacao AND m.id < :id)) " +
+           "ORDER BY m.avaliacaoMedia DESC, m.id DESC")
+    Slice<Mercado> findAllActiveApos(@Param("avaliacao") BigDecimal avaliacao, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM Mercado m WHERE m.active = true AND LOWER(m.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
     Page<Mercado> findByNomeContainingIgnoreCase(@Param("nome") String nome, Pageable pageable);
 
     @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.cidade = :cidade")
@@ -34,58 +49,193 @@ public interface MercadoRepository extends JpaRepository<Mercado, Long> {
     @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.avaliacaoMedia >= :minAvaliacao")
     Page<Mercado> findByAvaliacaoMediaGreaterThanEqual(@Param("minAvaliacao") BigDecimal minAvaliacao, Pageable pageable);
 
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.avaliacaoMedia >= :ratingMin")
-    Page<Mercado> findByAvaliacaoMediaGreaterThanEqualAndActiveTrue(@Param("ratingMin") BigDecimal ratingMin, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true")
-    Page<Mercado> findAllByActiveTrue(Pageable pageable);
-
-    // ✅ NOVO: Métodos para busca avançada com múltiplos filtros
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome% AND m.cidade LIKE %:cidade% AND m.estado LIKE %:estado% AND m.avaliacaoMedia >= :ratingMin")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-            @Param("nome") String nome, @Param("cidade") String cidade, @Param("estado") String estado, 
-            @Param("ratingMin") BigDecimal ratingMin, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome% AND m.cidade LIKE %:cidade% AND m.estado LIKE %:estado%")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndActiveTrue(
-            @Param("nome") String nome, @Param("cidade") String cidade, @Param("estado") String estado, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome% AND m.cidade LIKE %:cidade% AND m.avaliacaoMedia >= :ratingMin")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-            @Param("nome") String nome, @Param("cidade") String cidade, 
-            @Param("ratingMin") BigDecimal ratingMin, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome% AND m.cidade LIKE %:cidade%")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndActiveTrue(
-            @Param("nome") String nome, @Param("cidade") String cidade, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome% AND m.estado LIKE %:estado% AND m.avaliacaoMedia >= :ratingMin")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-            @Param("nome") String nome, @Param("estado") String estado, 
-            @Param("ratingMin") BigDecimal ratingMin, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome% AND m.estado LIKE %:estado%")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndActiveTrue(
-            @Param("nome") String nome, @Param("estado") String estado, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome% AND m.avaliacaoMedia >= :ratingMin")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-            @Param("nome") String nome, @Param("ratingMin") BigDecimal ratingMin, Pageable pageable);
-
-    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.nome LIKE %:nome%")
-    Page<Mercado> findByNomeContainingIgnoreCaseAndActiveTrue(@Param("nome") String nome, Pageable pageable);
-
-    @Query(value = "SELECT * FROM mercados m WHERE m.active = true AND " +
-            "SQRT(POW(m.latitude - :latitude, 2) + POW(m.longitude - :longitude, 2)) * 111 <= :raio " +
-            "ORDER BY SQRT(POW(m.latitude - :latitude, 2) + POW(m.longitude - :longitude, 2)) * 111",
+    /**
+     * Distância de grande círculo (Haversine) em km entre o mercado e o ponto de busca.
+     * LEAST evita erro de domínio no ASIN por arredondamento de ponto flutuante.
+     */
+    String DISTANCIA_HAVERSINE_KM = "(2 * 6371 * ASIN(LEAST(1, SQRT(" +
+            "POWER(SIN(RADIANS(m.latitude - :latitude) / 2), 2) + " +
+            "COS(RADIANS(:latitude)) * COS(RADIANS(m.latitude)) * " +
+            "POWER(SIN(RADIANS(m.longitude - :longitude) / 2), 2)))))";
+
+    /**
+     * Pré-filtro por caixa delimitadora: faixas em latitude/longitude que
+     * podem usar o índice idx_mercado_coordenadas antes do cálculo de distância.
+     */
+    String FILTRO_CAIXA_DELIMITADORA = "m.active = true " +
+            "AND m.latitude BETWEEN :latMin AND :latMax " +
+            "AND m.longitude BETWEEN :lonMin AND :lonMax ";
+
+    @Query(value = "SELECT * FROM mercados m WHERE " + FILTRO_CAIXA_DELIMITADORA +
+            "AND " + DISTANCIA_HAVERSINE_KM + " <= :raio " +
+            "ORDER BY " + DISTANCIA_HAVERSINE_KM + ", m.id",
+            nativeQuery = true)
+    List<Mercado> findByProximidadeComLimites(@Param("latitude") double latitude,
+                                               @Param("longitude") double longitude,
+                                               @Param("raio") double raio,
+                                               @Param("latMin") double latMin,
+                                               @Param("latMax") double latMax,
+                                               @Param("lonMin") double lonMin,
+                                               @Param("lonMax") double lonMax);
+
+    @Query(value = "SELECT * FROM mercados m WHERE " + FILTRO_CAIXA_DELIMITADORA +
+            "AND " + DISTANCIA_HAVERSINE_KM + " <= :raio " +
+            "ORDER BY " + DISTANCIA_HAVERSINE_KM + ", m.id",
+            countQuery = "SELECT COUNT(*) FROM mercados m WHERE " + FILTRO_CAIXA_DELIMITADORA +
+                    "AND " + DISTANCIA_HAVERSINE_KM + " <= :raio",
             nativeQuery = true)
-    List<Mercado> findByProximidade(@Param("latitude") double latitude,
-                                     @Param("longitude") double longitude,
-                                     @Param("raio") double raio);
+    Page<Mercado> findByProximidadeComLimites(@Param("latitude") double latitude,
+                                               @Param("longitude") double longitude,
+                                               @Param("raio") double raio,
+                                               @Param("latMin") double latMin,
+                                               @Param("latMax") double latMax,
+                                               @Param("lonMin") double lonMin,
+                                               @Param("lonMax") double lonMax,
+                                               Pageable pageable);
+
+    /**
+     * Busca mercados ativos dentro do raio, ordenados pela distância real.
+     */
+    default List<Mercado> findByProximidade(double latitude, double longitude, double raio) {
+        double[] caixa = GeoUtils.calcularCaixaDelimitadora(latitude, longitude, raio);
+        return findByProximidadeComLimites(latitude, longitude, raio, caixa[0], caixa[1], caixa[2], caixa[3]);
+    }
+
+    /**
+     * Versão paginada de {@link #findByProximidade(double, double, double)}.
+     */
+    default Page<Mercado> findByProximidade(double latitude, double longitude, double raio, Pageable pageable) {
+        double[] caixa = GeoUtils.calcularCaixaDelimitadora(latitude, longitude, raio);
+        return findByProximidadeComLimites(latitude, longitude, raio,
+                caixa[0], caixa[1], caixa[2], caixa[3], pageable);
+    }
+
+    /**
+     * Coordenadas de todos os mercados ativos (id, latitude, longitude), sem carregar entidades.
+     */
+    @Query("SELECT m.id, m.latitude, m.longitude FROM Mercado m WHERE m.active = true")
+    List<Object[]> findCoordenadasAtivas();
+
+    /**
+     * Campos textuais dos mercados ativos (id, nome, descricao, bairro, cidade, avaliacaoMedia),
+     * usados para construir o índice de busca textual.
+     */
+    @Query("SELECT m.id, m.nome, m.descricao, m.bairro, m.cidade, m.avaliacaoMedia FROM Mercado m WHERE m.active = true")
+    List<Object[]> findTextosAtivos();
+
+    /**
+     * Campos das sugestões de autocompletar dos mercados ativos
+     * (id, nome, bairro, cidade, estado, totalAvaliacoes).
+     */
+    @Query("SELECT m.id, m.nome, m.bairro, m.cidade, m.estado, m.totalAvaliacoes FROM Mercado m WHERE m.active = true")
+    List<Object[]> findSugestoesAtivas();
+
+    /**
+     * Campos das facetas da busca dos mercados ativos
+     * (id, nome, cidade, estado, avaliacaoMedia, latitude, longitude).
+     */
+    @Query("SELECT m.id, m.nome, m.cidade, m.estado, m.avaliacaoMedia, m.latitude, m.longitude " +
+           "FROM Mercado m WHERE m.active = true")
+    List<Object[]> findFacetasAtivas();
+
+    /**
+     * Resumo (id, latitude, longitude, avaliacaoMedia, totalAvaliacoes) dos mercados ativos
+     * em uma área retangular, usado no agrupamento do mapa.
+     */
+    @Query("SELECT m.id, m.latitude, m.longitude, m.avaliacaoMedia, m.totalAvaliacoes FROM Mercado m " +
+           "WHERE m.active = true AND m.latitude BETWEEN :latMin AND :latMax " +
+           "AND m.longitude BETWEEN :lonMin AND :lonMax")
+    List<Object[]> findResumoGeograficoNaArea(@Param("latMin") BigDecimal latMin, @Param("latMax") BigDecimal latMax,
+                                              @Param("lonMin") BigDecimal lonMin, @Param("lonMax") BigDecimal lonMax);
 
     @Query("SELECT COUNT(m) FROM Mercado m WHERE m.active = true")
     long countActiveMarkets();
 
+    /**
+     * Agregados de avaliações de um mercado em uma linha
+     * (totalAvaliacoes, somaEstrelas, estrelas1, estrelas2, estrelas3, estrelas4, estrelas5).
+     */
+    @Query("SELECT m.totalAvaliacoes, m.somaEstrelas, m.estrelas1, m.estrelas2, m.estrelas3, m.estrelas4, m.estrelas5 " +
+           "FROM Mercado m WHERE m.id = :id")
+    List<Object[]> findAgregadoAvaliacoes(@Param("id") Long id);
+
+    /**
+     * Soma deltas aos agregados de avaliações e recalcula a média na mesma instrução;
+     * as expressões do SET leem os valores anteriores da linha.
+     */
+    @Modifying
+    @Query(value = "UPDATE mercados SET " +
+           "total_avaliacoes = total_avaliacoes + :total, " +
+           "soma_estrelas = soma_estrelas + :soma, " +
+           "estrelas_1 = estrelas_1 + :e1, estrelas_2 = estrelas_2 + :e2, estrelas_3 = estrelas_3 + :e3, " +
+           "estrelas_4 = estrelas_4 + :e4, estrelas_5 = estrelas_5 + :e5, " +
+           "avaliacao_media = CASE WHEN total_avaliacoes + :total > 0 " +
+           "THEN ROUND(CAST(soma_estrelas + :soma AS DECIMAL(14, 4)) / (total_avaliacoes + :total), 2) ELSE 0 END, " +
+           "pontuacao_ranking = ROUND(CAST(soma_estrelas + :soma + " + Mercado.RANKING_SOMA_PRIORI + " AS DECIMAL(14, 4)) " +
+           "/ (total_avaliacoes + :total + " + Mercado.RANKING_VOTOS_PRIORI + "), 4) " +
+           "WHERE id = :id", nativeQuery = true)
+    int aplicarDeltaAvaliacoes(@Param("id") Long id, @Param("total") long total, @Param("soma") long soma,
+                               @Param("e1") long e1, @Param("e2") long e2, @Param("e3") long e3,
+                               @Param("e4") long e4, @Param("e5") long e5);
+
+    // SET comum aos recálculos dos agregados de avaliações a partir da tabela de avaliações
+    String RECALCULO_AGREGADOS =
+           "UPDATE mercados SET " +
+           "total_avaliacoes = (SELECT COUNT(*) FROM avaliacoes a WHERE a.mercado_id = mercados.id), " +
+           "soma_estrelas = (SELECT COALESCE(SUM(a.estrelas), 0) FROM avaliacoes a WHERE a.mercado_id = mercados.id), " +
+           "estrelas_1 = (SELECT COUNT(*) FROM avaliacoes a WHERE a.mercado_id = mercados.id AND a.estrelas = 1), " +
+           "estrelas_2 = (SELECT COUNT(*) FROM avaliacoes a WHERE a.mercado_id = mercados.id AND a.estrelas = 2), " +
+           "estrelas_3 = (SELECT COUNT(*) FROM avaliacoes a WHERE a.mercado_id = mercados.id AND a.estrelas = 3), " +
+           "estrelas_4 = (SELECT COUNT(*) FROM avaliacoes a WHERE a.mercado_id = mercados.id AND a.estrelas = 4), " +
+           "estrelas_5 = (SELECT COUNT(*) FROM avaliacoes a WHERE a.mercado_id = mercados.id AND a.estrelas = 5), " +
+           "avaliacao_media = COALESCE((SELECT ROUND(AVG(CAST(a.estrelas AS DECIMAL(14, 4))), 2) " +
+           "FROM avaliacoes a WHERE a.mercado_id = mercados.id), 0), " +
+           "pontuacao_ranking = (SELECT ROUND(CAST(COALESCE(SUM(a.estrelas), 0) + " + Mercado.RANKING_SOMA_PRIORI + " AS DECIMAL(14, 4)) " +
+           "/ (COUNT(*) + " + Mercado.RANKING_VOTOS_PRIORI + "), 4) FROM avaliacoes a WHERE a.mercado_id = mercados.id) ";
+
+    /**
+     * Recalcula do zero os agregados de avaliações de um mercado a partir da tabela de avaliações.
+     */
+    @Modifying
+    @Query(value = RECALCULO_AGREGADOS + "WHERE id = :id", nativeQuery = true)
+    int recalcularAgregadoAvaliacoes(@Param("id") Long id);
+
+    /**
+     * Recalcula os agregados dos mercados cujos contadores não batem com a tabela de avaliações,
+     * como os anteriores às colunas soma_estrelas e estrelas_1..5, criadas zeradas.
+     */
+    @Modifying
+    @Query(value = RECALCULO_AGREGADOS +
+           "WHERE total_avaliacoes <> (SELECT COUNT(*) FROM avaliacoes a WHERE a.mercado_id = mercados.id) " +
+           "OR soma_estrelas <> (SELECT COALESCE(SUM(a.estrelas), 0) FROM avaliacoes a WHERE a.mercado_id = mercados.id) " +
+           "OR estrelas_1 + estrelas_2 + estrelas_3 + estrelas_4 + estrelas_5 <> total_avaliacoes", nativeQuery = true)
+    int recalcularAgregadosDivergentes();
+
+    /**
+     * Preenche a pontuação de ranking a partir dos agregados nas linhas que ainda não a têm
+     * (mercados anteriores à coluna).
+     */
+    @Modifying
+    @Query(value = "UPDATE mercados SET pontuacao_ranking = " +
+           "ROUND(CAST(soma_estrelas + " + Mercado.RANKING_SOMA_PRIORI + " AS DECIMAL(14, 4)) / (total_avaliacoes + " + Mercado.RANKING_VOTOS_PRIORI + "), 4) " +
+           "WHERE pontuacao_ranking IS NULL", nativeQuery = true)
+    int preencherPontuacaoRanking();
+
+    // Top-N pela média bayesiana, lidos em ordem dos índices idx_mercado_*_ranking_id com LIMIT
+    @Query("SELECT m FROM Mercado m WHERE m.active = true AND m.totalAvaliacoes >= :minimoAvaliacoes " +
+           "ORDER BY m.pontuacaoRanking DESC, m.id DESC")
+    List<Mercado> findTopRanking(@Param("minimoAvaliacoes") long minimoAvaliacoes, Pageable pageable);
+
+    @Query("SELECT m FROM Mercado m WHERE m.estado = :estado AND m.active = true " +
+           "AND m.totalAvaliacoes >= :minimoAvaliacoes ORDER BY m.pontuacaoRanking DESC, m.id DESC")
+    List<Mercado> findTopRankingPorEstado(@Param("estado") String estado,
+                                          @Param("minimoAvaliacoes") long minimoAvaliacoes, Pageable pageable);
+
+    @Query("SELECT m FROM Mercado m WHERE m.estado = :estado AND m.cidade = :cidade AND m.active = true " +
+           "AND m.totalAvaliacoes >= :minimoAvaliacoes ORDER BY m.pontuacaoRanking DESC, m.id DESC")
+    List<Mercado> findTopRankingPorCidade(@Param("estado") String estado, @Param("cidade") String cidade,
+                                          @Param("minimoAvaliacoes") long minimoAvaliacoes, Pageable pageable);
+
     boolean existsByCnpj(String cnpj);
 
     boolean existsByEmail(String email);
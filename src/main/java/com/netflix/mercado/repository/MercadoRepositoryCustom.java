@@ -0,0 +1,22 @@
+package com.netflix.mercado.repository;
+
+import com.netflix.mercado.entity.Mercado;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Consultas de {@link MercadoRepository} montadas com a Criteria API.
+ */
+public interface MercadoRepositoryCustom {
+
+    /**
+     * IDs dos mercados que atendem à especificação, sem carregar as entidades.
+     *
+     * @param spec filtros da busca; a ordenação da especificação é mantida
+     * @param ordenacao ordenação por atributos; quando informada, substitui a da especificação
+     * @return IDs na ordem pedida (indefinida quando nenhuma for informada)
+     */
+    List<Long> findIds(Specification<Mercado> spec, Sort ordenacao);
+}
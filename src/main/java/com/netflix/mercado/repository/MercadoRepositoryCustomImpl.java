@@ -0,0 +1,45 @@
+package com.netflix.mercado.repository;
+
+import com.netflix.mercado.entity.Mercado;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class MercadoRepositoryCustomImpl implements MercadoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Mercado> spec, Sort ordenacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        // Consulta de tupla, não de Long: especificações como ordenarPorDistancia tratam
+        // resultado Long como contagem e deixariam de ordenar
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Mercado> root = query.from(Mercado.class);
+        Predicate predicado = spec.toPredicate(root, query, cb);
+        query.multiselect(root.get("id"));
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        if (ordenacao.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(ordenacao, root, cb));
+        }
+        List<Tuple> linhas = entityManager.createQuery(query).getResultList();
+        List<Long> ids = new ArrayList<>(linhas.size());
+        for (Tuple linha : linhas) {
+            ids.add(linha.get(0, Long.class));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,111 @@
+package com.netflix.mercado.repository;
+
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
+import com.netflix.mercado.entity.Mercado;
+import jakarta.persistence.criteria.Expression;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Filtros combináveis da busca de mercados.
+ * Cada método retorna null quando o filtro não foi informado, de modo que apenas
+ * os predicados realmente pedidos entram na consulta.
+ */
+public final class MercadoSpecifications {
+
+    private MercadoSpecifications() {
+    }
+
+    /**
+     * Monta a especificação completa a partir dos filtros da busca.
+     * Com busca aproximada, o nome é resolvido no índice em memória e não entra aqui.
+     *
+     * @param filtro filtros informados
+     * @return especificação com os predicados informados
+     */
+    public static Specification<Mercado> filtrar(MercadoSearchRequest filtro) {
+        Specification<Mercado> spec = Specification.where(ativos());
+        if (filtro == null) {
+            return spec;
+        }
+        return spec.and(filtro.isNomeAproximado() ? null : nomeContem(filtro.getNome()))
+                .and(estadoIgual(filtro.getEstado()))
+                .and(cidadeIgual(filtro.getCidade()))
+                .and(avaliacaoMinima(filtro.getMinAvaliacao()));
+    }
+
+    public static Specification<Mercado> ativos() {
+        return (root, query, cb) -> cb.isTrue(root.get("active"));
+    }
+
+    /**
+     * Nome contendo o texto, sem diferenciar maiúsculas e minúsculas.
+     */
+    public static Specification<Mercado> nomeContem(String nome) {
+        if (nome == null || nome.isBlank()) {
+            return null;
+        }
+        String padrao = "%" + escaparLike(nome.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("nome")), padrao, '\\');
+    }
+
+    /**
+     * Igualdade na UF, que é sempre gravada como sigla maiúscula.
+     */
+    public static Specification<Mercado> estadoIgual(String estado) {
+        if (estado == null || estado.isBlank()) {
+            return null;
+        }
+        String uf = estado.trim().toUpperCase(Locale.ROOT);
+        return (root, query, cb) -> cb.equal(root.get("estado"), uf);
+    }
+
+    /**
+     * Igualdade na cidade, permitindo o uso do índice (estado, cidade).
+     */
+    public static Specification<Mercado> cidadeIgual(String cidade) {
+        if (cidade == null || cidade.isBlank()) {
+            return null;
+        }
+        String valor = cidade.trim();
+        return (root, query, cb) -> cb.equal(root.get("cidade"), valor);
+    }
+
+    public static Specification<Mercado> avaliacaoMinima(BigDecimal minimo) {
+        if (minimo == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("avaliacaoMedia"), minimo);
+    }
+
+    /**
+     * Ordena pela distância até o ponto, usando a aproximação equiretangular
+     * (monotônica com a distância real na escala de uma busca). Mercados sem
+     * coordenadas ficam de fora. A ordenação não é aplicada à consulta de contagem.
+     *
+     * @param latitude latitude do ponto de referência
+     * @param longitude longitude do ponto de referência
+     * @return especificação com filtro de coordenadas e ordenação
+     */
+    public static Specification<Mercado> ordenarPorDistancia(double latitude, double longitude) {
+        BigDecimal lat = BigDecimal.valueOf(latitude);
+        BigDecimal lon = BigDecimal.valueOf(longitude);
+        BigDecimal fatorLongitude = BigDecimal.valueOf(Math.cos(Math.toRadians(latitude)));
+        return (root, query, cb) -> {
+            Expression<BigDecimal> latitudeMercado = root.get("latitude");
+            Expression<BigDecimal> longitudeMercado = root.get("longitude");
+            if (!Long.class.equals(query.getResultType()) && !long.class.equals(query.getResultType())) {
+                Expression<BigDecimal> dLat = cb.diff(latitudeMercado, lat);
+                Expression<BigDecimal> dLon = cb.prod(cb.diff(longitudeMercado, lon), fatorLongitude);
+                query.orderBy(cb.asc(cb.sum(cb.prod(dLat, dLat), cb.prod(dLon, dLon))), cb.asc(root.get("id")));
+            }
+            return cb.and(cb.isNotNull(latitudeMercado), cb.isNotNull(longitudeMercado));
+        };
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -4,12 +4,14 @@ import com.netflix.mercado.entity.Notificacao;
 import com.netflix.mercado.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,16 @@ public interface NotificacaoRepository extends JpaRepository<Notificacao, Long>
     @Query("SELECT n FROM Notificacao n WHERE n.user = :user AND n.active = true ORDER BY n.createdAt DESC")
     Page<Notificacao> findByUser(@Param("user") User user, Pageable pageable);
 
+    // Paginação por cursor em (createdAt, id), servida pelo índice idx_notificacao_usuario_criada_id
+    @Query("SELECT n FROM Notificacao n WHERE n.user = :user AND n.active = true ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notificacao> findByUserCursor(@Param("user") User user, Pageable pageable);
+
+    @Query("SELECT n FROM Notificacao n WHERE n.user = :user AND n.active = true " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    Slice<Notificacao> findByUserApos(@Param("user") User user, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id, Pageable pageable);
+
     @Query("SELECT n FROM Notificacao n WHERE n.user = :user AND n.lida = false AND n.active = true ORDER BY n.createdAt DESC")
     Page<Notificacao> findUnreadByUser(@Param("user") User user, Pageable pageable);
 
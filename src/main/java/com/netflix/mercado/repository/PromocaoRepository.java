@@ -5,6 +5,7 @@ import com.netflix.mercado.entity.Mercado;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -36,6 +37,35 @@ public interface PromocaoRepository extends JpaRepository<Promocao, Long> {
     @Query("SELECT p FROM Promocao p WHERE p.utilizacoesAtuais >= p.maxUtilizacoes AND p.active = true")
     List<Promocao> findExhaustedPromocoes();
 
+    /**
+     * Registra utilizações se a promoção ainda as comporta, em uma única instrução: a condição
+     * e o incremento são avaliados sobre a mesma linha, então requisições simultâneas nunca
+     * passam de maxUtilizacoes. {@code maxUtilizacoes - quantidade} evita estouro com o padrão
+     * Long.MAX_VALUE.
+     *
+     * @return 1 se registradas; 0 se a promoção esgotou, expirou, não começou ou foi desativada
+     */
+    @Modifying
+    @Query("UPDATE Promocao p SET p.utilizacoesAtuais = p.utilizacoesAtuais + :quantidade " +
+           "WHERE p.id = :id AND p.utilizacoesAtuais <= p.maxUtilizacoes - :quantidade " +
+           "AND p.ativa = true AND p.active = true AND p.dataValidade > :agora " +
+           "AND (p.dataInicio IS NULL OR p.dataInicio <= :agora)")
+    int reservarUtilizacoes(@Param("id") Long id, @Param("quantidade") long quantidade,
+                            @Param("agora") LocalDateTime agora);
+
+    // Devolve utilizações reservadas em bloco e não usadas
+    @Modifying
+    @Query("UPDATE Promocao p SET p.utilizacoesAtuais = p.utilizacoesAtuais - :quantidade " +
+           "WHERE p.id = :id AND p.utilizacoesAtuais >= :quantidade")
+    int devolverUtilizacoes(@Param("id") Long id, @Param("quantidade") long quantidade);
+
+    @Query("SELECT p.maxUtilizacoes - p.utilizacoesAtuais FROM Promocao p WHERE p.id = :id")
+    Optional<Long> findUtilizacoesRestantes(@Param("id") Long id);
+
+    // Códigos do filtro de Bloom do cache de promoções
+    @Query("SELECT p.codigo FROM Promocao p WHERE p.active = true")
+    List<String> findCodigosAtivos();
+
     boolean existsByCodigo(String codigo);
 
     // Métodos por ID para facilitar uso
@@ -47,8 +77,9 @@ public interface PromocaoRepository extends JpaRepository<Promocao, Long> {
     @Query("SELECT p FROM Promocao p WHERE p.codigo = :codigo AND p.active = true")
     Optional<Promocao> findByCodigoPromocional(@Param("codigo") String codigo);
     
+    @Modifying
     @Query("UPDATE Promocao p SET p.ativa = false WHERE p.dataValidade < :agora AND p.active = true")
-    long desativarPromocoesExpiradas(@Param("agora") LocalDateTime agora);
+    int desativarPromocoesExpiradas(@Param("agora") LocalDateTime agora);
 
     // ✅ NOVO: Métodos para relatórios
     long countByMercadoAndAtiva(Mercado mercado, Boolean ativa);
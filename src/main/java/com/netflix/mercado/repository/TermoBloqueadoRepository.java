@@ -0,0 +1,25 @@
+package com.netflix.mercado.repository;
+
+import com.netflix.mercado.entity.TermoBloqueado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TermoBloqueadoRepository extends JpaRepository<TermoBloqueado, Long> {
+
+    @Query("SELECT t.termo FROM TermoBloqueado t")
+    List<String> findAllTermos();
+
+    List<TermoBloqueado> findByTermoIn(Collection<String> termos);
+
+    /**
+     * Assinatura barata do dicionário (quantidade e última alteração), usada para
+     * perceber alterações feitas por outras instâncias.
+     */
+    @Query("SELECT COUNT(t), MAX(t.updatedAt) FROM TermoBloqueado t")
+    List<Object[]> findAssinatura();
+}
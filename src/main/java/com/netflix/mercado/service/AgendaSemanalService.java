@@ -0,0 +1,117 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.HorarioFuncionamento;
+import com.netflix.mercado.repository.HorarioFuncionamentoRepository;
+import com.netflix.mercado.util.AgendaSemanal;
+import com.netflix.mercado.util.TransacaoUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Mantém em memória a agenda semanal compilada de cada mercado,
+ * para responder "está aberto agora?" sem consultar o banco.
+ * Mercados sem horário cadastrado são considerados fechados.
+ */
+@Service
+public class AgendaSemanalService {
+
+    private static final Logger log = Logger.getLogger(AgendaSemanalService.class.getName());
+
+    @Autowired
+    private HorarioFuncionamentoRepository horarioRepository;
+
+    private final Map<Long, AgendaSemanal> agendas = new ConcurrentHashMap<>();
+
+    /**
+     * Compila as agendas de todos os mercados a partir dos horários abertos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruirAgendas() {
+        long inicio = System.currentTimeMillis();
+        Map<Long, AgendaSemanal.Builder> builders = new HashMap<>();
+        for (Object[] linha : horarioRepository.findPeriodosAbertos()) {
+            Long mercadoId = ((Number) linha[0]).longValue();
+            HorarioFuncionamento.DiaSemana dia = (HorarioFuncionamento.DiaSemana) linha[1];
+            builders.computeIfAbsent(mercadoId, id -> new AgendaSemanal.Builder())
+                    .adicionar(dia.getNumero(), (LocalTime) linha[2], (LocalTime) linha[3]);
+        }
+
+        Map<Long, AgendaSemanal> compiladas = new HashMap<>(builders.size() * 2);
+        builders.forEach((id, builder) -> compiladas.put(id, builder.build()));
+        agendas.keySet().retainAll(compiladas.keySet());
+        agendas.putAll(compiladas);
+
+        log.info("Agendas semanais compiladas para " + compiladas.size() + " mercados em "
+                + (System.currentTimeMillis() - inicio) + "ms");
+    }
+
+    /**
+     * Recompila a agenda de um mercado a partir dos horários atuais.
+     * Deve ser chamado dentro da transação que alterou os horários; a nova agenda
+     * só é publicada após o commit.
+     *
+     * @param mercadoId ID do mercado
+     */
+    public void recompilar(Long mercadoId) {
+        AgendaSemanal agenda = compilar(horarioRepository.findByMercadoId(mercadoId));
+        TransacaoUtils.executarAposCommit(() -> publicar(mercadoId, agenda));
+    }
+
+    /**
+     * Remove a agenda de um mercado excluído.
+     *
+     * @param mercadoId ID do mercado
+     */
+    public void remover(Long mercadoId) {
+        agendas.remove(mercadoId);
+    }
+
+    /**
+     * Verifica se o mercado está aberto no minuto da semana informado.
+     *
+     * @param mercadoId ID do mercado
+     * @param minutoDaSemana minuto da semana (segunda 00:00 = 0)
+     * @return true se aberto
+     */
+    public boolean estaAberto(long mercadoId, int minutoDaSemana) {
+        AgendaSemanal agenda = agendas.get(mercadoId);
+        return agenda != null && agenda.estaAberto(minutoDaSemana);
+    }
+
+    /**
+     * Compila uma agenda a partir de entidades de horário.
+     *
+     * @param horarios horários do mercado
+     * @return agenda compilada
+     */
+    static AgendaSemanal compilar(List<HorarioFuncionamento> horarios) {
+        AgendaSemanal.Builder builder = new AgendaSemanal.Builder();
+        for (HorarioFuncionamento horario : horarios) {
+            if (horario.isAberto() && horario.getDiaSemana() != null
+                    && horario.getHoraAbertura() != null && horario.getHoraFechamento() != null) {
+                builder.adicionar(horario.getDiaSemana().getNumero(),
+                        horario.getHoraAbertura(), horario.getHoraFechamento());
+            }
+        }
+        return builder.build();
+    }
+
+    private void publicar(Long mercadoId, AgendaSemanal agenda) {
+        if (agenda.isVazia()) {
+            agendas.remove(mercadoId);
+        } else {
+            agendas.put(mercadoId, agenda);
+        }
+    }
+}
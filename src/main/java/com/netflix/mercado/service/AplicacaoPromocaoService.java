@@ -2,7 +2,7 @@ package com.netflix.mercado.service;
 
 import com.netflix.mercado.dto.promocao.AplicarPromocaoRequest;
 import com.netflix.mercado.dto.promocao.AplicarPromocaoResponse;
-import com.netflix.mercado.entity.Promocao;
+import com.netflix.mercado.dto.promocao.PromocaoInstantanea;
 import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.entity.AuditLog;
@@ -32,6 +32,12 @@ public class AplicacaoPromocaoService {
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private UtilizacaoPromocaoService utilizacaoPromocaoService;
+
+    @Autowired
+    private PromocaoCacheService promocaoCacheService;
+
     /**
      * ✅ NOVO: Aplica uma promoção a um valor de compra
      * Valida a promoção e calcula o desconto
@@ -51,18 +57,13 @@ public class AplicacaoPromocaoService {
             throw new ValidationException("Valor da compra deve ser maior que zero");
         }
 
-        // Buscar promoção
-        var promocao = promocaoRepository.findByCodigo(request.getCodigoPromocao())
+        // Buscar promoção (cache por código; códigos inexistentes não chegam ao banco)
+        var promocao = promocaoCacheService.buscarPorCodigo(request.getCodigoPromocao())
                 .orElseThrow(() -> new ResourceNotFoundException("Promoção não encontrada: " + request.getCodigoPromocao()));
 
         // Validar promoção
         validarPromocaoParaAplicacao(promocao);
 
-        // Verificar limite de utilização
-        if (!podeUtilizarPromocao(promocao)) {
-            throw new ValidationException("Promoção atingiu o limite de utilizações");
-        }
-
         // Verificar compra mínima
         if (promocao.getValorMinimoCompra() != null && 
             request.getValorCompra().compareTo(promocao.getValorMinimoCompra()) < 0) {
@@ -82,8 +83,10 @@ public class AplicacaoPromocaoService {
             valorFinal = request.getValorCompra().subtract(desconto);
         }
 
-        // Registrar utilização (incrementa contador)
-        incrementarUtilizacao(promocao);
+        // Registrar utilização: o limite é verificado no banco pela instrução condicional
+        if (!utilizacaoPromocaoService.utilizar(promocao.getId())) {
+            throw new ValidationException("Promoção atingiu o limite de utilizações");
+        }
 
         // Registrar na auditoria
         registrarUtilizacaoAuditoria(promocao, usuario, request.getValorCompra(), desconto);
@@ -97,7 +100,7 @@ public class AplicacaoPromocaoService {
                 .valorFinal(valorFinal)
                 .economia(calcularPercentualEconomia(request.getValorCompra(), desconto))
                 .dataExpiracao(promocao.getDataValidade())
-                .utilizacaoRestante(promocao.getMaxUtilizacoes() - promocao.getUtilizacoesAtuais())
+                .utilizacaoRestante(Math.max(0, promocaoRepository.findUtilizacoesRestantes(promocao.getId()).orElse(0L)))
                 .build();
     }
 
@@ -108,7 +111,7 @@ public class AplicacaoPromocaoService {
      * @param promocao promoção com percentual
      * @return valor do desconto calculado
      */
-    private BigDecimal calcularDesconto(BigDecimal valor, Promocao promocao) {
+    private BigDecimal calcularDesconto(BigDecimal valor, PromocaoInstantanea promocao) {
         if (promocao.getPercentualDesconto() == null) {
             return BigDecimal.ZERO;
         }
@@ -142,9 +145,9 @@ public class AplicacaoPromocaoService {
      * @param promocao promoção a validar
      * @throws ValidationException se promoção inválida
      */
-    private void validarPromocaoParaAplicacao(Promocao promocao) {
-        // Verificar se está ativa
-        if (!promocao.getAtiva()) {
+    private void validarPromocaoParaAplicacao(PromocaoInstantanea promocao) {
+        // Verificar se está ativa (removidas do sistema nem chegam aqui: a busca só encontra as ativas no banco)
+        if (!promocao.isAtiva()) {
             throw new ValidationException("Promoção está desativada");
         }
 
@@ -158,36 +161,6 @@ public class AplicacaoPromocaoService {
             promocao.getDataInicio().isAfter(LocalDateTime.now())) {
             throw new ValidationException("Promoção começa em " + promocao.getDataInicio());
         }
-
-        // Verificar se está ativa no banco
-        if (!promocao.getActive()) {
-            throw new ValidationException("Promoção foi removida do sistema");
-        }
-    }
-
-    /**
-     * ✅ NOVO: Verifica se a promoção ainda pode ser utilizada
-     *
-     * @param promocao promoção a verificar
-     * @return true se pode utilizar, false caso contrário
-     */
-    private boolean podeUtilizarPromocao(Promocao promocao) {
-        if (promocao.getMaxUtilizacoes() == null) {
-            return true; // Sem limite
-        }
-
-        return promocao.getUtilizacoesAtuais() < promocao.getMaxUtilizacoes();
-    }
-
-    /**
-     * ✅ NOVO: Incrementa o contador de utilizações da promoção
-     *
-     * @param promocao promoção a incrementar
-     */
-    @Transactional
-    private void incrementarUtilizacao(Promocao promocao) {
-        promocao.setUtilizacoesAtuais(promocao.getUtilizacoesAtuais() + 1);
-        promocaoRepository.save(promocao);
     }
 
     /**
@@ -199,7 +172,7 @@ public class AplicacaoPromocaoService {
      * @param valorDesconto valor do desconto aplicado
      */
     @Transactional
-    private void registrarUtilizacaoAuditoria(Promocao promocao, User usuario, BigDecimal valorCompra, BigDecimal valorDesconto) {
+    private void registrarUtilizacaoAuditoria(PromocaoInstantanea promocao, User usuario, BigDecimal valorCompra, BigDecimal valorDesconto) {
         AuditLog auditLog = new AuditLog();
         auditLog.setUser(usuario);
         auditLog.setAcao(AuditLog.TipoAcao.CRIACAO);
@@ -230,10 +203,10 @@ public class AplicacaoPromocaoService {
                 request.setValorCompra(valorCompra);
 
                 // Apenas simular, sem aplicar de verdade
-                var promocao = promocaoRepository.findByCodigo(codigo)
+                var promocao = promocaoCacheService.buscarPorCodigo(codigo)
                         .orElseThrow(() -> new ResourceNotFoundException("Promoção não encontrada"));
 
-                if (!promocao.getAtiva()) continue;
+                if (!promocao.isAtiva()) continue;
                 if (promocao.getDataValidade().isBefore(LocalDateTime.now())) continue;
 
                 BigDecimal desconto = calcularDesconto(valorCompra, promocao);
@@ -0,0 +1,271 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.avaliacao.RatingStatsResponse;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.LocksListrados;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Agregados de avaliações por mercado (total, soma e quantidade por estrela) mantidos por delta.
+ *
+ * Cada escrita de avaliação registra a estrela que saiu e a que entrou. Os deltas de uma
+ * transação são somados por mercado e aplicados com um único {@code UPDATE ... SET x = x + ?}
+ * imediatamente antes do commit, então a linha do mercado fica bloqueada no banco só durante
+ * o commit. A faixa do mercado é mantida do UPDATE até o fim da transação: escritores da mesma
+ * JVM esperam na faixa em vez de acumular esperas de lock de linha no banco.
+ * Estatísticas são uma leitura de uma linha. Após o commit os mercados alterados são
+ * reindexados em memória ({@link MercadoService#sincronizarAvaliacoes}).
+ * O mesmo UPDATE mantém a pontuação de ranking (média bayesiana, ver {@link Mercado#RANKING_VOTOS_PRIORI}),
+ * indexada para os top-N.
+ * Mercados anteriores às colunas de agregados têm os contadores recalculados na inicialização,
+ * antes que o servidor aceite requisições e aplique o primeiro delta sobre eles.
+ */
+@Service
+public class AvaliacaoAgregadoService implements SmartInitializingSingleton {
+
+    private static final Logger log = Logger.getLogger(AvaliacaoAgregadoService.class.getName());
+
+    private static final int FAIXAS = 64;
+
+    @Autowired
+    private MercadoRepository mercadoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MercadoService mercadoService;
+
+    private final LocksListrados locks = new LocksListrados(FAIXAS);
+
+    /**
+     * Registra a troca de estrelas de uma avaliação do mercado.
+     *
+     * @param mercadoId ID do mercado
+     * @param estrelasAnteriores estrelas removidas (null na criação)
+     * @param estrelasNovas estrelas incluídas (null na exclusão)
+     */
+    public void registrar(Long mercadoId, Integer estrelasAnteriores, Integer estrelasNovas) {
+        Delta delta = new Delta();
+        delta.somar(estrelasAnteriores, -1);
+        delta.somar(estrelasNovas, 1);
+        if (delta.isVazio()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ReentrantLock lock = locks.lock(mercadoId);
+            lock.lock();
+            try {
+                aplicar(mercadoId, delta);
+            } finally {
+                lock.unlock();
+            }
+            mercadoService.sincronizarAvaliacoes(List.of(mercadoId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Delta> pendentes = (Map<Long, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            pendentes = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, pendentes);
+            TransactionSynchronizationManager.registerSynchronization(new AplicacaoNoCommit(pendentes));
+        }
+        pendentes.merge(mercadoId, delta, Delta::combinar);
+    }
+
+    /**
+     * Recalcula do zero os agregados de um mercado a partir da tabela de avaliações, em
+     * transação própria e com a faixa do mercado mantida até o commit. Um delta concorrente
+     * ou terminou antes, e sua avaliação entra na contagem, ou é aplicado depois, sobre ela.
+     *
+     * @param mercadoId ID do mercado
+     * @throws ResourceNotFoundException se o mercado não existe
+     */
+    public void recalcular(Long mercadoId) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ReentrantLock lock = locks.lock(mercadoId);
+        lock.lock();
+        try {
+            Integer atualizados = transacao.execute(
+                    status -> mercadoRepository.recalcularAgregadoAvaliacoes(mercadoId));
+            if (atualizados == null || atualizados == 0) {
+                throw new ResourceNotFoundException("Mercado não encontrado com ID: " + mercadoId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        mercadoService.sincronizarAvaliacoes(List.of(mercadoId));
+        log.fine("Agregados de avaliação recalculados. Mercado ID: " + mercadoId);
+    }
+
+    /**
+     * Recalcula os agregados dos mercados cujos contadores não batem com as avaliações e a
+     * pontuação de ranking dos que ainda não a têm. Roda depois de criados os beans e antes
+     * do início do servidor web e das tarefas agendadas.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int recalculados = mercadoRepository.recalcularAgregadosDivergentes();
+            if (recalculados > 0) {
+                log.info("Agregados de avaliação recalculados para " + recalculados + " mercados");
+            }
+            int atualizados = mercadoRepository.preencherPontuacaoRanking();
+            if (atualizados > 0) {
+                log.info("Pontuação de ranking calculada para " + atualizados + " mercados");
+            }
+        });
+    }
+
+    /**
+     * Estatísticas de avaliações de um mercado a partir dos agregados.
+     *
+     * @param mercadoId ID do mercado
+     * @return estatísticas
+     * @throws ResourceNotFoundException se o mercado não existe
+     */
+    @Transactional(readOnly = true)
+    public RatingStatsResponse estatisticas(Long mercadoId) {
+        List<Object[]> linhas = mercadoRepository.findAgregadoAvaliacoes(mercadoId);
+        if (linhas.isEmpty()) {
+            throw new ResourceNotFoundException("Mercado não encontrado com ID: " + mercadoId);
+        }
+        Object[] linha = linhas.get(0);
+        long total = valor(linha[0]);
+        long soma = valor(linha[1]);
+        long um = valor(linha[2]);
+        long dois = valor(linha[3]);
+        long tres = valor(linha[4]);
+        long quatro = valor(linha[5]);
+        long cinco = valor(linha[6]);
+        return RatingStatsResponse.builder()
+                .totalAvaliacoes((int) total)
+                .mediaAvaliacoes(total > 0 ? Math.round(soma * 100.0 / total) / 100.0 : 0.0)
+                .umEstrela(um)
+                .doisEstrelas(dois)
+                .tresEstrelas(tres)
+                .quatroEstrelas(quatro)
+                .cincoEstrelas(cinco)
+                .percentualAprovacao(percentual(cinco + quatro, total))
+                .percentualCincoEstrelas(percentual(cinco, total))
+                .percentualQuatroEstrelas(percentual(quatro, total))
+                .percentualTresEstrelas(percentual(tres, total))
+                .percentualDoisEstrelas(percentual(dois, total))
+                .percentualUmEstrela(percentual(um, total))
+                .build();
+    }
+
+    private void aplicar(Long mercadoId, Delta delta) {
+        mercadoRepository.aplicarDeltaAvaliacoes(mercadoId, delta.total, delta.soma,
+                delta.estrelas[0], delta.estrelas[1], delta.estrelas[2], delta.estrelas[3], delta.estrelas[4]);
+        log.fine("Agregados de avaliação atualizados. Mercado ID: " + mercadoId);
+    }
+
+    private static double percentual(long parte, long total) {
+        return total > 0 ? Math.round(parte * 10000.0 / total) / 100.0 : 0.0;
+    }
+
+    private static long valor(Object numero) {
+        return numero != null ? ((Number) numero).longValue() : 0L;
+    }
+
+    /**
+     * Aplica os deltas da transação antes do commit, adquirindo as faixas em ordem crescente,
+     * e libera as faixas quando a transação termina.
+     */
+    private final class AplicacaoNoCommit implements TransactionSynchronization {
+
+        private final Map<Long, Delta> pendentes;
+        private final List<ReentrantLock> adquiridos = new ArrayList<>();
+
+        AplicacaoNoCommit(Map<Long, Delta> pendentes) {
+            this.pendentes = pendentes;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            Map<Integer, List<Map.Entry<Long, Delta>>> porFaixa = new TreeMap<>();
+            for (Map.Entry<Long, Delta> pendente : pendentes.entrySet()) {
+                if (!pendente.getValue().isVazio()) {
+                    porFaixa.computeIfAbsent(locks.indice(pendente.getKey()), i -> new ArrayList<>()).add(pendente);
+                }
+            }
+            List<Long> alterados = new ArrayList<>();
+            for (Map.Entry<Integer, List<Map.Entry<Long, Delta>>> faixa : porFaixa.entrySet()) {
+                ReentrantLock lock = locks.faixa(faixa.getKey());
+                lock.lock();
+                adquiridos.add(lock);
+                for (Map.Entry<Long, Delta> pendente : faixa.getValue()) {
+                    aplicar(pendente.getKey(), pendente.getValue());
+                    alterados.add(pendente.getKey());
+                }
+            }
+            mercadoService.sincronizarAvaliacoes(alterados);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            for (int i = adquiridos.size() - 1; i >= 0; i--) {
+                adquiridos.get(i).unlock();
+            }
+            TransactionSynchronizationManager.unbindResourceIfPossible(AvaliacaoAgregadoService.this);
+        }
+    }
+
+    /**
+     * Diferença a somar nos agregados de um mercado.
+     */
+    static final class Delta {
+        long total;
+        long soma;
+        final long[] estrelas = new long[5];
+
+        void somar(Integer estrelas, int sinal) {
+            if (estrelas == null || estrelas < 1 || estrelas > 5) {
+                return;
+            }
+            total += sinal;
+            soma += (long) sinal * estrelas;
+            this.estrelas[estrelas - 1] += sinal;
+        }
+
+        Delta combinar(Delta outro) {
+            total += outro.total;
+            soma += outro.soma;
+            for (int i = 0; i < estrelas.length; i++) {
+                estrelas[i] += outro.estrelas[i];
+            }
+            return this;
+        }
+
+        boolean isVazio() {
+            if (total != 0 || soma != 0) {
+                return false;
+            }
+            for (long quantidade : estrelas) {
+                if (quantidade != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
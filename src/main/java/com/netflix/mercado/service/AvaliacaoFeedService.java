@@ -0,0 +1,131 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.avaliacao.AutorResumoResponse;
+import com.netflix.mercado.dto.avaliacao.AvaliacaoFeedResponse;
+import com.netflix.mercado.dto.avaliacao.AvaliacaoResponse;
+import com.netflix.mercado.dto.avaliacao.RespostaResumoResponse;
+import com.netflix.mercado.dto.common.PageResponse;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.repository.AvaliacaoRepository;
+import com.netflix.mercado.repository.ComentarioRepository;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.CursorPaginacao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Feed de avaliações de um mercado, pronto para exibição: cada avaliação vem com o resumo
+ * do autor, o total de comentários e os comentários em destaque.
+ *
+ * Uma página é montada com três consultas, qualquer que seja o tamanho: a página (com autor e
+ * mercado no mesmo SELECT), a contagem agrupada de comentários e os destaques por avaliação
+ * com ROW_NUMBER. Nenhuma entidade é carregada, então não há carregamento preguiçoso por linha.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AvaliacaoFeedService {
+
+    private static final Logger log = Logger.getLogger(AvaliacaoFeedService.class.getName());
+
+    static final int RESPOSTAS_POR_AVALIACAO = 2;
+
+    @Autowired
+    private AvaliacaoRepository avaliacaoRepository;
+
+    @Autowired
+    private ComentarioRepository comentarioRepository;
+
+    @Autowired
+    private MercadoRepository mercadoRepository;
+
+    @Autowired
+    private ContadorVotosService contadorVotosService;
+
+    /**
+     * Lista o feed de avaliações de um mercado, das mais recentes para as mais antigas.
+     *
+     * @param mercadoId ID do mercado
+     * @param after cursor retornado pela página anterior; null para a primeira
+     * @param tamanho quantidade de avaliações
+     * @return página com o cursor da próxima
+     * @throws ResourceNotFoundException se o mercado não existe
+     */
+    public PageResponse<AvaliacaoFeedResponse> listarFeed(Long mercadoId, String after, int tamanho) {
+        CursorPaginacao cursor = CursorPaginacao.decodificar(after, 1);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        Slice<Object[]> fatia = cursor == null
+                ? avaliacaoRepository.findFeedByMercadoId(mercadoId, limite)
+                : avaliacaoRepository.findFeedByMercadoIdApos(mercadoId, cursor.getData(0), cursor.getId(), limite);
+
+        // Só uma primeira página vazia precisa distinguir mercado sem avaliações de mercado inexistente
+        if (cursor == null && !fatia.hasContent() && !mercadoRepository.existsById(mercadoId)) {
+            throw new ResourceNotFoundException("Mercado não encontrado com ID: " + mercadoId);
+        }
+
+        List<Long> ids = new ArrayList<>(fatia.getNumberOfElements());
+        for (Object[] linha : fatia.getContent()) {
+            ids.add(((Number) linha[0]).longValue());
+        }
+        Map<Long, Long> totais = new HashMap<>();
+        Map<Long, List<RespostaResumoResponse>> destaques = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Object[] linha : comentarioRepository.countAtivosPorAvaliacao(ids)) {
+                totais.put(((Number) linha[0]).longValue(), ((Number) linha[1]).longValue());
+            }
+            for (Object[] linha : comentarioRepository.findDestaquesPorAvaliacoes(ids, RESPOSTAS_POR_AVALIACAO)) {
+                destaques.computeIfAbsent(((Number) linha[1]).longValue(), id -> new ArrayList<>())
+                        .add(converterResposta(linha));
+            }
+        }
+        log.fine("Feed do mercado " + mercadoId + " montado com " + ids.size() + " avaliações");
+
+        String proximo = CursorPaginacao.proximo(fatia,
+                linha -> CursorPaginacao.codificar(((Number) linha[0]).longValue(), (LocalDateTime) linha[4]));
+        Slice<AvaliacaoFeedResponse> itens = fatia.map(linha -> converterAvaliacao(linha, totais, destaques));
+        return PageResponse.deCursor(itens, proximo, cursor != null);
+    }
+
+    private AvaliacaoFeedResponse converterAvaliacao(Object[] linha, Map<Long, Long> totais,
+                                                     Map<Long, List<RespostaResumoResponse>> destaques) {
+        Long id = ((Number) linha[0]).longValue();
+        Long usuarioId = ((Number) linha[6]).longValue();
+        long uteis = linha[3] != null ? ((Number) linha[3]).longValue() : 0L;
+        uteis = Math.max(0, uteis + contadorVotosService.pendenteUteis(id));
+
+        AvaliacaoResponse avaliacao = new AvaliacaoResponse(id, usuarioId, (String) linha[8],
+                ((Number) linha[10]).longValue(), (String) linha[11], (Integer) linha[1], (String) linha[2],
+                (int) uteis, (LocalDateTime) linha[4], (LocalDateTime) linha[5]);
+        AutorResumoResponse autor = new AutorResumoResponse(usuarioId, (String) linha[7], (String) linha[9]);
+        return new AvaliacaoFeedResponse(avaliacao, autor, totais.getOrDefault(id, 0L),
+                destaques.getOrDefault(id, Collections.emptyList()));
+    }
+
+    private RespostaResumoResponse converterResposta(Object[] linha) {
+        Long id = ((Number) linha[0]).longValue();
+        long curtidas = linha[3] != null ? ((Number) linha[3]).longValue() : 0L;
+        curtidas = Math.max(0, curtidas + contadorVotosService.pendenteCurtidas(id));
+        AutorResumoResponse autor = new AutorResumoResponse(((Number) linha[5]).longValue(),
+                (String) linha[6], (String) linha[7]);
+        return new RespostaResumoResponse(id, (String) linha[2], curtidas, data(linha[4]), autor);
+    }
+
+    // Consultas nativas devolvem Timestamp ou LocalDateTime conforme o driver
+    private static LocalDateTime data(Object valor) {
+        if (valor instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) valor;
+    }
+}
@@ -4,6 +4,7 @@ import com.netflix.mercado.entity.Avaliacao;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.AuditLog;
+import com.netflix.mercado.entity.ConjuntoVotantes;
 import com.netflix.mercado.entity.Notificacao;
 import com.netflix.mercado.exception.ResourceNotFoundException;
 import com.netflix.mercado.exception.ValidationException;
@@ -14,15 +15,23 @@ import com.netflix.mercado.dto.avaliacao.CreateAvaliacaoRequest;
 import com.netflix.mercado.dto.avaliacao.UpdateAvaliacaoRequest;
 import com.netflix.mercado.dto.avaliacao.AvaliacaoResponse;
 import com.netflix.mercado.dto.avaliacao.RatingStatsResponse;
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.dto.notificacao.CreateNotificacaoRequest;
+import com.netflix.mercado.util.CursorPaginacao;
+import com.netflix.mercado.util.TransacaoUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
 /**
@@ -47,6 +56,18 @@ public class AvaliacaoService {
     @Autowired
     private NotificacaoService notificacaoService;
 
+    @Autowired
+    private AvaliacaoAgregadoService avaliacaoAgregadoService;
+
+    @Autowired
+    private ContadorVotosService contadorVotosService;
+
+    @Autowired
+    private VotoService votoService;
+
+    @Autowired
+    private FiltroConteudoService filtroConteudoService;
+
     /**
      * Cria uma nova avaliação para um mercado.
      *
@@ -62,6 +83,7 @@ public class AvaliacaoService {
         if (request.getEstrelas() == null || request.getEstrelas() < 1 || request.getEstrelas() > 5) {
             throw new ValidationException("Estrelas deve estar entre 1 e 5");
         }
+        filtroConteudoService.verificar(request.getComentario(), "Comentário da avaliação");
 
         // Buscar mercado - usando getMercadoEntityById
         Mercado mercado = mercadoService.getMercadoEntityById(request.getMercadoId());
@@ -79,8 +101,8 @@ public class AvaliacaoService {
 
         avaliacao = avaliacaoRepository.save(avaliacao);
 
-        // Atualizar avaliação média do mercado
-        mercadoService.atualizarAvaliacaoMedia(request.getMercadoId());
+        // Atualizar agregados de avaliação do mercado
+        avaliacaoAgregadoService.registrar(mercado.getId(), null, avaliacao.getEstrelas());
 
         // ✅ NOVO: Notificar seller sobre nova avaliação
         if (mercado.getCriadoPor() != null && mercado.getCriadoPor().getId() != null) {
@@ -141,6 +163,7 @@ public class AvaliacaoService {
         }
 
         String valoresAnteriores = String.format("estrelas=%d, comentario=%s", avaliacao.getEstrelas(), avaliacao.getComentario());
+        Integer estrelasAnteriores = avaliacao.getEstrelas();
 
         // Atualizar campos
         if (request.getEstrelas() != null) {
@@ -150,13 +173,14 @@ public class AvaliacaoService {
             avaliacao.setEstrelas(request.getEstrelas());
         }
         if (request.getComentario() != null) {
+            filtroConteudoService.verificar(request.getComentario(), "Comentário da avaliação");
             avaliacao.setComentario(request.getComentario());
         }
 
         avaliacao = avaliacaoRepository.save(avaliacao);
 
-        // Atualizar avaliação média do mercado
-        mercadoService.atualizarAvaliacaoMedia(avaliacao.getMercado().getId());
+        // Atualizar agregados de avaliação do mercado
+        avaliacaoAgregadoService.registrar(avaliacao.getMercado().getId(), estrelasAnteriores, avaliacao.getEstrelas());
 
         String valoresNovos = String.format("estrelas=%d, comentario=%s", avaliacao.getEstrelas(), avaliacao.getComentario());
 
@@ -198,10 +222,11 @@ public class AvaliacaoService {
         }
 
         Long mercadoId = avaliacao.getMercado().getId();
+        Integer estrelas = avaliacao.getEstrelas();
         avaliacaoRepository.delete(avaliacao);
 
-        // Atualizar avaliação média do mercado
-        mercadoService.atualizarAvaliacaoMedia(mercadoId);
+        // Atualizar agregados de avaliação do mercado
+        avaliacaoAgregadoService.registrar(mercadoId, estrelas, null);
 
         // Registrar no audit log
         auditLogRepository.save(new AuditLog(
@@ -266,66 +291,142 @@ public class AvaliacaoService {
 
     /**
      * Calcula estatísticas de avaliações de um mercado.
+     * Lê os agregados mantidos no próprio mercado, em uma única consulta.
      *
      * @param mercadoId ID do mercado
      * @return resposta com estatísticas
+     * @throws ResourceNotFoundException se mercado não existe
      */
     @Transactional(readOnly = true)
     public RatingStatsResponse calcularEstatisticas(Long mercadoId) {
         log.fine("Calculando estatísticas de avaliações do mercado ID: " + mercadoId);
-
-        mercadoService.getMercadoById(mercadoId); // Validar que mercado existe
-
-        long total = avaliacaoRepository.countByMercadoId(mercadoId);
-        long cinco = avaliacaoRepository.countByMercadoIdAndEstrelas(mercadoId, 5);
-        long quatro = avaliacaoRepository.countByMercadoIdAndEstrelas(mercadoId, 4);
-        long tres = avaliacaoRepository.countByMercadoIdAndEstrelas(mercadoId, 3);
-        long dois = avaliacaoRepository.countByMercadoIdAndEstrelas(mercadoId, 2);
-        long um = avaliacaoRepository.countByMercadoIdAndEstrelas(mercadoId, 1);
-
-        Double media = avaliacaoRepository.findAverageEstrelasByMercadoId(mercadoId);
-
-        return RatingStatsResponse.builder()
-                .totalAvaliacoes((int) total)
-                .mediaAvaliacoes(media != null ? media : 0.0)
-                .cincoEstrelas(cinco)
-                .quatroEstrelas(quatro)
-                .tresEstrelas(tres)
-                .doisEstrelas(dois)
-                .umEstrela(um)
-                .build();
+        return avaliacaoAgregadoService.estatisticas(mercadoId);
     }
 
     /**
-     * Marca uma avaliação como útil.
+     * Marca uma avaliação como útil. Cada usuário conta uma vez; um voto inútil anterior
+     * do mesmo usuário é trocado. O contador é acumulado em memória e gravado em lote
+     * pelo {@link ContadorVotosService}.
      *
      * @param id ID da avaliação
+     * @param usuario usuário votando
+     * @throws ResourceNotFoundException se avaliação não existe
      */
-    public void marcarComoUtil(Long id) {
+    public void marcarComoUtil(Long id, User usuario) {
         log.fine("Marcando avaliação como útil. ID: " + id);
 
-        Avaliacao avaliacao = obterAvaliacaoPorId(id);
-        avaliacao.setUtil(avaliacao.getUtil() + 1);
-        avaliacaoRepository.save(avaliacao);
+        validarExistencia(id);
+        votar(id, usuario, ConjuntoVotantes.Tipo.AVALIACAO_UTIL, ConjuntoVotantes.Tipo.AVALIACAO_INUTIL);
 
         log.fine("Avaliação marcada como útil. ID: " + id);
     }
 
     /**
-     * Marca uma avaliação como inútil.
+     * Marca uma avaliação como inútil. Cada usuário conta uma vez; um voto útil anterior
+     * do mesmo usuário é trocado.
      *
      * @param id ID da avaliação
+     * @param usuario usuário votando
+     * @throws ResourceNotFoundException se avaliação não existe
      */
-    public void marcarComoInutil(Long id) {
+    public void marcarComoInutil(Long id, User usuario) {
         log.fine("Marcando avaliação como inútil. ID: " + id);
 
-        Avaliacao avaliacao = obterAvaliacaoPorId(id);
-        avaliacao.setInutil(avaliacao.getInutil() + 1);
-        avaliacaoRepository.save(avaliacao);
+        validarExistencia(id);
+        votar(id, usuario, ConjuntoVotantes.Tipo.AVALIACAO_INUTIL, ConjuntoVotantes.Tipo.AVALIACAO_UTIL);
 
         log.fine("Avaliação marcada como inútil. ID: " + id);
     }
 
+    /**
+     * Retira o voto do usuário na avaliação, se houver.
+     *
+     * @param id ID da avaliação
+     * @param usuario usuário que votou
+     * @throws ResourceNotFoundException se avaliação não existe
+     */
+    public void removerVoto(Long id, User usuario) {
+        log.fine("Removendo voto da avaliação ID: " + id);
+
+        validarExistencia(id);
+        long deltaUteis = votoService.remover(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, id, usuario.getId()) ? -1 : 0;
+        long deltaInuteis = votoService.remover(ConjuntoVotantes.Tipo.AVALIACAO_INUTIL, id, usuario.getId()) ? -1 : 0;
+        TransacaoUtils.executarAposCommit(() -> contadorVotosService.registrarVoto(id, deltaUteis, deltaInuteis));
+    }
+
+    /**
+     * Marca em cada avaliação o voto do usuário, com no máximo uma consulta por tipo de voto
+     * para a página inteira.
+     *
+     * @param avaliacoes respostas da página
+     * @param usuario usuário autenticado; null não marca nada
+     */
+    @Transactional(readOnly = true)
+    public void preencherVotosDoUsuario(Collection<AvaliacaoResponse> avaliacoes, User usuario) {
+        if (usuario == null || avaliacoes.isEmpty()) {
+            return;
+        }
+        List<Long> ids = avaliacoes.stream().map(AvaliacaoResponse::getId).collect(Collectors.toList());
+        Set<Long> uteis = votoService.votados(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, ids, usuario.getId());
+        Set<Long> inuteis = votoService.votados(ConjuntoVotantes.Tipo.AVALIACAO_INUTIL, ids, usuario.getId());
+        for (AvaliacaoResponse avaliacao : avaliacoes) {
+            if (uteis.contains(avaliacao.getId())) {
+                avaliacao.setVotoUsuario("UTIL");
+            } else if (inuteis.contains(avaliacao.getId())) {
+                avaliacao.setVotoUsuario("INUTIL");
+            }
+        }
+    }
+
+    private void votar(Long id, User usuario, ConjuntoVotantes.Tipo voto, ConjuntoVotantes.Tipo oposto) {
+        // As linhas de votantes são travadas sempre na ordem do tipo (útil antes de inútil, como
+        // em removerVoto): um voto útil e um inútil simultâneos do mesmo usuário não se cruzam
+        boolean novo;
+        boolean trocou;
+        if (voto.compareTo(oposto) < 0) {
+            novo = votoService.adicionar(voto, id, usuario.getId());
+            trocou = novo && votoService.remover(oposto, id, usuario.getId());
+        } else {
+            trocou = votoService.remover(oposto, id, usuario.getId());
+            novo = votoService.adicionar(voto, id, usuario.getId());
+        }
+        if (!novo && !trocou) {
+            log.fine("Usuário já votou na avaliação ID: " + id);
+            return;
+        }
+        boolean util = voto == ConjuntoVotantes.Tipo.AVALIACAO_UTIL;
+        long deltaVoto = novo ? 1 : 0;
+        long deltaOposto = trocou ? -1 : 0;
+        long deltaUteis = util ? deltaVoto : deltaOposto;
+        long deltaInuteis = util ? deltaOposto : deltaVoto;
+        // Só depois do commit: em rollback o conjunto de votantes volta e o contador não pode andar
+        TransacaoUtils.executarAposCommit(() -> contadorVotosService.registrarVoto(id, deltaUteis, deltaInuteis));
+    }
+
+    /**
+     * Converte para resposta somando os votos ainda não gravados.
+     *
+     * @param avaliacao avaliação carregada do banco
+     * @return resposta com contadores atualizados
+     */
+    public AvaliacaoResponse converterParaResponse(Avaliacao avaliacao) {
+        AvaliacaoResponse response = AvaliacaoResponse.from(avaliacao);
+        if (avaliacao.getId() != null) {
+            long pendentes = contadorVotosService.pendenteUteis(avaliacao.getId());
+            if (pendentes != 0) {
+                response.setCurtidas((int) Math.max(0, response.getCurtidas() + pendentes));
+            }
+        }
+        return response;
+    }
+
+    private void validarExistencia(Long id) {
+        if (!avaliacaoRepository.existsById(id)) {
+            log.warning("Avaliação não encontrada com ID: " + id);
+            throw new ResourceNotFoundException("Avaliação não encontrada com ID: " + id);
+        }
+    }
+
     /**
      * Valida se já existe avaliação do usuário para o mercado.
      *
@@ -355,12 +456,12 @@ public class AvaliacaoService {
     // Aliases em inglês para compatibilidade com Controllers
     public AvaliacaoResponse createAvaliacao(CreateAvaliacaoRequest request, User usuario) {
         Avaliacao avaliacao = criarAvaliacao(request, usuario);
-        return AvaliacaoResponse.from(avaliacao);
+        return converterParaResponse(avaliacao);
     }
 
     public AvaliacaoResponse updateAvaliacao(Long id, UpdateAvaliacaoRequest request, User usuario) {
         Avaliacao avaliacao = atualizarAvaliacao(id, request, usuario);
-        return AvaliacaoResponse.from(avaliacao);
+        return converterParaResponse(avaliacao);
     }
 
     public void deleteAvaliacao(Long id, User usuario) {
@@ -372,11 +473,36 @@ public class AvaliacaoService {
     }
 
     public Page<AvaliacaoResponse> listAvaliacoes(Pageable pageable) {
-        return avaliacaoRepository.findAll(pageable).map(AvaliacaoResponse::from);
+        return avaliacaoRepository.findAll(pageable).map(this::converterParaResponse);
     }
 
     public Page<AvaliacaoResponse> listAvaliacoesByMercado(Long mercadoId, Pageable pageable) {
-        return obterAvaliacoesPorMercado(mercadoId, pageable).map(AvaliacaoResponse::from);
+        return obterAvaliacoesPorMercado(mercadoId, pageable).map(this::converterParaResponse);
+    }
+
+    /**
+     * Lista as avaliações de um mercado por cursor, das mais recentes para as mais antigas,
+     * sem contagem total. Usado na rolagem infinita das avaliações.
+     *
+     * @param mercadoId ID do mercado
+     * @param after cursor retornado pela página anterior; null para a primeira
+     * @param tamanho quantidade de itens
+     * @return página com o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<AvaliacaoResponse> listAvaliacoesByMercadoCursor(Long mercadoId, String after, int tamanho) {
+        CursorPaginacao cursor = CursorPaginacao.decodificar(after, 1);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        Slice<Avaliacao> fatia;
+        if (cursor == null) {
+            mercadoService.getMercadoById(mercadoId); // Validar que mercado existe
+            fatia = avaliacaoRepository.findByMercadoIdCursor(mercadoId, limite);
+        } else {
+            fatia = avaliacaoRepository.findByMercadoIdApos(mercadoId, cursor.getData(0), cursor.getId(), limite);
+        }
+        String proximo = CursorPaginacao.proximo(fatia,
+                a -> CursorPaginacao.codificar(a.getId(), a.getCreatedAt()));
+        return PageResponse.deCursor(fatia.map(this::converterParaResponse), proximo, cursor != null);
     }
 
     public RatingStatsResponse getRatingStats(Long mercadoId) {
@@ -386,11 +512,15 @@ public class AvaliacaoService {
     public AvaliacaoService() {
     }
 
-    public AvaliacaoService(AvaliacaoRepository avaliacaoRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService, NotificacaoService notificacaoService) {
+    public AvaliacaoService(AvaliacaoRepository avaliacaoRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService, NotificacaoService notificacaoService, AvaliacaoAgregadoService avaliacaoAgregadoService, ContadorVotosService contadorVotosService, VotoService votoService, FiltroConteudoService filtroConteudoService) {
         this.avaliacaoRepository = avaliacaoRepository;
         this.auditLogRepository = auditLogRepository;
         this.mercadoService = mercadoService;
         this.notificacaoService = notificacaoService;
+        this.avaliacaoAgregadoService = avaliacaoAgregadoService;
+        this.contadorVotosService = contadorVotosService;
+        this.votoService = votoService;
+        this.filtroConteudoService = filtroConteudoService;
     }
 
     public AvaliacaoRepository getAvaliacaoRepository() {
@@ -425,6 +555,38 @@ public class AvaliacaoService {
         this.notificacaoService = notificacaoService;
     }
 
+    public AvaliacaoAgregadoService getAvaliacaoAgregadoService() {
+        return this.avaliacaoAgregadoService;
+    }
+
+    public void setAvaliacaoAgregadoService(AvaliacaoAgregadoService avaliacaoAgregadoService) {
+        this.avaliacaoAgregadoService = avaliacaoAgregadoService;
+    }
+
+    public ContadorVotosService getContadorVotosService() {
+        return this.contadorVotosService;
+    }
+
+    public void setContadorVotosService(ContadorVotosService contadorVotosService) {
+        this.contadorVotosService = contadorVotosService;
+    }
+
+    public VotoService getVotoService() {
+        return this.votoService;
+    }
+
+    public void setVotoService(VotoService votoService) {
+        this.votoService = votoService;
+    }
+
+    public FiltroConteudoService getFiltroConteudoService() {
+        return this.filtroConteudoService;
+    }
+
+    public void setFiltroConteudoService(FiltroConteudoService filtroConteudoService) {
+        this.filtroConteudoService = filtroConteudoService;
+    }
+
     /**
      * ✅ NOVO: Calcula estatísticas de avaliação de um mercado.
      * Inclui distribuição por estrelas e percentual de aprovação.
@@ -435,69 +597,7 @@ public class AvaliacaoService {
      */
     public RatingStatsResponse obterEstatisticasAvaliacao(Long mercadoId) {
         log.info("Calculando estatísticas de avaliação para mercado ID: " + mercadoId);
-
-        Mercado mercado = mercadoService.getMercadoEntityById(mercadoId);
-
-        // Buscar todas as avaliações do mercado (sem paginação)
-        Page<Avaliacao> avaliacoes = avaliacaoRepository.findByMercadoId(mercadoId, 
-            org.springframework.data.domain.PageRequest.of(0, 10000));
-
-        if (avaliacoes.isEmpty()) {
-            return RatingStatsResponse.builder()
-                    .totalAvaliacoes(0)
-                    .mediaAvaliacoes(0.0)
-                    .cincoEstrelas(0L)
-                    .quatroEstrelas(0L)
-                    .tresEstrelas(0L)
-                    .doisEstrelas(0L)
-                    .umEstrela(0L)
-                    .percentualAprovacao(0.0)
-                    .percentualCincoEstrelas(0.0)
-                    .percentualQuatroEstrelas(0.0)
-                    .percentualTresEstrelas(0.0)
-                    .percentualDoisEstrelas(0.0)
-                    .percentualUmEstrela(0.0)
-                    .build();
-        }
-
-        // Contar avaliações por número de estrelas
-        long cinco = avaliacoes.stream().filter(a -> a.getEstrelas() == 5).count();
-        long quatro = avaliacoes.stream().filter(a -> a.getEstrelas() == 4).count();
-        long tres = avaliacoes.stream().filter(a -> a.getEstrelas() == 3).count();
-        long dois = avaliacoes.stream().filter(a -> a.getEstrelas() == 2).count();
-        long um = avaliacoes.stream().filter(a -> a.getEstrelas() == 1).count();
-
-        int total = (int) avaliacoes.getTotalElements();
-
-        // Calcular percentuais
-        double percAceitacao = ((cinco + quatro) * 100.0) / total;
-        double perc5 = (cinco * 100.0) / total;
-        double perc4 = (quatro * 100.0) / total;
-        double perc3 = (tres * 100.0) / total;
-        double perc2 = (dois * 100.0) / total;
-        double perc1 = (um * 100.0) / total;
-
-        // Calcular média
-        double media = mercado.getAvaliacaoMedia().doubleValue();
-
-        log.info("Estatísticas calculadas - Total: " + total + ", Média: " + media + 
-                 ", Aprovação: " + String.format("%.2f", percAceitacao) + "%");
-
-        return RatingStatsResponse.builder()
-                .totalAvaliacoes(total)
-                .mediaAvaliacoes(media)
-                .cincoEstrelas(cinco)
-                .quatroEstrelas(quatro)
-                .tresEstrelas(tres)
-                .doisEstrelas(dois)
-                .umEstrela(um)
-                .percentualAprovacao(Math.round(percAceitacao * 100.0) / 100.0)
-                .percentualCincoEstrelas(Math.round(perc5 * 100.0) / 100.0)
-                .percentualQuatroEstrelas(Math.round(perc4 * 100.0) / 100.0)
-                .percentualTresEstrelas(Math.round(perc3 * 100.0) / 100.0)
-                .percentualDoisEstrelas(Math.round(perc2 * 100.0) / 100.0)
-                .percentualUmEstrela(Math.round(perc1 * 100.0) / 100.0)
-                .build();
+        return avaliacaoAgregadoService.estatisticas(mercadoId);
     }
 
 }
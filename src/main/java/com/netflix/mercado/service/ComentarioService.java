@@ -4,6 +4,7 @@ import com.netflix.mercado.entity.Comentario;
 import com.netflix.mercado.entity.Avaliacao;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.entity.AuditLog;
+import com.netflix.mercado.entity.ConjuntoVotantes;
 import com.netflix.mercado.exception.ResourceNotFoundException;
 import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.exception.UnauthorizedException;
@@ -12,15 +13,31 @@ import com.netflix.mercado.repository.AuditLogRepository;
 import com.netflix.mercado.dto.comentario.CreateComentarioRequest;
 import com.netflix.mercado.dto.comentario.UpdateComentarioRequest;
 import com.netflix.mercado.dto.comentario.ComentarioResponse;
+import com.netflix.mercado.dto.common.PageResponse;
+import com.netflix.mercado.util.CursorPaginacao;
+import com.netflix.mercado.util.TransacaoUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
 /**
@@ -33,6 +50,8 @@ public class ComentarioService {
 
     private static final Logger log = Logger.getLogger(ComentarioService.class.getName());
 
+    static final int MAXIMO_THREAD = 2000;
+
     @Autowired
     private ComentarioRepository comentarioRepository;
 
@@ -42,6 +61,18 @@ public class ComentarioService {
     @Autowired
     private AvaliacaoService avaliacaoService;
 
+    @Autowired
+    private ContadorVotosService contadorVotosService;
+
+    @Autowired
+    private VotoService votoService;
+
+    @Autowired
+    private FiltroConteudoService filtroConteudoService;
+
+    @Autowired
+    private ModeracaoService moderacaoService;
+
     /**
      * Cria um novo comentário em uma avaliação.
      *
@@ -61,6 +92,7 @@ public class ComentarioService {
         if (request.getConteudo().length() > 1000) {
             throw new ValidationException("Comentário não pode exceder 1000 caracteres");
         }
+        filtroConteudoService.verificar(request.getConteudo(), "Comentário");
 
         // Buscar avaliação
         Avaliacao avaliacao = avaliacaoService.obterAvaliacaoPorId(request.getAvaliacaoId());
@@ -71,9 +103,13 @@ public class ComentarioService {
         comentario.setConteudo(request.getConteudo());
         comentario.setComentarioPai(null); // Comentário raiz
         comentario.setModerado(false); // Requer moderação
+        comentario.setPrazoModeracao(ModeracaoService.prazoInicial(LocalDateTime.now(),
+                comentarioRepository.countRejeitadosDoAutor(usuario.getId())));
         // curtidas já tem valor padrão 0L
 
         comentario = comentarioRepository.save(comentario);
+        comentario.posicionar();
+        comentario.pontuarDestaque();
 
         // Registrar no audit log
         auditLogRepository.save(new AuditLog(
@@ -117,6 +153,7 @@ public class ComentarioService {
             if (request.getConteudo().length() > 1000) {
                 throw new ValidationException("Comentário não pode exceder 1000 caracteres");
             }
+            filtroConteudoService.verificar(request.getConteudo(), "Comentário");
             comentario.setConteudo(request.getConteudo());
         }
 
@@ -237,8 +274,14 @@ public class ComentarioService {
         if (request.getConteudo().length() > 1000) {
             throw new ValidationException("Resposta não pode exceder 1000 caracteres");
         }
+        filtroConteudoService.verificar(request.getConteudo(), "Resposta");
 
         Comentario comentarioPai = obterComentarioPorId(comentarioPaiId);
+        // Sem caminho só ficam respostas antigas abaixo do limite de profundidade
+        if (comentarioPai.getCaminho() == null
+                || comentarioPai.getProfundidade() >= Comentario.PROFUNDIDADE_MAXIMA) {
+            throw new ValidationException("Limite de " + Comentario.PROFUNDIDADE_MAXIMA + " níveis de respostas atingido");
+        }
 
         Comentario respostaComentario = new Comentario();
         respostaComentario.setAvaliacao(comentarioPai.getAvaliacao());
@@ -246,9 +289,13 @@ public class ComentarioService {
         respostaComentario.setConteudo(request.getConteudo());
         respostaComentario.setComentarioPai(comentarioPai);
         respostaComentario.setModerado(false);
+        respostaComentario.setPrazoModeracao(ModeracaoService.prazoInicial(LocalDateTime.now(),
+                comentarioRepository.countRejeitadosDoAutor(usuario.getId())));
         // curtidas já tem valor padrão 0L
 
         respostaComentario = comentarioRepository.save(respostaComentario);
+        respostaComentario.posicionar();
+        respostaComentario.pontuarDestaque();
 
         // Registrar no audit log
         auditLogRepository.save(new AuditLog(
@@ -265,7 +312,8 @@ public class ComentarioService {
     }
 
     /**
-     * Adiciona uma curtida ao comentário.
+     * Adiciona uma curtida ao comentário. Cada usuário curte uma vez; curtir de novo
+     * não altera o contador.
      *
      * @param id ID do comentário
      * @param usuario usuário curtindo
@@ -273,12 +321,14 @@ public class ComentarioService {
     public void adicionarCurtida(Long id, User usuario) {
         log.fine("Adicionando curtida ao comentário ID: " + id + " do usuário: " + usuario.getEmail());
 
-        Comentario comentario = obterComentarioPorId(id);
+        validarExistencia(id);
 
-        // TODO: implementar controle de curtidas por usuário (criar tabela comentario_curtidas)
-        // Por enquanto, apenas incrementar contador
-        comentario.setCurtidas(comentario.getCurtidas() + 1);
-        comentarioRepository.save(comentario);
+        if (!votoService.adicionar(ConjuntoVotantes.Tipo.COMENTARIO_CURTIDA, id, usuario.getId())) {
+            log.fine("Usuário já curtiu o comentário ID: " + id);
+            return;
+        }
+        // Contador gravado em lote pelo ContadorVotosService, só depois do commit do conjunto de votantes
+        TransacaoUtils.executarAposCommit(() -> contadorVotosService.registrarCurtida(id, 1));
 
         log.fine("Curtida adicionada ao comentário ID: " + id);
     }
@@ -292,40 +342,72 @@ public class ComentarioService {
     public void removerCurtida(Long id, User usuario) {
         log.fine("Removendo curtida do comentário ID: " + id + " do usuário: " + usuario.getEmail());
 
-        Comentario comentario = obterComentarioPorId(id);
+        validarExistencia(id);
 
-        // TODO: implementar controle de curtidas por usuário
-        if (comentario.getCurtidas() > 0) {
-            comentario.setCurtidas(comentario.getCurtidas() - 1);
-            comentarioRepository.save(comentario);
+        if (!votoService.remover(ConjuntoVotantes.Tipo.COMENTARIO_CURTIDA, id, usuario.getId())) {
+            log.fine("Usuário não curtiu o comentário ID: " + id);
+            return;
         }
+        TransacaoUtils.executarAposCommit(() -> contadorVotosService.registrarCurtida(id, -1));
 
         log.fine("Curtida removida do comentário ID: " + id);
     }
 
     /**
-     * Aprova ou desaprova um comentário (apenas admin/moderator).
+     * Marca em cada comentário se o usuário o curtiu, com uma consulta para a página inteira.
      *
-     * @param id ID do comentário
-     * @param aprovado true para aprovar, false para desaprovar
+     * @param comentarios respostas da página
+     * @param usuario usuário autenticado; null não marca nada
      */
-    public void moderarComentario(Long id, Boolean aprovado) {
-        log.info("Moderando comentário ID: " + id + ", aprovado: " + aprovado);
+    @Transactional(readOnly = true)
+    public void preencherCurtidasDoUsuario(Collection<ComentarioResponse> comentarios, User usuario) {
+        if (usuario == null || comentarios.isEmpty()) {
+            return;
+        }
+        List<Long> ids = comentarios.stream().map(ComentarioResponse::getId).collect(Collectors.toList());
+        Set<Long> curtidos = votoService.votados(ConjuntoVotantes.Tipo.COMENTARIO_CURTIDA, ids, usuario.getId());
+        for (ComentarioResponse comentario : comentarios) {
+            comentario.setCurtidoPeloUsuario(curtidos.contains(comentario.getId()));
+        }
+    }
 
-        Comentario comentario = obterComentarioPorId(id);
-        comentario.setModerado(aprovado);
-        comentarioRepository.save(comentario);
+    /**
+     * Converte para resposta somando as curtidas ainda não gravadas.
+     *
+     * @param comentario comentário carregado do banco
+     * @return resposta com contador atualizado
+     */
+    public ComentarioResponse converterParaResponse(Comentario comentario) {
+        ComentarioResponse response = ComentarioResponse.from(comentario);
+        if (comentario.getId() != null) {
+            long pendentes = contadorVotosService.pendenteCurtidas(comentario.getId());
+            if (pendentes != 0) {
+                response.setCurtidas((int) Math.max(0, response.getCurtidas() + pendentes));
+            }
+        }
+        return response;
+    }
 
-        auditLogRepository.save(new AuditLog(
-                null, // Admin action
-                AuditLog.TipoAcao.ATUALIZACAO,
-                "COMENTARIO",
-                id,
-                "Comentário " + (aprovado ? "aprovado" : "desaprovado"),
-                null, null, null, null, 200
-        ));
+    private void validarExistencia(Long id) {
+        if (!comentarioRepository.existsById(id)) {
+            log.warning("Comentário não encontrado com ID: " + id);
+            throw new ResourceNotFoundException("Comentário não encontrado com ID: " + id);
+        }
+    }
 
-        log.info("Comentário moderado com sucesso. ID: " + id);
+    /**
+     * Aprova ou desaprova um comentário (apenas admin/moderator).
+     *
+     * @param id ID do comentário
+     * @param aprovado true para aprovar, false para desaprovar
+     * @param moderador usuário realizando a moderação
+     */
+    public void moderarComentario(Long id, Boolean aprovado, User moderador) {
+        if (Boolean.TRUE.equals(aprovado)) {
+            aprovarComentario(id, moderador);
+        } else {
+            rejeitarComentario(id, null, moderador);
+        }
     }
 
     /**
@@ -340,11 +422,11 @@ public class ComentarioService {
 
     // Aliases em inglês para compatibilidade com Controllers
     public ComentarioResponse createComentario(Long avaliacaoId, CreateComentarioRequest request, User usuario) {
-        return ComentarioResponse.from(criarComentario(request, usuario));
+        return converterParaResponse(criarComentario(request, usuario));
     }
 
     public ComentarioResponse updateComentario(Long id, UpdateComentarioRequest request, User usuario) {
-        return ComentarioResponse.from(atualizarComentario(id, request, usuario));
+        return converterParaResponse(atualizarComentario(id, request, usuario));
     }
 
     public void deleteComentario(Long id, User usuario) {
@@ -352,24 +434,205 @@ public class ComentarioService {
     }
 
     public ComentarioResponse getComentarioById(Long id) {
-        return ComentarioResponse.from(obterComentarioPorId(id));
+        return converterParaResponse(obterComentarioPorId(id));
     }
 
     public Page<ComentarioResponse> listComentarios(Long avaliacaoId, Pageable pageable) {
-        return obterComentariosPorAvaliacao(avaliacaoId, pageable).map(ComentarioResponse::from);
+        return obterComentariosPorAvaliacao(avaliacaoId, pageable).map(this::converterParaResponse);
+    }
+
+    /**
+     * Lista os comentários de primeiro nível de uma avaliação por cursor, em ordem de conversa
+     * (mais antigos primeiro), sem contagem total.
+     *
+     * @param avaliacaoId ID da avaliação
+     * @param after cursor retornado pela página anterior; null para a primeira
+     * @param tamanho quantidade de itens
+     * @return página com o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<ComentarioResponse> listComentariosCursor(Long avaliacaoId, String after, int tamanho) {
+        CursorPaginacao cursor = CursorPaginacao.decodificar(after, 1);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        Slice<Comentario> fatia;
+        if (cursor == null) {
+            avaliacaoService.obterAvaliacaoPorId(avaliacaoId); // Validar que avaliação existe
+            fatia = comentarioRepository.findByAvaliacaoIdAndComentarioPaiIsNullCursor(avaliacaoId, limite);
+        } else {
+            fatia = comentarioRepository.findByAvaliacaoIdAndComentarioPaiIsNullApos(avaliacaoId,
+                    cursor.getData(0), cursor.getId(), limite);
+        }
+        String proximo = CursorPaginacao.proximo(fatia,
+                c -> CursorPaginacao.codificar(c.getId(), c.getCreatedAt()));
+        return PageResponse.deCursor(fatia.map(this::converterParaResponse), proximo, cursor != null);
+    }
+
+    /**
+     * Lista os comentários de primeiro nível de uma avaliação pelos mais destacados: curtidas
+     * com decaimento no tempo ({@link Comentario#pontuarDestaque()}). A ordem vem pronta do
+     * índice, então cada página lê só os itens entregues.
+     *
+     * @param avaliacaoId ID da avaliação
+     * @param after cursor retornado pela página anterior; null para a primeira
+     * @param tamanho quantidade de itens (top-k)
+     * @return página com o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<ComentarioResponse> listarDestaques(Long avaliacaoId, String after, int tamanho) {
+        CursorPaginacao cursor = CursorPaginacao.decodificar(after, 1);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        Slice<Comentario> fatia;
+        if (cursor == null) {
+            avaliacaoService.obterAvaliacaoPorId(avaliacaoId); // Validar que avaliação existe
+            fatia = comentarioRepository.findDestaquesByAvaliacaoId(avaliacaoId, limite);
+        } else {
+            fatia = comentarioRepository.findDestaquesByAvaliacaoIdApos(avaliacaoId,
+                    cursor.getDouble(0), cursor.getId(), limite);
+        }
+        String proximo = CursorPaginacao.proximo(fatia,
+                c -> CursorPaginacao.codificar(c.getId(), c.getPontuacaoDestaque()));
+        return PageResponse.deCursor(fatia.map(this::converterParaResponse), proximo, cursor != null);
+    }
+
+    /**
+     * Carrega a discussão de uma avaliação em uma única consulta, em ordem de conversa:
+     * cada comentário vem seguido de suas respostas, em profundidade.
+     *
+     * @param avaliacaoId ID da avaliação
+     * @param profundidade nível máximo (0 = só primeiro nível); null para todos
+     * @return comentários em ordem de caminho, limitados a {@value #MAXIMO_THREAD}
+     */
+    @Transactional(readOnly = true)
+    public List<ComentarioResponse> listarThread(Long avaliacaoId, Integer profundidade) {
+        log.fine("Buscando discussão da avaliação ID: " + avaliacaoId);
+        avaliacaoService.obterAvaliacaoPorId(avaliacaoId); // Validar que avaliação existe
+        return comentarioRepository.findThreadByAvaliacaoId(avaliacaoId, limitarProfundidade(0, profundidade),
+                        PageRequest.of(0, MAXIMO_THREAD))
+                .stream()
+                .map(this::converterParaResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Carrega um comentário e suas respostas em uma única consulta pelo prefixo do caminho.
+     * Comentários legados ainda sem caminho (cadeias mais profundas que o preenchimento da
+     * inicialização alcança) são carregados nível a nível pelo pai.
+     *
+     * @param comentarioId ID do comentário raiz da subárvore
+     * @param profundidade níveis abaixo do comentário (0 = só ele); null para todos
+     * @return o comentário seguido das respostas, em ordem de caminho
+     * @throws ResourceNotFoundException se comentário não existe
+     * @throws ValidationException se a profundidade for negativa
+     */
+    @Transactional(readOnly = true)
+    public List<ComentarioResponse> listarSubarvore(Long comentarioId, Integer profundidade) {
+        log.fine("Buscando respostas em árvore do comentário ID: " + comentarioId);
+        Comentario raiz = obterComentarioPorId(comentarioId);
+        List<Comentario> subarvore;
+        if (raiz.getCaminho() == null) {
+            log.fine("Comentário ID " + comentarioId + " sem caminho calculado; carregando respostas pelo pai");
+            subarvore = carregarSubarvorePorPai(raiz, limitarProfundidade(0, profundidade));
+        } else {
+            subarvore = comentarioRepository.findSubarvore(raiz.getAvaliacao().getId(), raiz.getCaminho(),
+                    limitarProfundidade(raiz.getProfundidade(), profundidade), PageRequest.of(0, MAXIMO_THREAD));
+        }
+        return subarvore.stream()
+                .map(this::converterParaResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Percorre a subárvore um nível por consulta e devolve os comentários ativos na mesma
+     * ordem do caminho: cada comentário seguido de suas respostas, irmãos por ID.
+     */
+    private List<Comentario> carregarSubarvorePorPai(Comentario raiz, int niveis) {
+        Map<Long, List<Comentario>> respostasPorPai = new HashMap<>();
+        Set<Long> visitados = new HashSet<>();
+        visitados.add(raiz.getId());
+        List<Long> nivelAtual = List.of(raiz.getId());
+        for (int nivel = 1; nivel <= niveis && !nivelAtual.isEmpty() && visitados.size() < MAXIMO_THREAD; nivel++) {
+            List<Long> proximoNivel = new ArrayList<>();
+            for (Comentario resposta : comentarioRepository.findRespostasDe(nivelAtual)) {
+                if (visitados.add(resposta.getId())) {
+                    respostasPorPai.computeIfAbsent(resposta.getComentarioPai().getId(), id -> new ArrayList<>())
+                            .add(resposta);
+                    proximoNivel.add(resposta.getId());
+                }
+            }
+            nivelAtual = proximoNivel;
+        }
+
+        List<Comentario> ordenados = new ArrayList<>();
+        Deque<Comentario> pendentes = new ArrayDeque<>();
+        pendentes.push(raiz);
+        while (!pendentes.isEmpty() && ordenados.size() < MAXIMO_THREAD) {
+            Comentario atual = pendentes.pop();
+            if (Boolean.TRUE.equals(atual.getActive())) {
+                ordenados.add(atual);
+            }
+            List<Comentario> respostas = respostasPorPai.getOrDefault(atual.getId(), List.of());
+            for (int i = respostas.size() - 1; i >= 0; i--) {
+                pendentes.push(respostas.get(i));
+            }
+        }
+        return ordenados;
+    }
+
+    private static int limitarProfundidade(int base, Integer profundidade) {
+        if (profundidade != null && profundidade < 0) {
+            throw new ValidationException("Profundidade não pode ser negativa");
+        }
+        int relativa = profundidade == null ? Comentario.PROFUNDIDADE_MAXIMA : Math.min(profundidade, Comentario.PROFUNDIDADE_MAXIMA);
+        return base + relativa;
+    }
+
+    /**
+     * Calcula o caminho dos comentários criados antes da coluna existir, um nível por vez,
+     * até {@link Comentario#PROFUNDIDADE_MAXIMA}. Comentários antigos não tinham limite de
+     * profundidade; os mais fundos ficam sem caminho (que não caberia na coluna) e são
+     * lidos pelo pai em {@link #listarSubarvore}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherCaminhos() {
+        int total = comentarioRepository.preencherCaminhoRaizes();
+        for (int nivel = 1; nivel <= Comentario.PROFUNDIDADE_MAXIMA; nivel++) {
+            int atualizados = comentarioRepository.preencherCaminhoRespostas(Comentario.PROFUNDIDADE_MAXIMA);
+            if (atualizados == 0) {
+                break;
+            }
+            total += atualizados;
+        }
+        if (total > 0) {
+            log.info("Caminho calculado para " + total + " comentários");
+        }
+    }
+
+    /**
+     * Calcula a pontuação de destaque dos comentários criados antes da coluna existir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherPontuacaoDestaque() {
+        int total = comentarioRepository.preencherPontuacaoDestaque();
+        if (total > 0) {
+            log.info("Pontuação de destaque calculada para " + total + " comentários");
+        }
     }
 
     public ComentarioResponse replyComentario(Long comentarioPaiId, CreateComentarioRequest request, User usuario) {
-        return ComentarioResponse.from(responderComentario(comentarioPaiId, request, usuario));
+        return converterParaResponse(responderComentario(comentarioPaiId, request, usuario));
     }
 
     public ComentarioService() {
     }
 
-    public ComentarioService(ComentarioRepository comentarioRepository, AuditLogRepository auditLogRepository, AvaliacaoService avaliacaoService) {
+    public ComentarioService(ComentarioRepository comentarioRepository, AuditLogRepository auditLogRepository, AvaliacaoService avaliacaoService, ContadorVotosService contadorVotosService, VotoService votoService, FiltroConteudoService filtroConteudoService, ModeracaoService moderacaoService) {
         this.comentarioRepository = comentarioRepository;
         this.auditLogRepository = auditLogRepository;
         this.avaliacaoService = avaliacaoService;
+        this.contadorVotosService = contadorVotosService;
+        this.votoService = votoService;
+        this.filtroConteudoService = filtroConteudoService;
+        this.moderacaoService = moderacaoService;
     }
 
     public ComentarioRepository getComentarioRepository() {
@@ -396,69 +659,75 @@ public class ComentarioService {
         this.avaliacaoService = avaliacaoService;
     }
 
+    public ContadorVotosService getContadorVotosService() {
+        return this.contadorVotosService;
+    }
+
+    public void setContadorVotosService(ContadorVotosService contadorVotosService) {
+        this.contadorVotosService = contadorVotosService;
+    }
+
+    public VotoService getVotoService() {
+        return this.votoService;
+    }
+
+    public void setVotoService(VotoService votoService) {
+        this.votoService = votoService;
+    }
+
+    public FiltroConteudoService getFiltroConteudoService() {
+        return this.filtroConteudoService;
+    }
+
+    public void setFiltroConteudoService(FiltroConteudoService filtroConteudoService) {
+        this.filtroConteudoService = filtroConteudoService;
+    }
+
+    public ModeracaoService getModeracaoService() {
+        return this.moderacaoService;
+    }
+
+    public void setModeracaoService(ModeracaoService moderacaoService) {
+        this.moderacaoService = moderacaoService;
+    }
+
     /**
      * ✅ NOVO: Aprova um comentário para publicação (apenas ADMIN/MODERADOR).
+     * Respeita a reserva da fila de moderação: um comentário reservado por outro moderador
+     * não pode ser decidido até a reserva vencer.
      *
      * @param comentarioId ID do comentário
      * @param moderador usuário realizando a moderação
      * @throws ResourceNotFoundException se comentário não existe
-     * @throws UnauthorizedException se não tem permissão
+     * @throws ValidationException se outro moderador reservou o comentário
      */
     public void aprovarComentario(Long comentarioId, User moderador) {
         log.info("Aprovando comentário ID: " + comentarioId + " por " + moderador.getEmail());
-
-        Comentario comentario = comentarioRepository.findById(comentarioId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comentário não encontrado"));
-
-        comentario.setModerado(true);
-        comentario.setModeradoPor(moderador);
-        comentario.setMotivoRejeicao(null);
-        comentarioRepository.save(comentario);
-
-        // Auditoria
-        auditLogRepository.save(new AuditLog(
-                moderador,
-                AuditLog.TipoAcao.ATUALIZACAO,
-                "COMENTARIO",
-                comentarioId,
-                "Comentário aprovado: " + comentario.getConteudo().substring(0, Math.min(50, comentario.getConteudo().length())),
-                null, null, null, null, null
-        ));
-
-        log.info("Comentário aprovado com sucesso. ID: " + comentarioId);
+        decidir(comentarioId, true, null, moderador);
     }
 
     /**
      * ✅ NOVO: Rejeita um comentário impedindo sua publicação (apenas ADMIN/MODERADOR).
+     * Respeita a reserva da fila de moderação, como {@link #aprovarComentario(Long, User)}.
      *
      * @param comentarioId ID do comentário
      * @param motivo motivo da rejeição
      * @param moderador usuário realizando a moderação
      * @throws ResourceNotFoundException se comentário não existe
-     * @throws UnauthorizedException se não tem permissão
+     * @throws ValidationException se outro moderador reservou o comentário
      */
     public void rejeitarComentario(Long comentarioId, String motivo, User moderador) {
         log.info("Rejeitando comentário ID: " + comentarioId + " por " + moderador.getEmail());
+        decidir(comentarioId, false, motivo, moderador);
+    }
 
-        Comentario comentario = comentarioRepository.findById(comentarioId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comentário não encontrado"));
-
-        comentario.setModerado(false);
-        comentario.setModeradoPor(moderador);
-        comentario.setMotivoRejeicao(motivo != null ? motivo : "Conteúdo inapropriado");
-        comentarioRepository.save(comentario);
-
-        // Auditoria
-        auditLogRepository.save(new AuditLog(
-                moderador,
-                AuditLog.TipoAcao.ATUALIZACAO,
-                "COMENTARIO",
-                comentarioId,
-                "Comentário rejeitado. Motivo: " + motivo,
-                null, null, null, null, null
-        ));
-
-        log.info("Comentário rejeitado com sucesso. ID: " + comentarioId);
+    private void decidir(Long comentarioId, boolean aprovado, String motivo, User moderador) {
+        if (!comentarioRepository.existsById(comentarioId)) {
+            throw new ResourceNotFoundException("Comentário não encontrado");
+        }
+        if (!moderacaoService.decidirComentario(comentarioId, aprovado, motivo, moderador)) {
+            throw new ValidationException("Comentário reservado por outro moderador");
+        }
     }
 
     /**
@@ -0,0 +1,158 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.FragmentoFavoritos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Total de favoritos por mercado, desnormalizado em {@code mercados.total_favoritos}.
+ *
+ * O total é ajustado na mesma transação que inclui ou remove o favorito
+ * ({@link FavoritoEscritaService}), então a leitura é a de uma coluna em vez de um COUNT.
+ * Mercados que passam de {@code app.favoritos.limiar-fragmentos} favoritos recebem
+ * {@link FragmentoFavoritos#FAIXAS} linhas de parcela: a partir daí cada toque soma em uma
+ * parcela sorteada, e {@link #consolidar()} transfere periodicamente as parcelas para o
+ * mercado. {@link #totalFavoritos(Long)} soma coluna e parcelas e é sempre exato; a coluna,
+ * usada nas listagens e na ordenação, fica atrás no máximo um intervalo de consolidação
+ * nos mercados fragmentados.
+ */
+@Service
+public class ContadorFavoritosService {
+
+    private static final Logger log = Logger.getLogger(ContadorFavoritosService.class.getName());
+
+    private static final int TAMANHO_LOTE = 500;
+
+    private static final String SQL_TOTAL =
+            "SELECT COALESCE(m.total_favoritos, 0) + " +
+            "COALESCE((SELECT SUM(f.total) FROM favoritos_fragmentos f WHERE f.mercado_id = m.id), 0) " +
+            "FROM mercados m WHERE m.id = ?";
+
+    // FOR UPDATE: duas consolidações simultâneas não transferem a mesma parcela duas vezes
+    private static final String SQL_PARCELAS =
+            "SELECT mercado_id, faixa, total FROM favoritos_fragmentos WHERE total <> 0 " +
+            "ORDER BY mercado_id, faixa FOR UPDATE";
+
+    private static final String SQL_ZERAR_PARCELA =
+            "UPDATE favoritos_fragmentos SET total = total - ?, updated_at = ? WHERE mercado_id = ? AND faixa = ?";
+
+    private static final String SQL_TRANSFERIR =
+            "UPDATE mercados SET total_favoritos = total_favoritos + ? WHERE id = ?";
+
+    private static final String SQL_CANDIDATOS =
+            "SELECT m.id FROM mercados m WHERE m.total_favoritos >= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM favoritos_fragmentos f WHERE f.mercado_id = m.id)";
+
+    private static final String SQL_CRIAR_FRAGMENTO =
+            "INSERT INTO favoritos_fragmentos (mercado_id, faixa, total, created_at, updated_at, active) " +
+            "VALUES (?, ?, 0, ?, ?, true)";
+
+    private static final String SQL_CONTAGEM_INICIAL =
+            "UPDATE mercados SET total_favoritos = " +
+            "(SELECT COUNT(*) FROM favoritos f WHERE f.mercado_id = mercados.id) WHERE total_favoritos IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.favoritos.limiar-fragmentos:1000}")
+    private long limiarFragmentos = 1000;
+
+    /**
+     * @param mercadoId ID do mercado
+     * @return total exato de favoritos do mercado; 0 se ele não existe
+     */
+    @Transactional(readOnly = true)
+    public long totalFavoritos(Long mercadoId) {
+        List<Long> total = jdbcTemplate.queryForList(SQL_TOTAL, Long.class, mercadoId);
+        return total.isEmpty() || total.get(0) == null ? 0 : total.get(0);
+    }
+
+    /**
+     * Transfere as parcelas para os mercados e fragmenta os mercados que passaram do limiar.
+     */
+    @Scheduled(fixedDelayString = "${app.favoritos.consolidacao-ms:30000}")
+    public synchronized void consolidar() {
+        try {
+            Integer transferidas = new TransactionTemplate(transactionManager).execute(status -> transferirParcelas());
+            if (transferidas != null && transferidas > 0) {
+                log.fine("Parcelas de favoritos consolidadas: " + transferidas);
+            }
+            fragmentarMercadosPopulares();
+        } catch (RuntimeException e) {
+            log.warning("Falha ao consolidar favoritos, nova tentativa no próximo ciclo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Conta os favoritos dos mercados criados antes da coluna existir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherTotalFavoritos() {
+        int total = jdbcTemplate.update(SQL_CONTAGEM_INICIAL);
+        if (total > 0) {
+            log.info("Total de favoritos calculado para " + total + " mercados");
+        }
+    }
+
+    private int transferirParcelas() {
+        List<Object[]> parcelas = new ArrayList<>();
+        Map<Long, Long> porMercado = new TreeMap<>();
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.query(SQL_PARCELAS, rs -> {
+            long mercadoId = rs.getLong("mercado_id");
+            long total = rs.getLong("total");
+            parcelas.add(new Object[]{total, agora, mercadoId, rs.getInt("faixa")});
+            porMercado.merge(mercadoId, total, Long::sum);
+        });
+        if (parcelas.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> transferencias = new ArrayList<>(porMercado.size());
+        porMercado.forEach((mercadoId, total) -> transferencias.add(new Object[]{total, mercadoId}));
+        for (int inicio = 0; inicio < parcelas.size(); inicio += TAMANHO_LOTE) {
+            jdbcTemplate.batchUpdate(SQL_ZERAR_PARCELA, parcelas.subList(inicio, Math.min(inicio + TAMANHO_LOTE, parcelas.size())));
+        }
+        for (int inicio = 0; inicio < transferencias.size(); inicio += TAMANHO_LOTE) {
+            jdbcTemplate.batchUpdate(SQL_TRANSFERIR, transferencias.subList(inicio, Math.min(inicio + TAMANHO_LOTE, transferencias.size())));
+        }
+        return parcelas.size();
+    }
+
+    private void fragmentarMercadosPopulares() {
+        List<Long> mercadoIds = jdbcTemplate.queryForList(SQL_CANDIDATOS, Long.class, limiarFragmentos);
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        for (Long mercadoId : mercadoIds) {
+            List<Object[]> faixas = new ArrayList<>(FragmentoFavoritos.FAIXAS);
+            for (int faixa = 0; faixa < FragmentoFavoritos.FAIXAS; faixa++) {
+                faixas.add(new Object[]{mercadoId, faixa, agora, agora});
+            }
+            try {
+                transacao.executeWithoutResult(status -> jdbcTemplate.batchUpdate(SQL_CRIAR_FRAGMENTO, faixas));
+                log.info("Contador de favoritos fragmentado para o mercado " + mercadoId);
+            } catch (DuplicateKeyException e) {
+                log.fine("Mercado " + mercadoId + " fragmentado por outra instância");
+            }
+        }
+    }
+}
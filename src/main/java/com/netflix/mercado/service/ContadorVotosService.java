@@ -0,0 +1,146 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.Comentario;
+import com.netflix.mercado.util.ContadoresListrados;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Contadores de votos útil/inútil das avaliações e de curtidas dos comentários com
+ * gravação adiada (write-behind).
+ *
+ * Cada clique só soma um delta em memória. A cada intervalo os deltas acumulados viram um
+ * lote de {@code UPDATE ... SET x = x + ?} por tabela, em uma transação, e o mesmo acontece
+ * no desligamento da aplicação. Enquanto não gravados, os deltas são somados às leituras
+ * por {@link #pendenteUteis(Long)} e afins, então o valor exibido não fica para trás.
+ * Uma rajada de curtidas em uma avaliação vira uma escrita por intervalo.
+ */
+@Service
+public class ContadorVotosService {
+
+    private static final Logger log = Logger.getLogger(ContadorVotosService.class.getName());
+
+    private static final int FAIXAS = 64;
+    private static final int TAMANHO_LOTE = 500;
+
+    private static final int UTEIS = 0;
+    private static final int INUTEIS = 1;
+    private static final int CURTIDAS = 0;
+
+    private static final String SQL_AVALIACOES =
+            "UPDATE avaliacoes SET uteis = GREATEST(uteis + ?, 0), inutils = GREATEST(inutils + ?, 0) WHERE id = ?";
+    // O destaque usa o valor anterior da coluna mais o mesmo delta, então acompanha as curtidas gravadas
+    private static final String SQL_COMENTARIOS =
+            "UPDATE comentarios SET curtidas = GREATEST(curtidas + ?, 0), pontuacao_destaque = "
+            + Comentario.SQL_PONTUACAO_DESTAQUE.replace("curtidas", "curtidas + ?") + " WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ContadoresListrados avaliacoes = new ContadoresListrados(2, FAIXAS);
+    private final ContadoresListrados comentarios = new ContadoresListrados(1, FAIXAS);
+
+    public void registrarUtil(Long avaliacaoId) {
+        avaliacoes.somar(avaliacaoId, UTEIS, 1);
+    }
+
+    public void registrarInutil(Long avaliacaoId) {
+        avaliacoes.somar(avaliacaoId, INUTEIS, 1);
+    }
+
+    /**
+     * Soma deltas aos votos de uma avaliação, como na troca de útil para inútil.
+     *
+     * @param avaliacaoId ID da avaliação
+     * @param deltaUteis delta dos votos úteis
+     * @param deltaInuteis delta dos votos inúteis
+     */
+    public void registrarVoto(Long avaliacaoId, long deltaUteis, long deltaInuteis) {
+        if (deltaUteis != 0) {
+            avaliacoes.somar(avaliacaoId, UTEIS, deltaUteis);
+        }
+        if (deltaInuteis != 0) {
+            avaliacoes.somar(avaliacaoId, INUTEIS, deltaInuteis);
+        }
+    }
+
+    /**
+     * Soma um delta às curtidas de um comentário.
+     *
+     * @param comentarioId ID do comentário
+     * @param delta +1 ao curtir, -1 ao descurtir
+     */
+    public void registrarCurtida(Long comentarioId, long delta) {
+        comentarios.somar(comentarioId, CURTIDAS, delta);
+    }
+
+    public long pendenteUteis(Long avaliacaoId) {
+        return avaliacoes.pendente(avaliacaoId, UTEIS);
+    }
+
+    public long pendenteInuteis(Long avaliacaoId) {
+        return avaliacoes.pendente(avaliacaoId, INUTEIS);
+    }
+
+    public long pendenteCurtidas(Long comentarioId) {
+        return comentarios.pendente(comentarioId, CURTIDAS);
+    }
+
+    /**
+     * Grava os deltas acumulados em lote.
+     */
+    @Scheduled(fixedDelayString = "${app.contadores.intervalo-ms:1000}")
+    public synchronized void descarregar() {
+        descarregar(avaliacoes, SQL_AVALIACOES, (id, deltas) -> new Object[]{deltas[UTEIS], deltas[INUTEIS], id});
+        descarregar(comentarios, SQL_COMENTARIOS, (id, deltas) -> new Object[]{deltas[CURTIDAS], deltas[CURTIDAS], id});
+    }
+
+    @PreDestroy
+    public void descarregarNoDesligamento() {
+        log.info("Gravando contadores de votos pendentes antes do desligamento");
+        descarregar();
+    }
+
+    private void descarregar(ContadoresListrados contadores, String sql, Parametros parametros) {
+        Map<Long, long[]> lote = contadores.drenar();
+        if (lote.isEmpty()) {
+            return;
+        }
+        // Ordem crescente de ID para que gravações concorrentes de outras instâncias não se bloqueiem em ciclo
+        List<Object[]> argumentos = new ArrayList<>(lote.size());
+        for (Map.Entry<Long, long[]> entrada : new TreeMap<>(lote).entrySet()) {
+            argumentos.add(parametros.de(entrada.getKey(), entrada.getValue()));
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (int inicio = 0; inicio < argumentos.size(); inicio += TAMANHO_LOTE) {
+                    jdbcTemplate.batchUpdate(sql, argumentos.subList(inicio, Math.min(inicio + TAMANHO_LOTE, argumentos.size())));
+                }
+            });
+            contadores.confirmar();
+            log.fine("Contadores gravados: " + argumentos.size() + " linhas");
+        } catch (RuntimeException e) {
+            contadores.devolver();
+            log.warning("Falha ao gravar contadores, nova tentativa no próximo ciclo: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Parametros {
+        Object[] de(Long id, long[] deltas);
+    }
+}
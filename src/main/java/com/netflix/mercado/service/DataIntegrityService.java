@@ -4,6 +4,7 @@ import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.Avaliacao;
 import com.netflix.mercado.entity.Comentario;
 import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.util.FiltroConteudo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -156,33 +157,28 @@ public class DataIntegrityService {
     }
 
     /**
-     * ✅ NOVO: Detecta loops em estrutura de replies.
-     * Impede que um comentário seja seu próprio pai ou avó, etc.
+     * Detecta loops e excesso de profundidade em replies pelo caminho materializado,
+     * sem percorrer os ancestrais: há loop se o pai está na subárvore do comentário.
      *
      * @param comentario comentário a verificar
      * @throws ValidationException se loop detectado
      */
     private void validarSemLoopEmReplies(Comentario comentario) {
-        Comentario atual = comentario.getComentarioPai();
-        int iteracoes = 0;
-        final int MAX_PROFUNDIDADE = 100;
+        Comentario pai = comentario.getComentarioPai();
 
-        while (atual != null) {
-            if (atual.getId().equals(comentario.getId())) {
-                throw new ValidationException("Loop detectado na estrutura de replies");
-            }
-
-            if (++iteracoes > MAX_PROFUNDIDADE) {
-                throw new ValidationException("Profundidade de replies excedida");
-            }
+        if (comentario.ehAncestralDe(pai) || (comentario.getId() != null && comentario.getId().equals(pai.getId()))) {
+            throw new ValidationException("Loop detectado na estrutura de replies");
+        }
 
-            atual = atual.getComentarioPai();
+        if (pai.getProfundidade() != null && pai.getProfundidade() >= Comentario.PROFUNDIDADE_MAXIMA) {
+            throw new ValidationException("Profundidade de replies excedida");
         }
     }
 
     /**
      * ✅ NOVO: Sanitiza strings removendo caracteres perigosos.
-     * Previne XSS e injection attacks.
+     * Previne XSS e injection attacks. O escape é feito em uma única passada pelo
+     * mesmo percurso do {@link FiltroConteudo}.
      *
      * @param input string a sanitizar
      * @return string sanitizada
@@ -192,13 +188,7 @@ public class DataIntegrityService {
             return null;
         }
 
-        return input
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#x27;")
-                .replace("/", "&#x2F;")
-                .trim();
+        return FiltroConteudo.escapar(input);
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.repository.FavoritoRepository;
+import com.netflix.mercado.util.BitmapCompacto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+/**
+ * Conjunto de mercados favoritos de cada usuário, em memória, para marcar o coração de
+ * todos os cartões de uma página sem consultar o banco por cartão.
+ *
+ * Os favoritos de um usuário ficam em um {@link BitmapCompacto} carregado com uma única
+ * consulta na primeira verificação; as seguintes são buscas no bitmap. Incluir ou remover
+ * um favorito descarta o conjunto do usuário após o commit, e a próxima verificação o
+ * recarrega. Uma carga que corre junto com uma invalidação do mesmo usuário responde com
+ * o que leu, mas não é publicada, para que um conjunto anterior ao commit não fique no cache.
+ * Em várias instâncias o cache de uma instância só percebe alterações feitas nela mesma;
+ * isso afeta apenas a marcação exibida, já que as alterações sempre consultam o banco.
+ */
+@Service
+public class FavoritoCacheService {
+
+    private static final Logger log = Logger.getLogger(FavoritoCacheService.class.getName());
+
+    private static final int MAXIMO_CACHE = 50_000;
+    private static final int FAIXAS = 64;
+
+    @Autowired
+    private FavoritoRepository favoritoRepository;
+
+    private final Map<Long, BitmapCompacto> cache = new ConcurrentHashMap<>();
+
+    // Contador de invalidações por faixa de usuários; uma carga só é publicada se a faixa não mudou
+    private final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS);
+
+    /**
+     * Verifica de uma vez quais mercados de uma página são favoritos do usuário.
+     *
+     * @param usuarioId ID do usuário; null não marca nada
+     * @param mercadoIds IDs dos mercados da página
+     * @return IDs favoritados
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> favoritos(Long usuarioId, Collection<Long> mercadoIds) {
+        Set<Long> resultado = new HashSet<>();
+        if (usuarioId == null || mercadoIds.isEmpty()) {
+            return resultado;
+        }
+        BitmapCompacto favoritos = conjunto(usuarioId);
+        for (Long mercadoId : mercadoIds) {
+            if (mercadoId != null && favoritos.contem(mercadoId)) {
+                resultado.add(mercadoId);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @param usuarioId ID do usuário
+     * @param mercadoId ID do mercado
+     * @return true se o mercado é favorito do usuário
+     */
+    @Transactional(readOnly = true)
+    public boolean contem(Long usuarioId, Long mercadoId) {
+        return usuarioId != null && mercadoId != null && conjunto(usuarioId).contem(mercadoId);
+    }
+
+    /**
+     * Descarta o conjunto do usuário. Deve ser chamado após o commit da alteração.
+     *
+     * @param usuarioId ID do usuário
+     */
+    public void invalidar(Long usuarioId) {
+        geracoes.incrementAndGet(faixa(usuarioId));
+        cache.remove(usuarioId);
+    }
+
+    private BitmapCompacto conjunto(Long usuarioId) {
+        BitmapCompacto favoritos = cache.get(usuarioId);
+        if (favoritos != null) {
+            return favoritos;
+        }
+        int faixa = faixa(usuarioId);
+        long geracao = geracoes.get(faixa);
+        List<Long> mercadoIds = favoritoRepository.findMercadoIdsByUsuarioId(usuarioId);
+        favoritos = BitmapCompacto.de(mercadoIds);
+        if (geracoes.get(faixa) == geracao) {
+            publicar(usuarioId, favoritos);
+            // Invalidação entre a verificação e a publicação: retira só o que esta carga publicou
+            if (geracoes.get(faixa) != geracao) {
+                cache.remove(usuarioId, favoritos);
+            }
+        }
+        log.fine("Favoritos do usuário " + usuarioId + " carregados: " + mercadoIds.size());
+        return favoritos;
+    }
+
+    private void publicar(Long usuarioId, BitmapCompacto favoritos) {
+        cache.put(usuarioId, favoritos);
+        if (cache.size() > MAXIMO_CACHE) {
+            Iterator<Long> usuarios = cache.keySet().iterator();
+            while (cache.size() > MAXIMO_CACHE && usuarios.hasNext()) {
+                if (!usuarios.next().equals(usuarioId)) {
+                    usuarios.remove();
+                }
+            }
+        }
+    }
+
+    private static int faixa(Long usuarioId) {
+        return (int) (usuarioId & (FAIXAS - 1));
+    }
+}
@@ -0,0 +1,247 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.FragmentoFavoritos;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+/**
+ * Gravação de favoritos (incluir, retirar e alternar) sem leitura prévia.
+ *
+ * No PostgreSQL cada operação é um único comando: {@code INSERT ... ON CONFLICT DO NOTHING}
+ * e {@code DELETE ... RETURNING} em CTEs que também gravam a auditoria, então um toque no
+ * coração custa uma ida ao banco. A existência do mercado é garantida pela chave estrangeira
+ * fk_favorito_mercado, e a unicidade por idx_favorito_unico, sem SELECT antes. Repetir uma
+ * operação não tem efeito, e dois toques simultâneos se serializam na trava da linha ou do
+ * índice em vez de falhar por violação de unicidade.
+ *
+ * O mesmo comando ajusta {@code mercados.total_favoritos} quando uma linha foi de fato incluída
+ * ou removida; nos mercados com {@link FragmentoFavoritos} o ajuste vai para uma faixa sorteada,
+ * consolidada depois por {@link ContadorFavoritosService}.
+ *
+ * Em outros bancos (H2 nos testes) as mesmas operações usam comandos portáveis separados,
+ * com o mesmo resultado.
+ */
+@Service
+@Transactional
+public class FavoritoEscritaService {
+
+    private static final Logger log = Logger.getLogger(FavoritoEscritaService.class.getName());
+
+    private static final String AUDITORIA =
+            "INSERT INTO audit_logs (usuario_id, acao, tipo_entidade, id_entidade, descricao, " +
+            "created_at, updated_at, active) ";
+
+    // O driver envia Timestamp sem tipo; em SELECT e UNION o tipo precisa ser explícito
+    private static final String AGORA = "CAST(:agora AS TIMESTAMP)";
+
+    private static final String INSERCAO =
+            "INSERT INTO favoritos (usuario_id, mercado_id, prioridade, active, created_at, updated_at) ";
+
+    private static final String SEM_FRAGMENTOS =
+            "NOT EXISTS (SELECT 1 FROM favoritos_fragmentos WHERE mercado_id = :mercado)";
+
+    private static final String SQL_CONTADOR_PORTAVEL =
+            "UPDATE mercados SET total_favoritos = total_favoritos + :variacao WHERE id = :mercado AND " + SEM_FRAGMENTOS;
+
+    private static final String SQL_FRAGMENTO_PORTAVEL =
+            "UPDATE favoritos_fragmentos SET total = total + :variacao WHERE mercado_id = :mercado AND faixa = :faixa";
+
+    private static final String SQL_INSERIR =
+            "WITH inserido AS (" + INSERCAO +
+            "VALUES (:usuario, :mercado, 0, true, :agora, :agora) " +
+            "ON CONFLICT (usuario_id, mercado_id) DO NOTHING RETURNING id), " +
+            contadores("(SELECT COUNT(*) FROM inserido)") +
+            "auditoria AS (" + AUDITORIA +
+            "SELECT :usuario, 'CRIACAO', 'FAVORITO', id, :descricaoInclusao, " + AGORA + ", " + AGORA + ", true FROM inserido) " +
+            "SELECT id FROM inserido";
+
+    private static final String SQL_EXCLUIR =
+            "WITH removido AS (DELETE FROM favoritos WHERE usuario_id = :usuario AND mercado_id = :mercado RETURNING id), " +
+            contadores("-(SELECT COUNT(*) FROM removido)") +
+            "auditoria AS (" + AUDITORIA +
+            "SELECT :usuario, 'DELECAO', 'FAVORITO', id, :descricaoRemocao, " + AGORA + ", " + AGORA + ", true FROM removido) " +
+            "SELECT id FROM removido";
+
+    // Dados de CTEs compartilham o snapshot: se o DELETE removeu a linha, o INSERT não a recria
+    private static final String SQL_ALTERNAR =
+            "WITH removido AS (DELETE FROM favoritos WHERE usuario_id = :usuario AND mercado_id = :mercado RETURNING id), " +
+            "inserido AS (" + INSERCAO +
+            "SELECT :usuario, :mercado, 0, true, " + AGORA + ", " + AGORA + " WHERE NOT EXISTS (SELECT 1 FROM removido) " +
+            "ON CONFLICT (usuario_id, mercado_id) DO NOTHING RETURNING id), " +
+            contadores("((SELECT COUNT(*) FROM inserido) - (SELECT COUNT(*) FROM removido))") +
+            "auditoria AS (" + AUDITORIA +
+            "SELECT :usuario, 'DELECAO', 'FAVORITO', id, :descricaoRemocao, " + AGORA + ", " + AGORA + ", true FROM removido " +
+            "UNION ALL " +
+            "SELECT :usuario, 'CRIACAO', 'FAVORITO', id, :descricaoInclusao, " + AGORA + ", " + AGORA + ", true FROM inserido) " +
+            "SELECT (SELECT COUNT(*) FROM removido) AS removidos, (SELECT COUNT(*) FROM inserido) AS inseridos";
+
+    private static final String SQL_INSERIR_PORTAVEL =
+            INSERCAO + "SELECT :usuario, :mercado, 0, true, " + AGORA + ", " + AGORA + " " +
+            "WHERE NOT EXISTS (SELECT 1 FROM favoritos WHERE usuario_id = :usuario AND mercado_id = :mercado)";
+
+    private static final String SQL_AUDITORIA_PORTAVEL =
+            AUDITORIA + "VALUES (:usuario, :acao, 'FAVORITO', :id, :descricao, :agora, :agora, true)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Inclui o mercado nos favoritos do usuário, se ainda não estiver.
+     *
+     * @param usuarioId ID do usuário
+     * @param mercadoId ID do mercado
+     * @return ID do favorito criado; null se ele já existia
+     * @throws ResourceNotFoundException se o mercado não existe
+     */
+    public Long inserir(Long usuarioId, Long mercadoId) {
+        MapSqlParameterSource parametros = parametros(usuarioId, mercadoId);
+        try {
+            if (isPostgres()) {
+                List<Long> ids = jdbcTemplate.queryForList(SQL_INSERIR, parametros, Long.class);
+                return ids.isEmpty() ? null : ids.get(0);
+            }
+            return inserirPortavel(parametros);
+        } catch (DuplicateKeyException e) {
+            // Só no caminho portável: outra requisição incluiu o mesmo favorito
+            log.fine("Favorito incluído por outra requisição. Mercado ID: " + mercadoId);
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            throw mercadoNaoEncontrado(mercadoId, e);
+        }
+    }
+
+    /**
+     * Retira o mercado dos favoritos do usuário, se estiver.
+     *
+     * @param usuarioId ID do usuário
+     * @param mercadoId ID do mercado
+     * @return ID do favorito removido; null se não havia favorito
+     */
+    public Long excluir(Long usuarioId, Long mercadoId) {
+        MapSqlParameterSource parametros = parametros(usuarioId, mercadoId);
+        if (isPostgres()) {
+            List<Long> ids = jdbcTemplate.queryForList(SQL_EXCLUIR, parametros, Long.class);
+            return ids.isEmpty() ? null : ids.get(0);
+        }
+        return excluirPortavel(parametros);
+    }
+
+    /**
+     * Alterna o mercado nos favoritos do usuário.
+     *
+     * @param usuarioId ID do usuário
+     * @param mercadoId ID do mercado
+     * @return true se o mercado ficou nos favoritos
+     * @throws ResourceNotFoundException se o mercado não existe
+     */
+    public boolean alternar(Long usuarioId, Long mercadoId) {
+        MapSqlParameterSource parametros = parametros(usuarioId, mercadoId);
+        if (!isPostgres()) {
+            if (excluirPortavel(parametros) != null) {
+                return false;
+            }
+            inserir(usuarioId, mercadoId);
+            return true;
+        }
+        try {
+            // Sem remoção o mercado fica favorito: incluído agora ou por um toque simultâneo
+            return jdbcTemplate.queryForObject(SQL_ALTERNAR, parametros,
+                    (rs, linha) -> rs.getLong("removidos") == 0);
+        } catch (DataIntegrityViolationException e) {
+            throw mercadoNaoEncontrado(mercadoId, e);
+        }
+    }
+
+    private Long inserirPortavel(MapSqlParameterSource parametros) {
+        KeyHolder chave = new GeneratedKeyHolder();
+        if (jdbcTemplate.update(SQL_INSERIR_PORTAVEL, parametros, chave, new String[]{"id"}) == 0) {
+            return null;
+        }
+        Long id = chave.getKey().longValue();
+        contarPortavel(parametros, 1);
+        auditarPortavel(parametros, "CRIACAO", id, "descricaoInclusao");
+        return id;
+    }
+
+    private Long excluirPortavel(MapSqlParameterSource parametros) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM favoritos WHERE usuario_id = :usuario AND mercado_id = :mercado", parametros, Long.class);
+        if (ids.isEmpty()
+                || jdbcTemplate.update("DELETE FROM favoritos WHERE id = :id", new MapSqlParameterSource("id", ids.get(0))) == 0) {
+            return null;
+        }
+        contarPortavel(parametros, -1);
+        auditarPortavel(parametros, "DELECAO", ids.get(0), "descricaoRemocao");
+        return ids.get(0);
+    }
+
+    private void contarPortavel(MapSqlParameterSource parametros, int variacao) {
+        MapSqlParameterSource contador = new MapSqlParameterSource("variacao", variacao)
+                .addValue("mercado", parametros.getValue("mercado"))
+                .addValue("faixa", parametros.getValue("faixa"));
+        if (jdbcTemplate.update(SQL_CONTADOR_PORTAVEL, contador) == 0) {
+            jdbcTemplate.update(SQL_FRAGMENTO_PORTAVEL, contador);
+        }
+    }
+
+    private void auditarPortavel(MapSqlParameterSource parametros, String acao, Long id, String descricao) {
+        jdbcTemplate.update(SQL_AUDITORIA_PORTAVEL, new MapSqlParameterSource()
+                .addValue("usuario", parametros.getValue("usuario"))
+                .addValue("acao", acao)
+                .addValue("id", id)
+                .addValue("descricao", parametros.getValue(descricao))
+                .addValue("agora", parametros.getValue("agora")));
+    }
+
+    private boolean isPostgres() {
+        Boolean resultado = postgres;
+        if (resultado == null) {
+            resultado = jdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Boolean>) conexao ->
+                    "PostgreSQL".equals(conexao.getMetaData().getDatabaseProductName()));
+            postgres = resultado;
+        }
+        return resultado;
+    }
+
+    private static MapSqlParameterSource parametros(Long usuarioId, Long mercadoId) {
+        return new MapSqlParameterSource("usuario", usuarioId)
+                .addValue("mercado", mercadoId)
+                .addValue("agora", Timestamp.valueOf(LocalDateTime.now()))
+                .addValue("faixa", ThreadLocalRandom.current().nextInt(FragmentoFavoritos.FAIXAS))
+                .addValue("descricaoInclusao", "Mercado ID " + mercadoId + " adicionado aos favoritos")
+                .addValue("descricaoRemocao", "Favorito removido");
+    }
+
+    /**
+     * CTEs que somam a variação ao mercado ou, se ele tiver fragmentos, à faixa sorteada.
+     * Só uma das duas encontra linha, e nenhuma quando a variação é zero.
+     */
+    private static String contadores(String variacao) {
+        return "contador AS (UPDATE mercados SET total_favoritos = total_favoritos + " + variacao +
+               " WHERE id = :mercado AND " + variacao + " <> 0 AND " + SEM_FRAGMENTOS + "), " +
+               "fragmento AS (UPDATE favoritos_fragmentos SET total = total + " + variacao +
+               " WHERE mercado_id = :mercado AND faixa = :faixa AND " + variacao + " <> 0), ";
+    }
+
+    private static ResourceNotFoundException mercadoNaoEncontrado(Long mercadoId, DataIntegrityViolationException e) {
+        log.warning("Mercado não encontrado com ID: " + mercadoId + " (" + e.getMostSpecificCause().getMessage() + ")");
+        return new ResourceNotFoundException("Mercado não encontrado com ID: " + mercadoId);
+    }
+}
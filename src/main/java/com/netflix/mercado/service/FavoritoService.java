@@ -1,25 +1,32 @@
 package com.netflix.mercado.service;
 
 import com.netflix.mercado.entity.Favorito;
-import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.User;
-import com.netflix.mercado.entity.AuditLog;
 import com.netflix.mercado.exception.ResourceNotFoundException;
 import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.repository.FavoritoRepository;
 import com.netflix.mercado.repository.AuditLogRepository;
 import com.netflix.mercado.dto.favorito.FavoritoResponse;
 import com.netflix.mercado.dto.favorito.CreateFavoritoRequest;
+import com.netflix.mercado.dto.common.PageResponse;
+import com.netflix.mercado.dto.mercado.MercadoResponse;
+import com.netflix.mercado.util.CursorPaginacao;
+import com.netflix.mercado.util.TransacaoUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
@@ -42,78 +49,56 @@ public class FavoritoService {
     @Autowired
     private MercadoService mercadoService;
 
+    @Autowired
+    private FavoritoCacheService favoritoCacheService;
+
+    @Autowired
+    private FavoritoEscritaService favoritoEscritaService;
+
+    @Autowired
+    private ContadorFavoritosService contadorFavoritosService;
+
     /**
-     * Adiciona um mercado aos favoritos de um usuário.
+     * Adiciona um mercado aos favoritos de um usuário. Repetir a operação devolve o
+     * favorito existente.
      *
      * @param mercadoId ID do mercado
      * @param usuario usuário adicionando favorito
-     * @return o favorito criado
-     * @throws ValidationException se mercado já está nos favoritos
+     * @return o favorito, criado agora ou já existente
+     * @throws ResourceNotFoundException se o mercado não existe
      */
     public Favorito adicionarFavorito(Long mercadoId, User usuario) {
         log.info("Adicionando mercado ID: " + mercadoId + " aos favoritos do usuário: " + usuario.getEmail() + "");
 
-        // Buscar mercado
-        Mercado mercado = mercadoService.getMercadoEntityById(mercadoId);
-
-        // Verificar se já está nos favoritos
-        if (favoritoRepository.existsByUserAndMercado(usuario, mercado)) {
-            log.warning("Mercado ID: " + mercadoId + " já está nos favoritos do usuário: " + usuario.getEmail() + "");
-            throw new ValidationException("Este mercado já está nos seus favoritos");
+        Long id = favoritoEscritaService.inserir(usuario.getId(), mercadoId);
+        if (id != null) {
+            invalidarCacheAposCommit(usuario);
+            log.info("Favorito adicionado com sucesso. ID: " + id + "");
+        } else {
+            log.fine("Mercado ID: " + mercadoId + " já está nos favoritos do usuário: " + usuario.getEmail() + "");
         }
 
-        Favorito favorito = new Favorito();
-        favorito.setMercado(mercado);
-        favorito.setUser(usuario);
-        favorito.setPrioridade(0);
-
-        favorito = favoritoRepository.save(favorito);
-
-        // Registrar no audit log
-        auditLogRepository.save(new AuditLog(
-                usuario,
-                AuditLog.TipoAcao.CRIACAO,
-                "FAVORITO",
-                favorito.getId(),
-                "Mercado " + mercado.getNome() + " adicionado aos favoritos",
-                null, null, null, null, null
-        ));
-
-        log.info("Favorito adicionado com sucesso. ID: " + favorito.getId() + "");
-        return favorito;
+        return favoritoRepository.findByUsuarioIdAndMercadoId(usuario.getId(), mercadoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Favorito não encontrado"));
     }
 
     /**
-     * Remove um mercado dos favoritos de um usuário.
+     * Remove um mercado dos favoritos de um usuário. Remover um mercado que não está
+     * nos favoritos não tem efeito.
      *
      * @param mercadoId ID do mercado
      * @param usuario usuário removendo favorito
-     * @throws ResourceNotFoundException se favorito não existe
      */
     public void removerFavorito(Long mercadoId, User usuario) {
         log.info("Removendo mercado ID: " + mercadoId + " dos favoritos do usuário: " + usuario.getEmail() + "");
 
-        Mercado mercado = mercadoService.getMercadoEntityById(mercadoId);
-        
-        Favorito favorito = favoritoRepository.findByUserAndMercado(usuario, mercado)
-                .orElseThrow(() -> {
-                    log.warning("Favorito não encontrado para mercado ID: " + mercadoId + " e usuário: " + usuario.getEmail() + "");
-                    return new ResourceNotFoundException("Favorito não encontrado");
-                });
-
-        favoritoRepository.delete(favorito);
-
-        // Registrar no audit log
-        auditLogRepository.save(new AuditLog(
-                usuario,
-                AuditLog.TipoAcao.DELECAO,
-                "FAVORITO",
-                favorito.getId(),
-                "Favorito removido",
-                null, null, null, null, null
-        ));
-
-        log.info("Favorito removido com sucesso. Mercado ID: " + mercadoId + "");
+        Long id = favoritoEscritaService.excluir(usuario.getId(), mercadoId);
+        if (id != null) {
+            invalidarCacheAposCommit(usuario);
+            log.info("Favorito removido com sucesso. Mercado ID: " + mercadoId + "");
+        } else {
+            log.fine("Mercado ID: " + mercadoId + " não estava nos favoritos do usuário: " + usuario.getEmail() + "");
+        }
     }
 
     /**
@@ -130,7 +115,8 @@ public class FavoritoService {
     }
 
     /**
-     * Verifica se um mercado está nos favoritos de um usuário.
+     * Verifica se um mercado está nos favoritos de um usuário, pelo conjunto em cache.
+     * Um mercado inexistente não é favorito.
      *
      * @param mercadoId ID do mercado
      * @param usuario usuário a verificar
@@ -139,8 +125,43 @@ public class FavoritoService {
     @Transactional(readOnly = true)
     public Boolean verificarFavorito(Long mercadoId, User usuario) {
         log.fine("Verificando se mercado ID: " + mercadoId + " está nos favoritos do usuário: " + usuario.getEmail() + "");
-        Mercado mercado = mercadoService.getMercadoEntityById(mercadoId);
-        return favoritoRepository.existsByUserAndMercado(usuario, mercado);
+        return favoritoCacheService.contem(usuario.getId(), mercadoId);
+    }
+
+    /**
+     * Verifica vários mercados de uma vez, na ordem recebida.
+     *
+     * @param mercadoIds IDs dos mercados
+     * @param usuario usuário a verificar
+     * @return mapa de ID do mercado para favorito ou não
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Boolean> verificarFavoritos(Collection<Long> mercadoIds, User usuario) {
+        Set<Long> favoritos = favoritoCacheService.favoritos(usuario.getId(), mercadoIds);
+        Map<Long, Boolean> resultado = new LinkedHashMap<>();
+        for (Long mercadoId : mercadoIds) {
+            resultado.put(mercadoId, favoritos.contains(mercadoId));
+        }
+        return resultado;
+    }
+
+    /**
+     * Marca em cada mercado de uma página se ele é favorito do usuário, com uma só
+     * verificação no conjunto em cache.
+     *
+     * @param mercados respostas da página
+     * @param usuario usuário autenticado; null não marca nada
+     */
+    @Transactional(readOnly = true)
+    public void preencherFavoritosDoUsuario(Collection<MercadoResponse> mercados, User usuario) {
+        if (usuario == null || mercados.isEmpty()) {
+            return;
+        }
+        List<Long> ids = mercados.stream().map(MercadoResponse::getId).collect(Collectors.toList());
+        Set<Long> favoritos = favoritoCacheService.favoritos(usuario.getId(), ids);
+        for (MercadoResponse mercado : mercados) {
+            mercado.setFavorito(favoritos.contains(mercado.getId()));
+        }
     }
 
     /**
@@ -156,7 +177,8 @@ public class FavoritoService {
     }
 
     /**
-     * Conta o número de vezes que um mercado foi favoritado.
+     * Conta o número de vezes que um mercado foi favoritado, pelo total desnormalizado
+     * no mercado, sem COUNT sobre os favoritos.
      *
      * @param mercadoId ID do mercado
      * @return quantidade de favoritos
@@ -164,28 +186,23 @@ public class FavoritoService {
     @Transactional(readOnly = true)
     public Long contarFavoritosDomercado(Long mercadoId) {
         log.fine("Contando favoritos do mercado ID: " + mercadoId);
-        return favoritoRepository.countByMercadoId(mercadoId);
+        return contadorFavoritosService.totalFavoritos(mercadoId);
     }
 
     /**
-     * Alterna o estado de favorito de um mercado.
+     * Alterna o estado de favorito de um mercado em um único comando, sem consulta prévia.
      *
      * @param mercadoId ID do mercado
      * @param usuario usuário alternando favorito
      * @return true se foi adicionado, false se foi removido
+     * @throws ResourceNotFoundException se o mercado não existe
      */
     public Boolean toggleFavorito(Long mercadoId, User usuario) {
         log.info("Alternando favorito para mercado ID: " + mercadoId + " do usuário: " + usuario.getEmail());
 
-        if (verificarFavorito(mercadoId, usuario)) {
-            // Remover favorito
-            removerFavorito(mercadoId, usuario);
-            return false;
-        } else {
-            // Adicionar favorito
-            adicionarFavorito(mercadoId, usuario);
-            return true;
-        }
+        boolean favorito = favoritoEscritaService.alternar(usuario.getId(), mercadoId);
+        invalidarCacheAposCommit(usuario);
+        return favorito;
     }
 
     /**
@@ -230,10 +247,13 @@ public class FavoritoService {
     public FavoritoService() {
     }
 
-    public FavoritoService(FavoritoRepository favoritoRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService) {
+    public FavoritoService(FavoritoRepository favoritoRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService, FavoritoCacheService favoritoCacheService, FavoritoEscritaService favoritoEscritaService, ContadorFavoritosService contadorFavoritosService) {
         this.favoritoRepository = favoritoRepository;
         this.auditLogRepository = auditLogRepository;
         this.mercadoService = mercadoService;
+        this.favoritoCacheService = favoritoCacheService;
+        this.favoritoEscritaService = favoritoEscritaService;
+        this.contadorFavoritosService = contadorFavoritosService;
     }
 
     public FavoritoRepository getFavoritoRepository() {
@@ -260,6 +280,30 @@ public class FavoritoService {
         this.mercadoService = mercadoService;
     }
 
+    public FavoritoCacheService getFavoritoCacheService() {
+        return this.favoritoCacheService;
+    }
+
+    public void setFavoritoCacheService(FavoritoCacheService favoritoCacheService) {
+        this.favoritoCacheService = favoritoCacheService;
+    }
+
+    public FavoritoEscritaService getFavoritoEscritaService() {
+        return this.favoritoEscritaService;
+    }
+
+    public void setFavoritoEscritaService(FavoritoEscritaService favoritoEscritaService) {
+        this.favoritoEscritaService = favoritoEscritaService;
+    }
+
+    public ContadorFavoritosService getContadorFavoritosService() {
+        return this.contadorFavoritosService;
+    }
+
+    public void setContadorFavoritosService(ContadorFavoritosService contadorFavoritosService) {
+        this.contadorFavoritosService = contadorFavoritosService;
+    }
+
     // Métodos wrapper com nomes em inglês para controllers
     public FavoritoResponse createFavorito(CreateFavoritoRequest request, User usuario) {
         Favorito favorito = adicionarFavorito(request.getMercadoId(), usuario);
@@ -273,6 +317,27 @@ public class FavoritoService {
             .toList();
     }
 
+    /**
+     * Lista os favoritos do usuário por cursor, na mesma ordem da listagem completa
+     * (prioridade e depois os mais recentes), sem contagem total.
+     *
+     * @param usuario usuário autenticado
+     * @param after cursor retornado pela página anterior; null para a primeira
+     * @param tamanho quantidade de itens
+     * @return página com o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<FavoritoResponse> listFavoritosCursor(User usuario, String after, int tamanho) {
+        CursorPaginacao cursor = CursorPaginacao.decodificar(after, 2);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        Slice<Favorito> fatia = cursor == null
+                ? favoritoRepository.findByUserCursor(usuario, limite)
+                : favoritoRepository.findByUserApos(usuario, cursor.getInteiro(0), cursor.getData(1), cursor.getId(), limite);
+        String proximo = CursorPaginacao.proximo(fatia,
+                f -> CursorPaginacao.codificar(f.getId(), f.getPrioridade(), f.getCreatedAt()));
+        return PageResponse.deCursor(fatia.map(this::convertToResponse), proximo, cursor != null);
+    }
+
     public void deleteFavorito(Long mercadoId, User usuario) {
         removerFavorito(mercadoId, usuario);
     }
@@ -285,9 +350,15 @@ public class FavoritoService {
         return verificarFavorito(mercadoId, usuario);
     }
 
+    private void invalidarCacheAposCommit(User usuario) {
+        Long usuarioId = usuario.getId();
+        TransacaoUtils.executarAposCommit(() -> favoritoCacheService.invalidar(usuarioId));
+    }
+
     private FavoritoResponse convertToResponse(Favorito favorito) {
         com.netflix.mercado.dto.mercado.MercadoResponse mercadoResponse = 
             mercadoService.convertToResponse(favorito.getMercado());
+        mercadoResponse.setFavorito(true);
         return FavoritoResponse.fromEntity(favorito, mercadoResponse);
     }
 
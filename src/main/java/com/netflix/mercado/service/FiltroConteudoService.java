@@ -0,0 +1,195 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.TermoBloqueado;
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.TermoBloqueadoRepository;
+import com.netflix.mercado.util.FiltroConteudo;
+import com.netflix.mercado.util.TransacaoUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Filtro de termos proibidos e frases de spam em comentários e avaliações.
+ *
+ * O dicionário fica na tabela de termos bloqueados e é compilado em um {@link FiltroConteudo}
+ * imutável. Leitores usam a referência volátil sem bloqueio; uma recarga compila um novo filtro
+ * e troca a referência, então verificações em andamento terminam com o dicionário anterior.
+ * Alterações feitas por outras instâncias são percebidas pela assinatura do dicionário.
+ */
+@Service
+public class FiltroConteudoService {
+
+    private static final Logger log = Logger.getLogger(FiltroConteudoService.class.getName());
+
+    static final int TAMANHO_MAXIMO_TERMO = 200;
+
+    @Autowired
+    private TermoBloqueadoRepository termoBloqueadoRepository;
+
+    private volatile FiltroConteudo filtro = FiltroConteudo.VAZIO;
+    private volatile String assinatura;
+
+    /**
+     * Compila novamente o dicionário a partir do banco.
+     *
+     * @return quantidade de termos carregados
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized int recarregar() {
+        long inicio = System.currentTimeMillis();
+        String novaAssinatura = lerAssinatura();
+        FiltroConteudo novo = FiltroConteudo.compilar(termoBloqueadoRepository.findAllTermos());
+        this.filtro = novo;
+        this.assinatura = novaAssinatura;
+        log.info("Filtro de conteúdo compilado com " + novo.getTotalTermos() + " termos ("
+                + novo.getTotalEstados() + " estados) em " + (System.currentTimeMillis() - inicio) + "ms");
+        return novo.getTotalTermos();
+    }
+
+    /**
+     * Recarrega o dicionário se ele foi alterado por outra instância.
+     */
+    @Scheduled(fixedDelayString = "${app.filtro-conteudo.intervalo-ms:60000}")
+    @Transactional(readOnly = true)
+    public void sincronizar() {
+        if (!Objects.equals(lerAssinatura(), assinatura)) {
+            recarregar();
+        }
+    }
+
+    /**
+     * Procura termos bloqueados no texto e produz sua versão com escape HTML, em uma passada.
+     *
+     * @param texto texto a analisar
+     * @return ocorrências e texto escapado
+     */
+    public FiltroConteudo.Resultado analisar(String texto) {
+        return filtro.analisar(texto);
+    }
+
+    /**
+     * Rejeita o texto se ele contiver algum termo bloqueado.
+     *
+     * @param texto texto a verificar (nulo é aceito)
+     * @param campo nome do campo, para a mensagem de erro
+     * @throws ValidationException se houver ocorrência
+     */
+    public void verificar(String texto, String campo) {
+        if (texto == null || texto.isBlank()) {
+            return;
+        }
+        List<FiltroConteudo.Ocorrencia> ocorrencias = filtro.analisar(texto).getOcorrencias();
+        if (ocorrencias.isEmpty()) {
+            return;
+        }
+        String termos = ocorrencias.stream()
+                .map(FiltroConteudo.Ocorrencia::toString)
+                .collect(Collectors.joining(", "));
+        log.warning("Conteúdo bloqueado em " + campo + ": " + ocorrencias.size() + " ocorrência(s)");
+        throw new ValidationException(campo + " contém termos não permitidos: " + termos);
+    }
+
+    /**
+     * Lista os termos do dicionário.
+     *
+     * @return termos cadastrados
+     */
+    @Transactional(readOnly = true)
+    public List<String> listarTermos() {
+        return termoBloqueadoRepository.findAllTermos();
+    }
+
+    /**
+     * Inclui termos no dicionário; os já cadastrados são ignorados.
+     * O filtro é recompilado após o commit.
+     *
+     * @param termos termos a incluir
+     * @return quantidade de termos incluídos
+     */
+    @Transactional
+    public int adicionarTermos(Collection<String> termos) {
+        Set<String> novos = limpar(termos);
+        if (novos.isEmpty()) {
+            return 0;
+        }
+        for (TermoBloqueado existente : termoBloqueadoRepository.findByTermoIn(novos)) {
+            novos.remove(existente.getTermo());
+        }
+        List<TermoBloqueado> entidades = new ArrayList<>(novos.size());
+        for (String termo : novos) {
+            entidades.add(new TermoBloqueado(termo));
+        }
+        termoBloqueadoRepository.saveAll(entidades);
+        TransacaoUtils.executarAposCommit(this::recarregar);
+        log.info(entidades.size() + " termos incluídos no filtro de conteúdo");
+        return entidades.size();
+    }
+
+    /**
+     * Remove termos do dicionário. O filtro é recompilado após o commit.
+     *
+     * @param termos termos a remover
+     * @return quantidade de termos removidos
+     */
+    @Transactional
+    public int removerTermos(Collection<String> termos) {
+        Set<String> alvos = limpar(termos);
+        if (alvos.isEmpty()) {
+            return 0;
+        }
+        List<TermoBloqueado> encontrados = termoBloqueadoRepository.findByTermoIn(alvos);
+        termoBloqueadoRepository.deleteAll(encontrados);
+        TransacaoUtils.executarAposCommit(this::recarregar);
+        log.info(encontrados.size() + " termos removidos do filtro de conteúdo");
+        return encontrados.size();
+    }
+
+    /**
+     * @return quantidade de termos cadastrados, incluindo os ainda não compilados
+     */
+    @Transactional(readOnly = true)
+    public int contarTermos() {
+        return (int) termoBloqueadoRepository.count();
+    }
+
+    private String lerAssinatura() {
+        List<Object[]> linhas = termoBloqueadoRepository.findAssinatura();
+        if (linhas == null || linhas.isEmpty()) {
+            return null;
+        }
+        Object[] linha = linhas.get(0);
+        return linha[0] + "|" + linha[1];
+    }
+
+    private static Set<String> limpar(Collection<String> termos) {
+        Set<String> resultado = new LinkedHashSet<>();
+        if (termos == null) {
+            return resultado;
+        }
+        for (String termo : termos) {
+            if (termo == null || termo.isBlank()) {
+                continue;
+            }
+            String limpo = termo.trim();
+            if (limpo.length() > TAMANHO_MAXIMO_TERMO) {
+                throw new ValidationException("Termo deve ter no máximo " + TAMANHO_MAXIMO_TERMO + " caracteres");
+            }
+            resultado.add(limpo);
+        }
+        return resultado;
+    }
+}
@@ -42,6 +42,9 @@ public class HorarioFuncionamentoService {
     @Autowired
     private MercadoService mercadoService;
 
+    @Autowired
+    private AgendaSemanalService agendaSemanalService;
+
     /**
      * Cria um novo horário de funcionamento para um mercado.
      *
@@ -74,6 +77,7 @@ public class HorarioFuncionamentoService {
         horario.setAberto(true);
 
         horario = horarioRepository.save(horario);
+        agendaSemanalService.recompilar(mercadoId);
 
         log.info("Horário de funcionamento criado com sucesso. ID: " + horario.getId());
         return horario;
@@ -118,6 +122,7 @@ public class HorarioFuncionamentoService {
         }
 
         horario = horarioRepository.save(horario);
+        agendaSemanalService.recompilar(horario.getMercado().getId());
 
         log.info("Horário atualizado com sucesso. ID: " + id + "");
         return horario;
@@ -139,6 +144,7 @@ public class HorarioFuncionamentoService {
                 });
 
         horarioRepository.delete(horario);
+        agendaSemanalService.recompilar(horario.getMercado().getId());
 
         log.info("Horário deletado com sucesso. ID: " + id + "");
     }
@@ -373,10 +379,11 @@ public class HorarioFuncionamentoService {
         };
     }
 
-    public HorarioFuncionamentoService(HorarioFuncionamentoRepository horarioRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService) {
+    public HorarioFuncionamentoService(HorarioFuncionamentoRepository horarioRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService, AgendaSemanalService agendaSemanalService) {
         this.horarioRepository = horarioRepository;
         this.auditLogRepository = auditLogRepository;
         this.mercadoService = mercadoService;
+        this.agendaSemanalService = agendaSemanalService;
     }
 
     public HorarioFuncionamentoRepository getHorarioRepository() {
@@ -403,6 +410,14 @@ public class HorarioFuncionamentoService {
         this.mercadoService = mercadoService;
     }
 
+    public AgendaSemanalService getAgendaSemanalService() {
+        return this.agendaSemanalService;
+    }
+
+    public void setAgendaSemanalService(AgendaSemanalService agendaSemanalService) {
+        this.agendaSemanalService = agendaSemanalService;
+    }
+
     /**
      * Obtém o status da loja (aberta/fechada)
      */
@@ -0,0 +1,500 @@
+package com.netflix.mercado.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.mercado.dto.avaliacao.ImportacaoAvaliacaoResponse;
+import com.netflix.mercado.entity.AuditLog;
+import com.netflix.mercado.entity.User;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.AuditLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * Importação de avaliações em lote a partir de JSONL ou CSV (migração de plataformas parceiras).
+ *
+ * O arquivo é lido em blocos de {@value #TAMANHO_BLOCO} linhas. Cada bloco é analisado e
+ * validado em paralelo, e mercados, usuários e avaliações já existentes são verificados com
+ * uma consulta {@code IN} por tipo. As linhas válidas entram com INSERT em lote via JDBC, em
+ * uma transação por bloco. Não há notificação nem auditoria por avaliação, e os agregados não
+ * são atualizados por linha: cada mercado afetado é recalculado uma vez no final.
+ * Linhas com erro não interrompem a importação; são devolvidas com o número da linha.
+ */
+@Service
+public class ImportacaoAvaliacaoService {
+
+    private static final Logger log = Logger.getLogger(ImportacaoAvaliacaoService.class.getName());
+
+    public enum Formato {
+        JSONL, CSV
+    }
+
+    static final int TAMANHO_BLOCO = 5000;
+    private static final int TAMANHO_LOTE_JDBC = 1000;
+    private static final int MAXIMO_ERROS_REPORTADOS = 1000;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String SQL_INSERIR =
+            "INSERT INTO avaliacoes (usuario_id, mercado_id, estrelas, comentario, verificado, uteis, inutils, " +
+            "created_at, updated_at, created_by, updated_by, active) " +
+            "VALUES (?, ?, ?, ?, ?, 0, 0, ?, ?, ?, ?, true)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AvaliacaoAgregadoService avaliacaoAgregadoService;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    /**
+     * Importa as avaliações do fluxo.
+     *
+     * JSONL: um objeto por linha com {@code mercadoId}, {@code usuarioId}, {@code estrelas} e,
+     * opcionalmente, {@code comentario}, {@code verificado} e {@code createdAt} (ISO-8601).
+     * CSV: primeira linha com os mesmos nomes de coluna, em qualquer ordem; campos com vírgula
+     * entre aspas duplas. Campos entre aspas não podem conter quebra de linha.
+     *
+     * @param entrada conteúdo em UTF-8
+     * @param formato formato do conteúdo
+     * @param responsavel administrador que executa a importação
+     * @return contagens e erros por linha
+     * @throws ValidationException se o fluxo não puder ser lido ou o cabeçalho CSV estiver incompleto
+     */
+    public ImportacaoAvaliacaoResponse importar(InputStream entrada, Formato formato, User responsavel) {
+        long inicio = System.currentTimeMillis();
+        log.info("Iniciando importação de avaliações em " + formato + " por: " + responsavel.getEmail());
+
+        Contexto contexto = new Contexto(responsavel.getEmail());
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            Map<String, Integer> colunas = null;
+            List<LinhaBruta> bloco = new ArrayList<>(TAMANHO_BLOCO);
+            long numero = 0;
+            String texto;
+            while ((texto = leitor.readLine()) != null) {
+                numero++;
+                if (numero == 1 && texto.startsWith("﻿")) {
+                    texto = texto.substring(1);
+                }
+                if (texto.isBlank()) {
+                    continue;
+                }
+                if (formato == Formato.CSV && colunas == null) {
+                    colunas = lerCabecalho(texto);
+                    continue;
+                }
+                bloco.add(new LinhaBruta(numero, texto));
+                if (bloco.size() == TAMANHO_BLOCO) {
+                    processarBloco(bloco, formato, colunas, contexto);
+                    bloco = new ArrayList<>(TAMANHO_BLOCO);
+                }
+            }
+            if (!bloco.isEmpty()) {
+                processarBloco(bloco, formato, colunas, contexto);
+            }
+        } catch (IOException e) {
+            throw new ValidationException("Falha ao ler o conteúdo da importação: " + e.getMessage(), e);
+        }
+
+        int mercadosAtualizados = recalcularAgregados(contexto.mercadosAfetados);
+        long duracao = System.currentTimeMillis() - inicio;
+
+        auditLogRepository.save(new AuditLog(
+                responsavel,
+                AuditLog.TipoAcao.CRIACAO,
+                "AVALIACAO",
+                null,
+                String.format("Importação em lote (%s): %d importadas, %d duplicadas, %d com erro, %d mercados",
+                        formato, contexto.importadas, contexto.duplicadas, contexto.comErro, mercadosAtualizados),
+                null, null, null, null, 200
+        ));
+
+        log.info("Importação concluída em " + duracao + " ms. Importadas: " + contexto.importadas
+                + ", duplicadas: " + contexto.duplicadas + ", com erro: " + contexto.comErro);
+
+        return ImportacaoAvaliacaoResponse.builder()
+                .totalLinhas(contexto.totalLinhas)
+                .importadas(contexto.importadas)
+                .duplicadas(contexto.duplicadas)
+                .comErro(contexto.comErro)
+                .mercadosAtualizados(mercadosAtualizados)
+                .duracaoMs(duracao)
+                .erros(contexto.erros)
+                .build();
+    }
+
+    private void processarBloco(List<LinhaBruta> bloco, Formato formato, Map<String, Integer> colunas, Contexto contexto) {
+        contexto.totalLinhas += bloco.size();
+
+        // Análise e validação não dependem do banco nem do contexto: podem rodar em paralelo
+        List<Object> analisadas = bloco.parallelStream()
+                .map(linha -> analisar(linha, formato, colunas))
+                .toList();
+
+        List<Registro> candidatos = new ArrayList<>(analisadas.size());
+        for (Object analisada : analisadas) {
+            if (analisada instanceof Registro registro) {
+                if (contexto.pares.add(registro.chave())) {
+                    candidatos.add(registro);
+                } else {
+                    contexto.duplicadas++;
+                }
+            } else {
+                ErroAnalise erro = (ErroAnalise) analisada;
+                contexto.erro(erro.linha, erro.mensagem);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return;
+        }
+
+        verificarExistentes(candidatos, contexto);
+
+        Set<Long> mercadoIds = new HashSet<>();
+        Set<Long> usuarioIds = new HashSet<>();
+        List<Registro> validos = new ArrayList<>(candidatos.size());
+        for (Registro registro : candidatos) {
+            if (!contexto.mercadosValidos.contains(registro.mercadoId)) {
+                contexto.erro(registro.linha, "Mercado não encontrado ou inativo: " + registro.mercadoId);
+            } else if (!contexto.usuariosValidos.contains(registro.usuarioId)) {
+                contexto.erro(registro.linha, "Usuário não encontrado: " + registro.usuarioId);
+            } else {
+                validos.add(registro);
+                mercadoIds.add(registro.mercadoId);
+                usuarioIds.add(registro.usuarioId);
+            }
+        }
+        if (validos.isEmpty()) {
+            return;
+        }
+
+        Set<String> existentes = buscarAvaliacoesExistentes(mercadoIds, usuarioIds);
+        List<Object[]> argumentos = new ArrayList<>(validos.size());
+        List<Registro> inseridos = new ArrayList<>(validos.size());
+        for (Registro registro : validos) {
+            if (existentes.contains(registro.chave())) {
+                contexto.duplicadas++;
+                continue;
+            }
+            Timestamp criadoEm = Timestamp.valueOf(registro.criadoEm != null ? registro.criadoEm : LocalDateTime.now());
+            argumentos.add(new Object[]{registro.usuarioId, registro.mercadoId, registro.estrelas, registro.comentario,
+                    registro.verificado, criadoEm, criadoEm, contexto.responsavel, contexto.responsavel});
+            inseridos.add(registro);
+        }
+        if (argumentos.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (int inicio = 0; inicio < argumentos.size(); inicio += TAMANHO_LOTE_JDBC) {
+                    jdbcTemplate.getJdbcOperations().batchUpdate(SQL_INSERIR,
+                            argumentos.subList(inicio, Math.min(inicio + TAMANHO_LOTE_JDBC, argumentos.size())));
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warning("Falha ao gravar bloco da importação: " + e.getMessage());
+            for (Registro registro : inseridos) {
+                contexto.erro(registro.linha, "Falha ao gravar o bloco: " + e.getMostSpecificCause().getMessage());
+            }
+            return;
+        }
+        contexto.importadas += inseridos.size();
+        for (Registro registro : inseridos) {
+            contexto.mercadosAfetados.add(registro.mercadoId);
+        }
+    }
+
+    /**
+     * Consulta só os IDs ainda não vistos; o resultado vale para os blocos seguintes.
+     */
+    private void verificarExistentes(List<Registro> registros, Contexto contexto) {
+        Set<Long> mercados = new HashSet<>();
+        Set<Long> usuarios = new HashSet<>();
+        for (Registro registro : registros) {
+            if (contexto.mercadosConsultados.add(registro.mercadoId)) {
+                mercados.add(registro.mercadoId);
+            }
+            if (contexto.usuariosConsultados.add(registro.usuarioId)) {
+                usuarios.add(registro.usuarioId);
+            }
+        }
+        if (!mercados.isEmpty()) {
+            contexto.mercadosValidos.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM mercados WHERE active = true AND id IN (:ids)",
+                    new MapSqlParameterSource("ids", mercados), Long.class));
+        }
+        if (!usuarios.isEmpty()) {
+            contexto.usuariosValidos.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", usuarios), Long.class));
+        }
+    }
+
+    /**
+     * Pares (mercado, usuário) já avaliados. A consulta cruza os dois conjuntos e pode devolver
+     * pares fora do bloco, que são simplesmente ignorados.
+     */
+    private Set<String> buscarAvaliacoesExistentes(Collection<Long> mercadoIds, Collection<Long> usuarioIds) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("mercados", mercadoIds)
+                .addValue("usuarios", usuarioIds);
+        Set<String> existentes = new HashSet<>();
+        jdbcTemplate.query(
+                "SELECT mercado_id, usuario_id FROM avaliacoes WHERE mercado_id IN (:mercados) AND usuario_id IN (:usuarios)",
+                parametros,
+                rs -> {
+                    existentes.add(chave(rs.getLong(1), rs.getLong(2)));
+                });
+        return existentes;
+    }
+
+    private int recalcularAgregados(Set<Long> mercadoIds) {
+        int atualizados = 0;
+        for (Long mercadoId : mercadoIds) {
+            try {
+                avaliacaoAgregadoService.recalcular(mercadoId);
+                atualizados++;
+            } catch (ResourceNotFoundException e) {
+                log.warning("Mercado removido durante a importação. ID: " + mercadoId);
+            }
+        }
+        return atualizados;
+    }
+
+    private Object analisar(LinhaBruta linha, Formato formato, Map<String, Integer> colunas) {
+        try {
+            Map<String, String> campos = formato == Formato.JSONL ? camposJson(linha.texto) : camposCsv(linha.texto, colunas);
+            return validar(linha.numero, campos);
+        } catch (ValidationException e) {
+            return new ErroAnalise(linha.numero, e.getMessage());
+        }
+    }
+
+    private Registro validar(long numero, Map<String, String> campos) {
+        Long mercadoId = inteiro(campos.get("mercadoId"), "mercadoId");
+        Long usuarioId = inteiro(campos.get("usuarioId"), "usuarioId");
+        Long estrelas = inteiro(campos.get("estrelas"), "estrelas");
+        if (estrelas < 1 || estrelas > 5) {
+            throw new ValidationException("Estrelas deve estar entre 1 e 5");
+        }
+        String comentario = campos.get("comentario");
+        if (comentario != null && comentario.isBlank()) {
+            comentario = null;
+        }
+        if (comentario != null && (comentario.length() < 10 || comentario.length() > 1000)) {
+            throw new ValidationException("Comentário deve ter entre 10 e 1000 caracteres");
+        }
+        boolean verificado = Boolean.parseBoolean(campos.get("verificado"));
+        LocalDateTime criadoEm = null;
+        String data = campos.get("createdAt");
+        if (data != null && !data.isBlank()) {
+            try {
+                criadoEm = LocalDateTime.parse(data.trim());
+            } catch (DateTimeParseException e) {
+                throw new ValidationException("createdAt inválido (use ISO-8601, ex.: 2024-01-31T10:15:30)");
+            }
+        }
+        return new Registro(numero, mercadoId, usuarioId, estrelas.intValue(), comentario, verificado, criadoEm);
+    }
+
+    private static Map<String, String> camposJson(String texto) {
+        JsonNode no;
+        try {
+            no = objectMapper.readTree(texto);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("JSON inválido: " + e.getOriginalMessage());
+        }
+        if (no == null || !no.isObject()) {
+            throw new ValidationException("A linha deve conter um objeto JSON");
+        }
+        Map<String, String> campos = new HashMap<>();
+        no.fields().forEachRemaining(campo -> {
+            if (!campo.getValue().isNull()) {
+                campos.put(campo.getKey(), campo.getValue().asText());
+            }
+        });
+        return campos;
+    }
+
+    private static Map<String, String> camposCsv(String texto, Map<String, Integer> colunas) {
+        List<String> valores = dividirCsv(texto);
+        Map<String, String> campos = new HashMap<>();
+        for (Map.Entry<String, Integer> coluna : colunas.entrySet()) {
+            if (coluna.getValue() < valores.size()) {
+                campos.put(coluna.getKey(), valores.get(coluna.getValue()));
+            }
+        }
+        return campos;
+    }
+
+    private static Map<String, Integer> lerCabecalho(String texto) {
+        List<String> nomes = dividirCsv(texto);
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < nomes.size(); i++) {
+            colunas.put(nomes.get(i).trim(), i);
+        }
+        for (String obrigatoria : List.of("mercadoId", "usuarioId", "estrelas")) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new ValidationException("Cabeçalho CSV sem a coluna obrigatória: " + obrigatoria);
+            }
+        }
+        return colunas;
+    }
+
+    /**
+     * Divide uma linha CSV em campos, com aspas duplas para campos com vírgula
+     * e {@code ""} para aspas dentro do campo.
+     */
+    static List<String> dividirCsv(String texto) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                        atual.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new ValidationException("CSV inválido: aspas não fechadas");
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    private static Long inteiro(String valor, String campo) {
+        if (valor == null || valor.isBlank()) {
+            throw new ValidationException(campo + " é obrigatório");
+        }
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(campo + " deve ser um número inteiro");
+        }
+    }
+
+    private static String chave(long mercadoId, long usuarioId) {
+        return mercadoId + ":" + usuarioId;
+    }
+
+    private static final class LinhaBruta {
+        final long numero;
+        final String texto;
+
+        LinhaBruta(long numero, String texto) {
+            this.numero = numero;
+            this.texto = texto;
+        }
+    }
+
+    private static final class ErroAnalise {
+        final long linha;
+        final String mensagem;
+
+        ErroAnalise(long linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+    }
+
+    private static final class Registro {
+        final long linha;
+        final long mercadoId;
+        final long usuarioId;
+        final int estrelas;
+        final String comentario;
+        final boolean verificado;
+        final LocalDateTime criadoEm;
+
+        Registro(long linha, long mercadoId, long usuarioId, int estrelas, String comentario,
+                 boolean verificado, LocalDateTime criadoEm) {
+            this.linha = linha;
+            this.mercadoId = mercadoId;
+            this.usuarioId = usuarioId;
+            this.estrelas = estrelas;
+            this.comentario = comentario;
+            this.verificado = verificado;
+            this.criadoEm = criadoEm;
+        }
+
+        String chave() {
+            return ImportacaoAvaliacaoService.chave(mercadoId, usuarioId);
+        }
+    }
+
+    /**
+     * Estado de uma importação; usado só pela thread que lê o fluxo.
+     */
+    private static final class Contexto {
+        final String responsavel;
+        final Set<String> pares = new HashSet<>();
+        final Set<Long> mercadosConsultados = new HashSet<>();
+        final Set<Long> mercadosValidos = new HashSet<>();
+        final Set<Long> usuariosConsultados = new HashSet<>();
+        final Set<Long> usuariosValidos = new HashSet<>();
+        final Set<Long> mercadosAfetados = new TreeSet<>();
+        final List<ImportacaoAvaliacaoResponse.ErroLinha> erros = new ArrayList<>();
+        long totalLinhas;
+        long importadas;
+        long duplicadas;
+        long comErro;
+
+        Contexto(String responsavel) {
+            this.responsavel = responsavel;
+        }
+
+        void erro(long linha, String mensagem) {
+            comErro++;
+            if (erros.size() < MAXIMO_ERROS_REPORTADOS) {
+                erros.add(new ImportacaoAvaliacaoResponse.ErroLinha(linha, mensagem));
+            }
+        }
+    }
+}
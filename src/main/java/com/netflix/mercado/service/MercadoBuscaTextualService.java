@@ -0,0 +1,179 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.IndiceAproximado;
+import com.netflix.mercado.util.IndiceTextual;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Busca textual de mercados por nome, descrição, bairro e cidade.
+ * Mantém um índice invertido em memória, com acentos removidos e palavras reduzidas
+ * ao radical, e um dicionário de nomes para busca tolerante a erros de digitação,
+ * ambos sincronizados pelas escritas do {@link MercadoService}.
+ */
+@Service
+public class MercadoBuscaTextualService {
+
+    private static final Logger log = Logger.getLogger(MercadoBuscaTextualService.class.getName());
+
+    static final float PESO_NOME = 3.0f;
+    static final float PESO_BAIRRO = 1.5f;
+    static final float PESO_CIDADE = 1.5f;
+    static final float PESO_DESCRICAO = 1.0f;
+
+    /**
+     * Participação da avaliação média na pontuação final
+     */
+    static final double PESO_AVALIACAO = 0.2;
+
+    /**
+     * Máximo de resultados das buscas diretas ({@link #buscar} e {@link #buscarAproximado});
+     * os candidatos de {@link #buscarCandidatos} não são truncados, pois ainda passam pelos
+     * filtros do banco
+     */
+    public static final int MAX_RESULTADOS = 1000;
+
+    @Autowired
+    private MercadoRepository mercadoRepository;
+
+    private volatile IndiceTextual indice = new IndiceTextual();
+
+    private volatile IndiceAproximado nomes = new IndiceAproximado();
+
+    /**
+     * Reconstrói o índice a partir dos mercados ativos no banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruirIndice() {
+        long inicio = System.currentTimeMillis();
+        List<Object[]> linhas = mercadoRepository.findTextosAtivos();
+        IndiceTextual novo = new IndiceTextual();
+        IndiceAproximado novosNomes = new IndiceAproximado();
+        for (Object[] linha : linhas) {
+            long id = ((Number) linha[0]).longValue();
+            double avaliacao = avaliacao((BigDecimal) linha[5]);
+            novo.indexar(id, termos((String) linha[1], (String) linha[2], (String) linha[3], (String) linha[4]),
+                    avaliacao);
+            novosNomes.indexar(id, (String) linha[1], avaliacao);
+        }
+        this.indice = novo;
+        this.nomes = novosNomes;
+        log.info("Índice textual de mercados construído com " + novo.tamanho() + " mercados em "
+                + (System.currentTimeMillis() - inicio) + "ms");
+    }
+
+    /**
+     * Inclui ou atualiza um mercado; mercados inativos são removidos.
+     *
+     * @param mercado mercado alterado
+     */
+    public void indexar(Mercado mercado) {
+        if (mercado == null || mercado.getId() == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(mercado.getActive())) {
+            remover(mercado.getId());
+            return;
+        }
+        indice.indexar(mercado.getId(),
+                termos(mercado.getNome(), mercado.getDescricao(), mercado.getBairro(), mercado.getCidade()),
+                avaliacao(mercado.getAvaliacaoMedia()));
+        nomes.indexar(mercado.getId(), mercado.getNome(), avaliacao(mercado.getAvaliacaoMedia()));
+    }
+
+    public void remover(Long mercadoId) {
+        indice.remover(mercadoId);
+        nomes.remover(mercadoId);
+    }
+
+    /**
+     * Busca mercados pelo texto, ordenados por relevância combinada com a avaliação.
+     *
+     * @param texto texto livre
+     * @param limite quantidade máxima de resultados
+     * @return resultados em ordem decrescente de pontuação
+     */
+    public List<IndiceTextual.Resultado> buscar(String texto, int limite) {
+        return indice.buscar(texto, Math.min(limite, MAX_RESULTADOS), PESO_AVALIACAO);
+    }
+
+    /**
+     * Busca mercados pelo nome tolerando erros de digitação.
+     *
+     * @param nome nome digitado
+     * @param limite quantidade máxima de resultados
+     * @return resultados por distância de edição crescente e avaliação decrescente
+     */
+    public List<IndiceAproximado.Resultado> buscarAproximado(String nome, int limite) {
+        return nomes.buscar(nome, Math.min(limite, MAX_RESULTADOS));
+    }
+
+    /**
+     * IDs candidatos dos critérios resolvidos em memória (texto livre e nome aproximado),
+     * na ordem de relevância: a do texto quando informado, senão a do nome. Todos os
+     * documentos que casam são devolvidos; quem pagina corta depois dos demais filtros.
+     *
+     * @param filtro filtros da busca
+     * @return IDs em ordem de relevância, ou vazio quando nenhum desses critérios foi informado
+     */
+    public Optional<List<Long>> buscarCandidatos(MercadoSearchRequest filtro) {
+        List<Long> candidatos = null;
+        if (filtro.getTexto() != null && !filtro.getTexto().isBlank()) {
+            candidatos = new ArrayList<>();
+            List<IndiceTextual.Resultado> resultados = indice.buscar(filtro.getTexto(), Integer.MAX_VALUE,
+                    PESO_AVALIACAO);
+            for (IndiceTextual.Resultado resultado : resultados) {
+                candidatos.add(resultado.getId());
+            }
+        }
+        if (filtro.isNomeAproximado()) {
+            List<Long> aproximados = new ArrayList<>();
+            for (IndiceAproximado.Resultado resultado : nomes.buscar(filtro.getNome(), Integer.MAX_VALUE)) {
+                aproximados.add(resultado.getId());
+            }
+            if (candidatos == null) {
+                candidatos = aproximados;
+            } else {
+                Set<Long> permitidos = new HashSet<>(aproximados);
+                candidatos.removeIf(id -> !permitidos.contains(id));
+            }
+        }
+        return Optional.ofNullable(candidatos);
+    }
+
+    private static Map<String, Float> termos(String nome, String descricao, String bairro, String cidade) {
+        Map<String, Float> termos = new HashMap<>();
+        adicionar(termos, nome, PESO_NOME);
+        adicionar(termos, descricao, PESO_DESCRICAO);
+        adicionar(termos, bairro, PESO_BAIRRO);
+        adicionar(termos, cidade, PESO_CIDADE);
+        return termos;
+    }
+
+    private static void adicionar(Map<String, Float> termos, String texto, float peso) {
+        for (String termo : IndiceTextual.analisar(texto)) {
+            termos.merge(termo, peso, Float::sum);
+        }
+    }
+
+    private static double avaliacao(BigDecimal avaliacaoMedia) {
+        return avaliacaoMedia != null ? avaliacaoMedia.doubleValue() : 0.0;
+    }
+}
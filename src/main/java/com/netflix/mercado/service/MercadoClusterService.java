@@ -0,0 +1,292 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.MercadoClusterResponse;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.GeoUtils;
+import com.netflix.mercado.util.TileMapa;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Agrupamento de mercados para o mapa, calculado no servidor.
+ *
+ * Cada tile Web Mercator (z/x/y) é dividido em uma grade fixa de células; os mercados
+ * de cada célula viram um agrupamento com quantidade, centróide e avaliação média.
+ * Os tiles calculados ficam em cache e são invalidados quando um mercado é criado,
+ * alterado, aprovado, rejeitado ou excluído. Como a avaliação média muda por outras
+ * rotas, cada tile também expira após {@link #VALIDADE_MS}.
+ */
+@Service
+public class MercadoClusterService {
+
+    private static final Logger log = Logger.getLogger(MercadoClusterService.class.getName());
+
+    /**
+     * Maior zoom aceito (acima disso o mapa mostra mercados individuais)
+     */
+    public static final int ZOOM_MAXIMO = 20;
+
+    /**
+     * Células por eixo em cada tile (tile de 256px em células de 32px)
+     */
+    static final int GRADE = 8;
+
+    /**
+     * Máximo de tiles cobertos por uma consulta
+     */
+    static final int MAX_TILES_POR_CONSULTA = 256;
+
+    /**
+     * Máximo de tiles mantidos em cache
+     */
+    static final int MAX_TILES_EM_CACHE = 20_000;
+
+    /**
+     * Tempo de validade de um tile em cache
+     */
+    static final long VALIDADE_MS = 5 * 60 * 1000L;
+
+    @Autowired
+    private MercadoRepository mercadoRepository;
+
+    private final Map<Long, Tile> tiles = new ConcurrentHashMap<>();
+
+    /**
+     * Última posição conhecida dos mercados presentes nos tiles em cache,
+     * usada para invalidar o tile de origem quando um mercado se move ou sai do mapa.
+     */
+    private final Map<Long, double[]> posicoes = new ConcurrentHashMap<>();
+
+    /**
+     * Incrementada a cada invalidação; tiles calculados antes dela não entram no cache.
+     */
+    private long geracao;
+
+    /**
+     * Busca os agrupamentos de mercados ativos dentro de uma área do mapa.
+     *
+     * @param latMin latitude sul
+     * @param latMax latitude norte
+     * @param lonMin longitude oeste
+     * @param lonMax longitude leste
+     * @param zoom nível de zoom do mapa
+     * @return agrupamentos dos tiles que cobrem a área
+     * @throws ValidationException se área ou zoom inválidos
+     */
+    @Transactional(readOnly = true)
+    public List<MercadoClusterResponse> buscarClusters(Double latMin, Double latMax, Double lonMin, Double lonMax,
+                                                       Integer zoom) {
+        if (!GeoUtils.coordenadasValidas(latMin, lonMin) || !GeoUtils.coordenadasValidas(latMax, lonMax)
+                || latMin > latMax || lonMin > lonMax) {
+            throw new ValidationException("Área do mapa inválida");
+        }
+        if (zoom == null || zoom < 0 || zoom > ZOOM_MAXIMO) {
+            throw new ValidationException("Zoom deve estar entre 0 e " + ZOOM_MAXIMO);
+        }
+
+        int xMin = TileMapa.tileX(lonMin, zoom);
+        int xMax = TileMapa.tileX(lonMax, zoom);
+        int yMin = TileMapa.tileY(latMax, zoom);
+        int yMax = TileMapa.tileY(latMin, zoom);
+        if ((long) (xMax - xMin + 1) * (yMax - yMin + 1) > MAX_TILES_POR_CONSULTA) {
+            throw new ValidationException("Área muito grande para o zoom informado");
+        }
+
+        long agora = System.currentTimeMillis();
+        Map<Long, Tile> encontrados = new HashMap<>();
+        List<int[]> faltantes = new ArrayList<>();
+        for (int x = xMin; x <= xMax; x++) {
+            for (int y = yMin; y <= yMax; y++) {
+                Tile tile = tiles.get(TileMapa.chave(zoom, x, y));
+                if (tile != null && tile.expiraEm > agora) {
+                    encontrados.put(TileMapa.chave(zoom, x, y), tile);
+                } else {
+                    faltantes.add(new int[]{x, y});
+                }
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            encontrados.putAll(calcularTiles(zoom, faltantes, agora));
+        }
+
+        List<MercadoClusterResponse> resultado = new ArrayList<>();
+        for (Tile tile : encontrados.values()) {
+            resultado.addAll(tile.clusters);
+        }
+        return resultado;
+    }
+
+    /**
+     * Invalida os tiles afetados pela alteração de um mercado:
+     * os da posição anterior e os da posição atual, em todos os zooms.
+     *
+     * @param mercado mercado alterado
+     */
+    public void invalidar(Mercado mercado) {
+        if (mercado == null || mercado.getId() == null) {
+            return;
+        }
+        synchronized (this) {
+            geracao++;
+            removerTilesDaPosicaoAnterior(mercado.getId());
+            if (mercado.getLatitude() != null && mercado.getLongitude() != null) {
+                removerTilesDoPonto(mercado.getLatitude().doubleValue(), mercado.getLongitude().doubleValue());
+            }
+        }
+    }
+
+    /**
+     * Invalida os tiles em que um mercado removido aparecia.
+     *
+     * @param mercadoId ID do mercado
+     */
+    public synchronized void invalidar(Long mercadoId) {
+        geracao++;
+        removerTilesDaPosicaoAnterior(mercadoId);
+    }
+
+    /**
+     * Calcula os tiles informados com uma única consulta sobre a área que os envolve.
+     */
+    private Map<Long, Tile> calcularTiles(int zoom, List<int[]> faltantes, long agora) {
+        long geracaoInicial;
+        synchronized (this) {
+            geracaoInicial = geracao;
+        }
+
+        int xMin = Integer.MAX_VALUE, xMax = Integer.MIN_VALUE, yMin = Integer.MAX_VALUE, yMax = Integer.MIN_VALUE;
+        Map<Long, Map<Integer, Acumulador>> celulasPorTile = new HashMap<>();
+        for (int[] tile : faltantes) {
+            xMin = Math.min(xMin, tile[0]);
+            xMax = Math.max(xMax, tile[0]);
+            yMin = Math.min(yMin, tile[1]);
+            yMax = Math.max(yMax, tile[1]);
+            celulasPorTile.put(TileMapa.chave(zoom, tile[0], tile[1]), new HashMap<>());
+        }
+
+        // A margem evita perder mercados exatamente na borda por arredondamento.
+        double margem = 1e-6;
+        List<Object[]> linhas = mercadoRepository.findResumoGeograficoNaArea(
+                BigDecimal.valueOf(TileMapa.latitudeNorte(yMax + 1, zoom) - margem),
+                BigDecimal.valueOf(TileMapa.latitudeNorte(yMin, zoom) + margem),
+                BigDecimal.valueOf(TileMapa.longitudeOeste(xMin, zoom) - margem),
+                BigDecimal.valueOf(TileMapa.longitudeOeste(xMax + 1, zoom) + margem));
+
+        List<Object[]> membros = new ArrayList<>();
+        for (Object[] linha : linhas) {
+            if (linha[1] == null || linha[2] == null) {
+                continue;
+            }
+            double latitude = ((BigDecimal) linha[1]).doubleValue();
+            double longitude = ((BigDecimal) linha[2]).doubleValue();
+            double xc = TileMapa.xContinuo(longitude, zoom);
+            double yc = TileMapa.yContinuo(latitude, zoom);
+            int x = (int) xc;
+            int y = (int) yc;
+            Map<Integer, Acumulador> celulas = celulasPorTile.get(TileMapa.chave(zoom, x, y));
+            if (celulas == null) {
+                continue;
+            }
+            int celula = (int) ((yc - y) * GRADE) * GRADE + (int) ((xc - x) * GRADE);
+            celulas.computeIfAbsent(celula, c -> new Acumulador())
+                    .adicionar(((Number) linha[0]).longValue(), latitude, longitude,
+                            (BigDecimal) linha[3], (Number) linha[4]);
+            membros.add(new Object[]{linha[0], latitude, longitude});
+        }
+
+        long expiraEm = agora + VALIDADE_MS;
+        Map<Long, Tile> calculados = new HashMap<>(celulasPorTile.size() * 2);
+        celulasPorTile.forEach((chave, celulas) -> {
+            List<MercadoClusterResponse> clusters = new ArrayList<>(celulas.size());
+            for (Acumulador acumulador : celulas.values()) {
+                clusters.add(acumulador.toResponse());
+            }
+            calculados.put(chave, new Tile(Collections.unmodifiableList(clusters), expiraEm));
+        });
+
+        synchronized (this) {
+            if (geracao == geracaoInicial) {
+                if (tiles.size() + calculados.size() > MAX_TILES_EM_CACHE) {
+                    log.fine("Cache de tiles do mapa cheio; descartando " + tiles.size() + " tiles");
+                    tiles.clear();
+                    posicoes.clear();
+                }
+                for (Object[] membro : membros) {
+                    posicoes.put(((Number) membro[0]).longValue(),
+                            new double[]{(Double) membro[1], (Double) membro[2]});
+                }
+                tiles.putAll(calculados);
+            }
+        }
+        return calculados;
+    }
+
+    private void removerTilesDaPosicaoAnterior(Long mercadoId) {
+        double[] anterior = posicoes.remove(mercadoId);
+        if (anterior != null) {
+            removerTilesDoPonto(anterior[0], anterior[1]);
+        }
+    }
+
+    private void removerTilesDoPonto(double latitude, double longitude) {
+        for (int zoom = 0; zoom <= ZOOM_MAXIMO; zoom++) {
+            tiles.remove(TileMapa.chave(zoom, TileMapa.tileX(longitude, zoom), TileMapa.tileY(latitude, zoom)));
+        }
+    }
+
+    /**
+     * Tile calculado e imutável.
+     */
+    private static final class Tile {
+        final List<MercadoClusterResponse> clusters;
+        final long expiraEm;
+
+        Tile(List<MercadoClusterResponse> clusters, long expiraEm) {
+            this.clusters = clusters;
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    /**
+     * Soma dos mercados de uma célula da grade.
+     */
+    private static final class Acumulador {
+        int quantidade;
+        double somaLatitude;
+        double somaLongitude;
+        double somaAvaliacoes;
+        int avaliados;
+        long ultimoId;
+
+        void adicionar(long id, double latitude, double longitude, BigDecimal avaliacaoMedia, Number totalAvaliacoes) {
+            quantidade++;
+            somaLatitude += latitude;
+            somaLongitude += longitude;
+            ultimoId = id;
+            if (avaliacaoMedia != null && totalAvaliacoes != null && totalAvaliacoes.longValue() > 0) {
+                somaAvaliacoes += avaliacaoMedia.doubleValue();
+                avaliados++;
+            }
+        }
+
+        MercadoClusterResponse toResponse() {
+            Double media = avaliados == 0 ? null
+                    : BigDecimal.valueOf(somaAvaliacoes / avaliados).setScale(2, RoundingMode.HALF_UP).doubleValue();
+            return new MercadoClusterResponse(somaLatitude / quantidade, somaLongitude / quantidade,
+                    quantidade, media, quantidade == 1 ? ultimoId : null);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.MercadoFacetasResponse;
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.AgendaSemanal;
+import com.netflix.mercado.util.IndiceFacetas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Contagens por filtro (UF, cidade, avaliação mínima e abertos agora) da busca de mercados.
+ * As contagens são calculadas em memória sobre conjuntos de bits por valor de faceta,
+ * sincronizados pelas escritas do {@link MercadoService}, sem consultas de agregação no banco.
+ */
+@Service
+public class MercadoFacetaService {
+
+    private static final Logger log = Logger.getLogger(MercadoFacetaService.class.getName());
+
+    @Autowired
+    private MercadoRepository mercadoRepository;
+
+    @Autowired
+    private MercadoBuscaTextualService mercadoBuscaTextualService;
+
+    @Autowired
+    private AgendaSemanalService agendaSemanalService;
+
+    private volatile IndiceFacetas indice = new IndiceFacetas();
+
+    /**
+     * Reconstrói o índice a partir dos mercados ativos no banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruirIndice() {
+        long inicio = System.currentTimeMillis();
+        List<Object[]> linhas = mercadoRepository.findFacetasAtivas();
+        IndiceFacetas novo = new IndiceFacetas();
+        for (Object[] linha : linhas) {
+            novo.indexar(((Number) linha[0]).longValue(), (String) linha[1], (String) linha[2], (String) linha[3],
+                    avaliacao((BigDecimal) linha[4]), linha[5] != null && linha[6] != null);
+        }
+        this.indice = novo;
+        log.info("Índice de facetas construído com " + novo.tamanho() + " mercados em "
+                + (System.currentTimeMillis() - inicio) + "ms");
+    }
+
+    /**
+     * Inclui ou atualiza um mercado; mercados inativos são removidos.
+     *
+     * @param mercado mercado alterado
+     */
+    public void indexar(Mercado mercado) {
+        if (mercado == null || mercado.getId() == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(mercado.getActive())) {
+            indice.remover(mercado.getId());
+            return;
+        }
+        indice.indexar(mercado.getId(), mercado.getNome(), mercado.getCidade(), mercado.getEstado(),
+                avaliacao(mercado.getAvaliacaoMedia()),
+                mercado.getLatitude() != null && mercado.getLongitude() != null);
+    }
+
+    public void remover(Long mercadoId) {
+        indice.remover(mercadoId);
+    }
+
+    /**
+     * Conta, para cada valor de faceta, os mercados que atendem aos filtros da busca.
+     *
+     * @param filtro filtros da busca
+     * @param momento data e hora de referência para "aberto agora"
+     * @return contagens por faceta
+     */
+    public MercadoFacetasResponse calcular(MercadoSearchRequest filtro, LocalDateTime momento) {
+        return calcular(filtro, mercadoBuscaTextualService.buscarCandidatos(filtro), momento);
+    }
+
+    /**
+     * Conta as facetas reaproveitando os candidatos da busca em memória já calculados para
+     * a página de resultados, sem repetir a busca textual.
+     *
+     * @param filtro filtros da busca
+     * @param candidatos resultado de {@link MercadoBuscaTextualService#buscarCandidatos} para o filtro
+     * @param momento data e hora de referência para "aberto agora"
+     * @return contagens por faceta
+     */
+    public MercadoFacetasResponse calcular(MercadoSearchRequest filtro, Optional<List<Long>> candidatos,
+                                           LocalDateTime momento) {
+        IndiceFacetas.Consulta consulta = new IndiceFacetas.Consulta()
+                .nome(filtro.isNomeAproximado() ? null : filtro.getNome())
+                .cidade(filtro.getCidade())
+                .estado(filtro.getEstado())
+                .avaliacaoMinima(filtro.getMinAvaliacao() != null ? filtro.getMinAvaliacao().doubleValue() : null)
+                .exigirCoordenadas(filtro.getOrdenarPor() == MercadoSearchRequest.Ordenacao.DISTANCIA);
+        candidatos.ifPresent(consulta::ids);
+
+        int minutoDaSemana = AgendaSemanal.minutoDaSemana(momento);
+        IndiceFacetas.Resultado resultado = indice.calcular(consulta,
+                id -> agendaSemanalService.estaAberto(id, minutoDaSemana));
+
+        List<MercadoFacetasResponse.Valor> avaliacoes = new ArrayList<>();
+        for (int estrelas = IndiceFacetas.FAIXAS - 1; estrelas >= 1; estrelas--) {
+            avaliacoes.add(new MercadoFacetasResponse.Valor(String.valueOf(estrelas), null,
+                    resultado.getAvaliacaoMinima(estrelas)));
+        }
+        return new MercadoFacetasResponse(valores(resultado.getEstados()), valores(resultado.getCidades()),
+                avaliacoes, resultado.getAbertosAgora());
+    }
+
+    private static List<MercadoFacetasResponse.Valor> valores(List<IndiceFacetas.Contagem> contagens) {
+        List<MercadoFacetasResponse.Valor> valores = new ArrayList<>(contagens.size());
+        for (IndiceFacetas.Contagem contagem : contagens) {
+            valores.add(new MercadoFacetasResponse.Valor(contagem.getValor(), contagem.getEstado(),
+                    contagem.getQuantidade()));
+        }
+        return valores;
+    }
+
+    private static double avaliacao(BigDecimal avaliacaoMedia) {
+        return avaliacaoMedia != null ? avaliacaoMedia.doubleValue() : Double.NaN;
+    }
+}
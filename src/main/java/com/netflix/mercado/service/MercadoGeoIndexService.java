@@ -0,0 +1,244 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.GeoKdTree;
+import com.netflix.mercado.util.GeoUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.logging.Logger;
+
+/**
+ * Índice espacial em memória das coordenadas dos mercados ativos.
+ * Responde "os k mercados mais próximos" e buscas por raio sem consultar o banco.
+ *
+ * O índice é um KD-tree imutável mais uma pequena camada de alterações pendentes
+ * (inclusões/movimentações ainda fora da árvore e IDs obsoletos). Leitores usam um
+ * snapshot imutável sem bloqueio; quando as pendências passam do limite a árvore é reconstruída.
+ */
+@Service
+public class MercadoGeoIndexService {
+
+    private static final Logger log = Logger.getLogger(MercadoGeoIndexService.class.getName());
+
+    /**
+     * Máximo de alterações pendentes antes de reconstruir a árvore
+     */
+    static final int LIMITE_PENDENCIAS = 1024;
+
+    @Autowired
+    private MercadoRepository mercadoRepository;
+
+    private volatile Snapshot snapshot = Snapshot.VAZIO;
+
+    /**
+     * Carrega as coordenadas de todos os mercados ativos e reconstrói o índice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruirIndice() {
+        long inicio = System.currentTimeMillis();
+        List<Object[]> linhas = mercadoRepository.findCoordenadasAtivas();
+
+        long[] ids = new long[linhas.size()];
+        double[] latitudes = new double[linhas.size()];
+        double[] longitudes = new double[linhas.size()];
+        int n = 0;
+        for (Object[] linha : linhas) {
+            if (linha[0] == null || linha[1] == null || linha[2] == null) {
+                continue;
+            }
+            ids[n] = ((Number) linha[0]).longValue();
+            latitudes[n] = ((BigDecimal) linha[1]).doubleValue();
+            longitudes[n] = ((BigDecimal) linha[2]).doubleValue();
+            n++;
+        }
+
+        carregar(Arrays.copyOf(ids, n),
+                Arrays.copyOf(latitudes, n),
+                Arrays.copyOf(longitudes, n));
+        log.info("Índice geográfico de mercados construído com " + n + " mercados em "
+                + (System.currentTimeMillis() - inicio) + "ms");
+    }
+
+    /**
+     * Substitui o conteúdo do índice pelos pontos informados.
+     *
+     * @param ids IDs dos mercados
+     * @param latitudes latitudes em graus
+     * @param longitudes longitudes em graus
+     */
+    public synchronized void carregar(long[] ids, double[] latitudes, double[] longitudes) {
+        this.snapshot = new Snapshot(GeoKdTree.construir(ids, latitudes, longitudes),
+                Collections.emptyMap(), Collections.emptySet());
+    }
+
+    /**
+     * Inclui, move ou remove um mercado conforme seu estado atual.
+     * Mercados inativos ou sem coordenadas são removidos do índice.
+     *
+     * @param mercado mercado alterado
+     */
+    public void indexar(Mercado mercado) {
+        if (mercado == null || mercado.getId() == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(mercado.getActive())
+                || mercado.getLatitude() == null || mercado.getLongitude() == null) {
+            remover(mercado.getId());
+            return;
+        }
+        indexar(mercado.getId(), mercado.getLatitude().doubleValue(), mercado.getLongitude().doubleValue());
+    }
+
+    /**
+     * Inclui ou move um ponto no índice.
+     *
+     * @param id ID do mercado
+     * @param latitude latitude em graus
+     * @param longitude longitude em graus
+     */
+    public synchronized void indexar(long id, double latitude, double longitude) {
+        Snapshot atual = this.snapshot;
+        Map<Long, double[]> pendentes = new HashMap<>(atual.pendentes);
+        pendentes.put(id, new double[]{latitude, longitude});
+        Set<Long> obsoletos = new HashSet<>(atual.obsoletos);
+        obsoletos.add(id);
+        publicar(atual.arvore, pendentes, obsoletos);
+    }
+
+    /**
+     * Remove um mercado do índice.
+     *
+     * @param id ID do mercado
+     */
+    public synchronized void remover(long id) {
+        Snapshot atual = this.snapshot;
+        Map<Long, double[]> pendentes = atual.pendentes;
+        if (pendentes.containsKey(id)) {
+            pendentes = new HashMap<>(pendentes);
+            pendentes.remove(id);
+        }
+        Set<Long> obsoletos = new HashSet<>(atual.obsoletos);
+        obsoletos.add(id);
+        publicar(atual.arvore, pendentes, obsoletos);
+    }
+
+    /**
+     * Busca os k mercados ativos mais próximos da coordenada.
+     *
+     * @param latitude latitude em graus
+     * @param longitude longitude em graus
+     * @param k quantidade de mercados
+     * @return mercados ordenados por distância crescente
+     */
+    public List<GeoKdTree.Vizinho> buscarMaisProximos(double latitude, double longitude, int k) {
+        Snapshot atual = this.snapshot;
+        List<GeoKdTree.Vizinho> resultado = new ArrayList<>(
+                atual.arvore.buscarMaisProximos(latitude, longitude, k, atual.filtroObsoletos()));
+        for (Map.Entry<Long, double[]> pendente : atual.pendentes.entrySet()) {
+            resultado.add(vizinho(pendente, latitude, longitude));
+        }
+        resultado.sort(Comparator.comparingDouble(GeoKdTree.Vizinho::getDistanciaKm));
+        return resultado.size() > k ? new ArrayList<>(resultado.subList(0, k)) : resultado;
+    }
+
+    /**
+     * Busca todos os mercados ativos dentro do raio.
+     *
+     * @param latitude latitude em graus
+     * @param longitude longitude em graus
+     * @param raioKm raio em km
+     * @return mercados ordenados por distância crescente
+     */
+    public List<GeoKdTree.Vizinho> buscarNoRaio(double latitude, double longitude, double raioKm) {
+        Snapshot atual = this.snapshot;
+        List<GeoKdTree.Vizinho> resultado = new ArrayList<>(
+                atual.arvore.buscarNoRaio(latitude, longitude, raioKm, atual.filtroObsoletos()));
+        for (Map.Entry<Long, double[]> pendente : atual.pendentes.entrySet()) {
+            GeoKdTree.Vizinho vizinho = vizinho(pendente, latitude, longitude);
+            if (vizinho.getDistanciaKm() <= raioKm) {
+                resultado.add(vizinho);
+            }
+        }
+        resultado.sort(Comparator.comparingDouble(GeoKdTree.Vizinho::getDistanciaKm));
+        return resultado;
+    }
+
+    private void publicar(GeoKdTree arvore, Map<Long, double[]> pendentes, Set<Long> obsoletos) {
+        if (obsoletos.size() + pendentes.size() > LIMITE_PENDENCIAS) {
+            this.snapshot = compactar(arvore, pendentes, obsoletos);
+        } else {
+            this.snapshot = new Snapshot(arvore, Collections.unmodifiableMap(pendentes),
+                    Collections.unmodifiableSet(obsoletos));
+        }
+    }
+
+    private Snapshot compactar(GeoKdTree arvore, Map<Long, double[]> pendentes, Set<Long> obsoletos) {
+        int capacidade = arvore.tamanho() + pendentes.size();
+        long[] ids = new long[capacidade];
+        double[] latitudes = new double[capacidade];
+        double[] longitudes = new double[capacidade];
+        int n = 0;
+        for (int i = 0; i < arvore.tamanho(); i++) {
+            if (!obsoletos.contains(arvore.getId(i))) {
+                ids[n] = arvore.getId(i);
+                latitudes[n] = arvore.getLatitude(i);
+                longitudes[n] = arvore.getLongitude(i);
+                n++;
+            }
+        }
+        for (Map.Entry<Long, double[]> pendente : pendentes.entrySet()) {
+            ids[n] = pendente.getKey();
+            latitudes[n] = pendente.getValue()[0];
+            longitudes[n] = pendente.getValue()[1];
+            n++;
+        }
+        log.fine("Reconstruindo índice geográfico com " + n + " mercados");
+        return new Snapshot(GeoKdTree.construir(Arrays.copyOf(ids, n),
+                Arrays.copyOf(latitudes, n), Arrays.copyOf(longitudes, n)),
+                Collections.emptyMap(), Collections.emptySet());
+    }
+
+    private static GeoKdTree.Vizinho vizinho(Map.Entry<Long, double[]> pendente, double latitude, double longitude) {
+        double[] ponto = pendente.getValue();
+        return new GeoKdTree.Vizinho(pendente.getKey(), ponto[0], ponto[1],
+                GeoUtils.calcularDistanciaKm(latitude, longitude, ponto[0], ponto[1]));
+    }
+
+    /**
+     * Estado imutável publicado para os leitores.
+     */
+    private static final class Snapshot {
+        static final Snapshot VAZIO = new Snapshot(GeoKdTree.vazia(), Collections.emptyMap(), Collections.emptySet());
+
+        final GeoKdTree arvore;
+        final Map<Long, double[]> pendentes;
+        final Set<Long> obsoletos;
+
+        Snapshot(GeoKdTree arvore, Map<Long, double[]> pendentes, Set<Long> obsoletos) {
+            this.arvore = arvore;
+            this.pendentes = pendentes;
+            this.obsoletos = obsoletos;
+        }
+
+        LongPredicate filtroObsoletos() {
+            return obsoletos.isEmpty() ? null : obsoletos::contains;
+        }
+    }
+}
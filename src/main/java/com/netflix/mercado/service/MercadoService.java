@@ -9,20 +9,43 @@ import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.exception.UnauthorizedException;
 import com.netflix.mercado.repository.MercadoRepository;
 import com.netflix.mercado.repository.AuditLogRepository;
+import com.netflix.mercado.repository.MercadoSpecifications;
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.dto.mercado.CreateMercadoRequest;
 import com.netflix.mercado.dto.mercado.UpdateMercadoRequest;
 import com.netflix.mercado.dto.mercado.MercadoResponse;
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
 import com.netflix.mercado.dto.notificacao.CreateNotificacaoRequest;
+import com.netflix.mercado.util.AgendaSemanal;
+import com.netflix.mercado.util.CursorPaginacao;
+import com.netflix.mercado.util.GeoKdTree;
+import com.netflix.mercado.util.GeoUtils;
+import com.netflix.mercado.util.TransacaoUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -35,6 +58,13 @@ public class MercadoService {
 
     private static final Logger log = Logger.getLogger(MercadoService.class.getName());
 
+    /**
+     * Quantidade máxima de mercados em uma busca por vizinhos mais próximos
+     */
+    public static final int MAX_VIZINHOS = 100;
+
+    private static final int LOTE_REINDEXACAO = 500;
+
     @Autowired
     private MercadoRepository mercadoRepository;
 
@@ -44,6 +74,27 @@ public class MercadoService {
     @Autowired
     private NotificacaoService notificacaoService;
 
+    @Autowired
+    private MercadoGeoIndexService mercadoGeoIndexService;
+
+    @Autowired
+    private AgendaSemanalService agendaSemanalService;
+
+    @Autowired
+    private MercadoClusterService mercadoClusterService;
+
+    @Autowired
+    private MercadoBuscaTextualService mercadoBuscaTextualService;
+
+    @Autowired
+    private MercadoSugestaoService mercadoSugestaoService;
+
+    @Autowired
+    private MercadoFacetaService mercadoFacetaService;
+
+    // Mercados com agregados de avaliação alterados desde a última reindexação
+    private final Set<Long> reindexacaoPendente = ConcurrentHashMap.newKeySet();
+
     /**
      * Cria um novo mercado.
      *
@@ -81,6 +132,7 @@ public class MercadoService {
         // avaliacaoMedia e totalAvaliacoes já têm valores padrão
 
         mercado = mercadoRepository.save(mercado);
+        sincronizarIndices(mercado);
 
         // ✅ NOVO: Notificar seller que seu mercado foi criado e aguarda aprovação
         if (owner != null && owner.getId() != null) {
@@ -159,8 +211,13 @@ public class MercadoService {
         if (request.getEmail() != null) {
             mercado.setEmail(request.getEmail());
         }
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            mercado.setLatitude(request.getLatitude());
+            mercado.setLongitude(request.getLongitude());
+        }
 
         mercado = mercadoRepository.save(mercado);
+        sincronizarIndices(mercado);
 
         String valoresNovos = String.format("nome=%s, cidade=%s", mercado.getNome(), mercado.getCidade());
 
@@ -200,6 +257,8 @@ public class MercadoService {
         }
 
         mercadoRepository.delete(mercado);
+        removerDosIndices(id);
+        TransacaoUtils.executarAposCommit(() -> agendaSemanalService.remover(id));
 
         // Registrar no audit log
         auditLogRepository.save(new AuditLog(
@@ -256,6 +315,27 @@ public class MercadoService {
                 .map(this::convertToResponse);
     }
 
+    /**
+     * Lista os mercados ativos por cursor, dos mais bem avaliados para os menos, sem contagem total.
+     * Como a avaliação média muda com novas avaliações, um mercado reavaliado durante a rolagem
+     * pode ser pulado ou repetido, mas a página nunca fica vazia por deslocamento.
+     *
+     * @param after cursor retornado pela página anterior; null para a primeira
+     * @param tamanho quantidade de itens
+     * @return página com o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<MercadoResponse> getAllMercadosCursor(String after, int tamanho) {
+        CursorPaginacao cursor = CursorPaginacao.decodificar(after, 1);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        Slice<Mercado> fatia = cursor == null
+                ? mercadoRepository.findAllActiveCursor(limite)
+                : mercadoRepository.findAllActiveApos(cursor.getDecimal(0), cursor.getId(), limite);
+        String proximo = CursorPaginacao.proximo(fatia,
+                m -> CursorPaginacao.codificar(m.getId(), m.getAvaliacaoMedia()));
+        return PageResponse.deCursor(fatia.map(this::convertToResponse), proximo, cursor != null);
+    }
+
     /**
      * Busca mercados próximos a uma localização.
      *
@@ -270,6 +350,150 @@ public class MercadoService {
         return mercadoRepository.findByProximidade(latitude, longitude, raio);
     }
 
+    /**
+     * Busca mercados próximos com paginação, ordenados pela distância real (Haversine).
+     * A busca usa uma caixa delimitadora como pré-filtro indexável antes do cálculo de distância.
+     *
+     * @param latitude latitude da localização
+     * @param longitude longitude da localização
+     * @param raioKm raio de busca em km
+     * @param pageable informações de paginação
+     * @return página de mercados próximos
+     * @throws ValidationException se coordenadas ou raio inválidos
+     */
+    @Transactional(readOnly = true)
+    public Page<MercadoResponse> findNearby(Double latitude, Double longitude, Double raioKm, Pageable pageable) {
+        log.fine("Buscando mercados próximos (paginado): lat=" + latitude + ", lon=" + longitude + ", raio=" + raioKm + "km");
+
+        if (!GeoUtils.coordenadasValidas(latitude, longitude)) {
+            throw new ValidationException("Coordenadas geográficas inválidas");
+        }
+        if (raioKm == null || raioKm <= 0) {
+            throw new ValidationException("Raio de busca deve ser maior que zero");
+        }
+
+        // A ordenação é sempre pela distância; ignora sort externo
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return mercadoRepository.findByProximidade(latitude, longitude, raioKm, pagina)
+                .map(mercado -> {
+                    MercadoResponse response = convertToResponse(mercado);
+                    response.setDistanciaKm(GeoUtils.calcularDistanciaKm(latitude, longitude,
+                            mercado.getLatitude().doubleValue(), mercado.getLongitude().doubleValue()));
+                    return response;
+                });
+    }
+
+    /**
+     * Busca os k mercados ativos mais próximos de uma localização, sem raio fixo.
+     * A busca é feita no índice espacial em memória; o banco é consultado uma única vez
+     * para carregar os mercados encontrados.
+     *
+     * @param latitude latitude da localização
+     * @param longitude longitude da localização
+     * @param k quantidade de mercados (1 a {@value #MAX_VIZINHOS})
+     * @return mercados ordenados por distância crescente
+     * @throws ValidationException se coordenadas ou k inválidos
+     */
+    @Transactional(readOnly = true)
+    public List<MercadoResponse> buscarMaisProximos(Double latitude, Double longitude, int k) {
+        log.fine("Buscando " + k + " mercados mais próximos: lat=" + latitude + ", lon=" + longitude);
+
+        if (!GeoUtils.coordenadasValidas(latitude, longitude)) {
+            throw new ValidationException("Coordenadas geográficas inválidas");
+        }
+        if (k < 1 || k > MAX_VIZINHOS) {
+            throw new ValidationException("Quantidade de mercados deve estar entre 1 e " + MAX_VIZINHOS);
+        }
+
+        List<GeoKdTree.Vizinho> vizinhos = mercadoGeoIndexService.buscarMaisProximos(latitude, longitude, k);
+        return carregarVizinhos(vizinhos);
+    }
+
+    /**
+     * Busca mercados próximos que estão abertos agora, ordenados pela distância.
+     * Os candidatos vêm do índice espacial e o filtro "aberto agora" usa as agendas
+     * semanais compiladas em memória; o banco é consultado uma única vez, para a página.
+     *
+     * @param latitude latitude da localização
+     * @param longitude longitude da localização
+     * @param raioKm raio de busca em km
+     * @param pageable informações de paginação
+     * @return página de mercados abertos dentro do raio
+     * @throws ValidationException se coordenadas ou raio inválidos
+     */
+    @Transactional(readOnly = true)
+    public Page<MercadoResponse> buscarProximosAbertosAgora(Double latitude, Double longitude, Double raioKm,
+                                                            Pageable pageable) {
+        return buscarProximosAbertos(latitude, longitude, raioKm, LocalDateTime.now(), pageable);
+    }
+
+    /**
+     * Busca mercados próximos abertos em um momento específico.
+     *
+     * @param latitude latitude da localização
+     * @param longitude longitude da localização
+     * @param raioKm raio de busca em km
+     * @param momento data e hora de referência
+     * @param pageable informações de paginação
+     * @return página de mercados abertos dentro do raio
+     */
+    @Transactional(readOnly = true)
+    public Page<MercadoResponse> buscarProximosAbertos(Double latitude, Double longitude, Double raioKm,
+                                                       LocalDateTime momento, Pageable pageable) {
+        log.fine("Buscando mercados abertos próximos: lat=" + latitude + ", lon=" + longitude + ", raio=" + raioKm + "km");
+
+        if (!GeoUtils.coordenadasValidas(latitude, longitude)) {
+            throw new ValidationException("Coordenadas geográficas inválidas");
+        }
+        if (raioKm == null || raioKm <= 0) {
+            throw new ValidationException("Raio de busca deve ser maior que zero");
+        }
+
+        int minutoDaSemana = AgendaSemanal.minutoDaSemana(momento);
+        List<GeoKdTree.Vizinho> abertos = new ArrayList<>();
+        for (GeoKdTree.Vizinho vizinho : mercadoGeoIndexService.buscarNoRaio(latitude, longitude, raioKm)) {
+            if (agendaSemanalService.estaAberto(vizinho.getId(), minutoDaSemana)) {
+                abertos.add(vizinho);
+            }
+        }
+
+        int inicio = (int) Math.min(pageable.getOffset(), abertos.size());
+        int fim = Math.min(inicio + pageable.getPageSize(), abertos.size());
+        List<MercadoResponse> pagina = carregarVizinhos(abertos.subList(inicio, fim));
+        return new PageImpl<>(pagina, pageable, abertos.size());
+    }
+
+    /**
+     * Carrega os mercados de uma busca espacial em uma única consulta, preservando a ordem por distância.
+     *
+     * @param vizinhos resultado do índice espacial
+     * @return mercados com a distância preenchida
+     */
+    List<MercadoResponse> carregarVizinhos(List<GeoKdTree.Vizinho> vizinhos) {
+        if (vizinhos.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(vizinhos.size());
+        for (GeoKdTree.Vizinho vizinho : vizinhos) {
+            ids.add(vizinho.getId());
+        }
+        Map<Long, Mercado> porId = new HashMap<>();
+        for (Mercado mercado : mercadoRepository.findAllById(ids)) {
+            porId.put(mercado.getId(), mercado);
+        }
+
+        List<MercadoResponse> resultado = new ArrayList<>(vizinhos.size());
+        for (GeoKdTree.Vizinho vizinho : vizinhos) {
+            Mercado mercado = porId.get(vizinho.getId());
+            if (mercado != null && Boolean.TRUE.equals(mercado.getActive())) {
+                MercadoResponse response = convertToResponse(mercado);
+                response.setDistanciaKm(vizinho.getDistanciaKm());
+                resultado.add(response);
+            }
+        }
+        return resultado;
+    }
+
     /**
      * Busca mercados por nome.
      *
@@ -297,64 +521,162 @@ public class MercadoService {
     }
 
     /**
-     * ✅ NOVO: Busca avançada com múltiplos filtros combinados.
+     * Busca avançada com múltiplos filtros combinados.
      *
      * @param nome filtro por nome (opcional)
      * @param cidade filtro por cidade (opcional)
      * @param estado filtro por estado (opcional)
      * @param ratingMínimo avaliação mínima (opcional)
-     * @param pageable paginação
-     * @return página de mercados que correspondem aos critérios
+     * @param pageable informações de paginação
+     * @return página de mercados que atendem aos filtros
      */
     @Transactional(readOnly = true)
-    public Page<Mercado> buscarAvançada(String nome, String cidade, String estado, 
+    public Page<Mercado> buscarAvançada(String nome, String cidade, String estado,
                                          BigDecimal ratingMínimo, Pageable pageable) {
-        log.fine("Busca avançada - Nome: " + nome + ", Cidade: " + cidade + 
+        log.fine("Busca avançada - Nome: " + nome + ", Cidade: " + cidade +
                  ", Estado: " + estado + ", Rating mín: " + ratingMínimo);
 
-        if (nome != null && !nome.isBlank()) {
-            if (cidade != null && !cidade.isBlank()) {
-                if (estado != null && !estado.isBlank()) {
-                    if (ratingMínimo != null) {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-                                nome, cidade, estado, ratingMínimo, pageable);
-                    } else {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndActiveTrue(
-                                nome, cidade, estado, pageable);
-                    }
-                } else {
-                    if (ratingMínimo != null) {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-                                nome, cidade, ratingMínimo, pageable);
-                    } else {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndCidadeContainingIgnoreCaseAndActiveTrue(
-                                nome, cidade, pageable);
-                    }
-                }
-            } else {
-                if (estado != null && !estado.isBlank()) {
-                    if (ratingMínimo != null) {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-                                nome, estado, ratingMínimo, pageable);
-                    } else {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndEstadoContainingIgnoreCaseAndActiveTrue(
-                                nome, estado, pageable);
-                    }
-                } else {
-                    if (ratingMínimo != null) {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndAvaliacaoMediaGreaterThanEqualAndActiveTrue(
-                                nome, ratingMínimo, pageable);
-                    } else {
-                        return mercadoRepository.findByNomeContainingIgnoreCaseAndActiveTrue(nome, pageable);
-                    }
-                }
+        MercadoSearchRequest filtro = new MercadoSearchRequest(nome, cidade, estado, ratingMínimo, null, null);
+        return mercadoRepository.findAll(MercadoSpecifications.filtrar(filtro), pageable);
+    }
+
+    /**
+     * Busca mercados ativos com filtros e ordenação opcionais.
+     * Apenas os filtros informados geram predicados; estado e cidade usam igualdade.
+     * Com texto livre ou nome aproximado, os candidatos vêm dos índices em memória e,
+     * sem outra ordenação, o resultado segue a relevância (do texto, senão a distância
+     * de edição do nome) combinada com a avaliação.
+     *
+     * @param filtro filtros, ponto de referência e critério de ordenação
+     * @param pageable informações de paginação (a ordenação vem do filtro)
+     * @return página de mercados; com ponto de referência, inclui a distância em km
+     * @throws ValidationException se ordenar por distância sem coordenadas válidas
+     */
+    @Transactional(readOnly = true)
+    public Page<MercadoResponse> buscarMercados(MercadoSearchRequest filtro, Pageable pageable) {
+        return buscarMercados(filtro, mercadoBuscaTextualService.buscarCandidatos(filtro), pageable);
+    }
+
+    /**
+     * Mesma busca, com os candidatos da busca em memória já calculados, para que as facetas
+     * da mesma requisição contem sobre os mesmos IDs.
+     *
+     * @param filtro filtros, ponto de referência e critério de ordenação
+     * @param candidatos resultado de {@link MercadoBuscaTextualService#buscarCandidatos} para o filtro
+     * @param pageable informações de paginação (a ordenação vem do filtro)
+     * @return página de mercados; com ponto de referência, inclui a distância em km
+     * @throws ValidationException se ordenar por distância sem coordenadas válidas
+     */
+    @Transactional(readOnly = true)
+    public Page<MercadoResponse> buscarMercados(MercadoSearchRequest filtro, Optional<List<Long>> candidatos,
+                                                Pageable pageable) {
+        log.fine("Buscando mercados com filtros - Nome: " + filtro.getNome() + ", Cidade: " + filtro.getCidade() +
+                 ", Estado: " + filtro.getEstado() + ", Ordenação: " + filtro.getOrdenarPor());
+
+        Double latitude = filtro.getLatitude();
+        Double longitude = filtro.getLongitude();
+        boolean temReferencia = latitude != null || longitude != null;
+        if (temReferencia && !GeoUtils.coordenadasValidas(latitude, longitude)) {
+            throw new ValidationException("Coordenadas geográficas inválidas");
+        }
+
+        Specification<Mercado> spec = MercadoSpecifications.filtrar(filtro);
+        MercadoSearchRequest.Ordenacao criterio = filtro.getOrdenarPor();
+        if (candidatos.isPresent()) {
+            List<Long> idsPorRelevancia = candidatos.get();
+            if (idsPorRelevancia.isEmpty()) {
+                return Page.empty(pageable);
             }
+            if (criterio == null || criterio == MercadoSearchRequest.Ordenacao.RELEVANCIA) {
+                return paginarPorRelevancia(spec, idsPorRelevancia, pageable, latitude, longitude);
+            }
+        }
+
+        Sort ordenacao;
+        if (criterio == MercadoSearchRequest.Ordenacao.DISTANCIA) {
+            if (!temReferencia) {
+                throw new ValidationException("Latitude e longitude são obrigatórias para ordenar por distância");
+            }
+            spec = spec.and(MercadoSpecifications.ordenarPorDistancia(latitude, longitude));
+            ordenacao = Sort.unsorted();
+        } else if (criterio == MercadoSearchRequest.Ordenacao.AVALIACAO) {
+            ordenacao = Sort.by(Sort.Order.desc("avaliacaoMedia"), Sort.Order.desc("totalAvaliacoes"),
+                    Sort.Order.asc("id"));
+        } else if (criterio == MercadoSearchRequest.Ordenacao.FAVORITOS) {
+            // Mesma direção nas duas colunas: idx_mercado_ativo_favoritos_id percorrido de trás para frente
+            ordenacao = Sort.by(Sort.Order.desc("totalFavoritos"), Sort.Order.desc("id"));
+        } else if (criterio == MercadoSearchRequest.Ordenacao.NOME) {
+            ordenacao = Sort.by(Sort.Order.asc("nome"), Sort.Order.asc("id"));
         } else {
-            // Sem nome
-            if (ratingMínimo != null) {
-                return mercadoRepository.findByAvaliacaoMediaGreaterThanEqualAndActiveTrue(ratingMínimo, pageable);
-            } else {
-                return mercadoRepository.findAllByActiveTrue(pageable);
+            ordenacao = Sort.by("id");
+        }
+
+        if (candidatos.isPresent()) {
+            Set<Long> casados = new HashSet<>(candidatos.get());
+            List<Long> ordenados = new ArrayList<>(casados.size());
+            for (Long id : mercadoRepository.findIds(spec, ordenacao)) {
+                if (casados.contains(id)) {
+                    ordenados.add(id);
+                }
+            }
+            return paginarIds(ordenados, pageable, latitude, longitude);
+        }
+
+        Pageable paginacao = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordenacao);
+        Page<MercadoResponse> resultado = mercadoRepository.findAll(spec, paginacao).map(this::convertToResponse);
+        preencherDistancias(resultado.getContent(), latitude, longitude);
+        return resultado;
+    }
+
+    /**
+     * Aplica os filtros a todos os candidatos da busca textual e pagina na ordem de relevância.
+     * O filtro projeta só os IDs; apenas os mercados da página são carregados.
+     */
+    private Page<MercadoResponse> paginarPorRelevancia(Specification<Mercado> spec, List<Long> idsPorRelevancia,
+                                                       Pageable pageable, Double latitude, Double longitude) {
+        Set<Long> filtrados = new HashSet<>(mercadoRepository.findIds(spec, Sort.unsorted()));
+        List<Long> ordenados = new ArrayList<>(filtrados.size());
+        for (Long id : idsPorRelevancia) {
+            if (filtrados.contains(id)) {
+                ordenados.add(id);
+            }
+        }
+        return paginarIds(ordenados, pageable, latitude, longitude);
+    }
+
+    /**
+     * Carrega apenas os mercados da página, mantendo a ordem dos IDs; o total é o da lista inteira.
+     */
+    private Page<MercadoResponse> paginarIds(List<Long> ordenados, Pageable pageable,
+                                             Double latitude, Double longitude) {
+        int inicio = (int) Math.min(pageable.getOffset(), ordenados.size());
+        int fim = Math.min(inicio + pageable.getPageSize(), ordenados.size());
+        List<Long> idsPagina = ordenados.subList(inicio, fim);
+        Map<Long, Mercado> porId = new HashMap<>();
+        if (!idsPagina.isEmpty()) {
+            for (Mercado mercado : mercadoRepository.findAllById(idsPagina)) {
+                porId.put(mercado.getId(), mercado);
+            }
+        }
+        List<MercadoResponse> pagina = new ArrayList<>(idsPagina.size());
+        for (Long id : idsPagina) {
+            Mercado mercado = porId.get(id);
+            if (mercado != null) {
+                pagina.add(convertToResponse(mercado));
+            }
+        }
+        preencherDistancias(pagina, latitude, longitude);
+        return new PageImpl<>(pagina, pageable, ordenados.size());
+    }
+
+    private static void preencherDistancias(List<MercadoResponse> responses, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        for (MercadoResponse response : responses) {
+            if (response.getLatitude() != null && response.getLongitude() != null) {
+                response.setDistanciaKm(GeoUtils.calcularDistanciaKm(latitude, longitude,
+                        response.getLatitude().doubleValue(), response.getLongitude().doubleValue()));
             }
         }
     }
@@ -372,6 +694,7 @@ public class MercadoService {
         // mercado.setAprovado(true); // campo aprovado não existe
         mercado.setActive(true);
         mercadoRepository.save(mercado);
+        sincronizarIndices(mercado);
 
         // ✅ NOVO: Notificar seller sobre aprovação
         if (mercado.getCriadoPor() != null && mercado.getCriadoPor().getId() != null) {
@@ -415,6 +738,7 @@ public class MercadoService {
         // mercado.setAprovado(false); // campo aprovado não existe
         mercado.setActive(false);
         mercadoRepository.save(mercado);
+        removerDosIndices(id);
 
         // ✅ NOVO: Notificar seller sobre rejeição
         if (mercado.getCriadoPor() != null && mercado.getCriadoPor().getId() != null) {
@@ -449,28 +773,93 @@ public class MercadoService {
     }
 
     /**
-     * Atualiza a avaliação média de um mercado (chamado internamente).
+     * Recalcula do zero a avaliação média e os agregados de avaliações de um mercado.
+     * As escritas de avaliação mantêm os agregados por delta; este método serve para
+     * reparar divergências e após cargas feitas fora do {@link AvaliacaoService}.
+     * Não bloqueia a faixa do mercado: com escritas concorrentes de avaliação, use
+     * {@link AvaliacaoAgregadoService#recalcular}.
      *
      * @param mercadoId ID do mercado
      */
     @Transactional
     public void atualizarAvaliacaoMedia(Long mercadoId) {
-        log.fine("Atualizando avaliação média do mercado ID: " + mercadoId);
+        log.fine("Recalculando agregados de avaliação do mercado ID: " + mercadoId);
 
-        Mercado mercado = getMercadoEntityById(mercadoId);
+        if (mercadoRepository.recalcularAgregadoAvaliacoes(mercadoId) == 0) {
+            throw new ResourceNotFoundException("Mercado não encontrado com ID: " + mercadoId);
+        }
+        sincronizarAvaliacoes(List.of(mercadoId));
 
-        // Calcular nova média e total (seria feito via query no repository)
-        // TODO: implementar métodos calcularAvaliacaoMedia e contarAvaliacoes no repository
-        // Double novaMedia = mercadoRepository.calcularAvaliacaoMedia(mercadoId);
-        // Long totalAvaliacoes = mercadoRepository.contarAvaliacoes(mercadoId);
+        log.fine("Avaliação média atualizada. Mercado ID: " + mercadoId);
+    }
 
-        // Por enquanto, usar valores padrão
-        // mercado.setAvaliacaoMedia(novaMedia != null ? BigDecimal.valueOf(novaMedia) : BigDecimal.ZERO);
-        // mercado.setTotalAvaliacoes(totalAvaliacoes != null ? totalAvaliacoes : 0L);
+    /**
+     * Atualiza os índices em memória com o estado do mercado após o commit.
+     *
+     * @param mercado mercado persistido
+     */
+    private void sincronizarIndices(Mercado mercado) {
+        TransacaoUtils.executarAposCommit(() -> indexar(mercado));
+    }
 
-        mercadoRepository.save(mercado);
+    /**
+     * Agenda, para depois do commit, a atualização dos índices em memória dos mercados cujos
+     * agregados de avaliação mudaram por UPDATE direto (média e total usados na relevância,
+     * nas facetas, nas sugestões e nos clusters). Os mercados são relidos em lote por
+     * {@link #reindexarAvaliacoesPendentes()}, fora da requisição que escreveu a avaliação.
+     *
+     * @param mercadoIds IDs dos mercados alterados
+     */
+    public void sincronizarAvaliacoes(Collection<Long> mercadoIds) {
+        if (mercadoIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(mercadoIds);
+        TransacaoUtils.executarAposCommit(() -> reindexacaoPendente.addAll(ids));
+    }
 
-        log.fine("Avaliação média atualizada. Mercado ID: " + mercadoId);
+    /**
+     * Relê os mercados com agregados de avaliação alterados e atualiza os índices em memória.
+     */
+    @Scheduled(fixedDelayString = "${app.mercados.reindexacao-ms:1000}")
+    @Transactional(readOnly = true)
+    public void reindexarAvaliacoesPendentes() {
+        if (reindexacaoPendente.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> pendentes = reindexacaoPendente.iterator(); pendentes.hasNext(); ) {
+            ids.add(pendentes.next());
+            pendentes.remove();
+        }
+        for (int inicio = 0; inicio < ids.size(); inicio += LOTE_REINDEXACAO) {
+            mercadoRepository.findAllById(ids.subList(inicio, Math.min(inicio + LOTE_REINDEXACAO, ids.size())))
+                    .forEach(this::indexar);
+        }
+        log.fine("Índices atualizados para " + ids.size() + " mercados com avaliações alteradas");
+    }
+
+    private void indexar(Mercado mercado) {
+        mercadoGeoIndexService.indexar(mercado);
+        mercadoClusterService.invalidar(mercado);
+        mercadoBuscaTextualService.indexar(mercado);
+        mercadoSugestaoService.indexar(mercado);
+        mercadoFacetaService.indexar(mercado);
+    }
+
+    /**
+     * Remove o mercado dos índices em memória após o commit.
+     *
+     * @param id ID do mercado
+     */
+    private void removerDosIndices(Long id) {
+        TransacaoUtils.executarAposCommit(() -> {
+            mercadoGeoIndexService.remover(id);
+            mercadoClusterService.invalidar(id);
+            mercadoBuscaTextualService.remover(id);
+            mercadoSugestaoService.remover(id);
+            mercadoFacetaService.remover(id);
+        });
     }
 
     /**
@@ -493,7 +882,7 @@ public class MercadoService {
      * @return DTO MercadoResponse
      */
     public MercadoResponse convertToResponse(Mercado mercado) {
-        return new MercadoResponse(
+        MercadoResponse response = new MercadoResponse(
                 mercado.getId(),
                 mercado.getNome(),
                 mercado.getDescricao(),
@@ -512,14 +901,22 @@ public class MercadoService {
                 mercado.getCreatedAt(),
                 mercado.getUpdatedAt()
         );
+        response.setTotalFavoritos(mercado.getTotalFavoritos() != null ? mercado.getTotalFavoritos() : 0L);
+        return response;
     }
     public MercadoService() {
     }
 
-    public MercadoService(MercadoRepository mercadoRepository, AuditLogRepository auditLogRepository, NotificacaoService notificacaoService) {
+    public MercadoService(MercadoRepository mercadoRepository, AuditLogRepository auditLogRepository, NotificacaoService notificacaoService, MercadoGeoIndexService mercadoGeoIndexService, AgendaSemanalService agendaSemanalService, MercadoClusterService mercadoClusterService, MercadoBuscaTextualService mercadoBuscaTextualService, MercadoSugestaoService mercadoSugestaoService, MercadoFacetaService mercadoFacetaService) {
         this.mercadoRepository = mercadoRepository;
         this.auditLogRepository = auditLogRepository;
         this.notificacaoService = notificacaoService;
+        this.mercadoGeoIndexService = mercadoGeoIndexService;
+        this.agendaSemanalService = agendaSemanalService;
+        this.mercadoClusterService = mercadoClusterService;
+        this.mercadoBuscaTextualService = mercadoBuscaTextualService;
+        this.mercadoSugestaoService = mercadoSugestaoService;
+        this.mercadoFacetaService = mercadoFacetaService;
     }
 
     public MercadoRepository getMercadoRepository() {
@@ -546,4 +943,52 @@ public class MercadoService {
         this.notificacaoService = notificacaoService;
     }
 
+    public MercadoGeoIndexService getMercadoGeoIndexService() {
+        return this.mercadoGeoIndexService;
+    }
+
+    public void setMercadoGeoIndexService(MercadoGeoIndexService mercadoGeoIndexService) {
+        this.mercadoGeoIndexService = mercadoGeoIndexService;
+    }
+
+    public AgendaSemanalService getAgendaSemanalService() {
+        return this.agendaSemanalService;
+    }
+
+    public void setAgendaSemanalService(AgendaSemanalService agendaSemanalService) {
+        this.agendaSemanalService = agendaSemanalService;
+    }
+
+    public MercadoClusterService getMercadoClusterService() {
+        return this.mercadoClusterService;
+    }
+
+    public void setMercadoClusterService(MercadoClusterService mercadoClusterService) {
+        this.mercadoClusterService = mercadoClusterService;
+    }
+
+    public MercadoBuscaTextualService getMercadoBuscaTextualService() {
+        return this.mercadoBuscaTextualService;
+    }
+
+    public void setMercadoBuscaTextualService(MercadoBuscaTextualService mercadoBuscaTextualService) {
+        this.mercadoBuscaTextualService = mercadoBuscaTextualService;
+    }
+
+    public MercadoSugestaoService getMercadoSugestaoService() {
+        return this.mercadoSugestaoService;
+    }
+
+    public void setMercadoSugestaoService(MercadoSugestaoService mercadoSugestaoService) {
+        this.mercadoSugestaoService = mercadoSugestaoService;
+    }
+
+    public MercadoFacetaService getMercadoFacetaService() {
+        return this.mercadoFacetaService;
+    }
+
+    public void setMercadoFacetaService(MercadoFacetaService mercadoFacetaService) {
+        this.mercadoFacetaService = mercadoFacetaService;
+    }
+
 }
@@ -0,0 +1,223 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.SugestaoResponse;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.TriePrefixos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Autocompletar de nomes de mercados, bairros e cidades.
+ *
+ * As sugestões ficam em uma trie em memória, pesadas pelo total de avaliações (bairros e
+ * cidades somam as avaliações dos seus mercados ativos), e são mantidas pelas escritas do
+ * {@link MercadoService}. As consultas não acessam o banco.
+ */
+@Service
+public class MercadoSugestaoService {
+
+    private static final Logger log = Logger.getLogger(MercadoSugestaoService.class.getName());
+
+    @Autowired
+    private MercadoRepository mercadoRepository;
+
+    private volatile Estado estado = new Estado(new TriePrefixos());
+
+    /**
+     * Reconstrói as sugestões a partir dos mercados ativos no banco.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruirIndice() {
+        long inicio = System.currentTimeMillis();
+        List<Object[]> linhas = mercadoRepository.findSugestoesAtivas();
+        Estado novo = new Estado(null);
+        for (Object[] linha : linhas) {
+            if (!temTexto((String) linha[1])) {
+                continue;
+            }
+            Number total = (Number) linha[5];
+            registrar(novo, ((Number) linha[0]).longValue(), new Registro((String) linha[1], (String) linha[2],
+                    (String) linha[3], (String) linha[4], total != null ? total.longValue() : 0L));
+        }
+        List<TriePrefixos.Entrada> entradas = new ArrayList<>(novo.mercados.size() + novo.locais.size());
+        for (Registro registro : novo.mercados.values()) {
+            entradas.add(registro.entrada);
+        }
+        for (Agregado agregado : novo.locais.values()) {
+            entradas.add(agregado.entrada);
+        }
+        novo.trie = TriePrefixos.construir(entradas);
+        synchronized (this) {
+            this.estado = novo;
+        }
+        log.info("Índice de sugestões construído com " + entradas.size() + " entradas em "
+                + (System.currentTimeMillis() - inicio) + "ms");
+    }
+
+    /**
+     * Inclui ou atualiza um mercado; mercados inativos são removidos.
+     *
+     * @param mercado mercado alterado
+     */
+    public synchronized void indexar(Mercado mercado) {
+        if (mercado == null || mercado.getId() == null) {
+            return;
+        }
+        removerSemBloqueio(estado, mercado.getId());
+        if (Boolean.TRUE.equals(mercado.getActive()) && mercado.getNome() != null && !mercado.getNome().isBlank()) {
+            long total = mercado.getTotalAvaliacoes() != null ? mercado.getTotalAvaliacoes() : 0L;
+            registrar(estado, mercado.getId(), new Registro(mercado.getNome(), mercado.getBairro(),
+                    mercado.getCidade(), mercado.getEstado(), total));
+        }
+    }
+
+    public synchronized void remover(Long mercadoId) {
+        removerSemBloqueio(estado, mercadoId);
+    }
+
+    /**
+     * Sugestões que começam com o texto digitado, das mais avaliadas para as menos.
+     *
+     * @param prefixo texto digitado
+     * @param limite quantidade máxima (até {@link TriePrefixos#K_MAXIMO})
+     * @return sugestões encontradas
+     */
+    public List<SugestaoResponse> sugerir(String prefixo, int limite) {
+        List<TriePrefixos.Entrada> entradas = estado.trie.buscar(prefixo, Math.min(limite, TriePrefixos.K_MAXIMO));
+        List<SugestaoResponse> sugestoes = new ArrayList<>(entradas.size());
+        for (TriePrefixos.Entrada entrada : entradas) {
+            sugestoes.add(new SugestaoResponse(SugestaoResponse.Tipo.valueOf(entrada.getTipo()),
+                    entrada.getTexto(), entrada.getDetalhe(), entrada.getReferenciaId()));
+        }
+        return sugestoes;
+    }
+
+    /**
+     * Registra o mercado e soma sua contribuição ao bairro e à cidade.
+     * Quando a trie já existe, as entradas alteradas são atualizadas nela.
+     */
+    private static void registrar(Estado estado, long id, Registro registro) {
+        String cidadeUf = juntar(registro.cidade, registro.uf, " - ");
+        registro.entrada = new TriePrefixos.Entrada(SugestaoResponse.Tipo.MERCADO.name(), Long.toString(id),
+                registro.nome, juntar(registro.bairro, cidadeUf, ", "), id, registro.total);
+        estado.mercados.put(id, registro);
+        if (estado.trie != null) {
+            estado.trie.adicionar(registro.entrada);
+        }
+        if (temTexto(registro.bairro)) {
+            String identidade = TriePrefixos.normalizarChave(registro.bairro) + "|"
+                    + TriePrefixos.normalizarChave(registro.cidade) + "|" + registro.uf;
+            acumular(estado, SugestaoResponse.Tipo.BAIRRO, identidade, registro.bairro, cidadeUf, registro.total, 1);
+        }
+        if (temTexto(registro.cidade)) {
+            String identidade = TriePrefixos.normalizarChave(registro.cidade) + "|" + registro.uf;
+            acumular(estado, SugestaoResponse.Tipo.CIDADE, identidade, registro.cidade, registro.uf, registro.total, 1);
+        }
+    }
+
+    private static void removerSemBloqueio(Estado estado, Long id) {
+        Registro registro = estado.mercados.remove(id);
+        if (registro == null) {
+            return;
+        }
+        estado.trie.remover(registro.entrada);
+        if (temTexto(registro.bairro)) {
+            String identidade = TriePrefixos.normalizarChave(registro.bairro) + "|"
+                    + TriePrefixos.normalizarChave(registro.cidade) + "|" + registro.uf;
+            acumular(estado, SugestaoResponse.Tipo.BAIRRO, identidade, registro.bairro, null, -registro.total, -1);
+        }
+        if (temTexto(registro.cidade)) {
+            String identidade = TriePrefixos.normalizarChave(registro.cidade) + "|" + registro.uf;
+            acumular(estado, SugestaoResponse.Tipo.CIDADE, identidade, registro.cidade, null, -registro.total, -1);
+        }
+    }
+
+    /**
+     * Ajusta quantidade e soma de avaliações de um bairro ou cidade e troca sua entrada.
+     * O peso é a soma das avaliações mais a quantidade de mercados, para que locais
+     * cujos mercados ainda não têm avaliações sejam ordenados pela quantidade de mercados.
+     */
+    private static void acumular(Estado estado, SugestaoResponse.Tipo tipo, String identidade, String texto,
+                                 String detalhe, long avaliacoes, int mercados) {
+        String chave = tipo.name() + ":" + identidade;
+        Agregado agregado = estado.locais.get(chave);
+        if (agregado == null) {
+            if (mercados <= 0) {
+                return;
+            }
+            agregado = new Agregado();
+            estado.locais.put(chave, agregado);
+        }
+        if (estado.trie != null && agregado.entrada != null) {
+            estado.trie.remover(agregado.entrada);
+        }
+        agregado.quantidade += mercados;
+        agregado.avaliacoes += avaliacoes;
+        if (agregado.quantidade <= 0) {
+            estado.locais.remove(chave);
+            return;
+        }
+        String textoExibido = agregado.entrada != null ? agregado.entrada.getTexto() : texto;
+        String detalheExibido = agregado.entrada != null ? agregado.entrada.getDetalhe() : detalhe;
+        agregado.entrada = new TriePrefixos.Entrada(tipo.name(), identidade, textoExibido, detalheExibido, null,
+                agregado.avaliacoes + agregado.quantidade);
+        if (estado.trie != null) {
+            estado.trie.adicionar(agregado.entrada);
+        }
+    }
+
+    private static boolean temTexto(String valor) {
+        return valor != null && !valor.isBlank();
+    }
+
+    private static String juntar(String primeiro, String segundo, String separador) {
+        if (!temTexto(primeiro)) {
+            return temTexto(segundo) ? segundo : null;
+        }
+        return temTexto(segundo) ? primeiro + separador + segundo : primeiro;
+    }
+
+    private static final class Estado {
+        TriePrefixos trie;
+        final Map<Long, Registro> mercados = new HashMap<>();
+        final Map<String, Agregado> locais = new HashMap<>();
+
+        Estado(TriePrefixos trie) {
+            this.trie = trie;
+        }
+    }
+
+    private static final class Registro {
+        final String nome;
+        final String bairro;
+        final String cidade;
+        final String uf;
+        final long total;
+        TriePrefixos.Entrada entrada;
+
+        Registro(String nome, String bairro, String cidade, String uf, long total) {
+            this.nome = nome;
+            this.bairro = bairro;
+            this.cidade = cidade;
+            this.uf = uf;
+            this.total = total;
+        }
+    }
+
+    private static final class Agregado {
+        int quantidade;
+        long avaliacoes;
+        TriePrefixos.Entrada entrada;
+    }
+}
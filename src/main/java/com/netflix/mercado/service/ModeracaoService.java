@@ -0,0 +1,350 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.comentario.DecisaoModeracaoResponse;
+import com.netflix.mercado.dto.comentario.FilaModeracaoResponse;
+import com.netflix.mercado.dto.comentario.ItemModeracaoResponse;
+import com.netflix.mercado.dto.comentario.ReservaModeracaoResponse;
+import com.netflix.mercado.entity.DenunciaComentario;
+import com.netflix.mercado.entity.User;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.ComentarioRepository;
+import com.netflix.mercado.repository.DenunciaComentarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Fila de moderação de comentários.
+ *
+ * A prioridade é uma chave única, {@code prazo_moderacao}: o instante de criação, antecipado
+ * por rejeições anteriores do autor e por cada denúncia. Ordenar pela chave atende os mais
+ * antigos primeiro sem deixar denunciados esperando, e a ordem é servida pelo índice
+ * idx_comentario_fila_moderacao.
+ *
+ * Moderadores reservam lotes por {@link #DURACAO_RESERVA}. A reserva é um UPDATE condicional
+ * (só linhas pendentes e sem reserva ativa), então cada item fica com um único moderador.
+ * Reservas vencidas voltam para a fila sem nenhuma limpeza. Aprovações e rejeições em lote
+ * são um UPDATE por decisão, seguido de um INSERT em lote na auditoria.
+ */
+@Service
+@Transactional
+public class ModeracaoService {
+
+    private static final Logger log = Logger.getLogger(ModeracaoService.class.getName());
+
+    static final Duration DURACAO_RESERVA = Duration.ofMinutes(10);
+    static final int MAXIMO_POR_RESERVA = 100;
+    static final int MAXIMO_POR_DECISAO = 500;
+
+    static final long ANTECIPACAO_POR_DENUNCIA = Duration.ofHours(6).toSeconds();
+    static final long ANTECIPACAO_POR_REJEICAO = Duration.ofHours(2).toSeconds();
+    private static final long MAXIMO_REJEICOES_CONSIDERADAS = 12;
+
+    private static final int TENTATIVAS_RESERVA = 3;
+
+    private static final String PENDENTE = "moderado = false AND moderado_por_id IS NULL AND active = true";
+    private static final String LIVRE = "(reservado_ate IS NULL OR reservado_ate < :agora)";
+
+    private static final String SQL_AUDITORIA =
+            "INSERT INTO audit_logs (usuario_id, acao, tipo_entidade, id_entidade, descricao, status_http, " +
+            "created_at, updated_at, created_by, updated_by, active) " +
+            "VALUES (?, 'ATUALIZACAO', 'COMENTARIO', ?, ?, 200, ?, ?, ?, ?, true)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ComentarioRepository comentarioRepository;
+
+    @Autowired
+    private DenunciaComentarioRepository denunciaComentarioRepository;
+
+    /**
+     * Chave de prioridade de um comentário novo.
+     *
+     * @param criadoEm criação do comentário
+     * @param rejeicoesDoAutor comentários do autor rejeitados anteriormente
+     * @return segundos desde a época (UTC); menor sai antes da fila
+     */
+    public static long prazoInicial(LocalDateTime criadoEm, long rejeicoesDoAutor) {
+        long rejeicoes = Math.min(rejeicoesDoAutor, MAXIMO_REJEICOES_CONSIDERADAS);
+        return criadoEm.toEpochSecond(ZoneOffset.UTC) - rejeicoes * ANTECIPACAO_POR_REJEICAO;
+    }
+
+    /**
+     * Reserva para o moderador os próximos comentários da fila.
+     *
+     * @param moderador quem vai moderar
+     * @param quantidade itens desejados (1 a {@value #MAXIMO_POR_RESERVA})
+     * @return itens reservados, em ordem de prioridade; pode vir com menos itens se a fila acabar
+     * @throws ValidationException se quantidade fora do limite
+     */
+    public ReservaModeracaoResponse reservar(User moderador, int quantidade) {
+        if (quantidade < 1 || quantidade > MAXIMO_POR_RESERVA) {
+            throw new ValidationException("Quantidade deve estar entre 1 e " + MAXIMO_POR_RESERVA);
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime reservadoAte = agora.plus(DURACAO_RESERVA);
+        String token = UUID.randomUUID().toString();
+
+        // Outro moderador pode levar parte dos candidatos entre a leitura e o UPDATE;
+        // nesse caso busca-se a diferença de novo, algumas vezes
+        List<Long> candidatos = new ArrayList<>();
+        int reservados = 0;
+        for (int tentativa = 0; tentativa < TENTATIVAS_RESERVA && reservados < quantidade; tentativa++) {
+            int faltam = quantidade - reservados;
+            List<Long> lote = jdbcTemplate.queryForList(
+                    "SELECT id FROM comentarios WHERE " + PENDENTE + " AND " + LIVRE +
+                    " ORDER BY prazo_moderacao ASC, id ASC LIMIT :limite",
+                    new MapSqlParameterSource("agora", Timestamp.valueOf(agora)).addValue("limite", faltam),
+                    Long.class);
+            if (lote.isEmpty()) {
+                break;
+            }
+            int atualizados = jdbcTemplate.update(
+                    "UPDATE comentarios SET reservado_por_id = :moderador, reservado_ate = :ate, reserva_token = :token " +
+                    "WHERE id IN (:ids) AND " + PENDENTE + " AND " + LIVRE,
+                    new MapSqlParameterSource("moderador", moderador.getId())
+                            .addValue("ate", Timestamp.valueOf(reservadoAte))
+                            .addValue("token", token)
+                            .addValue("ids", lote)
+                            .addValue("agora", Timestamp.valueOf(agora)));
+            candidatos.addAll(lote);
+            reservados += atualizados;
+            if (atualizados == lote.size() && lote.size() < faltam) {
+                break; // Fila esgotada
+            }
+        }
+
+        List<ItemModeracaoResponse> itens = candidatos.isEmpty()
+                ? List.of()
+                : comentarioRepository.findReservados(candidatos, token).stream()
+                        .map(ItemModeracaoResponse::from)
+                        .collect(Collectors.toList());
+        log.info("Moderador " + moderador.getEmail() + " reservou " + itens.size() + " comentários");
+        return new ReservaModeracaoResponse(reservadoAte, itens);
+    }
+
+    /**
+     * Devolve à fila os comentários ainda reservados pelo moderador.
+     *
+     * @param moderador dono das reservas
+     * @return quantidade liberada
+     */
+    public int liberar(User moderador) {
+        int liberados = jdbcTemplate.update(
+                "UPDATE comentarios SET reservado_por_id = NULL, reservado_ate = NULL " +
+                "WHERE reservado_por_id = :moderador AND " + PENDENTE,
+                new MapSqlParameterSource("moderador", moderador.getId()));
+        log.info("Moderador " + moderador.getEmail() + " liberou " + liberados + " reservas");
+        return liberados;
+    }
+
+    /**
+     * Aprova em lote os comentários pendentes que não estão reservados por outro moderador.
+     *
+     * @param ids IDs dos comentários (até {@value #MAXIMO_POR_DECISAO})
+     * @param moderador quem decide
+     * @return IDs aplicados e ignorados
+     */
+    public DecisaoModeracaoResponse aprovar(List<Long> ids, User moderador) {
+        return decidir(ids, true, null, moderador);
+    }
+
+    /**
+     * Rejeita em lote os comentários pendentes que não estão reservados por outro moderador.
+     *
+     * @param ids IDs dos comentários (até {@value #MAXIMO_POR_DECISAO})
+     * @param motivo motivo registrado em cada comentário
+     * @param moderador quem decide
+     * @return IDs aplicados e ignorados
+     */
+    public DecisaoModeracaoResponse rejeitar(List<Long> ids, String motivo, User moderador) {
+        return decidir(ids, false, motivo != null && !motivo.isBlank() ? motivo : "Conteúdo inapropriado", moderador);
+    }
+
+    private DecisaoModeracaoResponse decidir(List<Long> ids, boolean aprovado, String motivo, User moderador) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ValidationException("Informe ao menos um comentário");
+        }
+        Set<Long> distintos = new LinkedHashSet<>(ids);
+        if (distintos.size() > MAXIMO_POR_DECISAO) {
+            throw new ValidationException("No máximo " + MAXIMO_POR_DECISAO + " comentários por decisão");
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        String token = UUID.randomUUID().toString();
+
+        int atualizados = jdbcTemplate.update(
+                "UPDATE comentarios SET moderado = :aprovado, moderado_por_id = :moderador, motivo_rejeicao = :motivo, " +
+                "reservado_por_id = NULL, reservado_ate = NULL, reserva_token = :token, " +
+                "updated_at = :agora, updated_by = :email " +
+                "WHERE id IN (:ids) AND " + PENDENTE +
+                " AND (reservado_por_id = :moderador OR " + LIVRE + ")",
+                new MapSqlParameterSource("aprovado", aprovado)
+                        .addValue("moderador", moderador.getId())
+                        .addValue("motivo", motivo)
+                        .addValue("token", token)
+                        .addValue("agora", Timestamp.valueOf(agora))
+                        .addValue("email", moderador.getEmail())
+                        .addValue("ids", distintos));
+
+        List<Long> aplicados = atualizados == 0
+                ? List.of()
+                : jdbcTemplate.queryForList(
+                        "SELECT id FROM comentarios WHERE id IN (:ids) AND reserva_token = :token ORDER BY id",
+                        new MapSqlParameterSource("ids", distintos).addValue("token", token), Long.class);
+
+        if (!aplicados.isEmpty()) {
+            String descricao = aprovado ? "Comentário aprovado em lote" : "Comentário rejeitado em lote. Motivo: " + motivo;
+            Timestamp momento = Timestamp.valueOf(agora);
+            List<Object[]> auditoria = new ArrayList<>(aplicados.size());
+            for (Long id : aplicados) {
+                auditoria.add(new Object[]{moderador.getId(), id, descricao, momento, momento,
+                        moderador.getEmail(), moderador.getEmail()});
+            }
+            jdbcTemplate.getJdbcOperations().batchUpdate(SQL_AUDITORIA, auditoria);
+        }
+
+        Set<Long> ignorados = new LinkedHashSet<>(distintos);
+        aplicados.forEach(ignorados::remove);
+        log.info("Moderação em lote por " + moderador.getEmail() + ": " + aplicados.size() + " "
+                + (aprovado ? "aprovados" : "rejeitados") + ", " + ignorados.size() + " ignorados");
+        return new DecisaoModeracaoResponse(distintos.size(), aplicados, new ArrayList<>(ignorados));
+    }
+
+    /**
+     * Decide um único comentário, pendente ou já moderado (revisão de uma decisão anterior),
+     * se ele não estiver reservado por outro moderador. Usado pela moderação individual.
+     *
+     * @param id ID do comentário
+     * @param aprovado true para aprovar, false para rejeitar
+     * @param motivo motivo da rejeição; ignorado na aprovação
+     * @param moderador quem decide
+     * @return true se aplicada; false se o comentário não existe ou outro moderador o reservou
+     */
+    public boolean decidirComentario(Long id, boolean aprovado, String motivo, User moderador) {
+        LocalDateTime agora = LocalDateTime.now();
+        String motivoRejeicao = aprovado ? null : (motivo != null && !motivo.isBlank() ? motivo : "Conteúdo inapropriado");
+        int atualizados = jdbcTemplate.update(
+                "UPDATE comentarios SET moderado = :aprovado, moderado_por_id = :moderador, motivo_rejeicao = :motivo, " +
+                "reservado_por_id = NULL, reservado_ate = NULL, reserva_token = :token, " +
+                "updated_at = :agora, updated_by = :email " +
+                "WHERE id = :id AND (reservado_por_id = :moderador OR " + LIVRE + ")",
+                new MapSqlParameterSource("aprovado", aprovado)
+                        .addValue("moderador", moderador.getId())
+                        .addValue("motivo", motivoRejeicao)
+                        .addValue("token", UUID.randomUUID().toString())
+                        .addValue("agora", Timestamp.valueOf(agora))
+                        .addValue("email", moderador.getEmail())
+                        .addValue("id", id));
+        if (atualizados == 0) {
+            return false;
+        }
+        Timestamp momento = Timestamp.valueOf(agora);
+        jdbcTemplate.getJdbcOperations().update(SQL_AUDITORIA, moderador.getId(), id,
+                aprovado ? "Comentário aprovado" : "Comentário rejeitado. Motivo: " + motivoRejeicao,
+                momento, momento, moderador.getEmail(), moderador.getEmail());
+        log.info("Comentário " + id + (aprovado ? " aprovado" : " rejeitado") + " por " + moderador.getEmail());
+        return true;
+    }
+
+    /**
+     * Profundidade da fila em uma única agregação sobre os pendentes.
+     *
+     * @return métricas da fila
+     */
+    @Transactional(readOnly = true)
+    public FilaModeracaoResponse metricas() {
+        LocalDateTime agora = LocalDateTime.now();
+        return jdbcTemplate.query(
+                "SELECT COUNT(*), " +
+                "SUM(CASE WHEN reservado_ate >= :agora THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN denuncias > 0 THEN 1 ELSE 0 END), " +
+                "MIN(created_at) " +
+                "FROM comentarios WHERE " + PENDENTE,
+                new MapSqlParameterSource("agora", Timestamp.valueOf(agora)),
+                rs -> {
+                    rs.next();
+                    long pendentes = rs.getLong(1);
+                    long reservados = rs.getLong(2);
+                    long comDenuncia = rs.getLong(3);
+                    Timestamp maisAntigo = rs.getTimestamp(4);
+                    LocalDateTime maisAntigoEm = maisAntigo != null ? maisAntigo.toLocalDateTime() : null;
+                    Long idade = maisAntigoEm != null ? Duration.between(maisAntigoEm, agora).toSeconds() : null;
+                    return new FilaModeracaoResponse(pendentes, reservados, pendentes - reservados, comDenuncia,
+                            maisAntigoEm, idade);
+                });
+    }
+
+    /**
+     * Registra a denúncia de um usuário e antecipa o comentário na fila. Cada usuário
+     * denuncia um comentário uma vez.
+     *
+     * @param comentarioId ID do comentário
+     * @param motivo motivo informado (opcional)
+     * @param usuario quem denuncia
+     * @return true se a denúncia é nova
+     * @throws ResourceNotFoundException se comentário não existe
+     */
+    public boolean denunciar(Long comentarioId, String motivo, User usuario) {
+        if (!comentarioRepository.existsById(comentarioId)) {
+            throw new ResourceNotFoundException("Comentário não encontrado com ID: " + comentarioId);
+        }
+        if (denunciaComentarioRepository.existsByComentarioIdAndUsuarioId(comentarioId, usuario.getId())) {
+            return false;
+        }
+        // Em transação própria: a corrida entre duas denúncias iguais termina na restrição
+        // única sem abortar a transação da requisição
+        TransactionTemplate novaTransacao = new TransactionTemplate(transactionManager);
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            novaTransacao.executeWithoutResult(status -> {
+                denunciaComentarioRepository.saveAndFlush(new DenunciaComentario(comentarioId, usuario.getId(), motivo));
+                jdbcTemplate.update(
+                        "UPDATE comentarios SET denuncias = denuncias + 1, " +
+                        "prazo_moderacao = prazo_moderacao - :antecipacao WHERE id = :id",
+                        new MapSqlParameterSource("antecipacao", ANTECIPACAO_POR_DENUNCIA).addValue("id", comentarioId));
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.fine("Denúncia já registrada. Comentário: " + comentarioId + ", usuário: " + usuario.getId());
+            return false;
+        }
+        log.info("Comentário " + comentarioId + " denunciado por usuário: " + usuario.getId());
+        return true;
+    }
+
+    /**
+     * Calcula a prioridade dos comentários criados antes da fila existir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherPrazoModeracao() {
+        int atualizados = comentarioRepository.preencherPrazoModeracao();
+        if (atualizados > 0) {
+            log.info("Prioridade de moderação calculada para " + atualizados + " comentários");
+        }
+    }
+}
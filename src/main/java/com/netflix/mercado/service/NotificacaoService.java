@@ -10,9 +10,12 @@ import com.netflix.mercado.repository.AuditLogRepository;
 import com.netflix.mercado.repository.UserRepository;
 import com.netflix.mercado.dto.notificacao.CreateNotificacaoRequest;
 import com.netflix.mercado.dto.notificacao.NotificacaoResponse;
+import com.netflix.mercado.dto.common.PageResponse;
+import com.netflix.mercado.util.CursorPaginacao;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -276,6 +279,27 @@ public class NotificacaoService {
         return notificacoes.map(NotificacaoResponse::fromEntity);
     }
 
+    /**
+     * Lista as notificações do usuário por cursor, das mais recentes para as mais antigas,
+     * sem contagem total.
+     *
+     * @param usuario usuário autenticado
+     * @param after cursor retornado pela página anterior; null para a primeira
+     * @param tamanho quantidade de itens
+     * @return página com o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<NotificacaoResponse> listNotificacoesCursor(User usuario, String after, int tamanho) {
+        CursorPaginacao cursor = CursorPaginacao.decodificar(after, 1);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        Slice<Notificacao> fatia = cursor == null
+                ? notificacaoRepository.findByUserCursor(usuario, limite)
+                : notificacaoRepository.findByUserApos(usuario, cursor.getData(0), cursor.getId(), limite);
+        String proximo = CursorPaginacao.proximo(fatia,
+                n -> CursorPaginacao.codificar(n.getId(), n.getCreatedAt()));
+        return PageResponse.deCursor(fatia.map(NotificacaoResponse::fromEntity), proximo, cursor != null);
+    }
+
     public Long countUnreadNotificacoes(User usuario) {
         return contarNaoLidas(usuario);
     }
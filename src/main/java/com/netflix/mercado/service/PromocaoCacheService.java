@@ -0,0 +1,186 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.promocao.PromocaoInstantanea;
+import com.netflix.mercado.repository.PromocaoRepository;
+import com.netflix.mercado.util.FiltroBloom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Cache em memória da busca de promoções por código, para que validações repetidas e
+ * tentativas de códigos inventados não virem consultas ao banco.
+ *
+ * Códigos existentes ficam como {@link PromocaoInstantanea} por {@code app.promocoes.cache-ttl-ms},
+ * ou até a data de validade se ela vier antes; alterações e remoções feitas nesta instância
+ * descartam a entrada após o commit. Códigos que não existem são barrados por um
+ * {@link FiltroBloom} de todos os códigos, recarregado a cada {@code app.promocoes.filtro-ms}
+ * e acrescido na hora dos códigos criados nesta instância; os poucos falsos positivos do
+ * filtro ficam no cache como ausentes pelo mesmo prazo. Um código criado em outra instância
+ * é reconhecido aqui na próxima recarga do filtro. O contador de utilizações não é guardado:
+ * quem precisa dele consulta o banco.
+ */
+@Service
+public class PromocaoCacheService {
+
+    private static final Logger log = Logger.getLogger(PromocaoCacheService.class.getName());
+
+    private static final int MAXIMO_CACHE = 10_000;
+    private static final int CAPACIDADE_MINIMA_FILTRO = 1024;
+    private static final double TAXA_FALSOS_POSITIVOS = 0.01;
+
+    @Autowired
+    private PromocaoRepository promocaoRepository;
+
+    // Zero desliga o cache e o filtro: toda busca vai ao banco
+    @Value("${app.promocoes.cache-ttl-ms:30000}")
+    private long ttlMs = 30000;
+
+    private final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+
+    // Incrementada a cada invalidação; uma carga só é publicada se nenhuma aconteceu durante ela
+    private final AtomicLong geracao = new AtomicLong();
+
+    // Nulo até a primeira carga: sem filtro, os códigos desconhecidos vão ao banco
+    private volatile FiltroBloom filtro;
+
+    // Códigos criados durante a carga do filtro, incluídos no filtro novo antes e depois da troca
+    private volatile Set<String> criadosDuranteCarga = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Busca uma promoção ativa pelo código.
+     *
+     * @param codigo código promocional
+     * @return dados da promoção; vazio se o código não existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<PromocaoInstantanea> buscarPorCodigo(String codigo) {
+        if (codigo == null) {
+            return Optional.empty();
+        }
+        if (ttlMs <= 0) {
+            return promocaoRepository.findByCodigo(codigo).map(PromocaoInstantanea::de);
+        }
+        FiltroBloom atual = filtro;
+        if (atual != null && !atual.podeConter(codigo)) {
+            return Optional.empty();
+        }
+        long agora = System.currentTimeMillis();
+        Entrada entrada = cache.get(codigo);
+        if (entrada != null && entrada.validaAte > agora) {
+            return Optional.ofNullable(entrada.promocao);
+        }
+        long geracaoLida = geracao.get();
+        Optional<PromocaoInstantanea> promocao = promocaoRepository.findByCodigo(codigo).map(PromocaoInstantanea::de);
+        if (geracao.get() == geracaoLida) {
+            Entrada nova = new Entrada(promocao.orElse(null), validaAte(promocao.orElse(null), agora));
+            publicar(codigo, nova);
+            if (geracao.get() != geracaoLida) {
+                cache.remove(codigo, nova);
+            }
+        }
+        return promocao;
+    }
+
+    /**
+     * Inclui um código recém-criado no filtro e descarta a ausência guardada para ele.
+     * Deve ser chamado após o commit da criação.
+     *
+     * @param codigo código criado
+     */
+    public void registrarCodigo(String codigo) {
+        FiltroBloom atual = filtro;
+        if (atual != null) {
+            atual.adicionar(codigo);
+        }
+        criadosDuranteCarga.add(codigo);
+        invalidar(codigo);
+    }
+
+    /**
+     * Descarta a entrada do código. Deve ser chamado após o commit da alteração.
+     *
+     * @param codigo código alterado ou removido
+     */
+    public void invalidar(String codigo) {
+        geracao.incrementAndGet();
+        cache.remove(codigo);
+    }
+
+    /**
+     * Descarta todas as entradas, como após a desativação das promoções expiradas.
+     */
+    public void invalidarTodos() {
+        geracao.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * Reconstrói o filtro com os códigos do banco, incluindo os criados em outras instâncias.
+     */
+    @Scheduled(fixedDelayString = "${app.promocoes.filtro-ms:10000}")
+    @Transactional(readOnly = true)
+    public synchronized void recarregarFiltro() {
+        if (ttlMs <= 0) {
+            return;
+        }
+        Set<String> criados = ConcurrentHashMap.newKeySet();
+        criadosDuranteCarga = criados;
+        List<String> codigos = promocaoRepository.findCodigosAtivos();
+        FiltroBloom novo = new FiltroBloom(Math.max(CAPACIDADE_MINIMA_FILTRO, codigos.size() * 2), TAXA_FALSOS_POSITIVOS);
+        codigos.forEach(novo::adicionar);
+        criados.forEach(novo::adicionar);
+        filtro = novo;
+        criados.forEach(novo::adicionar);
+        log.fine("Filtro de códigos promocionais recarregado: " + codigos.size() + " códigos");
+    }
+
+    private long validaAte(PromocaoInstantanea promocao, long agora) {
+        long limite = agora + ttlMs;
+        if (promocao != null && promocao.getDataValidade() != null) {
+            long expiracao = promocao.getDataValidade().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (expiracao > agora) {
+                limite = Math.min(limite, expiracao);
+            }
+        }
+        return limite;
+    }
+
+    private void publicar(String codigo, Entrada entrada) {
+        cache.put(codigo, entrada);
+        if (cache.size() > MAXIMO_CACHE) {
+            Iterator<String> codigos = cache.keySet().iterator();
+            while (cache.size() > MAXIMO_CACHE && codigos.hasNext()) {
+                if (!codigos.next().equals(codigo)) {
+                    codigos.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Promoção encontrada, ou null para código inexistente, e o instante até o qual vale.
+     */
+    private static final class Entrada {
+
+        final PromocaoInstantanea promocao;
+        final long validaAte;
+
+        Entrada(PromocaoInstantanea promocao, long validaAte) {
+            this.promocao = promocao;
+            this.validaAte = validaAte;
+        }
+    }
+}
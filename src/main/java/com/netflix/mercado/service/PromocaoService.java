@@ -14,6 +14,8 @@ import com.netflix.mercado.dto.promocao.UpdatePromocaoRequest;
 import com.netflix.mercado.dto.promocao.PromocaoResponse;
 import com.netflix.mercado.dto.promocao.ValidatePromocaoResponse;
 import com.netflix.mercado.dto.promocao.PromocaoStatisticsResponse;
+import com.netflix.mercado.dto.promocao.PromocaoInstantanea;
+import com.netflix.mercado.util.TransacaoUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -45,6 +47,12 @@ public class PromocaoService {
     @Autowired
     private MercadoService mercadoService;
 
+    @Autowired
+    private UtilizacaoPromocaoService utilizacaoPromocaoService;
+
+    @Autowired
+    private PromocaoCacheService promocaoCacheService;
+
     /**
      * Cria uma nova promoção para um mercado.
      *
@@ -94,6 +102,8 @@ public class PromocaoService {
         promocao.setAtiva(true);
 
         promocao = promocaoRepository.save(promocao);
+        String codigo = promocao.getCodigo();
+        TransacaoUtils.executarAposCommit(() -> promocaoCacheService.registrarCodigo(codigo));
 
         // Registrar no audit log
         auditLogRepository.save(new AuditLog(
@@ -154,6 +164,11 @@ public class PromocaoService {
         }
 
         promocao = promocaoRepository.save(promocao);
+        String codigo = promocao.getCodigo();
+        TransacaoUtils.executarAposCommit(() -> {
+            utilizacaoPromocaoService.descartar(id);
+            promocaoCacheService.invalidar(codigo);
+        });
 
         String valoresNovos = String.format("codigo=%s, desconto=%s", promocao.getCodigo(), promocao.getPercentualDesconto());
 
@@ -195,6 +210,11 @@ public class PromocaoService {
         }
 
         promocaoRepository.delete(promocao);
+        String codigo = promocao.getCodigo();
+        TransacaoUtils.executarAposCommit(() -> {
+            utilizacaoPromocaoService.descartar(id);
+            promocaoCacheService.invalidar(codigo);
+        });
 
         // Registrar no audit log
         auditLogRepository.save(new AuditLog(
@@ -267,7 +287,7 @@ public class PromocaoService {
     public ValidatePromocaoResponse validarCodigo(String codigo) {
         log.fine("Validando código promocional: " + codigo);
 
-        Promocao promocao = promocaoRepository.findByCodigoPromocional(codigo)
+        PromocaoInstantanea promocao = promocaoCacheService.buscarPorCodigo(codigo)
                 .orElseThrow(() -> new ValidationException("Código promocional inválido"));
 
         // Verificar se está expirada
@@ -276,14 +296,15 @@ public class PromocaoService {
             throw new ValidationException("Código promocional expirado");
         }
 
-        // Verificar se já foi esgotado
-        if (promocao.getMaxUtilizacoes() != null && promocao.getUtilizacoesAtuais() >= promocao.getMaxUtilizacoes()) {
+        // Verificar se já foi esgotado (o contador não fica no cache)
+        long utilizacoesRestantes = promocaoRepository.findUtilizacoesRestantes(promocao.getId()).orElse(0L);
+        if (utilizacoesRestantes <= 0) {
             log.warning("Código promocional esgotado: " + codigo);
             throw new ValidationException("Código promocional esgotado");
         }
 
         // Verificar se está ativo
-        if (!promocao.getAtiva()) {
+        if (!promocao.isAtiva()) {
             log.warning("Código promocional inativo: " + codigo);
             throw new ValidationException("Código promocional inativo");
         }
@@ -292,7 +313,7 @@ public class PromocaoService {
                 .valida(true)
                 .desconto(promocao.getPercentualDesconto())
                 .mensagem("Promoção válida")
-                .utilizacoesRestantes((int)(promocao.getMaxUtilizacoes() - promocao.getUtilizacoesAtuais()))
+                .utilizacoesRestantes((int) Math.min(Integer.MAX_VALUE, utilizacoesRestantes))
                 .build();
     }
 
@@ -316,9 +337,8 @@ public class PromocaoService {
         // Calcular desconto percentual
         BigDecimal desconto = valorCompra.multiply(promocao.getPercentualDesconto()).divide(new BigDecimal(100));
 
-        // Incrementar uso
-        promocao.setUtilizacoesAtuais(promocao.getUtilizacoesAtuais() + 1);
-        promocaoRepository.save(promocao);
+        // Registrar uso: a verificação acima não impede que requisições simultâneas passem do limite
+        registrarUtilizacao(promocaoId);
 
         log.fine("Promoção aplicada. Desconto: " + desconto);
         return desconto;
@@ -363,6 +383,9 @@ public class PromocaoService {
         log.info("Iniciando desativação de promoções expiradas");
 
         long desativadas = promocaoRepository.desativarPromocoesExpiradas(LocalDateTime.now());
+        if (desativadas > 0) {
+            TransacaoUtils.executarAposCommit(promocaoCacheService::invalidarTodos);
+        }
 
         log.info("Desativação de promoções concluída. " + desativadas + " promoções desativadas");
     }
@@ -408,18 +431,32 @@ public class PromocaoService {
     }
 
     public void applyPromocao(Long promocaoId, User usuario) {
-        Promocao promocao = obterPromocaoPorId(promocaoId);
-        promocao.setUtilizacoesAtuais(promocao.getUtilizacoesAtuais() + 1);
-        promocaoRepository.save(promocao);
+        verificarDisponibilidade(promocaoId);
+        registrarUtilizacao(promocaoId);
+    }
+
+    /**
+     * Registra uma utilização com a instrução condicional de {@link UtilizacaoPromocaoService}.
+     *
+     * @param promocaoId ID da promoção
+     * @throws ValidationException se a promoção esgotou enquanto era aplicada
+     */
+    private void registrarUtilizacao(Long promocaoId) {
+        if (!utilizacaoPromocaoService.utilizar(promocaoId)) {
+            log.warning("Promoção ID: " + promocaoId + " esgotada");
+            throw new ValidationException("Promoção foi esgotada");
+        }
     }
 
     public PromocaoService() {
     }
 
-    public PromocaoService(PromocaoRepository promocaoRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService) {
+    public PromocaoService(PromocaoRepository promocaoRepository, AuditLogRepository auditLogRepository, MercadoService mercadoService, UtilizacaoPromocaoService utilizacaoPromocaoService, PromocaoCacheService promocaoCacheService) {
         this.promocaoRepository = promocaoRepository;
         this.auditLogRepository = auditLogRepository;
         this.mercadoService = mercadoService;
+        this.utilizacaoPromocaoService = utilizacaoPromocaoService;
+        this.promocaoCacheService = promocaoCacheService;
     }
 
     public PromocaoRepository getPromocaoRepository() {
@@ -446,6 +483,22 @@ public class PromocaoService {
         this.mercadoService = mercadoService;
     }
 
+    public UtilizacaoPromocaoService getUtilizacaoPromocaoService() {
+        return this.utilizacaoPromocaoService;
+    }
+
+    public void setUtilizacaoPromocaoService(UtilizacaoPromocaoService utilizacaoPromocaoService) {
+        this.utilizacaoPromocaoService = utilizacaoPromocaoService;
+    }
+
+    public PromocaoCacheService getPromocaoCacheService() {
+        return this.promocaoCacheService;
+    }
+
+    public void setPromocaoCacheService(PromocaoCacheService promocaoCacheService) {
+        this.promocaoCacheService = promocaoCacheService;
+    }
+
     /**
      * ✅ NOVO: Valida uma promoção de forma robusta antes de aplicar em uma compra.
      * Verifica todas as condições: validade, utilização, mínimo de compra, status ativo.
@@ -458,11 +511,11 @@ public class PromocaoService {
     public ValidatePromocaoResponse validarPromocaoRobusta(String codigo, BigDecimal valorCompra) {
         log.info("Validando promoção: " + codigo + " para compra de R$ " + valorCompra);
 
-        Promocao promocao = promocaoRepository.findByCodigo(codigo)
+        PromocaoInstantanea promocao = promocaoCacheService.buscarPorCodigo(codigo)
                 .orElseThrow(() -> new ResourceNotFoundException("Promoção não encontrada: " + codigo));
 
         // Validação 1: Status ativo
-        if (!promocao.getAtiva()) {
+        if (!promocao.isAtiva()) {
             return ValidatePromocaoResponse.builder()
                     .valida(false)
                     .motivo("Promoção inativa")
@@ -490,8 +543,9 @@ public class PromocaoService {
                     .build();
         }
 
-        // Validação 4: Utilizações restantes
-        if (promocao.getUtilizacoesAtuais() >= promocao.getMaxUtilizacoes()) {
+        // Validação 4: Utilizações restantes (o contador não fica no cache)
+        long utilizacoesRestantes = promocaoRepository.findUtilizacoesRestantes(promocao.getId()).orElse(0L);
+        if (utilizacoesRestantes <= 0) {
             return ValidatePromocaoResponse.builder()
                     .valida(false)
                     .motivo("Limite de utilizações atingido")
@@ -517,7 +571,7 @@ public class PromocaoService {
                 .valida(true)
                 .motivo("Promoção aplicada com sucesso")
                 .desconto(desconto)
-                .utilizacoesRestantes((int) (promocao.getMaxUtilizacoes() - promocao.getUtilizacoesAtuais() - 1))
+                .utilizacoesRestantes((int) Math.min(Integer.MAX_VALUE, utilizacoesRestantes - 1))
                 .build();
     }
 
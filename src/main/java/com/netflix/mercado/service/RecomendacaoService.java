@@ -83,17 +83,14 @@ public class RecomendacaoService {
     }
 
     /**
-     * ✅ NOVO: Gera recomendações genéricas por melhor avaliação
+     * ✅ NOVO: Gera recomendações genéricas por melhor avaliação (média bayesiana, lida do índice)
      */
     private List<MercadoRecomendacaoResponse> gerarRecomendacoesGenericasPorAvaliacao(int limite) {
-        return mercadoRepository.findAll()
+        return mercadoRepository.findTopRanking(10, PageRequest.of(0, Math.max(1, limite)))
                 .stream()
-                .filter(m -> m.getActive() && m.getTotalAvaliacoes() >= 10)
-                .sorted((m1, m2) -> m2.getAvaliacaoMedia().compareTo(m1.getAvaliacaoMedia()))
-                .limit(limite)
                 .map(m -> MercadoRecomendacaoResponse.builder()
                         .mercado(mercadoService.convertToResponse(m))
-                        .pontuacao(m.getAvaliacaoMedia().doubleValue())
+                        .pontuacao(m.getPontuacaoRanking().doubleValue())
                         .motivo("Altamente avaliado pela comunidade")
                         .build())
                 .collect(Collectors.toList());
@@ -1,8 +1,12 @@
 package com.netflix.mercado.service;
 
 import com.netflix.mercado.dto.relatorio.*;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -116,19 +120,41 @@ public class RelatorioService {
     }
 
     /**
-     * ✅ NOVO: Gera ranking dos melhores mercados.
-     * Ordenado por avaliação média.
+     * Gera o ranking dos mercados pela média bayesiana das avaliações
+     * (ver {@link com.netflix.mercado.entity.Mercado#RANKING_VOTOS_PRIORI}), lido do índice
+     * da pontuação com LIMIT. Mercados sem avaliações ficam fora do ranking.
      *
-     * @param limite número de mercados no ranking
-     * @return Lista de mercados em ranking
+     * @param limite Número de mercados no ranking
+     * @return Lista de mercados ranqueados
      */
     public List<RankingMercadoResponse> gerarRankingMercados(int limite) {
-        var mercados = mercadoRepository.findAll()
-                .stream()
-                .filter(m -> m.getActive())
-                .sorted((m1, m2) -> m2.getAvaliacaoMedia().compareTo(m1.getAvaliacaoMedia()))
-                .limit(limite)
-                .toList();
+        return gerarRankingMercados(limite, null, null);
+    }
+
+    /**
+     * Gera o ranking dos mercados de um estado ou de uma cidade.
+     *
+     * @param limite Número de mercados no ranking
+     * @param estado UF (opcional)
+     * @param cidade cidade (opcional; exige estado)
+     * @return Lista de mercados ranqueados
+     * @throws ValidationException se a cidade vier sem estado
+     */
+    public List<RankingMercadoResponse> gerarRankingMercados(int limite, String estado, String cidade) {
+        boolean temEstado = estado != null && !estado.isBlank();
+        boolean temCidade = cidade != null && !cidade.isBlank();
+        if (temCidade && !temEstado) {
+            throw new ValidationException("Informe o estado para o ranking por cidade");
+        }
+        Pageable topo = PageRequest.of(0, Math.max(1, limite));
+        List<Mercado> mercados;
+        if (temCidade) {
+            mercados = mercadoRepository.findTopRankingPorCidade(estado.trim().toUpperCase(), cidade.trim(), 1, topo);
+        } else if (temEstado) {
+            mercados = mercadoRepository.findTopRankingPorEstado(estado.trim().toUpperCase(), 1, topo);
+        } else {
+            mercados = mercadoRepository.findTopRanking(1, topo);
+        }
 
         List<RankingMercadoResponse> ranking = new ArrayList<>();
         int posicao = 1;
@@ -141,6 +167,7 @@ public class RelatorioService {
                     .estado(mercado.getEstado())
                     .avaliacaoMedia(mercado.getAvaliacaoMedia())
                     .totalAvaliacoes(mercado.getTotalAvaliacoes())
+                    .pontuacaoRanking(mercado.getPontuacaoRanking())
                     .build());
         }
 
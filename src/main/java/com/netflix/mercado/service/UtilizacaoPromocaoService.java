@@ -0,0 +1,230 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.repository.PromocaoRepository;
+import com.netflix.mercado.util.TransacaoUtils;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Registro de utilizações de promoções sem ultrapassar maxUtilizacoes.
+ *
+ * Cada utilização é um {@code UPDATE ... WHERE utilizacoes_atuais <= max_utilizacoes - 1}
+ * na transação de quem aplica a promoção ({@link PromocaoRepository#reservarUtilizacoes}),
+ * então o limite vale mesmo com centenas de requisições simultâneas. Em um código muito
+ * disputado (mais de {@code app.promocoes.limiar-reserva} utilizações por segundo nesta
+ * instância) todas essas instruções disputariam a mesma linha; a partir daí a instância
+ * reserva blocos de utilizações com uma instrução, em transação própria, e os distribui em
+ * memória; enquanto uma thread reserva o bloco, as demais seguem pela instrução de uma
+ * utilização em vez de esperar por ela. O banco sempre conta as utilizações reservadas,
+ * então a soma das instâncias nunca passa do limite. Os blocos encolhem perto do fim do
+ * estoque para que uma instância não retenha as últimas utilizações, e sobras paradas por
+ * {@code app.promocoes.ociosidade-ms} voltam ao banco. Se a instância cair com um bloco aberto, as sobras ficam contadas como
+ * usadas: o erro é sempre para menos, nunca para mais.
+ */
+@Service
+public class UtilizacaoPromocaoService {
+
+    private static final Logger log = Logger.getLogger(UtilizacaoPromocaoService.class.getName());
+
+    private static final int TENTATIVAS_BLOCO = 3;
+
+    @Autowired
+    private PromocaoRepository promocaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.promocoes.limiar-reserva:50}")
+    private int limiarReserva = 50;
+
+    @Value("${app.promocoes.bloco-reserva:100}")
+    private long blocoReserva = 100;
+
+    @Value("${app.promocoes.ociosidade-ms:10000}")
+    private long ociosidadeMs = 10000;
+
+    private final Map<Long, Reserva> reservas = new ConcurrentHashMap<>();
+
+    /**
+     * Registra uma utilização da promoção, se ela ainda comporta.
+     * Em rollback da transação corrente a utilização é desfeita.
+     *
+     * @param promocaoId ID da promoção
+     * @return true se registrada; false se a promoção esgotou, expirou ou foi desativada
+     */
+    @Transactional
+    public boolean utilizar(Long promocaoId) {
+        long agora = System.currentTimeMillis();
+        Reserva reserva = reservas.computeIfAbsent(promocaoId, id -> new Reserva());
+        reserva.ultimoUso = agora;
+        if (reserva.consumir()) {
+            devolverNoRollback(reserva);
+            return true;
+        }
+        if (reserva.registrarTentativa(agora) <= limiarReserva) {
+            return promocaoRepository.reservarUtilizacoes(promocaoId, 1, LocalDateTime.now()) == 1;
+        }
+        // Quem chega aqui já segura a conexão da própria transação e o bloco precisa de uma
+        // segunda: esperar pela reserva de outra thread poderia esgotar o pool. Quem não obtém
+        // a trava segue pela instrução de uma utilização, como abaixo do limiar.
+        if (!reserva.trava.tryLock()) {
+            return promocaoRepository.reservarUtilizacoes(promocaoId, 1, LocalDateTime.now()) == 1;
+        }
+        try {
+            if (reserva.descartada) {
+                return promocaoRepository.reservarUtilizacoes(promocaoId, 1, LocalDateTime.now()) == 1;
+            }
+            if (!reserva.consumir()) {
+                long obtidas = reservarBloco(promocaoId);
+                if (obtidas == 0) {
+                    return false;
+                }
+                reserva.disponiveis.addAndGet(obtidas - 1);
+            }
+        } finally {
+            reserva.trava.unlock();
+        }
+        devolverNoRollback(reserva);
+        return true;
+    }
+
+    /**
+     * Descarta as utilizações reservadas em memória, devolvendo-as ao banco. Deve ser
+     * chamado após o commit de uma alteração da promoção, para que o novo limite ou a
+     * desativação valham também para os blocos já reservados.
+     *
+     * @param promocaoId ID da promoção
+     */
+    public void descartar(Long promocaoId) {
+        Reserva reserva = reservas.get(promocaoId);
+        if (reserva != null) {
+            descartar(promocaoId, reserva);
+        }
+    }
+
+    /**
+     * Devolve ao banco as sobras das promoções que pararam de ser usadas.
+     */
+    @Scheduled(fixedDelayString = "${app.promocoes.reconciliacao-ms:5000}")
+    public void devolverReservasOciosas() {
+        long limite = System.currentTimeMillis() - ociosidadeMs;
+        reservas.forEach((promocaoId, reserva) -> {
+            if (reserva.ultimoUso < limite) {
+                descartar(promocaoId, reserva);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void devolverNoDesligamento() {
+        log.info("Devolvendo utilizações de promoções reservadas antes do desligamento");
+        reservas.forEach(this::descartar);
+    }
+
+    /**
+     * Reserva um bloco no banco em transação própria, para que o rollback de quem aplica a
+     * promoção não desfaça no banco utilizações que continuam distribuídas em memória.
+     */
+    private long reservarBloco(Long promocaoId) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int tentativa = 0; tentativa < TENTATIVAS_BLOCO; tentativa++) {
+            long restantes = promocaoRepository.findUtilizacoesRestantes(promocaoId).orElse(0L);
+            if (restantes <= 0) {
+                return 0;
+            }
+            long bloco = Math.min(blocoReserva, Math.max(1, restantes / 4));
+            Integer reservadas = transacao.execute(status ->
+                    promocaoRepository.reservarUtilizacoes(promocaoId, bloco, LocalDateTime.now()));
+            if (reservadas != null && reservadas == 1) {
+                log.fine("Bloco de " + bloco + " utilizações reservado para a promoção " + promocaoId);
+                return bloco;
+            }
+            if (bloco == 1) {
+                // Restava utilização e mesmo assim a instrução não passou: expirada ou desativada
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private void descartar(Long promocaoId, Reserva reserva) {
+        long sobra;
+        reserva.trava.lock();
+        try {
+            if (!reservas.remove(promocaoId, reserva)) {
+                return;
+            }
+            reserva.descartada = true;
+            sobra = reserva.disponiveis.getAndSet(0);
+        } finally {
+            reserva.trava.unlock();
+        }
+        if (sobra == 0) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    promocaoRepository.devolverUtilizacoes(promocaoId, sobra));
+            log.fine(sobra + " utilizações devolvidas à promoção " + promocaoId);
+        } catch (RuntimeException e) {
+            log.warning("Falha ao devolver " + sobra + " utilizações da promoção " + promocaoId + ": " + e.getMessage());
+        }
+    }
+
+    private void devolverNoRollback(Reserva reserva) {
+        TransacaoUtils.executarAposRollback(() -> reserva.disponiveis.incrementAndGet());
+    }
+
+    /**
+     * Utilizações já reservadas no banco e ainda não distribuídas, e a contagem de
+     * tentativas do segundo corrente que decide quando passar a reservar em bloco.
+     */
+    private static final class Reserva {
+
+        final AtomicLong disponiveis = new AtomicLong();
+        final AtomicInteger tentativas = new AtomicInteger();
+        // Exclusiva para reservar um bloco ou descartar a reserva
+        final ReentrantLock trava = new ReentrantLock();
+        volatile long segundo;
+        volatile long ultimoUso;
+        // Retirada do mapa: sobras já devolvidas, novos blocos não são aceitos
+        volatile boolean descartada;
+
+        boolean consumir() {
+            long atual;
+            do {
+                atual = disponiveis.get();
+                if (atual <= 0) {
+                    return false;
+                }
+            } while (!disponiveis.compareAndSet(atual, atual - 1));
+            return true;
+        }
+
+        // Aproximada: a virada de segundo pode perder algumas contagens, o que só adia a reserva em bloco
+        int registrarTentativa(long agora) {
+            long atual = agora / 1000;
+            if (segundo != atual) {
+                segundo = atual;
+                tentativas.set(0);
+            }
+            return tentativas.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.ConjuntoVotantes;
+import com.netflix.mercado.repository.ConjuntoVotantesRepository;
+import com.netflix.mercado.util.BitmapCompacto;
+import com.netflix.mercado.util.TransacaoUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Registro de quem votou em cada avaliação (útil/inútil) e de quem curtiu cada comentário,
+ * para que um usuário conte no máximo uma vez.
+ *
+ * Os votantes de uma entidade ficam em bitmaps comprimidos ({@link BitmapCompacto}), um por
+ * bloco de 65536 IDs de usuário ({@link ConjuntoVotantes}). Registrar um voto trava e
+ * regrava só a linha do bloco do usuário. As versões confirmadas ficam em um cache em
+ * memória, então "este usuário votou?" é uma consulta ao bitmap, e a verificação de uma
+ * página inteira busca os blocos ausentes do cache em uma única consulta.
+ * Em várias instâncias o cache de uma instância pode ficar atrás de votos gravados pelas
+ * outras; isso afeta só a marcação exibida, já que a deduplicação sempre lê a linha travada.
+ */
+@Service
+public class VotoService {
+
+    private static final Logger log = Logger.getLogger(VotoService.class.getName());
+
+    private static final int MAXIMO_CACHE = 50_000;
+
+    @Autowired
+    private ConjuntoVotantesRepository conjuntoVotantesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Chave, Versao> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Inclui o usuário entre os votantes.
+     *
+     * @param tipo tipo do voto
+     * @param entidadeId ID da avaliação ou do comentário
+     * @param usuarioId ID do usuário
+     * @return true se o voto é novo; false se o usuário já tinha votado
+     */
+    @Transactional
+    public boolean adicionar(ConjuntoVotantes.Tipo tipo, Long entidadeId, Long usuarioId) {
+        return alterar(tipo, entidadeId, usuarioId, true);
+    }
+
+    /**
+     * Retira o usuário dos votantes.
+     *
+     * @param tipo tipo do voto
+     * @param entidadeId ID da avaliação ou do comentário
+     * @param usuarioId ID do usuário
+     * @return true se havia voto a retirar
+     */
+    @Transactional
+    public boolean remover(ConjuntoVotantes.Tipo tipo, Long entidadeId, Long usuarioId) {
+        if (!conjuntoVotantesRepository.existsByTipoAndEntidadeIdAndBloco(tipo, entidadeId, bloco(usuarioId))) {
+            return false;
+        }
+        return alterar(tipo, entidadeId, usuarioId, false);
+    }
+
+    /**
+     * @param tipo tipo do voto
+     * @param entidadeId ID da avaliação ou do comentário
+     * @param usuarioId ID do usuário
+     * @return true se o usuário votou
+     */
+    @Transactional(readOnly = true)
+    public boolean contem(ConjuntoVotantes.Tipo tipo, Long entidadeId, Long usuarioId) {
+        return votados(tipo, List.of(entidadeId), usuarioId).contains(entidadeId);
+    }
+
+    /**
+     * Verifica de uma vez em quais entidades de uma página o usuário votou.
+     *
+     * @param tipo tipo do voto
+     * @param entidadeIds IDs das avaliações ou dos comentários
+     * @param usuarioId ID do usuário
+     * @return IDs em que o usuário votou
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> votados(ConjuntoVotantes.Tipo tipo, Collection<Long> entidadeIds, Long usuarioId) {
+        Set<Long> resultado = new HashSet<>();
+        if (usuarioId == null || entidadeIds.isEmpty()) {
+            return resultado;
+        }
+        int bloco = bloco(usuarioId);
+        List<Long> ausentes = new ArrayList<>();
+        for (Long entidadeId : entidadeIds) {
+            Versao versao = cache.get(new Chave(tipo, entidadeId, bloco));
+            if (versao == null) {
+                ausentes.add(entidadeId);
+            } else if (versao.bitmap.contem(usuarioId)) {
+                resultado.add(entidadeId);
+            }
+        }
+        if (ausentes.isEmpty()) {
+            return resultado;
+        }
+        Map<Long, ConjuntoVotantes> encontrados = new HashMap<>();
+        for (ConjuntoVotantes conjunto : conjuntoVotantesRepository.findByTipoAndBlocoAndEntidadeIdIn(tipo, bloco, ausentes)) {
+            encontrados.put(conjunto.getEntidadeId(), conjunto);
+        }
+        for (Long entidadeId : ausentes) {
+            ConjuntoVotantes conjunto = encontrados.get(entidadeId);
+            // Blocos sem linha também entram no cache, vazios, para não serem consultados de novo
+            Versao versao = conjunto != null
+                    ? new Versao(conjunto.getRevisao(), BitmapCompacto.desserializar(conjunto.getBitmap()))
+                    : new Versao(-1, BitmapCompacto.VAZIO);
+            publicar(new Chave(tipo, entidadeId, bloco), versao);
+            if (versao.bitmap.contem(usuarioId)) {
+                resultado.add(entidadeId);
+            }
+        }
+        return resultado;
+    }
+
+    private boolean alterar(ConjuntoVotantes.Tipo tipo, Long entidadeId, Long usuarioId, boolean incluir) {
+        int bloco = bloco(usuarioId);
+        criarSeAusente(tipo, entidadeId, bloco);
+        ConjuntoVotantes conjunto = conjuntoVotantesRepository.findParaAtualizacao(tipo, entidadeId, bloco)
+                .orElseThrow(() -> new IllegalStateException("Conjunto de votantes não encontrado após criação"));
+
+        BitmapCompacto atual = BitmapCompacto.desserializar(conjunto.getBitmap());
+        BitmapCompacto novo = incluir ? atual.com(usuarioId) : atual.sem(usuarioId);
+        Chave chave = new Chave(tipo, entidadeId, bloco);
+        if (novo == atual) {
+            // Sem mudança; aproveita a leitura travada para atualizar o cache
+            publicar(chave, new Versao(conjunto.getRevisao(), atual));
+            return false;
+        }
+
+        long revisao = conjunto.getRevisao() + 1;
+        conjunto.setBitmap(novo.serializar());
+        conjunto.setQuantidade(novo.cardinalidade());
+        conjunto.setRevisao(revisao);
+        conjuntoVotantesRepository.save(conjunto);
+
+        TransacaoUtils.executarAposCommit(() -> publicar(chave, new Versao(revisao, novo)));
+        log.fine("Voto " + (incluir ? "registrado" : "retirado") + ". Tipo: " + tipo + ", ID: " + entidadeId);
+        return true;
+    }
+
+    /**
+     * Garante a linha do bloco em uma transação própria, para que a corrida entre dois
+     * primeiros votos termine em violação de unicidade sem abortar a transação do voto.
+     */
+    private void criarSeAusente(ConjuntoVotantes.Tipo tipo, Long entidadeId, int bloco) {
+        if (conjuntoVotantesRepository.existsByTipoAndEntidadeIdAndBloco(tipo, entidadeId, bloco)) {
+            return;
+        }
+        TransactionTemplate novaTransacao = new TransactionTemplate(transactionManager);
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            novaTransacao.executeWithoutResult(status ->
+                    conjuntoVotantesRepository.saveAndFlush(new ConjuntoVotantes(tipo, entidadeId, bloco)));
+        } catch (DataIntegrityViolationException e) {
+            log.fine("Conjunto de votantes criado por outra requisição. Tipo: " + tipo + ", ID: " + entidadeId);
+        }
+    }
+
+    private void publicar(Chave chave, Versao versao) {
+        cache.merge(chave, versao, (antiga, nova) -> nova.revisao >= antiga.revisao ? nova : antiga);
+        if (cache.size() > MAXIMO_CACHE) {
+            Iterator<Chave> chaves = cache.keySet().iterator();
+            while (cache.size() > MAXIMO_CACHE && chaves.hasNext()) {
+                if (!chaves.next().equals(chave)) {
+                    chaves.remove();
+                }
+            }
+        }
+    }
+
+    private static int bloco(Long usuarioId) {
+        if (usuarioId == null || usuarioId < 0 || usuarioId > BitmapCompacto.VALOR_MAXIMO) {
+            throw new IllegalArgumentException("ID de usuário inválido para votação: " + usuarioId);
+        }
+        return (int) (usuarioId >>> 16);
+    }
+
+    private static final class Chave {
+        private final ConjuntoVotantes.Tipo tipo;
+        private final long entidadeId;
+        private final int bloco;
+
+        Chave(ConjuntoVotantes.Tipo tipo, long entidadeId, int bloco) {
+            this.tipo = tipo;
+            this.entidadeId = entidadeId;
+            this.bloco = bloco;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return entidadeId == outra.entidadeId && bloco == outra.bloco && tipo == outra.tipo;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tipo, entidadeId, bloco);
+        }
+    }
+
+    private static final class Versao {
+        private final long revisao;
+        private final BitmapCompacto bitmap;
+
+        Versao(long revisao, BitmapCompacto bitmap) {
+            this.revisao = revisao;
+            this.bitmap = bitmap;
+        }
+    }
+}
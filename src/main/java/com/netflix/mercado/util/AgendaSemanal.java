@@ -0,0 +1,143 @@
+package com.netflix.mercado.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Agenda semanal compilada de um mercado.
+ * Os períodos de funcionamento são guardados como intervalos [início, fim) em
+ * minutos da semana (segunda 00:00 = 0), ordenados e mesclados em um único int[];
+ * "está aberto?" é uma busca binária sem acesso ao banco.
+ */
+public final class AgendaSemanal {
+
+    public static final int MINUTOS_POR_DIA = 24 * 60;
+    public static final int MINUTOS_POR_SEMANA = 7 * MINUTOS_POR_DIA;
+
+    private static final AgendaSemanal FECHADO = new AgendaSemanal(new int[0]);
+
+    /**
+     * Pares consecutivos {início, fim} ordenados e sem sobreposição
+     */
+    private final int[] intervalos;
+
+    private AgendaSemanal(int[] intervalos) {
+        this.intervalos = intervalos;
+    }
+
+    public static AgendaSemanal fechado() {
+        return FECHADO;
+    }
+
+    /**
+     * Converte dia da semana e hora em minuto da semana.
+     *
+     * @param diaSemana número do dia (1 = segunda ... 7 = domingo)
+     * @param hora hora do dia
+     * @return minuto da semana
+     */
+    public static int minutoDaSemana(int diaSemana, LocalTime hora) {
+        return (diaSemana - 1) * MINUTOS_POR_DIA + hora.getHour() * 60 + hora.getMinute();
+    }
+
+    public static int minutoDaSemana(LocalDateTime momento) {
+        DayOfWeek dia = momento.getDayOfWeek();
+        return minutoDaSemana(dia.getValue(), momento.toLocalTime());
+    }
+
+    /**
+     * Verifica se o mercado está aberto no minuto da semana informado.
+     *
+     * @param minutoDaSemana minuto da semana (0 a {@link #MINUTOS_POR_SEMANA} - 1)
+     * @return true se algum período contém o minuto
+     */
+    public boolean estaAberto(int minutoDaSemana) {
+        int lo = 0;
+        int hi = intervalos.length / 2 - 1;
+        while (lo <= hi) {
+            int meio = (lo + hi) >>> 1;
+            int inicio = intervalos[meio * 2];
+            int fim = intervalos[meio * 2 + 1];
+            if (minutoDaSemana < inicio) {
+                hi = meio - 1;
+            } else if (minutoDaSemana >= fim) {
+                lo = meio + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isVazia() {
+        return intervalos.length == 0;
+    }
+
+    /**
+     * Construtor incremental de agendas.
+     */
+    public static final class Builder {
+        private int[] intervalos = new int[14];
+        private int tamanho;
+
+        /**
+         * Adiciona um período de funcionamento em um dia.
+         * Períodos que terminam antes de começar (ex.: 22:00-02:00) avançam para o dia seguinte.
+         *
+         * @param diaSemana número do dia (1 = segunda ... 7 = domingo)
+         * @param abertura hora de abertura
+         * @param fechamento hora de fechamento
+         * @return o builder
+         */
+        public Builder adicionar(int diaSemana, LocalTime abertura, LocalTime fechamento) {
+            int inicio = minutoDaSemana(diaSemana, abertura);
+            int fim = minutoDaSemana(diaSemana, fechamento);
+            if (fim <= inicio) {
+                fim += MINUTOS_POR_DIA;
+            }
+            if (fim > MINUTOS_POR_SEMANA) {
+                adicionarIntervalo(inicio, MINUTOS_POR_SEMANA);
+                adicionarIntervalo(0, fim - MINUTOS_POR_SEMANA);
+            } else {
+                adicionarIntervalo(inicio, fim);
+            }
+            return this;
+        }
+
+        public AgendaSemanal build() {
+            if (tamanho == 0) {
+                return FECHADO;
+            }
+            int pares = tamanho / 2;
+            long[] ordenados = new long[pares];
+            for (int i = 0; i < pares; i++) {
+                ordenados[i] = ((long) intervalos[i * 2] << 32) | intervalos[i * 2 + 1];
+            }
+            Arrays.sort(ordenados);
+
+            int[] mesclados = new int[tamanho];
+            int n = 0;
+            for (long par : ordenados) {
+                int inicio = (int) (par >>> 32);
+                int fim = (int) par;
+                if (n > 0 && inicio <= mesclados[n - 1]) {
+                    mesclados[n - 1] = Math.max(mesclados[n - 1], fim);
+                } else {
+                    mesclados[n++] = inicio;
+                    mesclados[n++] = fim;
+                }
+            }
+            return new AgendaSemanal(Arrays.copyOf(mesclados, n));
+        }
+
+        private void adicionarIntervalo(int inicio, int fim) {
+            if (tamanho + 2 > intervalos.length) {
+                intervalos = Arrays.copyOf(intervalos, intervalos.length * 2);
+            }
+            intervalos[tamanho++] = inicio;
+            intervalos[tamanho++] = fim;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.netflix.mercado.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Conjunto imutável de inteiros sem sinal de 32 bits em formato de bitmap comprimido
+ * (no estilo Roaring).
+ *
+ * Os valores são agrupados pelos 16 bits altos. Cada grupo guarda os 16 bits baixos em
+ * um vetor ordenado enquanto tem até {@value #LIMITE_ARRAY} valores e em um bitmap de
+ * 8 KB acima disso, então conjuntos esparsos ocupam cerca de 2 bytes por valor e
+ * conjuntos densos no máximo 1 bit por valor. A consulta é uma busca binária entre os
+ * grupos seguida de uma busca no vetor ou de um teste de bit.
+ * {@link #com(long)} e {@link #sem(long)} devolvem um novo conjunto copiando só o grupo
+ * alterado, o que permite leituras sem lock sobre a versão publicada.
+ */
+public final class BitmapCompacto {
+
+    public static final BitmapCompacto VAZIO = new BitmapCompacto(new char[0], new Object[0], new int[0], 0);
+
+    public static final long VALOR_MAXIMO = 0xFFFFFFFFL;
+
+    private static final int LIMITE_ARRAY = 4096;
+    private static final int PALAVRAS_BITMAP = 1024;
+
+    private static final byte FORMATO = 1;
+    private static final byte TIPO_ARRAY = 0;
+    private static final byte TIPO_BITMAP = 1;
+
+    private final char[] chaves;
+    private final Object[] grupos;
+    private final int[] quantidades;
+    private final long cardinalidade;
+
+    private BitmapCompacto(char[] chaves, Object[] grupos, int[] quantidades, long cardinalidade) {
+        this.chaves = chaves;
+        this.grupos = grupos;
+        this.quantidades = quantidades;
+        this.cardinalidade = cardinalidade;
+    }
+
+    /**
+     * @param valor valor a consultar
+     * @return true se o valor pertence ao conjunto
+     */
+    public boolean contem(long valor) {
+        if (valor < 0 || valor > VALOR_MAXIMO) {
+            return false;
+        }
+        int indice = Arrays.binarySearch(chaves, alto(valor));
+        return indice >= 0 && contemNoGrupo(indice, baixo(valor));
+    }
+
+    /**
+     * @param valor valor a incluir, entre 0 e {@link #VALOR_MAXIMO}
+     * @return conjunto com o valor; o próprio conjunto se ele já o continha
+     */
+    public BitmapCompacto com(long valor) {
+        validar(valor);
+        char alto = alto(valor);
+        char baixo = baixo(valor);
+        int indice = Arrays.binarySearch(chaves, alto);
+        if (indice < 0) {
+            int posicao = -indice - 1;
+            return new BitmapCompacto(
+                    inserir(chaves, posicao, alto),
+                    inserir(grupos, posicao, new char[]{baixo}),
+                    inserir(quantidades, posicao, 1),
+                    cardinalidade + 1);
+        }
+        if (contemNoGrupo(indice, baixo)) {
+            return this;
+        }
+        int quantidade = quantidades[indice];
+        Object grupo = grupos[indice];
+        Object novoGrupo;
+        if (grupo instanceof char[] vetor) {
+            novoGrupo = quantidade < LIMITE_ARRAY ? inserirOrdenado(vetor, quantidade, baixo) : paraBitmap(vetor, baixo);
+        } else {
+            long[] bits = ((long[]) grupo).clone();
+            bits[baixo >>> 6] |= 1L << baixo;
+            novoGrupo = bits;
+        }
+        return substituir(indice, novoGrupo, quantidade + 1, cardinalidade + 1);
+    }
+
+    /**
+     * @param valor valor a retirar
+     * @return conjunto sem o valor; o próprio conjunto se ele não o continha
+     */
+    public BitmapCompacto sem(long valor) {
+        if (!contem(valor)) {
+            return this;
+        }
+        int indice = Arrays.binarySearch(chaves, alto(valor));
+        char baixo = baixo(valor);
+        int quantidade = quantidades[indice];
+        if (quantidade == 1) {
+            return new BitmapCompacto(
+                    remover(chaves, indice),
+                    remover(grupos, indice),
+                    remover(quantidades, indice),
+                    cardinalidade - 1);
+        }
+        Object grupo = grupos[indice];
+        Object novoGrupo;
+        if (grupo instanceof char[] vetor) {
+            novoGrupo = removerOrdenado(vetor, baixo);
+        } else {
+            long[] bits = ((long[]) grupo).clone();
+            bits[baixo >>> 6] &= ~(1L << baixo);
+            novoGrupo = quantidade - 1 <= LIMITE_ARRAY ? paraVetor(bits, quantidade - 1) : bits;
+        }
+        return substituir(indice, novoGrupo, quantidade - 1, cardinalidade - 1);
+    }
+
+    public long cardinalidade() {
+        return cardinalidade;
+    }
+
+    public boolean isVazio() {
+        return cardinalidade == 0;
+    }
+
+    /**
+     * Formato binário: versão (1 byte), quantidade de grupos (int) e, por grupo, chave
+     * (char), tipo (byte), quantidade - 1 (char) e os valores (chars) ou as 1024 palavras
+     * do bitmap (longs).
+     *
+     * @return bytes do conjunto
+     */
+    public byte[] serializar() {
+        int tamanho = 1 + 4;
+        for (int i = 0; i < chaves.length; i++) {
+            tamanho += 2 + 1 + 2 + (grupos[i] instanceof char[] ? quantidades[i] * 2 : PALAVRAS_BITMAP * 8);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        buffer.put(FORMATO).putInt(chaves.length);
+        for (int i = 0; i < chaves.length; i++) {
+            buffer.putChar(chaves[i]);
+            if (grupos[i] instanceof char[] vetor) {
+                buffer.put(TIPO_ARRAY).putChar((char) (quantidades[i] - 1));
+                for (int j = 0; j < quantidades[i]; j++) {
+                    buffer.putChar(vetor[j]);
+                }
+            } else {
+                buffer.put(TIPO_BITMAP).putChar((char) (quantidades[i] - 1));
+                for (long palavra : (long[]) grupos[i]) {
+                    buffer.putLong(palavra);
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @param bytes bytes gerados por {@link #serializar()}; nulo ou vazio para o conjunto vazio
+     * @return conjunto lido
+     * @throws IllegalArgumentException se os bytes estiverem corrompidos
+     */
+    public static BitmapCompacto desserializar(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return VAZIO;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != FORMATO) {
+                throw new IllegalArgumentException("Formato de bitmap desconhecido");
+            }
+            int total = buffer.getInt();
+            if (total < 0 || total > 65536) {
+                throw new IllegalArgumentException("Bitmap corrompido");
+            }
+            char[] chaves = new char[total];
+            Object[] grupos = new Object[total];
+            int[] quantidades = new int[total];
+            long cardinalidade = 0;
+            for (int i = 0; i < total; i++) {
+                chaves[i] = buffer.getChar();
+                if (i > 0 && chaves[i] <= chaves[i - 1]) {
+                    throw new IllegalArgumentException("Bitmap corrompido");
+                }
+                byte tipo = buffer.get();
+                quantidades[i] = buffer.getChar() + 1;
+                if (tipo == TIPO_ARRAY) {
+                    char[] vetor = new char[quantidades[i]];
+                    buffer.asCharBuffer().get(vetor);
+                    buffer.position(buffer.position() + vetor.length * 2);
+                    grupos[i] = vetor;
+                } else if (tipo == TIPO_BITMAP) {
+                    long[] bits = new long[PALAVRAS_BITMAP];
+                    buffer.asLongBuffer().get(bits);
+                    buffer.position(buffer.position() + PALAVRAS_BITMAP * 8);
+                    grupos[i] = bits;
+                } else {
+                    throw new IllegalArgumentException("Bitmap corrompido");
+                }
+                cardinalidade += quantidades[i];
+            }
+            return new BitmapCompacto(chaves, grupos, quantidades, cardinalidade);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Bitmap corrompido", e);
+        }
+    }
+
+    /**
+     * Monta o conjunto de uma vez, ordenando os valores e preenchendo cada grupo uma só vez,
+     * em vez de copiar um grupo a cada {@link #com(long)}.
+     *
+     * @param valores valores entre 0 e {@link #VALOR_MAXIMO}; repetições são ignoradas
+     * @return conjunto com os valores
+     */
+    public static BitmapCompacto de(Collection<Long> valores) {
+        if (valores.isEmpty()) {
+            return VAZIO;
+        }
+        long[] ordenados = new long[valores.size()];
+        int total = 0;
+        for (Long valor : valores) {
+            validar(valor);
+            ordenados[total++] = valor;
+        }
+        Arrays.sort(ordenados);
+
+        char[] chaves = new char[total];
+        Object[] grupos = new Object[total];
+        int[] quantidades = new int[total];
+        int quantidadeGrupos = 0;
+        long cardinalidade = 0;
+        int inicio = 0;
+        while (inicio < total) {
+            char chave = alto(ordenados[inicio]);
+            char[] vetor = new char[Math.min(total - inicio, 65536)];
+            int quantidade = 0;
+            int i = inicio;
+            for (; i < total && alto(ordenados[i]) == chave; i++) {
+                if (quantidade == 0 || vetor[quantidade - 1] != baixo(ordenados[i])) {
+                    vetor[quantidade++] = baixo(ordenados[i]);
+                }
+            }
+            chaves[quantidadeGrupos] = chave;
+            quantidades[quantidadeGrupos] = quantidade;
+            if (quantidade > LIMITE_ARRAY) {
+                long[] bits = new long[PALAVRAS_BITMAP];
+                for (int j = 0; j < quantidade; j++) {
+                    bits[vetor[j] >>> 6] |= 1L << vetor[j];
+                }
+                grupos[quantidadeGrupos] = bits;
+            } else {
+                grupos[quantidadeGrupos] = Arrays.copyOf(vetor, quantidade);
+            }
+            quantidadeGrupos++;
+            cardinalidade += quantidade;
+            inicio = i;
+        }
+        return new BitmapCompacto(Arrays.copyOf(chaves, quantidadeGrupos), Arrays.copyOf(grupos, quantidadeGrupos),
+                Arrays.copyOf(quantidades, quantidadeGrupos), cardinalidade);
+    }
+
+    private boolean contemNoGrupo(int indice, char baixo) {
+        Object grupo = grupos[indice];
+        if (grupo instanceof char[] vetor) {
+            return Arrays.binarySearch(vetor, 0, quantidades[indice], baixo) >= 0;
+        }
+        return (((long[]) grupo)[baixo >>> 6] & (1L << baixo)) != 0;
+    }
+
+    private BitmapCompacto substituir(int indice, Object grupo, int quantidade, long novaCardinalidade) {
+        Object[] novosGrupos = grupos.clone();
+        novosGrupos[indice] = grupo;
+        int[] novasQuantidades = quantidades.clone();
+        novasQuantidades[indice] = quantidade;
+        return new BitmapCompacto(chaves, novosGrupos, novasQuantidades, novaCardinalidade);
+    }
+
+    private static char[] inserirOrdenado(char[] vetor, int quantidade, char valor) {
+        int posicao = -Arrays.binarySearch(vetor, 0, quantidade, valor) - 1;
+        char[] novo = new char[quantidade + 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        novo[posicao] = valor;
+        System.arraycopy(vetor, posicao, novo, posicao + 1, quantidade - posicao);
+        return novo;
+    }
+
+    private static char[] removerOrdenado(char[] vetor, char valor) {
+        int posicao = Arrays.binarySearch(vetor, valor);
+        char[] novo = new char[vetor.length - 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        System.arraycopy(vetor, posicao + 1, novo, posicao, vetor.length - posicao - 1);
+        return novo;
+    }
+
+    private static long[] paraBitmap(char[] vetor, char extra) {
+        long[] bits = new long[PALAVRAS_BITMAP];
+        for (char valor : vetor) {
+            bits[valor >>> 6] |= 1L << valor;
+        }
+        bits[extra >>> 6] |= 1L << extra;
+        return bits;
+    }
+
+    private static char[] paraVetor(long[] bits, int quantidade) {
+        char[] vetor = new char[quantidade];
+        int posicao = 0;
+        for (int palavra = 0; palavra < bits.length; palavra++) {
+            long resto = bits[palavra];
+            while (resto != 0) {
+                vetor[posicao++] = (char) ((palavra << 6) + Long.numberOfTrailingZeros(resto));
+                resto &= resto - 1;
+            }
+        }
+        return vetor;
+    }
+
+    private static char[] inserir(char[] vetor, int posicao, char valor) {
+        char[] novo = new char[vetor.length + 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        novo[posicao] = valor;
+        System.arraycopy(vetor, posicao, novo, posicao + 1, vetor.length - posicao);
+        return novo;
+    }
+
+    private static Object[] inserir(Object[] vetor, int posicao, Object valor) {
+        Object[] novo = new Object[vetor.length + 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        novo[posicao] = valor;
+        System.arraycopy(vetor, posicao, novo, posicao + 1, vetor.length - posicao);
+        return novo;
+    }
+
+    private static int[] inserir(int[] vetor, int posicao, int valor) {
+        int[] novo = new int[vetor.length + 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        novo[posicao] = valor;
+        System.arraycopy(vetor, posicao, novo, posicao + 1, vetor.length - posicao);
+        return novo;
+    }
+
+    private static char[] remover(char[] vetor, int posicao) {
+        char[] novo = new char[vetor.length - 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        System.arraycopy(vetor, posicao + 1, novo, posicao, vetor.length - posicao - 1);
+        return novo;
+    }
+
+    private static Object[] remover(Object[] vetor, int posicao) {
+        Object[] novo = new Object[vetor.length - 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        System.arraycopy(vetor, posicao + 1, novo, posicao, vetor.length - posicao - 1);
+        return novo;
+    }
+
+    private static int[] remover(int[] vetor, int posicao) {
+        int[] novo = new int[vetor.length - 1];
+        System.arraycopy(vetor, 0, novo, 0, posicao);
+        System.arraycopy(vetor, posicao + 1, novo, posicao, vetor.length - posicao - 1);
+        return novo;
+    }
+
+    private static void validar(long valor) {
+        if (valor < 0 || valor > VALOR_MAXIMO) {
+            throw new IllegalArgumentException("Valor fora do intervalo do bitmap: " + valor);
+        }
+    }
+
+    private static char alto(long valor) {
+        return (char) (valor >>> 16);
+    }
+
+    private static char baixo(long valor) {
+        return (char) valor;
+    }
+}
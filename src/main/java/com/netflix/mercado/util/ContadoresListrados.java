@@ -0,0 +1,147 @@
+package com.netflix.mercado.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incrementos pendentes de contadores por entidade, acumulados em memória até serem
+ * gravados em lote (write-behind).
+ *
+ * Cada entidade tem um vetor de {@code colunas} deltas. Os deltas ficam em mapas separados
+ * por faixa, cada um com seu lock, então incrementos de entidades diferentes raramente
+ * disputam o mesmo lock e nenhum incremento toca o banco.
+ * {@link #drenar()} troca os mapas por mapas vazios e mantém o lote "em voo" visível em
+ * {@link #pendente(long, int)} até {@link #confirmar()} ou {@link #devolver()}.
+ */
+public final class ContadoresListrados {
+
+    private final int colunas;
+    private final LocksListrados locks;
+    private final Map<Long, long[]>[] faixas;
+
+    private volatile Map<Long, long[]> emVoo = Collections.emptyMap();
+
+    /**
+     * @param colunas quantidade de contadores por entidade
+     * @param quantidadeFaixas quantidade mínima de faixas
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ContadoresListrados(int colunas, int quantidadeFaixas) {
+        this.colunas = colunas;
+        this.locks = new LocksListrados(quantidadeFaixas);
+        this.faixas = new Map[locks.tamanho()];
+        for (int i = 0; i < faixas.length; i++) {
+            faixas[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Soma um delta ao contador da entidade.
+     *
+     * @param id ID da entidade
+     * @param coluna índice do contador
+     * @param delta valor a somar (pode ser negativo)
+     */
+    public void somar(long id, int coluna, long delta) {
+        int indice = locks.indice(id);
+        ReentrantLock lock = locks.faixa(indice);
+        lock.lock();
+        try {
+            faixas[indice].computeIfAbsent(id, k -> new long[colunas])[coluna] += delta;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delta ainda não confirmado no banco, incluindo o lote em gravação.
+     *
+     * @param id ID da entidade
+     * @param coluna índice do contador
+     * @return soma dos deltas pendentes
+     */
+    public long pendente(long id, int coluna) {
+        long total = 0;
+        long[] voando = emVoo.get(id);
+        if (voando != null) {
+            total += voando[coluna];
+        }
+        int indice = locks.indice(id);
+        ReentrantLock lock = locks.faixa(indice);
+        lock.lock();
+        try {
+            long[] deltas = faixas[indice].get(id);
+            if (deltas != null) {
+                total += deltas[coluna];
+            }
+        } finally {
+            lock.unlock();
+        }
+        return total;
+    }
+
+    /**
+     * Retira todos os deltas acumulados para gravação. Deve ser seguido de
+     * {@link #confirmar()} ou {@link #devolver()}; chamadas não podem se sobrepor.
+     *
+     * @return deltas por ID, sem entradas zeradas
+     */
+    public synchronized Map<Long, long[]> drenar() {
+        Map<Long, long[]> lote = new HashMap<>();
+        for (int i = 0; i < faixas.length; i++) {
+            Map<Long, long[]> faixa;
+            ReentrantLock lock = locks.faixa(i);
+            lock.lock();
+            try {
+                faixa = faixas[i];
+                if (faixa.isEmpty()) {
+                    continue;
+                }
+                faixas[i] = new HashMap<>();
+            } finally {
+                lock.unlock();
+            }
+            for (Map.Entry<Long, long[]> entrada : faixa.entrySet()) {
+                if (!zerado(entrada.getValue())) {
+                    lote.put(entrada.getKey(), entrada.getValue());
+                }
+            }
+        }
+        emVoo = Collections.unmodifiableMap(lote);
+        return emVoo;
+    }
+
+    /**
+     * O lote drenado foi gravado; deixa de contar como pendente.
+     */
+    public synchronized void confirmar() {
+        emVoo = Collections.emptyMap();
+    }
+
+    /**
+     * A gravação do lote drenado falhou; os deltas voltam a ficar acumulados.
+     */
+    public synchronized void devolver() {
+        Map<Long, long[]> lote = emVoo;
+        for (Map.Entry<Long, long[]> entrada : lote.entrySet()) {
+            long[] deltas = entrada.getValue();
+            for (int coluna = 0; coluna < colunas; coluna++) {
+                if (deltas[coluna] != 0) {
+                    somar(entrada.getKey(), coluna, deltas[coluna]);
+                }
+            }
+        }
+        emVoo = Collections.emptyMap();
+    }
+
+    private static boolean zerado(long[] deltas) {
+        for (long delta : deltas) {
+            if (delta != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
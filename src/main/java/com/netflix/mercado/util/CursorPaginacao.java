@@ -0,0 +1,149 @@
+package com.netflix.mercado.util;
+
+import com.netflix.mercado.exception.ValidationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco para paginação por chave (keyset).
+ *
+ * O cursor guarda os valores da ordenação do último item entregue seguidos do ID, que
+ * desempata itens com a mesma chave. A próxima página é lida com
+ * {@code WHERE (chave, id) < (:chave, :id)} sobre um índice composto, sem OFFSET e sem
+ * COUNT, então o custo não cresce com a profundidade da rolagem.
+ * O formato (Base64 URL-safe de valores separados por '|') não faz parte do contrato da API.
+ */
+public final class CursorPaginacao {
+
+    public static final int TAMANHO_PADRAO = 20;
+    public static final int TAMANHO_MAXIMO = 100;
+
+    private static final String SEPARADOR = "|";
+
+    private final String[] valores;
+    private final long id;
+
+    private CursorPaginacao(String[] valores, long id) {
+        this.valores = valores;
+        this.id = id;
+    }
+
+    /**
+     * Codifica os valores da ordenação e o ID de um item.
+     *
+     * @param id ID do item
+     * @param chaves valores da ordenação, na ordem do ORDER BY
+     * @return cursor opaco
+     */
+    public static String codificar(Long id, Object... chaves) {
+        StringBuilder texto = new StringBuilder();
+        for (Object chave : chaves) {
+            if (chave == null) {
+                throw new IllegalArgumentException("Chave de cursor nula");
+            }
+            texto.append(chave instanceof BigDecimal ? ((BigDecimal) chave).toPlainString() : chave.toString())
+                    .append(SEPARADOR);
+        }
+        texto.append(id);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente.
+     *
+     * @param cursor cursor opaco; vazio ou nulo indica a primeira página
+     * @param quantidadeChaves quantidade de valores de ordenação esperada
+     * @return cursor decodificado, ou null para a primeira página
+     * @throws ValidationException se o cursor estiver malformado
+     */
+    public static CursorPaginacao decodificar(String cursor, int quantidadeChaves) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\|", -1);
+            if (partes.length != quantidadeChaves + 1) {
+                throw new ValidationException("Cursor de paginação inválido");
+            }
+            String[] valores = new String[quantidadeChaves];
+            System.arraycopy(partes, 0, valores, 0, quantidadeChaves);
+            return new CursorPaginacao(valores, Long.parseLong(partes[quantidadeChaves]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Cursor de paginação inválido", e);
+        }
+    }
+
+    /**
+     * Limite de uma página por cursor: sempre a primeira página do tamanho pedido, já que
+     * o deslocamento é feito pelo cursor. O Spring Data busca um item a mais para saber
+     * se há próxima página.
+     *
+     * @param tamanho tamanho pedido
+     * @return paginação sem deslocamento, com tamanho entre 1 e {@link #TAMANHO_MAXIMO}
+     */
+    public static Pageable limite(int tamanho) {
+        return PageRequest.of(0, tamanho <= 0 ? TAMANHO_PADRAO : Math.min(tamanho, TAMANHO_MAXIMO));
+    }
+
+    /**
+     * Cursor que continua após o último item da fatia.
+     *
+     * @param fatia fatia lida
+     * @param cursorDoItem codifica o cursor de um item
+     * @return cursor da próxima página, ou null se esta for a última
+     */
+    public static <T> String proximo(Slice<T> fatia, Function<T, String> cursorDoItem) {
+        List<T> conteudo = fatia.getContent();
+        if (!fatia.hasNext() || conteudo.isEmpty()) {
+            return null;
+        }
+        return cursorDoItem.apply(conteudo.get(conteudo.size() - 1));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public LocalDateTime getData(int indice) {
+        try {
+            return LocalDateTime.parse(valores[indice]);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Cursor de paginação inválido", e);
+        }
+    }
+
+    public BigDecimal getDecimal(int indice) {
+        try {
+            return new BigDecimal(valores[indice]);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Cursor de paginação inválido", e);
+        }
+    }
+
+    public double getDouble(int indice) {
+        try {
+            return Double.parseDouble(valores[indice]);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Cursor de paginação inválido", e);
+        }
+    }
+
+    public int getInteiro(int indice) {
+        try {
+            return Integer.parseInt(valores[indice]);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Cursor de paginação inválido", e);
+        }
+    }
+}
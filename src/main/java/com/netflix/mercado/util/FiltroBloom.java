@@ -0,0 +1,85 @@
+package com.netflix.mercado.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de textos: responde "com certeza não contém" ou "talvez contenha".
+ *
+ * O tamanho e o número de funções de hash são dimensionados pela capacidade e pela taxa de
+ * falsos positivos desejada (cerca de 9,6 bits por elemento para 1%). As posições vêm de um
+ * único hash de 64 bits (FNV-1a com mistura final) combinado por hashing duplo
+ * ({@code h1 + i * h2}). Os bits ficam em um {@link AtomicLongArray}, então
+ * {@link #adicionar(String)} pode correr junto com consultas sem lock; um elemento adicionado
+ * nunca deixa de ser encontrado.
+ */
+public final class FiltroBloom {
+
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+
+    private final AtomicLongArray palavras;
+    private final long numeroBits;
+    private final int funcoes;
+
+    /**
+     * @param capacidade quantidade esperada de elementos
+     * @param taxaFalsosPositivos taxa desejada com a capacidade atingida, entre 0 e 1
+     */
+    public FiltroBloom(int capacidade, double taxaFalsosPositivos) {
+        if (capacidade <= 0 || taxaFalsosPositivos <= 0 || taxaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("Capacidade e taxa de falsos positivos inválidas");
+        }
+        long bits = (long) Math.ceil(-capacidade * Math.log(taxaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        int quantidadePalavras = (int) Math.max(1, (bits + 63) / 64);
+        this.palavras = new AtomicLongArray(quantidadePalavras);
+        this.numeroBits = quantidadePalavras * 64L;
+        this.funcoes = Math.max(1, (int) Math.round((double) numeroBits / capacidade * Math.log(2)));
+    }
+
+    public void adicionar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, numeroBits);
+            int indice = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual = palavras.get(indice);
+            while ((atual & mascara) == 0 && !palavras.compareAndSet(indice, atual, atual | mascara)) {
+                atual = palavras.get(indice);
+            }
+        }
+    }
+
+    /**
+     * @return false se o valor certamente não foi adicionado; true se talvez tenha sido
+     */
+    public boolean podeConter(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, numeroBits);
+            if ((palavras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String valor) {
+        long hash = FNV_BASE;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIMO;
+        }
+        // Mistura final (fmix64 do MurmurHash3): espalha as duas metades usadas pelo hashing duplo
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,407 @@
+package com.netflix.mercado.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Filtro de termos proibidos compilado em um autômato Aho-Corasick.
+ *
+ * Os termos formam uma trie com ligações de falha, então o texto é percorrido uma única vez,
+ * qualquer que seja o tamanho do dicionário: o custo é proporcional ao tamanho do texto mais
+ * as ocorrências encontradas. A comparação ignora maiúsculas, acentos e espaços repetidos, e
+ * só aceita ocorrências que comecem e terminem em fronteira de palavra ("classe" não contém
+ * "ass"). A mesma passada produz o texto com escape HTML.
+ *
+ * Instâncias são imutáveis; para trocar o dicionário constrói-se um novo filtro.
+ */
+public final class FiltroConteudo {
+
+    /**
+     * Limite de ocorrências registradas por texto
+     */
+    public static final int MAXIMO_OCORRENCIAS = 100;
+
+    // Tabela de minúsculas sem acento para os blocos latinos; o resto só passa para minúscula
+    private static final int LIMITE_TABELA = 0x250;
+    private static final char[] DOBRA = new char[LIMITE_TABELA];
+
+    private static final char[] VAZIO_CHARS = new char[0];
+    private static final int[] VAZIO_INTS = new int[0];
+
+    static {
+        for (int c = 0; c < LIMITE_TABELA; c++) {
+            String decomposto = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD);
+            DOBRA[c] = Character.toLowerCase(decomposto.charAt(0));
+        }
+    }
+
+    /**
+     * Filtro sem termos; apenas aplica o escape HTML
+     */
+    public static final FiltroConteudo VAZIO = compilar(Collections.emptyList());
+
+    // Transições de cada estado: caracteres ordenados e destinos na mesma posição
+    private final char[][] rotulos;
+    private final int[][] destinos;
+    private final int[] falha;
+    // Índice do termo que termina no estado (-1 se nenhum) e próximo estado com saída na cadeia de falha
+    private final int[] saida;
+    private final int[] proximaSaida;
+    private final String[] termos;
+    private final int[] tamanhos;
+
+    private FiltroConteudo(char[][] rotulos, int[][] destinos, int[] falha, int[] saida, int[] proximaSaida,
+                           String[] termos, int[] tamanhos) {
+        this.rotulos = rotulos;
+        this.destinos = destinos;
+        this.falha = falha;
+        this.saida = saida;
+        this.proximaSaida = proximaSaida;
+        this.termos = termos;
+        this.tamanhos = tamanhos;
+    }
+
+    /**
+     * Compila o dicionário. Termos vazios e repetidos (após normalização) são ignorados.
+     *
+     * @param termos termos e frases a procurar
+     * @return filtro compilado
+     */
+    public static FiltroConteudo compilar(Collection<String> termos) {
+        List<Map<Character, Integer>> filhos = new ArrayList<>();
+        List<Integer> saidas = new ArrayList<>();
+        filhos.add(new HashMap<>());
+        saidas.add(-1);
+
+        Map<String, String> normalizados = new LinkedHashMap<>();
+        for (String termo : termos) {
+            String normalizado = normalizarTermo(termo);
+            if (!normalizado.isEmpty()) {
+                normalizados.putIfAbsent(normalizado, termo.trim());
+            }
+        }
+
+        String[] originais = new String[normalizados.size()];
+        int[] tamanhos = new int[normalizados.size()];
+        int indice = 0;
+        for (Map.Entry<String, String> entrada : normalizados.entrySet()) {
+            String normalizado = entrada.getKey();
+            int estado = 0;
+            for (int i = 0; i < normalizado.length(); i++) {
+                Integer proximo = filhos.get(estado).get(normalizado.charAt(i));
+                if (proximo == null) {
+                    proximo = filhos.size();
+                    filhos.add(new HashMap<>());
+                    saidas.add(-1);
+                    filhos.get(estado).put(normalizado.charAt(i), proximo);
+                }
+                estado = proximo;
+            }
+            saidas.set(estado, indice);
+            originais[indice] = entrada.getValue();
+            tamanhos[indice] = normalizado.length();
+            indice++;
+        }
+
+        int total = filhos.size();
+        char[][] rotulos = new char[total][];
+        int[][] destinos = new int[total][];
+        for (int estado = 0; estado < total; estado++) {
+            Map<Character, Integer> mapa = filhos.get(estado);
+            if (mapa.isEmpty()) {
+                rotulos[estado] = VAZIO_CHARS;
+                destinos[estado] = VAZIO_INTS;
+                continue;
+            }
+            char[] chars = new char[mapa.size()];
+            int k = 0;
+            for (Character c : mapa.keySet()) {
+                chars[k++] = c;
+            }
+            Arrays.sort(chars);
+            int[] alvos = new int[chars.length];
+            for (int j = 0; j < chars.length; j++) {
+                alvos[j] = mapa.get(chars[j]);
+            }
+            rotulos[estado] = chars;
+            destinos[estado] = alvos;
+        }
+
+        int[] saida = new int[total];
+        for (int estado = 0; estado < total; estado++) {
+            saida[estado] = saidas.get(estado);
+        }
+
+        // Ligações de falha em largura: a falha de um nó é o maior sufixo próprio que também é prefixo
+        int[] falha = new int[total];
+        int[] proximaSaida = new int[total];
+        Arrays.fill(proximaSaida, -1);
+        int[] fila = new int[total];
+        int inicio = 0;
+        int fim = 0;
+        for (int filho : destinos[0]) {
+            fila[fim++] = filho;
+        }
+        while (inicio < fim) {
+            int estado = fila[inicio++];
+            for (int j = 0; j < rotulos[estado].length; j++) {
+                char c = rotulos[estado][j];
+                int filho = destinos[estado][j];
+                int f = falha[estado];
+                int alvo;
+                while ((alvo = transicao(rotulos, destinos, f, c)) < 0 && f != 0) {
+                    f = falha[f];
+                }
+                falha[filho] = alvo >= 0 ? alvo : 0;
+                proximaSaida[filho] = saida[falha[filho]] >= 0 ? falha[filho] : proximaSaida[falha[filho]];
+                fila[fim++] = filho;
+            }
+        }
+
+        return new FiltroConteudo(rotulos, destinos, falha, saida, proximaSaida, originais, tamanhos);
+    }
+
+    /**
+     * Escapa os caracteres HTML especiais e remove espaços das pontas, sem procurar termos.
+     *
+     * @param texto texto original
+     * @return texto escapado (nulo se o texto for nulo)
+     */
+    public static String escapar(String texto) {
+        return texto == null ? null : VAZIO.analisar(texto).getTextoEscapado();
+    }
+
+    /**
+     * Percorre o texto uma vez, procurando os termos e escapando o HTML.
+     *
+     * @param texto texto original
+     * @return ocorrências (posições no texto original) e texto escapado
+     */
+    public Resultado analisar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return new Resultado(texto == null ? "" : texto, Collections.emptyList());
+        }
+        int n = texto.length();
+        int primeiro = 0;
+        int ultimo = n;
+        while (primeiro < ultimo && texto.charAt(primeiro) <= ' ') {
+            primeiro++;
+        }
+        while (ultimo > primeiro && texto.charAt(ultimo - 1) <= ' ') {
+            ultimo--;
+        }
+
+        StringBuilder escapado = new StringBuilder(ultimo - primeiro + 16);
+        List<Ocorrencia> ocorrencias = null;
+        boolean comTermos = termos.length > 0;
+        // Posição no texto original de cada caractere entregue ao autômato
+        int[] origem = comTermos ? new int[ultimo - primeiro] : null;
+        int entregues = 0;
+        int estado = 0;
+        boolean espacoAnterior = false;
+
+        for (int i = primeiro; i < ultimo; i++) {
+            char original = texto.charAt(i);
+            switch (original) {
+                case '<' -> escapado.append("&lt;");
+                case '>' -> escapado.append("&gt;");
+                case '"' -> escapado.append("&quot;");
+                case '\'' -> escapado.append("&#x27;");
+                case '/' -> escapado.append("&#x2F;");
+                default -> escapado.append(original);
+            }
+            if (!comTermos) {
+                continue;
+            }
+
+            char c = dobrar(original);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                if (espacoAnterior) {
+                    continue;
+                }
+                espacoAnterior = true;
+                c = ' ';
+            } else {
+                espacoAnterior = false;
+            }
+            origem[entregues++] = i;
+
+            int proximo;
+            while ((proximo = transicao(rotulos, destinos, estado, c)) < 0 && estado != 0) {
+                estado = falha[estado];
+            }
+            estado = Math.max(proximo, 0);
+
+            int s = saida[estado] >= 0 ? estado : proximaSaida[estado];
+            while (s >= 0) {
+                int termo = saida[s];
+                int inicio = origem[entregues - tamanhos[termo]];
+                if (emFronteira(texto, inicio, i + 1, primeiro, ultimo)
+                        && (ocorrencias == null || ocorrencias.size() < MAXIMO_OCORRENCIAS)) {
+                    if (ocorrencias == null) {
+                        ocorrencias = new ArrayList<>();
+                    }
+                    ocorrencias.add(new Ocorrencia(termos[termo], inicio, i + 1));
+                }
+                s = proximaSaida[s];
+            }
+        }
+        return new Resultado(escapado.toString(), ocorrencias == null ? Collections.emptyList() : ocorrencias);
+    }
+
+    /**
+     * Indica se algum termo aparece no texto.
+     *
+     * @param texto texto original
+     * @return true se houver ocorrência
+     */
+    public boolean contemTermo(String texto) {
+        return !analisar(texto).getOcorrencias().isEmpty();
+    }
+
+    /**
+     * @return quantidade de termos distintos do dicionário
+     */
+    public int getTotalTermos() {
+        return termos.length;
+    }
+
+    /**
+     * @return quantidade de estados do autômato
+     */
+    public int getTotalEstados() {
+        return falha.length;
+    }
+
+    private static int transicao(char[][] rotulos, int[][] destinos, int estado, char c) {
+        char[] chars = rotulos[estado];
+        int j = chars.length <= 8 ? buscaLinear(chars, c) : Arrays.binarySearch(chars, c);
+        return j >= 0 ? destinos[estado][j] : -1;
+    }
+
+    private static int buscaLinear(char[] chars, char c) {
+        for (int j = 0; j < chars.length; j++) {
+            if (chars[j] == c) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean emFronteira(String texto, int inicio, int fim, int primeiro, int ultimo) {
+        return (inicio <= primeiro || !Character.isLetterOrDigit(texto.charAt(inicio - 1)))
+                && (fim >= ultimo || !Character.isLetterOrDigit(texto.charAt(fim)));
+    }
+
+    private static char dobrar(char c) {
+        return c < LIMITE_TABELA ? DOBRA[c] : Character.toLowerCase(c);
+    }
+
+    private static String normalizarTermo(String termo) {
+        if (termo == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(termo.length());
+        boolean espacoAnterior = true;
+        for (int i = 0; i < termo.length(); i++) {
+            char c = dobrar(termo.charAt(i));
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                if (!espacoAnterior) {
+                    sb.append(' ');
+                }
+                espacoAnterior = true;
+            } else {
+                sb.append(c);
+                espacoAnterior = false;
+            }
+        }
+        int tamanho = sb.length();
+        if (tamanho > 0 && sb.charAt(tamanho - 1) == ' ') {
+            sb.setLength(tamanho - 1);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Termo encontrado e sua posição no texto original ([inicio, fim)).
+     */
+    public static final class Ocorrencia {
+        private final String termo;
+        private final int inicio;
+        private final int fim;
+
+        public Ocorrencia(String termo, int inicio, int fim) {
+            this.termo = termo;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        public String getTermo() {
+            return termo;
+        }
+
+        public int getInicio() {
+            return inicio;
+        }
+
+        public int getFim() {
+            return fim;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Ocorrencia outra)) {
+                return false;
+            }
+            return inicio == outra.inicio && fim == outra.fim && termo.equals(outra.termo);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(termo, inicio, fim);
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + termo + "\" [" + inicio + ", " + fim + ")";
+        }
+    }
+
+    /**
+     * Resultado de uma análise: texto escapado e ocorrências em ordem de término.
+     */
+    public static final class Resultado {
+        private final String textoEscapado;
+        private final List<Ocorrencia> ocorrencias;
+
+        Resultado(String textoEscapado, List<Ocorrencia> ocorrencias) {
+            this.textoEscapado = textoEscapado;
+            this.ocorrencias = ocorrencias;
+        }
+
+        public String getTextoEscapado() {
+            return textoEscapado;
+        }
+
+        public List<Ocorrencia> getOcorrencias() {
+            return ocorrencias;
+        }
+    }
+}
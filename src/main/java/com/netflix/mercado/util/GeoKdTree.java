@@ -0,0 +1,391 @@
+package com.netflix.mercado.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * KD-tree imutável de pontos geográficos.
+ * Cada ponto (lat/lon) é convertido para um vetor unitário 3D; a distância euclidiana (corda)
+ * entre vetores é monotônica com a distância de grande círculo, então vizinhos mais próximos
+ * e buscas por raio são exatos em qualquer latitude, inclusive no antimeridiano.
+ *
+ * A árvore é implícita: o nó de cada intervalo [lo, hi) é o elemento do meio,
+ * sem objetos de nó nem ponteiros.
+ */
+public final class GeoKdTree {
+
+    private static final GeoKdTree VAZIA = new GeoKdTree(new long[0], new double[0], new double[0]);
+
+    private final long[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] coordenadas;
+    private final byte[] eixos;
+
+    private GeoKdTree(long[] ids, double[] latitudes, double[] longitudes) {
+        int n = ids.length;
+        double[] xyz = new double[n * 3];
+        for (int i = 0; i < n; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            xyz[i * 3] = Math.cos(lat) * Math.cos(lon);
+            xyz[i * 3 + 1] = Math.cos(lat) * Math.sin(lon);
+            xyz[i * 3 + 2] = Math.sin(lat);
+        }
+
+        int[] ordem = new int[n];
+        for (int i = 0; i < n; i++) {
+            ordem[i] = i;
+        }
+        byte[] eixosPorPosicao = new byte[n];
+        construir(ordem, xyz, eixosPorPosicao, 0, n);
+
+        this.ids = new long[n];
+        this.latitudes = new double[n];
+        this.longitudes = new double[n];
+        this.coordenadas = new double[n * 3];
+        this.eixos = eixosPorPosicao;
+        for (int i = 0; i < n; i++) {
+            int origem = ordem[i];
+            this.ids[i] = ids[origem];
+            this.latitudes[i] = latitudes[origem];
+            this.longitudes[i] = longitudes[origem];
+            System.arraycopy(xyz, origem * 3, this.coordenadas, i * 3, 3);
+        }
+    }
+
+    /**
+     * Constrói a árvore a partir de arrays paralelos (os arrays não são retidos).
+     *
+     * @param ids IDs dos pontos
+     * @param latitudes latitudes em graus
+     * @param longitudes longitudes em graus
+     * @return árvore balanceada
+     */
+    public static GeoKdTree construir(long[] ids, double[] latitudes, double[] longitudes) {
+        if (ids.length != latitudes.length || ids.length != longitudes.length) {
+            throw new IllegalArgumentException("Arrays de ids e coordenadas devem ter o mesmo tamanho");
+        }
+        return ids.length == 0 ? VAZIA : new GeoKdTree(ids, latitudes, longitudes);
+    }
+
+    public static GeoKdTree vazia() {
+        return VAZIA;
+    }
+
+    public int tamanho() {
+        return ids.length;
+    }
+
+    public long getId(int posicao) {
+        return ids[posicao];
+    }
+
+    public double getLatitude(int posicao) {
+        return latitudes[posicao];
+    }
+
+    public double getLongitude(int posicao) {
+        return longitudes[posicao];
+    }
+
+    /**
+     * Busca os k pontos mais próximos da coordenada.
+     *
+     * @param latitude latitude em graus
+     * @param longitude longitude em graus
+     * @param k quantidade de vizinhos
+     * @param ignorar IDs a desconsiderar (ex.: entradas obsoletas)
+     * @return vizinhos ordenados por distância crescente
+     */
+    public List<Vizinho> buscarMaisProximos(double latitude, double longitude, int k, LongPredicate ignorar) {
+        if (k <= 0 || ids.length == 0) {
+            return Collections.emptyList();
+        }
+        double[] q = paraVetor(latitude, longitude);
+        HeapLimitado heap = new HeapLimitado(Math.min(k, ids.length));
+        buscarVizinhos(0, ids.length, q, heap, ignorar);
+        return heap.paraLista(this);
+    }
+
+    /**
+     * Busca todos os pontos dentro do raio informado.
+     *
+     * @param latitude latitude em graus
+     * @param longitude longitude em graus
+     * @param raioKm raio em km
+     * @param ignorar IDs a desconsiderar
+     * @return vizinhos ordenados por distância crescente
+     */
+    public List<Vizinho> buscarNoRaio(double latitude, double longitude, double raioKm, LongPredicate ignorar) {
+        if (raioKm <= 0 || ids.length == 0) {
+            return Collections.emptyList();
+        }
+        double[] q = paraVetor(latitude, longitude);
+        double corda = cordaParaRaio(raioKm);
+        List<Vizinho> resultado = new ArrayList<>();
+        buscarRaio(0, ids.length, q, corda * corda, ignorar, resultado);
+        resultado.sort(Comparator.comparingDouble(Vizinho::getDistanciaKm));
+        return resultado;
+    }
+
+    /**
+     * Converte a distância de corda no vetor unitário para km de grande círculo.
+     */
+    static double cordaParaKm(double distanciaQuadrada) {
+        double corda = Math.sqrt(distanciaQuadrada);
+        return 2 * GeoUtils.RAIO_TERRA_KM * Math.asin(Math.min(1.0, corda / 2));
+    }
+
+    static double cordaParaRaio(double raioKm) {
+        double angulo = Math.min(Math.PI, raioKm / GeoUtils.RAIO_TERRA_KM);
+        return 2 * Math.sin(angulo / 2);
+    }
+
+    static double[] paraVetor(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private void buscarVizinhos(int lo, int hi, double[] q, HeapLimitado heap, LongPredicate ignorar) {
+        if (lo >= hi) {
+            return;
+        }
+        int meio = (lo + hi) >>> 1;
+        if (ignorar == null || !ignorar.test(ids[meio])) {
+            heap.oferecer(meio, distanciaQuadrada(meio, q));
+        }
+        int eixo = eixos[meio];
+        double diferenca = q[eixo] - coordenadas[meio * 3 + eixo];
+        if (diferenca < 0) {
+            buscarVizinhos(lo, meio, q, heap, ignorar);
+            if (diferenca * diferenca < heap.limite()) {
+                buscarVizinhos(meio + 1, hi, q, heap, ignorar);
+            }
+        } else {
+            buscarVizinhos(meio + 1, hi, q, heap, ignorar);
+            if (diferenca * diferenca < heap.limite()) {
+                buscarVizinhos(lo, meio, q, heap, ignorar);
+            }
+        }
+    }
+
+    private void buscarRaio(int lo, int hi, double[] q, double limite, LongPredicate ignorar, List<Vizinho> resultado) {
+        if (lo >= hi) {
+            return;
+        }
+        int meio = (lo + hi) >>> 1;
+        double d2 = distanciaQuadrada(meio, q);
+        if (d2 <= limite && (ignorar == null || !ignorar.test(ids[meio]))) {
+            resultado.add(new Vizinho(ids[meio], latitudes[meio], longitudes[meio], cordaParaKm(d2)));
+        }
+        int eixo = eixos[meio];
+        double diferenca = q[eixo] - coordenadas[meio * 3 + eixo];
+        if (diferenca <= 0 || diferenca * diferenca <= limite) {
+            buscarRaio(lo, meio, q, limite, ignorar, resultado);
+        }
+        if (diferenca >= 0 || diferenca * diferenca <= limite) {
+            buscarRaio(meio + 1, hi, q, limite, ignorar, resultado);
+        }
+    }
+
+    private double distanciaQuadrada(int posicao, double[] q) {
+        double dx = coordenadas[posicao * 3] - q[0];
+        double dy = coordenadas[posicao * 3 + 1] - q[1];
+        double dz = coordenadas[posicao * 3 + 2] - q[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static void construir(int[] ordem, double[] xyz, byte[] eixos, int lo, int hi) {
+        if (hi - lo <= 0) {
+            return;
+        }
+        int meio = (lo + hi) >>> 1;
+        int eixo = eixoDeMaiorDispersao(ordem, xyz, lo, hi);
+        selecionar(ordem, xyz, eixo, lo, hi - 1, meio);
+        eixos[meio] = (byte) eixo;
+        construir(ordem, xyz, eixos, lo, meio);
+        construir(ordem, xyz, eixos, meio + 1, hi);
+    }
+
+    private static int eixoDeMaiorDispersao(int[] ordem, double[] xyz, int lo, int hi) {
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = lo; i < hi; i++) {
+            int p = ordem[i] * 3;
+            for (int e = 0; e < 3; e++) {
+                double v = xyz[p + e];
+                if (v < min[e]) {
+                    min[e] = v;
+                }
+                if (v > max[e]) {
+                    max[e] = v;
+                }
+            }
+        }
+        int eixo = 0;
+        for (int e = 1; e < 3; e++) {
+            if (max[e] - min[e] > max[eixo] - min[eixo]) {
+                eixo = e;
+            }
+        }
+        return eixo;
+    }
+
+    /**
+     * Quickselect: posiciona em k o elemento de ordem k no eixo informado,
+     * com menores ou iguais à esquerda e maiores ou iguais à direita.
+     */
+    private static void selecionar(int[] ordem, double[] xyz, int eixo, int lo, int hi, int k) {
+        while (hi > lo) {
+            int meio = (lo + hi) >>> 1;
+            double pivo = mediana(
+                    xyz[ordem[lo] * 3 + eixo], xyz[ordem[meio] * 3 + eixo], xyz[ordem[hi] * 3 + eixo]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (xyz[ordem[i] * 3 + eixo] < pivo) {
+                    i++;
+                }
+                while (xyz[ordem[j] * 3 + eixo] > pivo) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = ordem[i];
+                    ordem[i] = ordem[j];
+                    ordem[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static double mediana(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Max-heap limitado às k menores distâncias encontradas.
+     */
+    private static final class HeapLimitado {
+        private final int[] posicoes;
+        private final double[] distancias;
+        private int tamanho;
+
+        HeapLimitado(int capacidade) {
+            this.posicoes = new int[capacidade];
+            this.distancias = new double[capacidade];
+        }
+
+        double limite() {
+            return tamanho < posicoes.length ? Double.POSITIVE_INFINITY : distancias[0];
+        }
+
+        void oferecer(int posicao, double distancia) {
+            if (tamanho < posicoes.length) {
+                posicoes[tamanho] = posicao;
+                distancias[tamanho] = distancia;
+                subir(tamanho++);
+            } else if (distancia < distancias[0]) {
+                posicoes[0] = posicao;
+                distancias[0] = distancia;
+                descer(0);
+            }
+        }
+
+        List<Vizinho> paraLista(GeoKdTree arvore) {
+            List<Vizinho> lista = new ArrayList<>(tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                int p = posicoes[i];
+                lista.add(new Vizinho(arvore.ids[p], arvore.latitudes[p], arvore.longitudes[p],
+                        cordaParaKm(distancias[i])));
+            }
+            lista.sort(Comparator.comparingDouble(Vizinho::getDistanciaKm));
+            return lista;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int pai = (i - 1) / 2;
+                if (distancias[pai] >= distancias[i]) {
+                    return;
+                }
+                trocar(i, pai);
+                i = pai;
+            }
+        }
+
+        private void descer(int i) {
+            while (true) {
+                int maior = i;
+                int esq = 2 * i + 1;
+                int dir = esq + 1;
+                if (esq < tamanho && distancias[esq] > distancias[maior]) {
+                    maior = esq;
+                }
+                if (dir < tamanho && distancias[dir] > distancias[maior]) {
+                    maior = dir;
+                }
+                if (maior == i) {
+                    return;
+                }
+                trocar(i, maior);
+                i = maior;
+            }
+        }
+
+        private void trocar(int a, int b) {
+            int p = posicoes[a];
+            posicoes[a] = posicoes[b];
+            posicoes[b] = p;
+            double d = distancias[a];
+            distancias[a] = distancias[b];
+            distancias[b] = d;
+        }
+    }
+
+    /**
+     * Resultado de uma busca espacial.
+     */
+    public static final class Vizinho {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        private final double distanciaKm;
+
+        public Vizinho(long id, double latitude, double longitude, double distanciaKm) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanciaKm = distanciaKm;
+        }
+
+        public long getId() {
+            return this.id;
+        }
+
+        public double getLatitude() {
+            return this.latitude;
+        }
+
+        public double getLongitude() {
+            return this.longitude;
+        }
+
+        public double getDistanciaKm() {
+            return this.distanciaKm;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.netflix.mercado.util;
+
+/**
+ * Utilitários de cálculo geográfico.
+ * Distância de grande círculo (Haversine) e caixa delimitadora usada como
+ * pré-filtro indexável nas buscas por proximidade.
+ */
+public final class GeoUtils {
+
+    /**
+     * Raio médio da Terra em quilômetros
+     */
+    public static final double RAIO_TERRA_KM = 6371.0;
+
+    private static final double LATITUDE_MAXIMA = 90.0;
+    private static final double LONGITUDE_MAXIMA = 180.0;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Calcula a distância de grande círculo entre dois pontos (fórmula de Haversine).
+     *
+     * @param lat1 latitude do primeiro ponto em graus
+     * @param lon1 longitude do primeiro ponto em graus
+     * @param lat2 latitude do segundo ponto em graus
+     * @param lon2 longitude do segundo ponto em graus
+     * @return distância em km
+     */
+    public static double calcularDistanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Calcula a caixa delimitadora (lat/lon mín/máx) que contém o círculo de raio informado.
+     * Perto dos polos ou cruzando o antimeridiano a faixa de longitude é expandida para
+     * o globo inteiro, mantendo a caixa sempre um superconjunto do círculo.
+     *
+     * @param latitude latitude do centro em graus
+     * @param longitude longitude do centro em graus
+     * @param raioKm raio em km
+     * @return array {latMin, latMax, lonMin, lonMax}
+     */
+    public static double[] calcularCaixaDelimitadora(double latitude, double longitude, double raioKm) {
+        double raioAngular = raioKm / RAIO_TERRA_KM;
+        double deltaLat = Math.toDegrees(raioAngular);
+
+        double latMin = latitude - deltaLat;
+        double latMax = latitude + deltaLat;
+
+        if (latMin <= -LATITUDE_MAXIMA || latMax >= LATITUDE_MAXIMA) {
+            return new double[]{
+                    Math.max(latMin, -LATITUDE_MAXIMA),
+                    Math.min(latMax, LATITUDE_MAXIMA),
+                    -LONGITUDE_MAXIMA,
+                    LONGITUDE_MAXIMA
+            };
+        }
+
+        double deltaLon = Math.toDegrees(Math.asin(
+                Math.min(1.0, Math.sin(raioAngular) / Math.cos(Math.toRadians(latitude)))));
+        double lonMin = longitude - deltaLon;
+        double lonMax = longitude + deltaLon;
+
+        if (lonMin < -LONGITUDE_MAXIMA || lonMax > LONGITUDE_MAXIMA) {
+            lonMin = -LONGITUDE_MAXIMA;
+            lonMax = LONGITUDE_MAXIMA;
+        }
+
+        return new double[]{latMin, latMax, lonMin, lonMax};
+    }
+
+    /**
+     * Valida se as coordenadas estão dentro dos limites geográficos.
+     *
+     * @param latitude latitude em graus
+     * @param longitude longitude em graus
+     * @return true se as coordenadas são válidas
+     */
+    public static boolean coordenadasValidas(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -LATITUDE_MAXIMA && latitude <= LATITUDE_MAXIMA
+                && longitude >= -LONGITUDE_MAXIMA && longitude <= LONGITUDE_MAXIMA;
+    }
+}
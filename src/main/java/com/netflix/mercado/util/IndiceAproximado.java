@@ -0,0 +1,330 @@
+package com.netflix.mercado.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Busca tolerante a erros de digitação sobre um dicionário de palavras.
+ *
+ * As palavras de cada documento (normalizadas, sem stopwords) formam um dicionário indexado
+ * por trigramas. Para cada palavra da consulta, os trigramas selecionam candidatas e a
+ * distância de Levenshtein limitada confirma as que estão a até {@link #distanciaMaxima(int)}
+ * edições. Cada edição altera no máximo três trigramas, então uma palavra a k edições
+ * compartilha ao menos {@code t - 3k} dos t trigramas distintos da consulta; o filtro
+ * descarta apenas palavras que não podem estar dentro do limite.
+ * Leituras são concorrentes; escritas usam bloqueio exclusivo.
+ */
+public final class IndiceAproximado {
+
+    private final Map<String, Set<Long>> palavras = new HashMap<>();
+    private final Map<String, Set<String>> trigramas = new HashMap<>();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Palavras normalizadas do texto, sem stopwords e sem repetição.
+     *
+     * @param texto texto original
+     * @return palavras na ordem do texto
+     */
+    public static List<String> analisar(String texto) {
+        Set<String> termos = new LinkedHashSet<>();
+        for (String token : TextoUtils.tokenizar(texto)) {
+            if (!TextoUtils.isStopword(token)) {
+                termos.add(token);
+            }
+        }
+        return new ArrayList<>(termos);
+    }
+
+    /**
+     * Edições toleradas para uma palavra da consulta: nenhuma até 3 letras,
+     * uma até 5 letras e duas a partir de 6.
+     *
+     * @param tamanho tamanho da palavra
+     * @return distância máxima
+     */
+    public static int distanciaMaxima(int tamanho) {
+        if (tamanho <= 3) {
+            return 0;
+        }
+        return tamanho <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Inclui ou substitui um documento.
+     *
+     * @param id ID do documento
+     * @param texto texto do documento
+     * @param avaliacao avaliação usada no desempate (0 a 5)
+     */
+    public void indexar(long id, String texto, double avaliacao) {
+        List<String> termos = analisar(texto);
+        lock.writeLock().lock();
+        try {
+            removerSemBloqueio(id);
+            for (String termo : termos) {
+                Set<Long> ids = palavras.get(termo);
+                if (ids == null) {
+                    ids = new HashSet<>();
+                    palavras.put(termo, ids);
+                    for (String trigrama : trigramas(termo)) {
+                        trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(termo);
+                    }
+                }
+                ids.add(id);
+            }
+            documentos.put(id, new Documento(termos.toArray(new String[0]), avaliacao));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um documento do índice.
+     *
+     * @param id ID do documento
+     */
+    public void remover(long id) {
+        lock.writeLock().lock();
+        try {
+            removerSemBloqueio(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca documentos em que cada palavra da consulta casa com alguma palavra do documento
+     * dentro da distância tolerada.
+     *
+     * @param consulta texto digitado
+     * @param limite quantidade máxima de resultados
+     * @return resultados por soma das distâncias crescente e avaliação decrescente
+     */
+    public List<Resultado> buscar(String consulta, int limite) {
+        List<String> termos = analisar(consulta);
+        if (termos.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Resultado> resultados = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, int[]> distancias = null;
+            for (int i = 0; i < termos.size(); i++) {
+                Map<Long, int[]> casados = new HashMap<>();
+                for (Map.Entry<String, Integer> palavra : palavrasProximas(termos.get(i)).entrySet()) {
+                    for (Long id : palavras.get(palavra.getKey())) {
+                        if (distancias != null && !distancias.containsKey(id)) {
+                            continue;
+                        }
+                        int[] atual = casados.get(id);
+                        if (atual == null) {
+                            int anterior = distancias != null ? distancias.get(id)[0] : 0;
+                            casados.put(id, new int[]{anterior + palavra.getValue(), palavra.getValue()});
+                        } else if (palavra.getValue() < atual[1]) {
+                            atual[0] -= atual[1] - palavra.getValue();
+                            atual[1] = palavra.getValue();
+                        }
+                    }
+                }
+                if (casados.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                distancias = casados;
+            }
+            for (Map.Entry<Long, int[]> documento : distancias.entrySet()) {
+                resultados.add(new Resultado(documento.getKey(), documento.getValue()[0],
+                        documentos.get(documento.getKey()).avaliacao));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        resultados.sort((a, b) -> {
+            if (a.distancia != b.distancia) {
+                return Integer.compare(a.distancia, b.distancia);
+            }
+            if (a.avaliacao != b.avaliacao) {
+                return Double.compare(b.avaliacao, a.avaliacao);
+            }
+            return Long.compare(a.id, b.id);
+        });
+        return resultados.size() > limite ? new ArrayList<>(resultados.subList(0, limite)) : resultados;
+    }
+
+    /**
+     * Palavras do dicionário a até {@link #distanciaMaxima(int)} edições do termo, com a distância.
+     */
+    private Map<String, Integer> palavrasProximas(String termo) {
+        int maxima = distanciaMaxima(termo.length());
+        Map<String, Integer> proximas = new HashMap<>();
+        if (maxima == 0) {
+            if (palavras.containsKey(termo)) {
+                proximas.put(termo, 0);
+            }
+            return proximas;
+        }
+
+        Set<String> trigramasTermo = trigramas(termo);
+        int minimoCompartilhado = trigramasTermo.size() - 3 * maxima;
+        Map<String, Integer> compartilhados = new HashMap<>();
+        for (String trigrama : trigramasTermo) {
+            Set<String> candidatas = trigramas.get(trigrama);
+            if (candidatas != null) {
+                for (String candidata : candidatas) {
+                    compartilhados.merge(candidata, 1, Integer::sum);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> candidata : compartilhados.entrySet()) {
+            String palavra = candidata.getKey();
+            if (Math.abs(palavra.length() - termo.length()) > maxima
+                    || candidata.getValue() < minimoCompartilhado) {
+                continue;
+            }
+            int distancia = levenshtein(termo, palavra, maxima);
+            if (distancia <= maxima) {
+                proximas.put(palavra, distancia);
+            }
+        }
+        return proximas;
+    }
+
+    /**
+     * Trigramas da palavra com dois marcadores de início e um de fim ("$$ab", "$ab", "ab$"),
+     * totalizando {@code tamanho + 1} trigramas.
+     */
+    static Set<String> trigramas(String palavra) {
+        String marcada = "$$" + palavra + "$";
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + 3 <= marcada.length(); i++) {
+            resultado.add(marcada.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    /**
+     * Distância de Levenshtein calculada apenas na faixa diagonal de largura {@code maxima};
+     * retorna {@code maxima + 1} assim que a distância certamente passa do limite.
+     */
+    static int levenshtein(String a, String b, int maxima) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxima) {
+            return maxima + 1;
+        }
+        int infinito = maxima + 1;
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            anterior[j] = j <= maxima ? j : infinito;
+        }
+        for (int i = 1; i <= n; i++) {
+            int inicio = Math.max(1, i - maxima);
+            int fim = Math.min(m, i + maxima);
+            atual[0] = i <= maxima ? i : infinito;
+            if (inicio > 1) {
+                atual[inicio - 1] = infinito;
+            }
+            int menor = atual[0];
+            for (int j = inicio; j <= fim; j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(anterior[j - 1] + custo, Math.min(anterior[j] + 1, atual[j - 1] + 1));
+                atual[j] = Math.min(valor, infinito);
+                menor = Math.min(menor, atual[j]);
+            }
+            if (fim < m) {
+                atual[fim + 1] = infinito;
+            }
+            if (menor > maxima) {
+                return infinito;
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return Math.min(anterior[m], infinito);
+    }
+
+    private void removerSemBloqueio(long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String termo : anterior.termos) {
+            Set<Long> ids = palavras.get(termo);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                palavras.remove(termo);
+                for (String trigrama : trigramas(termo)) {
+                    Set<String> lista = trigramas.get(trigrama);
+                    if (lista != null) {
+                        lista.remove(termo);
+                        if (lista.isEmpty()) {
+                            trigramas.remove(trigrama);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Documento {
+        final String[] termos;
+        final double avaliacao;
+
+        Documento(String[] termos, double avaliacao) {
+            this.termos = termos;
+            this.avaliacao = avaliacao;
+        }
+    }
+
+    /**
+     * Documento encontrado com a soma das distâncias de edição das palavras da consulta.
+     */
+    public static final class Resultado {
+        private final long id;
+        private final int distancia;
+        private final double avaliacao;
+
+        Resultado(long id, int distancia, double avaliacao) {
+            this.id = id;
+            this.distancia = distancia;
+            this.avaliacao = avaliacao;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getDistancia() {
+            return distancia;
+        }
+
+        public double getAvaliacao() {
+            return avaliacao;
+        }
+    }
+}
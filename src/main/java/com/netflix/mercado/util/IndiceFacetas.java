@@ -0,0 +1,465 @@
+package com.netflix.mercado.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Contagens por faceta (UF, cidade, faixa de avaliação, aberto agora) sobre os mercados ativos.
+ *
+ * Cada mercado recebe um ordinal denso; cada valor de faceta guarda o conjunto de ordinais
+ * em um {@link BitSet}. Uma consulta monta o conjunto de resultados com interseções desses
+ * conjuntos e conta cada valor com mais uma interseção, sem acessar o banco.
+ * O filtro por nome cruza os conjuntos dos trigramas do texto procurado, como no
+ * {@link IndiceAproximado}, e só confirma a substring nos mercados que restarem.
+ * Leituras são concorrentes; escritas usam bloqueio exclusivo.
+ */
+public final class IndiceFacetas {
+
+    /**
+     * Faixas de avaliação: o índice é a parte inteira da média (0 a 5)
+     */
+    public static final int FAIXAS = 6;
+
+    private static final int TAMANHO_TRIGRAMA = 3;
+
+    private final Map<Long, Integer> ordinais = new HashMap<>();
+    private final Deque<Integer> livres = new ArrayDeque<>();
+    private long[] ids = new long[64];
+    private String[] nomes = new String[64];
+    private double[] avaliacoes = new double[64];
+    private String[] estados = new String[64];
+    private ChaveCidade[] cidades = new ChaveCidade[64];
+    private int proximoOrdinal;
+
+    private final BitSet ativos = new BitSet();
+    private final BitSet comCoordenadas = new BitSet();
+    private final Map<String, BitSet> porEstado = new HashMap<>();
+    private final Map<ChaveCidade, BitSet> porCidade = new HashMap<>();
+    private final BitSet[] porFaixa = new BitSet[FAIXAS];
+    private final Map<String, BitSet> porTrigrama = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndiceFacetas() {
+        for (int i = 0; i < FAIXAS; i++) {
+            porFaixa[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Inclui ou substitui um mercado.
+     *
+     * @param id ID do mercado
+     * @param nome nome do mercado
+     * @param cidade cidade
+     * @param estado UF
+     * @param avaliacao avaliação média (NaN quando desconhecida)
+     * @param temCoordenadas se o mercado tem latitude e longitude
+     */
+    public void indexar(long id, String nome, String cidade, String estado, double avaliacao, boolean temCoordenadas) {
+        lock.writeLock().lock();
+        try {
+            removerSemBloqueio(id);
+            int ordinal = livres.isEmpty() ? proximoOrdinal++ : livres.pop();
+            garantirCapacidade(ordinal);
+            ordinais.put(id, ordinal);
+            ids[ordinal] = id;
+            nomes[ordinal] = nome != null ? nome.toLowerCase(Locale.ROOT) : "";
+            for (String trigrama : trigramas(nomes[ordinal])) {
+                porTrigrama.computeIfAbsent(trigrama, t -> new BitSet()).set(ordinal);
+            }
+            avaliacoes[ordinal] = avaliacao;
+            ativos.set(ordinal);
+            if (temCoordenadas) {
+                comCoordenadas.set(ordinal);
+            }
+            if (estado != null) {
+                porEstado.computeIfAbsent(estado, e -> new BitSet()).set(ordinal);
+                estados[ordinal] = estado;
+            }
+            if (cidade != null) {
+                ChaveCidade chave = new ChaveCidade(cidade, estado);
+                porCidade.computeIfAbsent(chave, c -> new BitSet()).set(ordinal);
+                cidades[ordinal] = chave;
+            }
+            int faixa = faixa(avaliacao);
+            if (faixa >= 0) {
+                porFaixa[faixa].set(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um mercado.
+     *
+     * @param id ID do mercado
+     */
+    public void remover(long id) {
+        lock.writeLock().lock();
+        try {
+            removerSemBloqueio(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return ordinais.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calcula as contagens de cada faceta sobre os mercados que atendem à consulta.
+     *
+     * @param consulta filtros da busca
+     * @param abertoAgora indica, pelo ID, se o mercado está aberto
+     * @return contagens por valor de faceta
+     */
+    public Resultado calcular(Consulta consulta, LongPredicate abertoAgora) {
+        lock.readLock().lock();
+        try {
+            BitSet resultado = selecionar(consulta);
+            BitSet temporario = new BitSet(proximoOrdinal);
+
+            List<Contagem> contagemEstados = new ArrayList<>();
+            for (Map.Entry<String, BitSet> valor : porEstado.entrySet()) {
+                int quantidade = contarIntersecao(valor.getValue(), resultado, temporario);
+                if (quantidade > 0) {
+                    contagemEstados.add(new Contagem(valor.getKey(), null, quantidade));
+                }
+            }
+            List<Contagem> contagemCidades = new ArrayList<>();
+            for (Map.Entry<ChaveCidade, BitSet> valor : porCidade.entrySet()) {
+                int quantidade = contarIntersecao(valor.getValue(), resultado, temporario);
+                if (quantidade > 0) {
+                    contagemCidades.add(new Contagem(valor.getKey().cidade, valor.getKey().estado, quantidade));
+                }
+            }
+            int[] faixas = new int[FAIXAS];
+            for (int i = 0; i < FAIXAS; i++) {
+                faixas[i] = contarIntersecao(porFaixa[i], resultado, temporario);
+            }
+            int abertos = 0;
+            for (int ordinal = resultado.nextSetBit(0); ordinal >= 0; ordinal = resultado.nextSetBit(ordinal + 1)) {
+                if (abertoAgora.test(ids[ordinal])) {
+                    abertos++;
+                }
+            }
+
+            contagemEstados.sort(Contagem.ORDEM);
+            contagemCidades.sort(Contagem.ORDEM);
+            int[] acumuladas = new int[FAIXAS];
+            int soma = 0;
+            for (int i = FAIXAS - 1; i >= 0; i--) {
+                soma += faixas[i];
+                acumuladas[i] = soma;
+            }
+            return new Resultado(resultado.cardinality(), contagemEstados, contagemCidades, acumuladas, abertos);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Conjunto de ordinais que atendem aos filtros, com a mesma semântica da busca no banco.
+     */
+    private BitSet selecionar(Consulta consulta) {
+        BitSet resultado = (BitSet) ativos.clone();
+        if (consulta.estado != null) {
+            BitSet estado = porEstado.get(consulta.estado);
+            if (estado == null) {
+                return new BitSet();
+            }
+            resultado.and(estado);
+        }
+        if (consulta.cidade != null) {
+            BitSet cidade = new BitSet();
+            for (Map.Entry<ChaveCidade, BitSet> valor : porCidade.entrySet()) {
+                if (valor.getKey().cidade.equals(consulta.cidade)) {
+                    cidade.or(valor.getValue());
+                }
+            }
+            resultado.and(cidade);
+        }
+        if (consulta.exigirCoordenadas) {
+            resultado.and(comCoordenadas);
+        }
+        if (consulta.ids != null) {
+            BitSet selecionados = new BitSet();
+            for (Long id : consulta.ids) {
+                Integer ordinal = ordinais.get(id);
+                if (ordinal != null) {
+                    selecionados.set(ordinal);
+                }
+            }
+            resultado.and(selecionados);
+        }
+        if (consulta.nome != null) {
+            // Todo nome que contém o texto contém cada um de seus trigramas
+            for (String trigrama : trigramas(consulta.nome)) {
+                BitSet comTrigrama = porTrigrama.get(trigrama);
+                if (comTrigrama == null) {
+                    return new BitSet();
+                }
+                resultado.and(comTrigrama);
+            }
+        }
+        if (consulta.avaliacaoMinima != null || consulta.nome != null) {
+            for (int ordinal = resultado.nextSetBit(0); ordinal >= 0; ordinal = resultado.nextSetBit(ordinal + 1)) {
+                if ((consulta.avaliacaoMinima != null && !(avaliacoes[ordinal] >= consulta.avaliacaoMinima))
+                        || (consulta.nome != null && !nomes[ordinal].contains(consulta.nome))) {
+                    resultado.clear(ordinal);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private static int contarIntersecao(BitSet a, BitSet b, BitSet temporario) {
+        if (!a.intersects(b)) {
+            return 0;
+        }
+        temporario.clear();
+        temporario.or(a);
+        temporario.and(b);
+        return temporario.cardinality();
+    }
+
+    private void removerSemBloqueio(long id) {
+        Integer ordinal = ordinais.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        ativos.clear(ordinal);
+        comCoordenadas.clear(ordinal);
+        if (estados[ordinal] != null) {
+            limpar(porEstado, estados[ordinal], ordinal);
+        }
+        if (cidades[ordinal] != null) {
+            limpar(porCidade, cidades[ordinal], ordinal);
+        }
+        int faixa = faixa(avaliacoes[ordinal]);
+        if (faixa >= 0) {
+            porFaixa[faixa].clear(ordinal);
+        }
+        for (String trigrama : trigramas(nomes[ordinal])) {
+            limpar(porTrigrama, trigrama, ordinal);
+        }
+        nomes[ordinal] = null;
+        estados[ordinal] = null;
+        cidades[ordinal] = null;
+        livres.push(ordinal);
+    }
+
+    private static <K> void limpar(Map<K, BitSet> mapa, K chave, int ordinal) {
+        BitSet conjunto = mapa.get(chave);
+        if (conjunto != null) {
+            conjunto.clear(ordinal);
+            if (conjunto.isEmpty()) {
+                mapa.remove(chave);
+            }
+        }
+    }
+
+    private void garantirCapacidade(int ordinal) {
+        if (ordinal >= ids.length) {
+            int capacidade = Math.max(ordinal + 1, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacidade);
+            nomes = Arrays.copyOf(nomes, capacidade);
+            avaliacoes = Arrays.copyOf(avaliacoes, capacidade);
+            estados = Arrays.copyOf(estados, capacidade);
+            cidades = Arrays.copyOf(cidades, capacidade);
+        }
+    }
+
+    /**
+     * Trigramas distintos do texto, sem marcadores de início e fim: textos com menos de
+     * três caracteres não têm trigramas e não restringem os candidatos.
+     */
+    private static Set<String> trigramas(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + TAMANHO_TRIGRAMA <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + TAMANHO_TRIGRAMA));
+        }
+        return resultado;
+    }
+
+    private static int faixa(double avaliacao) {
+        if (Double.isNaN(avaliacao)) {
+            return -1;
+        }
+        return (int) Math.max(0, Math.min(FAIXAS - 1, Math.floor(avaliacao)));
+    }
+
+    private static final class ChaveCidade {
+        final String cidade;
+        final String estado;
+
+        ChaveCidade(String cidade, String estado) {
+            this.cidade = cidade;
+            this.estado = estado;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ChaveCidade)) {
+                return false;
+            }
+            ChaveCidade outra = (ChaveCidade) o;
+            return cidade.equals(outra.cidade) && Objects.equals(estado, outra.estado);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * cidade.hashCode() + (estado != null ? estado.hashCode() : 0);
+        }
+    }
+
+    /**
+     * Filtros da consulta, já normalizados como na busca no banco. Campos nulos não filtram.
+     */
+    public static final class Consulta {
+        private String nome;
+        private String cidade;
+        private String estado;
+        private Double avaliacaoMinima;
+        private Collection<Long> ids;
+        private boolean exigirCoordenadas;
+
+        /**
+         * Nome contendo o texto, sem diferenciar maiúsculas e minúsculas.
+         */
+        public Consulta nome(String nome) {
+            this.nome = nome != null && !nome.isBlank() ? nome.trim().toLowerCase(Locale.ROOT) : null;
+            return this;
+        }
+
+        public Consulta cidade(String cidade) {
+            this.cidade = cidade != null && !cidade.isBlank() ? cidade.trim() : null;
+            return this;
+        }
+
+        public Consulta estado(String estado) {
+            this.estado = estado != null && !estado.isBlank() ? estado.trim().toUpperCase(Locale.ROOT) : null;
+            return this;
+        }
+
+        public Consulta avaliacaoMinima(Double avaliacaoMinima) {
+            this.avaliacaoMinima = avaliacaoMinima;
+            return this;
+        }
+
+        /**
+         * Restringe aos IDs informados (resultado de uma busca em índice em memória).
+         */
+        public Consulta ids(Collection<Long> ids) {
+            this.ids = ids;
+            return this;
+        }
+
+        public Consulta exigirCoordenadas(boolean exigirCoordenadas) {
+            this.exigirCoordenadas = exigirCoordenadas;
+            return this;
+        }
+    }
+
+    /**
+     * Quantidade de mercados com um valor de faceta.
+     */
+    public static final class Contagem {
+        static final Comparator<Contagem> ORDEM = Comparator
+                .comparingInt(Contagem::getQuantidade).reversed()
+                .thenComparing(Contagem::getValor)
+                .thenComparing(c -> c.estado != null ? c.estado : "");
+
+        private final String valor;
+        private final String estado;
+        private final int quantidade;
+
+        Contagem(String valor, String estado, int quantidade) {
+            this.valor = valor;
+            this.estado = estado;
+            this.quantidade = quantidade;
+        }
+
+        public String getValor() {
+            return valor;
+        }
+
+        /**
+         * UF da cidade (apenas na faceta de cidades)
+         */
+        public String getEstado() {
+            return estado;
+        }
+
+        public int getQuantidade() {
+            return quantidade;
+        }
+    }
+
+    /**
+     * Contagens de todas as facetas para uma consulta.
+     */
+    public static final class Resultado {
+        private final int total;
+        private final List<Contagem> estados;
+        private final List<Contagem> cidades;
+        private final int[] avaliacaoMinima;
+        private final int abertosAgora;
+
+        Resultado(int total, List<Contagem> estados, List<Contagem> cidades, int[] avaliacaoMinima, int abertosAgora) {
+            this.total = total;
+            this.estados = estados;
+            this.cidades = cidades;
+            this.avaliacaoMinima = avaliacaoMinima;
+            this.abertosAgora = abertosAgora;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public List<Contagem> getEstados() {
+            return estados;
+        }
+
+        public List<Contagem> getCidades() {
+            return cidades;
+        }
+
+        /**
+         * Quantidade de mercados com avaliação média de pelo menos {@code estrelas}.
+         *
+         * @param estrelas 0 a 5
+         * @return quantidade acumulada
+         */
+        public int getAvaliacaoMinima(int estrelas) {
+            return avaliacaoMinima[estrelas];
+        }
+
+        public int getAbertosAgora() {
+            return abertosAgora;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.netflix.mercado.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória com pontuação BM25.
+ *
+ * Cada documento é um conjunto de radicais com frequência ponderada (o peso do campo
+ * onde o termo aparece) e uma avaliação de 0 a 5. A busca exige todos os termos da
+ * consulta e mistura a relevância normalizada com a avaliação do documento.
+ * Leituras são concorrentes; escritas usam bloqueio exclusivo.
+ */
+public final class IndiceTextual {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private double somaComprimentos;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Normaliza, separa, remove stopwords e reduz ao radical.
+     *
+     * @param texto texto original
+     * @return radicais na ordem do texto
+     */
+    public static List<String> analisar(String texto) {
+        List<String> termos = new ArrayList<>();
+        for (String token : TextoUtils.tokenizar(texto)) {
+            if (!TextoUtils.isStopword(token)) {
+                termos.add(StemmerPortugues.reduzir(token));
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Inclui ou substitui um documento.
+     *
+     * @param id ID do documento
+     * @param termos radicais com frequência ponderada
+     * @param avaliacao avaliação do documento (0 a 5)
+     */
+    public void indexar(long id, Map<String, Float> termos, double avaliacao) {
+        lock.writeLock().lock();
+        try {
+            removerSemBloqueio(id);
+            float comprimento = 0f;
+            for (Map.Entry<String, Float> termo : termos.entrySet()) {
+                postings.computeIfAbsent(termo.getKey(), t -> new HashMap<>()).put(id, termo.getValue());
+                comprimento += termo.getValue();
+            }
+            documentos.put(id, new Documento(termos.keySet().toArray(new String[0]), comprimento, avaliacao));
+            somaComprimentos += comprimento;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um documento do índice.
+     *
+     * @param id ID do documento
+     */
+    public void remover(long id) {
+        lock.writeLock().lock();
+        try {
+            removerSemBloqueio(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca documentos que contêm todos os termos da consulta.
+     *
+     * @param consulta texto livre
+     * @param limite quantidade máxima de resultados
+     * @param pesoAvaliacao peso da avaliação na pontuação final (0 a 1)
+     * @return resultados ordenados pela pontuação final decrescente
+     */
+    public List<Resultado> buscar(String consulta, int limite, double pesoAvaliacao) {
+        Set<String> termos = new LinkedHashSet<>(analisar(consulta));
+        if (termos.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Resultado> resultados = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Float>> listas = new ArrayList<>(termos.size());
+            for (String termo : termos) {
+                Map<Long, Float> lista = postings.get(termo);
+                if (lista == null) {
+                    return Collections.emptyList();
+                }
+                listas.add(lista);
+            }
+            listas.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            int total = documentos.size();
+            double comprimentoMedio = somaComprimentos / Math.max(1, total);
+            double[] idf = new double[listas.size()];
+            for (int i = 0; i < listas.size(); i++) {
+                int df = listas.get(i).size();
+                idf[i] = Math.log(1.0 + (total - df + 0.5) / (df + 0.5));
+            }
+
+            candidatos:
+            for (Map.Entry<Long, Float> candidato : listas.get(0).entrySet()) {
+                long id = candidato.getKey();
+                Documento documento = documentos.get(id);
+                double normalizacao = K1 * (1 - B + B * documento.comprimento / comprimentoMedio);
+                double relevancia = 0;
+                for (int i = 0; i < listas.size(); i++) {
+                    Float tf = i == 0 ? candidato.getValue() : listas.get(i).get(id);
+                    if (tf == null) {
+                        continue candidatos;
+                    }
+                    relevancia += idf[i] * tf * (K1 + 1) / (tf + normalizacao);
+                }
+                resultados.add(new Resultado(id, relevancia, documento.avaliacao));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        double maiorRelevancia = 0;
+        for (Resultado resultado : resultados) {
+            maiorRelevancia = Math.max(maiorRelevancia, resultado.relevancia);
+        }
+        for (Resultado resultado : resultados) {
+            double relevanciaNormalizada = maiorRelevancia > 0 ? resultado.relevancia / maiorRelevancia : 0;
+            double avaliacaoNormalizada = Math.max(0, Math.min(5, resultado.avaliacao)) / 5.0;
+            resultado.pontuacao = (1 - pesoAvaliacao) * relevanciaNormalizada + pesoAvaliacao * avaliacaoNormalizada;
+        }
+        resultados.sort((a, b) -> a.pontuacao != b.pontuacao
+                ? Double.compare(b.pontuacao, a.pontuacao)
+                : Long.compare(a.id, b.id));
+        return resultados.size() > limite ? new ArrayList<>(resultados.subList(0, limite)) : resultados;
+    }
+
+    private void removerSemBloqueio(long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        somaComprimentos -= anterior.comprimento;
+        for (String termo : anterior.termos) {
+            Map<Long, Float> lista = postings.get(termo);
+            if (lista != null) {
+                lista.remove(id);
+                if (lista.isEmpty()) {
+                    postings.remove(termo);
+                }
+            }
+        }
+    }
+
+    private static final class Documento {
+        final String[] termos;
+        final float comprimento;
+        final double avaliacao;
+
+        Documento(String[] termos, float comprimento, double avaliacao) {
+            this.termos = termos;
+            this.comprimento = comprimento;
+            this.avaliacao = avaliacao;
+        }
+    }
+
+    /**
+     * Documento encontrado com sua relevância textual e pontuação final.
+     */
+    public static final class Resultado {
+        private final long id;
+        private final double relevancia;
+        private final double avaliacao;
+        private double pontuacao;
+
+        Resultado(long id, double relevancia, double avaliacao) {
+            this.id = id;
+            this.relevancia = relevancia;
+            this.avaliacao = avaliacao;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getRelevancia() {
+            return relevancia;
+        }
+
+        public double getPontuacao() {
+            return pontuacao;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.netflix.mercado.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fixo de locks indexado por chave (lock striping).
+ *
+ * Chaves diferentes podem compartilhar a mesma faixa, mas a mesma chave sempre usa a mesma,
+ * então escritas sobre uma mesma entidade ficam serializadas sem manter um lock por entidade.
+ * Quem precisa de várias faixas deve adquiri-las em ordem crescente de {@link #indice(long)}
+ * para evitar deadlock.
+ */
+public final class LocksListrados {
+
+    private final ReentrantLock[] faixas;
+    private final int mascara;
+
+    /**
+     * @param quantidade quantidade mínima de faixas (arredondada para potência de 2)
+     */
+    public LocksListrados(int quantidade) {
+        int tamanho = Integer.highestOneBit(Math.max(1, quantidade - 1)) << 1;
+        this.faixas = new ReentrantLock[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            faixas[i] = new ReentrantLock();
+        }
+        this.mascara = tamanho - 1;
+    }
+
+    /**
+     * Índice da faixa de uma chave, com espalhamento dos bits para que IDs sequenciais
+     * caiam em faixas diferentes.
+     *
+     * @param chave chave da entidade
+     * @return índice da faixa
+     */
+    public int indice(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    public ReentrantLock lock(long chave) {
+        return faixas[indice(chave)];
+    }
+
+    public ReentrantLock faixa(int indice) {
+        return faixas[indice];
+    }
+
+    public int tamanho() {
+        return faixas.length;
+    }
+}
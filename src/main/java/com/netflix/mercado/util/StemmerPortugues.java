@@ -0,0 +1,112 @@
+package com.netflix.mercado.util;
+
+/**
+ * Redutor leve de palavras em português (adaptado do "light stemmer" de Savoy).
+ * Remove plurais, formas femininas, diminutivos comuns e o sufixo "-mente",
+ * de modo que "mercados", "mercadinho" e "mercado" caiam no mesmo radical.
+ *
+ * Espera texto já normalizado por {@link TextoUtils#normalizar(String)} (minúsculo e sem acentos).
+ */
+public final class StemmerPortugues {
+
+    private StemmerPortugues() {
+    }
+
+    /**
+     * Reduz a palavra ao seu radical.
+     *
+     * @param palavra palavra normalizada
+     * @return radical
+     */
+    public static String reduzir(String palavra) {
+        if (palavra.length() < 4) {
+            return palavra;
+        }
+        StringBuilder s = new StringBuilder(palavra);
+        removerPlural(s);
+        if (s.length() > 3 && s.charAt(s.length() - 1) == 'a') {
+            normalizarFeminino(s);
+        }
+        normalizarDiminutivo(s);
+        if (s.length() > 4) {
+            char ultima = s.charAt(s.length() - 1);
+            if (ultima == 'e' || ultima == 'a' || ultima == 'o') {
+                s.setLength(s.length() - 1);
+            }
+        }
+        return s.toString();
+    }
+
+    private static void removerPlural(StringBuilder s) {
+        int n = s.length();
+        if (n > 6 && terminaCom(s, "mente")) {
+            s.setLength(n - 5);
+        } else if (n > 3 && (terminaCom(s, "oes") || terminaCom(s, "aes"))) {
+            s.setLength(n - 3);
+            s.append("ao");
+        } else if (n > 4 && terminaCom(s, "es") && "rslz".indexOf(s.charAt(n - 3)) >= 0) {
+            s.setLength(n - 2);
+        } else if (n > 3 && terminaCom(s, "ns")) {
+            s.setLength(n - 2);
+            s.append('m');
+        } else if (n > 4 && terminaCom(s, "eis")) {
+            s.setLength(n - 3);
+            s.append("el");
+        } else if (n > 4 && terminaCom(s, "ais")) {
+            s.setLength(n - 3);
+            s.append("al");
+        } else if (n > 4 && terminaCom(s, "ois")) {
+            s.setLength(n - 3);
+            s.append("ol");
+        } else if (n > 4 && terminaCom(s, "is")) {
+            s.setCharAt(n - 1, 'l');
+        } else if (n > 3 && s.charAt(n - 1) == 's') {
+            s.setLength(n - 1);
+        }
+    }
+
+    private static void normalizarFeminino(StringBuilder s) {
+        int n = s.length();
+        if (n > 7 && (terminaCom(s, "inha") || terminaCom(s, "iaca") || terminaCom(s, "eira"))) {
+            s.setCharAt(n - 1, 'o');
+        } else if (n > 6) {
+            if (terminaCom(s, "osa") || terminaCom(s, "ica") || terminaCom(s, "ida")
+                    || terminaCom(s, "ada") || terminaCom(s, "iva") || terminaCom(s, "ama")) {
+                s.setCharAt(n - 1, 'o');
+            } else if (terminaCom(s, "ona")) {
+                s.setLength(n - 3);
+                s.append("ao");
+            } else if (terminaCom(s, "ora")) {
+                s.setLength(n - 1);
+            } else if (terminaCom(s, "esa")) {
+                s.setLength(n - 1);
+            } else if (terminaCom(s, "na")) {
+                s.setCharAt(n - 1, 'o');
+            }
+        }
+    }
+
+    private static void normalizarDiminutivo(StringBuilder s) {
+        int n = s.length();
+        if (n > 7 && terminaCom(s, "zinho")) {
+            s.setLength(n - 5);
+            s.append('o');
+        } else if (n > 6 && terminaCom(s, "inho")) {
+            s.setLength(n - 4);
+            s.append('o');
+        }
+    }
+
+    private static boolean terminaCom(StringBuilder s, String sufixo) {
+        int inicio = s.length() - sufixo.length();
+        if (inicio < 0) {
+            return false;
+        }
+        for (int i = 0; i < sufixo.length(); i++) {
+            if (s.charAt(inicio + i) != sufixo.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
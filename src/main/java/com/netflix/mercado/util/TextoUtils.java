@@ -0,0 +1,67 @@
+package com.netflix.mercado.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto para buscas: minúsculas, sem acentos e separado em palavras.
+ * "São Paulo" e "sao paulo" produzem os mesmos termos.
+ */
+public final class TextoUtils {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Palavras muito frequentes em português que não ajudam a distinguir mercados
+     */
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos", "em", "na", "no", "nas", "nos",
+            "um", "uma", "para", "por", "com", "ao", "aos", "que", "se");
+
+    private TextoUtils() {
+    }
+
+    /**
+     * Converte para minúsculas e remove acentos.
+     *
+     * @param texto texto original
+     * @return texto normalizado (vazio se nulo)
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(decomposto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normaliza e separa o texto em palavras alfanuméricas.
+     *
+     * @param texto texto original
+     * @return palavras normalizadas, na ordem em que aparecem
+     */
+    public static List<String> tokenizar(String texto) {
+        String normalizado = normalizar(texto);
+        List<String> tokens = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                tokens.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static boolean isStopword(String token) {
+        return STOPWORDS.contains(token);
+    }
+}
@@ -0,0 +1,100 @@
+package com.netflix.mercado.util;
+
+/**
+ * Utilitários de tiles do mapa na projeção Web Mercator (esquema z/x/y dos mapas web).
+ * Cada tile de zoom z cobre 1/2^z da largura do mundo; dentro do tile as coordenadas
+ * são normalizadas em [0, 1) para agrupar mercados em células de uma grade fixa.
+ */
+public final class TileMapa {
+
+    /**
+     * Latitude máxima representável na projeção Web Mercator
+     */
+    public static final double LATITUDE_MAXIMA = 85.0511287798;
+
+    private TileMapa() {
+    }
+
+    /**
+     * Quantidade de tiles por eixo no zoom informado.
+     *
+     * @param zoom nível de zoom
+     * @return 2^zoom
+     */
+    public static int tilesPorEixo(int zoom) {
+        return 1 << zoom;
+    }
+
+    /**
+     * Converte longitude em coordenada X contínua (em tiles) no zoom informado.
+     *
+     * @param longitude longitude em graus
+     * @param zoom nível de zoom
+     * @return coordenada X em tiles
+     */
+    public static double xContinuo(double longitude, int zoom) {
+        double x = (longitude + 180.0) / 360.0 * tilesPorEixo(zoom);
+        return limitar(x, zoom);
+    }
+
+    /**
+     * Converte latitude em coordenada Y contínua (em tiles) no zoom informado.
+     *
+     * @param latitude latitude em graus
+     * @param zoom nível de zoom
+     * @return coordenada Y em tiles (0 no norte)
+     */
+    public static double yContinuo(double latitude, int zoom) {
+        double lat = Math.toRadians(Math.max(-LATITUDE_MAXIMA, Math.min(LATITUDE_MAXIMA, latitude)));
+        double y = (1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0 * tilesPorEixo(zoom);
+        return limitar(y, zoom);
+    }
+
+    public static int tileX(double longitude, int zoom) {
+        return (int) xContinuo(longitude, zoom);
+    }
+
+    public static int tileY(double latitude, int zoom) {
+        return (int) yContinuo(latitude, zoom);
+    }
+
+    /**
+     * Longitude da borda oeste do tile.
+     *
+     * @param x coluna do tile
+     * @param zoom nível de zoom
+     * @return longitude em graus
+     */
+    public static double longitudeOeste(int x, int zoom) {
+        return x / (double) tilesPorEixo(zoom) * 360.0 - 180.0;
+    }
+
+    /**
+     * Latitude da borda norte do tile.
+     *
+     * @param y linha do tile
+     * @param zoom nível de zoom
+     * @return latitude em graus
+     */
+    public static double latitudeNorte(int y, int zoom) {
+        double n = Math.PI * (1.0 - 2.0 * y / tilesPorEixo(zoom));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    /**
+     * Codifica zoom e posição do tile em uma única chave.
+     *
+     * @param zoom nível de zoom (até 29)
+     * @param x coluna do tile
+     * @param y linha do tile
+     * @return chave do tile
+     */
+    public static long chave(int zoom, int x, int y) {
+        return ((long) zoom << 58) | ((long) x << 29) | y;
+    }
+
+    private static double limitar(double valor, int zoom) {
+        double maximo = Math.nextDown((double) tilesPorEixo(zoom));
+        return Math.max(0.0, Math.min(maximo, valor));
+    }
+}
@@ -0,0 +1,52 @@
+package com.netflix.mercado.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilitários para sincronizar estruturas em memória com o ciclo de vida da transação.
+ */
+public final class TransacaoUtils {
+
+    private TransacaoUtils() {
+    }
+
+    /**
+     * Executa a ação somente após o commit da transação corrente, para que índices
+     * em memória nunca reflitam escritas que sofreram rollback.
+     * Sem transação ativa, executa imediatamente.
+     *
+     * @param acao ação a executar
+     */
+    public static void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    /**
+     * Executa a ação se a transação corrente sofrer rollback, para desfazer em memória
+     * o que foi feito por ela. Sem transação ativa, não faz nada.
+     *
+     * @param acao ação a executar
+     */
+    public static void executarAposRollback(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        acao.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.netflix.mercado.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trie de prefixos para autocompletar, com as K entradas mais pesadas guardadas em cada nó.
+ *
+ * Cada entrada é inserida pelo texto completo e pelo início de cada palavra, então
+ * "Supermercado Central" aparece tanto para "sup" quanto para "cen". Consultar um prefixo
+ * é percorrer seus caracteres e devolver a lista já ordenada do nó; inclusões e remoções
+ * recalculam apenas os nós do caminho. Leituras são concorrentes; escritas usam bloqueio exclusivo.
+ */
+public final class TriePrefixos {
+
+    /**
+     * Quantidade de entradas guardadas em cada nó
+     */
+    public static final int K_MAXIMO = 10;
+
+    /**
+     * Tamanho máximo de chave indexada
+     */
+    static final int TAMANHO_MAXIMO_CHAVE = 40;
+
+    private static final Comparator<Entrada> POR_PESO = Comparator
+            .comparingLong(Entrada::getPeso).reversed()
+            .thenComparing(Entrada::getChave)
+            .thenComparing(Entrada::getIdentidade);
+
+    private static final Entrada[] VAZIO = new Entrada[0];
+
+    private final No raiz = new No();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constrói a trie de uma vez, calculando as listas de cada nó em uma única passada.
+     *
+     * @param entradas entradas iniciais
+     * @return trie construída
+     */
+    public static TriePrefixos construir(Collection<Entrada> entradas) {
+        TriePrefixos trie = new TriePrefixos();
+        for (Entrada entrada : entradas) {
+            for (String chave : chaves(entrada.getChave())) {
+                trie.caminho(chave, true).get(chave.length()).adicionarEntrada(entrada);
+            }
+        }
+        recalcularSubarvore(trie.raiz);
+        return trie;
+    }
+
+    /**
+     * Inclui uma entrada.
+     *
+     * @param entrada entrada a incluir
+     */
+    public void adicionar(Entrada entrada) {
+        lock.writeLock().lock();
+        try {
+            for (String chave : chaves(entrada.getChave())) {
+                List<No> caminho = caminho(chave, true);
+                caminho.get(caminho.size() - 1).adicionarEntrada(entrada);
+                recalcularCaminho(caminho);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove uma entrada (comparada por tipo e identidade). A chave de busca precisa ser
+     * a mesma usada na inclusão.
+     *
+     * @param entrada entrada a remover
+     */
+    public void remover(Entrada entrada) {
+        lock.writeLock().lock();
+        try {
+            for (String chave : chaves(entrada.getChave())) {
+                List<No> caminho = caminho(chave, false);
+                if (caminho == null) {
+                    continue;
+                }
+                caminho.get(caminho.size() - 1).removerEntrada(entrada);
+                podar(caminho, chave);
+                recalcularCaminho(caminho);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna as entradas mais pesadas que começam com o prefixo.
+     *
+     * @param prefixo texto digitado
+     * @param k quantidade máxima (até {@link #K_MAXIMO})
+     * @return entradas em ordem decrescente de peso
+     */
+    public List<Entrada> buscar(String prefixo, int k) {
+        String chave = normalizarChave(prefixo);
+        if (chave.isEmpty() || k <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            No no = raiz;
+            for (int i = 0; i < chave.length() && no != null; i++) {
+                no = no.filho(chave.charAt(i));
+            }
+            if (no == null) {
+                return Collections.emptyList();
+            }
+            Entrada[] melhores = no.melhores;
+            return Arrays.asList(Arrays.copyOf(melhores, Math.min(k, melhores.length)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza um texto para chave: minúsculo, sem acentos e com espaços simples.
+     *
+     * @param texto texto original
+     * @return chave normalizada
+     */
+    public static String normalizarChave(String texto) {
+        String chave = String.join(" ", TextoUtils.tokenizar(texto));
+        return chave.length() > TAMANHO_MAXIMO_CHAVE ? chave.substring(0, TAMANHO_MAXIMO_CHAVE) : chave;
+    }
+
+    /**
+     * Chaves de uma entrada: o texto completo e cada sufixo que começa em uma palavra.
+     */
+    private static Set<String> chaves(String chave) {
+        Set<String> chaves = new LinkedHashSet<>();
+        chaves.add(chave);
+        for (int i = 0; i < chave.length(); i++) {
+            if (chave.charAt(i) == ' ' && i + 1 < chave.length()) {
+                chaves.add(chave.substring(i + 1));
+            }
+        }
+        return chaves;
+    }
+
+    /**
+     * Nós do caminho da raiz até o fim da chave (inclusive).
+     */
+    private List<No> caminho(String chave, boolean criar) {
+        List<No> caminho = new ArrayList<>(chave.length() + 1);
+        No no = raiz;
+        caminho.add(no);
+        for (int i = 0; i < chave.length(); i++) {
+            No proximo = no.filho(chave.charAt(i));
+            if (proximo == null) {
+                if (!criar) {
+                    return null;
+                }
+                proximo = no.criarFilho(chave.charAt(i));
+            }
+            no = proximo;
+            caminho.add(no);
+        }
+        return caminho;
+    }
+
+    private static void podar(List<No> caminho, String chave) {
+        for (int i = caminho.size() - 1; i > 0; i--) {
+            No no = caminho.get(i);
+            if (no.entradas.length > 0 || no.filhos.length > 0) {
+                return;
+            }
+            caminho.get(i - 1).removerFilho(chave.charAt(i - 1));
+        }
+    }
+
+    private static void recalcularCaminho(List<No> caminho) {
+        for (int i = caminho.size() - 1; i >= 0; i--) {
+            caminho.get(i).recalcular();
+        }
+    }
+
+    private static void recalcularSubarvore(No raiz) {
+        List<No> ordem = new ArrayList<>();
+        List<No> pilha = new ArrayList<>();
+        pilha.add(raiz);
+        while (!pilha.isEmpty()) {
+            No no = pilha.remove(pilha.size() - 1);
+            ordem.add(no);
+            pilha.addAll(Arrays.asList(no.filhos));
+        }
+        for (int i = ordem.size() - 1; i >= 0; i--) {
+            ordem.get(i).recalcular();
+        }
+    }
+
+    private static final class No {
+        char[] letras = new char[0];
+        No[] filhos = new No[0];
+        Entrada[] entradas = VAZIO;
+        Entrada[] melhores = VAZIO;
+
+        No filho(char letra) {
+            int pos = Arrays.binarySearch(letras, letra);
+            return pos >= 0 ? filhos[pos] : null;
+        }
+
+        No criarFilho(char letra) {
+            int pos = -(Arrays.binarySearch(letras, letra) + 1);
+            char[] novasLetras = new char[letras.length + 1];
+            No[] novosFilhos = new No[filhos.length + 1];
+            System.arraycopy(letras, 0, novasLetras, 0, pos);
+            System.arraycopy(filhos, 0, novosFilhos, 0, pos);
+            novasLetras[pos] = letra;
+            novosFilhos[pos] = new No();
+            System.arraycopy(letras, pos, novasLetras, pos + 1, letras.length - pos);
+            System.arraycopy(filhos, pos, novosFilhos, pos + 1, filhos.length - pos);
+            letras = novasLetras;
+            filhos = novosFilhos;
+            return novosFilhos[pos];
+        }
+
+        void removerFilho(char letra) {
+            int pos = Arrays.binarySearch(letras, letra);
+            if (pos < 0) {
+                return;
+            }
+            char[] novasLetras = new char[letras.length - 1];
+            No[] novosFilhos = new No[filhos.length - 1];
+            System.arraycopy(letras, 0, novasLetras, 0, pos);
+            System.arraycopy(filhos, 0, novosFilhos, 0, pos);
+            System.arraycopy(letras, pos + 1, novasLetras, pos, letras.length - pos - 1);
+            System.arraycopy(filhos, pos + 1, novosFilhos, pos, filhos.length - pos - 1);
+            letras = novasLetras;
+            filhos = novosFilhos;
+        }
+
+        void adicionarEntrada(Entrada entrada) {
+            removerEntrada(entrada);
+            entradas = Arrays.copyOf(entradas, entradas.length + 1);
+            entradas[entradas.length - 1] = entrada;
+        }
+
+        void removerEntrada(Entrada entrada) {
+            for (int i = 0; i < entradas.length; i++) {
+                if (entradas[i].equals(entrada)) {
+                    Entrada[] novas = new Entrada[entradas.length - 1];
+                    System.arraycopy(entradas, 0, novas, 0, i);
+                    System.arraycopy(entradas, i + 1, novas, i, entradas.length - i - 1);
+                    entradas = novas;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Junta as entradas do nó com as listas dos filhos e guarda as K mais pesadas.
+         */
+        void recalcular() {
+            List<Entrada> candidatas = new ArrayList<>(entradas.length + filhos.length * K_MAXIMO);
+            Collections.addAll(candidatas, entradas);
+            for (No filho : filhos) {
+                Collections.addAll(candidatas, filho.melhores);
+            }
+            candidatas.sort(POR_PESO);
+            List<Entrada> melhores = new ArrayList<>(K_MAXIMO);
+            Set<Entrada> vistas = new HashSet<>();
+            for (Entrada entrada : candidatas) {
+                if (vistas.add(entrada)) {
+                    melhores.add(entrada);
+                    if (melhores.size() == K_MAXIMO) {
+                        break;
+                    }
+                }
+            }
+            this.melhores = melhores.toArray(VAZIO);
+        }
+    }
+
+    /**
+     * Sugestão imutável; a identidade é o par (tipo, identidade), independente do peso.
+     */
+    public static final class Entrada {
+        private final String tipo;
+        private final String identidade;
+        private final String chave;
+        private final String texto;
+        private final String detalhe;
+        private final Long referenciaId;
+        private final long peso;
+
+        /**
+         * @param tipo tipo da sugestão
+         * @param identidade texto que identifica a entrada dentro do tipo
+         * @param texto texto exibido (a chave de busca é derivada dele)
+         * @param detalhe complemento exibido, não indexado (opcional)
+         * @param referenciaId ID da entidade sugerida (opcional)
+         * @param peso peso para ordenação
+         */
+        public Entrada(String tipo, String identidade, String texto, String detalhe, Long referenciaId, long peso) {
+            this.tipo = tipo;
+            this.identidade = identidade;
+            this.chave = normalizarChave(texto);
+            this.texto = texto;
+            this.detalhe = detalhe;
+            this.referenciaId = referenciaId;
+            this.peso = peso;
+        }
+
+        public String getTipo() {
+            return tipo;
+        }
+
+        public String getIdentidade() {
+            return identidade;
+        }
+
+        public String getChave() {
+            return chave;
+        }
+
+        public String getTexto() {
+            return texto;
+        }
+
+        public String getDetalhe() {
+            return detalhe;
+        }
+
+        public Long getReferenciaId() {
+            return referenciaId;
+        }
+
+        public long getPeso() {
+            return peso;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entrada)) {
+                return false;
+            }
+            Entrada outra = (Entrada) o;
+            return tipo.equals(outra.tipo) && identidade.equals(outra.identidade);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tipo, identidade);
+        }
+    }
+}
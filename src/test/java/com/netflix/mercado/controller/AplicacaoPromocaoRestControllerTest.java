@@ -2,11 +2,12 @@ package com.netflix.mercado.controller;
 
 import com.netflix.mercado.dto.promocao.AplicarPromocaoRequest;
 import com.netflix.mercado.dto.promocao.AplicarPromocaoResponse;
+import com.netflix.mercado.dto.promocao.PromocaoInstantanea;
 import com.netflix.mercado.entity.Promocao;
 import com.netflix.mercado.entity.User;
-import com.netflix.mercado.repository.PromocaoRepository;
 import com.netflix.mercado.security.UserPrincipal;
 import com.netflix.mercado.service.AplicacaoPromocaoService;
+import com.netflix.mercado.service.PromocaoCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,7 +37,7 @@ class AplicacaoPromocaoRestControllerTest {
     private AplicacaoPromocaoService aplicacaoPromocaoService;
 
     @Mock
-    private PromocaoRepository promocaoRepository;
+    private PromocaoCacheService promocaoCacheService;
 
     @Mock
     private SecurityContext securityContext;
@@ -150,7 +151,7 @@ class AplicacaoPromocaoRestControllerTest {
     @DisplayName("Deve validar promoção válida com sucesso")
     void testValidarPromocao_Valid() {
         // Arrange
-        when(promocaoRepository.findByCodigo("PROMO10")).thenReturn(Optional.of(testPromocao));
+        when(promocaoCacheService.buscarPorCodigo("PROMO10")).thenReturn(Optional.of(PromocaoInstantanea.de(testPromocao)));
 
         // Act
         ResponseEntity<?> response = controller.validarPromocao("PROMO10");
@@ -159,14 +160,14 @@ class AplicacaoPromocaoRestControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
 
-        verify(promocaoRepository, times(1)).findByCodigo("PROMO10");
+        verify(promocaoCacheService, times(1)).buscarPorCodigo("PROMO10");
     }
 
     @Test
     @DisplayName("Deve retornar inválido quando promoção não encontrada")
     void testValidarPromocao_NotFound() {
         // Arrange
-        when(promocaoRepository.findByCodigo("INVALIDA")).thenReturn(Optional.empty());
+        when(promocaoCacheService.buscarPorCodigo("INVALIDA")).thenReturn(Optional.empty());
 
         // Act
         ResponseEntity<?> response = controller.validarPromocao("INVALIDA");
@@ -175,7 +176,7 @@ class AplicacaoPromocaoRestControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
 
-        verify(promocaoRepository, times(1)).findByCodigo("INVALIDA");
+        verify(promocaoCacheService, times(1)).buscarPorCodigo("INVALIDA");
         verifyNoInteractions(aplicacaoPromocaoService);
     }
 
@@ -189,7 +190,7 @@ class AplicacaoPromocaoRestControllerTest {
         promocaoExpirada.setDataValidade(LocalDateTime.now().minusDays(1)); // Expirada
         promocaoExpirada.setAtiva(false);
 
-        when(promocaoRepository.findByCodigo("PROMO10")).thenReturn(Optional.of(promocaoExpirada));
+        when(promocaoCacheService.buscarPorCodigo("PROMO10")).thenReturn(Optional.of(PromocaoInstantanea.de(promocaoExpirada)));
 
         // Act
         ResponseEntity<?> response = controller.validarPromocao("PROMO10");
@@ -198,7 +199,7 @@ class AplicacaoPromocaoRestControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
 
-        verify(promocaoRepository, times(1)).findByCodigo("PROMO10");
+        verify(promocaoCacheService, times(1)).buscarPorCodigo("PROMO10");
     }
 
     @Test
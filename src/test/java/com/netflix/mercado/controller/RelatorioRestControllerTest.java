@@ -1,6 +1,7 @@
 package com.netflix.mercado.controller;
 
 import com.netflix.mercado.dto.relatorio.*;
+import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.service.RelatorioService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -186,7 +187,7 @@ class RelatorioRestControllerTest {
         when(relatorioService.gerarRankingMercados(20)).thenReturn(testRanking);
 
         // Act
-        ResponseEntity<List<RankingMercadoResponse>> response = controller.ranking(20);
+        ResponseEntity<List<RankingMercadoResponse>> response = controller.ranking(20, null, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -259,7 +260,7 @@ class RelatorioRestControllerTest {
         when(relatorioService.gerarRankingMercados(5)).thenReturn(testRanking.subList(0, 1));
 
         // Act
-        ResponseEntity<List<RankingMercadoResponse>> response = controller.ranking(5);
+        ResponseEntity<List<RankingMercadoResponse>> response = controller.ranking(5, null, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -267,4 +268,34 @@ class RelatorioRestControllerTest {
 
         verify(relatorioService, times(1)).gerarRankingMercados(5);
     }
+
+    @Test
+    @DisplayName("Deve gerar ranking por cidade")
+    void testRanking_PorCidade() {
+        // Arrange
+        when(relatorioService.gerarRankingMercados(10, "SP", "São Paulo")).thenReturn(testRanking);
+
+        // Act
+        ResponseEntity<List<RankingMercadoResponse>> response = controller.ranking(10, "SP", "São Paulo");
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(2);
+
+        verify(relatorioService, never()).gerarRankingMercados(anyInt());
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 no ranking por cidade sem estado")
+    void testRanking_CidadeSemEstado() {
+        // Arrange
+        when(relatorioService.gerarRankingMercados(10, null, "Campinas"))
+                .thenThrow(new ValidationException("Informe o estado para o ranking por cidade"));
+
+        // Act
+        ResponseEntity<List<RankingMercadoResponse>> response = controller.ranking(10, null, "Campinas");
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
 }
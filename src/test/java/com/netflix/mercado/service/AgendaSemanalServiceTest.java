@@ -0,0 +1,112 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.HorarioFuncionamento;
+import com.netflix.mercado.entity.HorarioFuncionamento.DiaSemana;
+import com.netflix.mercado.repository.HorarioFuncionamentoRepository;
+import com.netflix.mercado.util.AgendaSemanal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AgendaSemanalService - Testes Unitários")
+class AgendaSemanalServiceTest {
+
+    @Mock
+    private HorarioFuncionamentoRepository horarioRepository;
+
+    @InjectMocks
+    private AgendaSemanalService agendaSemanalService;
+
+    @Test
+    @DisplayName("Deve considerar início inclusivo e fim exclusivo")
+    void testLimitesDoPeriodo() {
+        // Arrange
+        AgendaSemanal agenda = AgendaSemanalService.compilar(List.of(
+                horario(DiaSemana.SEGUNDA, "08:00", "18:00", true)));
+
+        // Assert
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SEGUNDA, "07:59"))).isFalse();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SEGUNDA, "08:00"))).isTrue();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SEGUNDA, "17:59"))).isTrue();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SEGUNDA, "18:00"))).isFalse();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.TERCA, "10:00"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve estender períodos noturnos para o dia seguinte, inclusive de domingo para segunda")
+    void testPeriodoNoturno() {
+        // Arrange
+        AgendaSemanal agenda = AgendaSemanalService.compilar(Arrays.asList(
+                horario(DiaSemana.SEXTA, "22:00", "02:00", true),
+                horario(DiaSemana.DOMINGO, "20:00", "01:00", true)));
+
+        // Assert
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SEXTA, "23:30"))).isTrue();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SABADO, "01:59"))).isTrue();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SABADO, "02:00"))).isFalse();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.DOMINGO, "23:59"))).isTrue();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SEGUNDA, "00:30"))).isTrue();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.SEGUNDA, "01:00"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar dias marcados como fechados")
+    void testDiaFechado() {
+        // Arrange
+        AgendaSemanal agenda = AgendaSemanalService.compilar(List.of(
+                horario(DiaSemana.QUARTA, "08:00", "18:00", false)));
+
+        // Assert
+        assertThat(agenda.isVazia()).isTrue();
+        assertThat(agenda.estaAberto(minuto(DiaSemana.QUARTA, "10:00"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve construir as agendas a partir do banco e recompilar um mercado")
+    void testReconstruirERecompilar() {
+        // Arrange
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{1L, DiaSemana.SEGUNDA, LocalTime.of(8, 0), LocalTime.of(12, 0)});
+        linhas.add(new Object[]{1L, DiaSemana.SEGUNDA, LocalTime.of(11, 0), LocalTime.of(18, 0)});
+        linhas.add(new Object[]{2L, DiaSemana.TERCA, LocalTime.of(8, 0), LocalTime.of(18, 0)});
+        when(horarioRepository.findPeriodosAbertos()).thenReturn(linhas);
+        when(horarioRepository.findByMercadoId(2L)).thenReturn(new ArrayList<>());
+
+        // Act
+        agendaSemanalService.reconstruirAgendas();
+
+        // Assert
+        assertThat(agendaSemanalService.estaAberto(1L, minuto(DiaSemana.SEGUNDA, "15:00"))).isTrue();
+        assertThat(agendaSemanalService.estaAberto(2L, minuto(DiaSemana.TERCA, "09:00"))).isTrue();
+        assertThat(agendaSemanalService.estaAberto(3L, minuto(DiaSemana.TERCA, "09:00"))).isFalse();
+
+        // Mercado 2 teve todos os horários removidos
+        agendaSemanalService.recompilar(2L);
+        assertThat(agendaSemanalService.estaAberto(2L, minuto(DiaSemana.TERCA, "09:00"))).isFalse();
+    }
+
+    private static HorarioFuncionamento horario(DiaSemana dia, String abertura, String fechamento, boolean aberto) {
+        HorarioFuncionamento horario = new HorarioFuncionamento();
+        horario.setDiaSemana(dia);
+        horario.setHoraAbertura(LocalTime.parse(abertura));
+        horario.setHoraFechamento(LocalTime.parse(fechamento));
+        horario.setAberto(aberto);
+        return horario;
+    }
+
+    private static int minuto(DiaSemana dia, String hora) {
+        return AgendaSemanal.minutoDaSemana(dia.getNumero(), LocalTime.parse(hora));
+    }
+}
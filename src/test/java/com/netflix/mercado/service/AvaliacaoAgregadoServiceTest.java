@@ -0,0 +1,177 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.avaliacao.RatingStatsResponse;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.repository.MercadoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.InOrder;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AvaliacaoAgregadoService - Testes Unitários")
+class AvaliacaoAgregadoServiceTest {
+
+    @Mock
+    private MercadoRepository mercadoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MercadoService mercadoService;
+
+    @InjectMocks
+    private AvaliacaoAgregadoService agregadoService;
+
+    @Test
+    @DisplayName("Deve aplicar o delta de criação, troca de estrelas e exclusão")
+    void testDeltasSemTransacao() {
+        // Act
+        agregadoService.registrar(1L, null, 5);
+        agregadoService.registrar(1L, 5, 3);
+        agregadoService.registrar(1L, 3, null);
+
+        // Assert
+        verify(mercadoRepository).aplicarDeltaAvaliacoes(1L, 1, 5, 0, 0, 0, 0, 1);
+        verify(mercadoRepository).aplicarDeltaAvaliacoes(1L, 0, -2, 0, 0, 1, 0, -1);
+        verify(mercadoRepository).aplicarDeltaAvaliacoes(1L, -1, -3, 0, 0, -1, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Não deve escrever quando as estrelas não mudam")
+    void testSemAlteracao() {
+        // Act
+        agregadoService.registrar(1L, 4, 4);
+
+        // Assert
+        verifyNoInteractions(mercadoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve somar os deltas da transação em um UPDATE por mercado antes do commit")
+    void testDeltasNaTransacao() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            agregadoService.registrar(2L, null, 4);
+            agregadoService.registrar(1L, null, 5);
+            agregadoService.registrar(2L, null, 2);
+            agregadoService.registrar(1L, 5, null);
+            verifyNoInteractions(mercadoRepository);
+            List<TransactionSynchronization> sincronizacoes = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+            sincronizacoes.forEach(s -> s.beforeCommit(false));
+            sincronizacoes.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            // Assert - o mercado 1 voltou ao estado anterior e não é escrito
+            verify(mercadoRepository).aplicarDeltaAvaliacoes(2L, 2, 6, 0, 1, 0, 1, 0);
+            verifyNoMoreInteractions(mercadoRepository);
+            verify(mercadoService).sincronizarAvaliacoes(List.of(2L));
+            assertThat(TransactionSynchronizationManager.getResource(agregadoService)).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve montar as estatísticas a partir de uma linha de agregados")
+    void testEstatisticas() {
+        // Arrange
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{8L, 31L, 0L, 1L, 1L, 3L, 3L});
+        when(mercadoRepository.findAgregadoAvaliacoes(1L)).thenReturn(linhas);
+
+        // Act
+        RatingStatsResponse result = agregadoService.estatisticas(1L);
+
+        // Assert
+        assertThat(result.getTotalAvaliacoes()).isEqualTo(8);
+        assertThat(result.getMediaAvaliacoes()).isEqualTo(3.88);
+        assertThat(result.getCincoEstrelas()).isEqualTo(3L);
+        assertThat(result.getUmEstrela()).isZero();
+        assertThat(result.getPercentualAprovacao()).isEqualTo(75.0);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando o mercado não existe")
+    void testEstatisticasMercadoInexistente() {
+        // Arrange
+        when(mercadoRepository.findAgregadoAvaliacoes(anyLong())).thenReturn(new ArrayList<>());
+
+        // Act & Assert
+        assertThatThrownBy(() -> agregadoService.estatisticas(99L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Deve recalcular os agregados divergentes antes de preencher a pontuação na inicialização")
+    void testRecalculoNaInicializacao() {
+        // Arrange
+        when(mercadoRepository.recalcularAgregadosDivergentes()).thenReturn(3);
+
+        // Act
+        agregadoService.afterSingletonsInstantiated();
+
+        // Assert
+        InOrder ordem = inOrder(mercadoRepository, transactionManager);
+        ordem.verify(transactionManager).getTransaction(any());
+        ordem.verify(mercadoRepository).recalcularAgregadosDivergentes();
+        ordem.verify(mercadoRepository).preencherPontuacaoRanking();
+        ordem.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Deve esperar o commit de um delta pendente do mesmo mercado antes de recontar")
+    void testRecalculoEsperaDeltaPendente() throws Exception {
+        // Arrange
+        when(mercadoRepository.recalcularAgregadoAvaliacoes(2L)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            agregadoService.registrar(2L, null, 4);
+            List<TransactionSynchronization> sincronizacoes = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+            sincronizacoes.forEach(s -> s.beforeCommit(false));
+
+            // Act - a faixa do mercado 2 está com a transação do delta
+            CompletableFuture<Void> recalculo = CompletableFuture.runAsync(() -> agregadoService.recalcular(2L));
+            Thread.sleep(200);
+            assertThat(recalculo).isNotDone();
+            verify(mercadoRepository, never()).recalcularAgregadoAvaliacoes(anyLong());
+            sincronizacoes.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            recalculo.get(5, TimeUnit.SECONDS);
+
+            // Assert
+            InOrder ordem = inOrder(mercadoRepository, transactionManager);
+            ordem.verify(mercadoRepository).aplicarDeltaAvaliacoes(2L, 1, 4, 0, 0, 0, 1, 0);
+            ordem.verify(transactionManager).getTransaction(any());
+            ordem.verify(mercadoRepository).recalcularAgregadoAvaliacoes(2L);
+            ordem.verify(transactionManager).commit(any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao recontar mercado inexistente")
+    void testRecalculoMercadoInexistente() {
+        // Act & Assert
+        assertThatThrownBy(() -> agregadoService.recalcular(99L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(mercadoService, never()).sincronizarAvaliacoes(any());
+    }
+}
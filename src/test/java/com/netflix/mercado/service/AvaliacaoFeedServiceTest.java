@@ -0,0 +1,97 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.avaliacao.AvaliacaoFeedResponse;
+import com.netflix.mercado.dto.common.PageResponse;
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.repository.AvaliacaoRepository;
+import com.netflix.mercado.repository.ComentarioRepository;
+import com.netflix.mercado.repository.MercadoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AvaliacaoFeedService - Testes Unitários")
+class AvaliacaoFeedServiceTest {
+
+    @Mock
+    private AvaliacaoRepository avaliacaoRepository;
+
+    @Mock
+    private ComentarioRepository comentarioRepository;
+
+    @Mock
+    private MercadoRepository mercadoRepository;
+
+    @Mock
+    private ContadorVotosService contadorVotosService;
+
+    @InjectMocks
+    private AvaliacaoFeedService avaliacaoFeedService;
+
+    private static Object[] avaliacao(long id, long usuarioId, LocalDateTime criadaEm) {
+        return new Object[]{id, 4, "Muito bom", 3L, criadaEm, criadaEm, usuarioId, "Autor " + usuarioId,
+                "autor" + usuarioId + "@example.com", null, 1L, "Mercado Central"};
+    }
+
+    @Test
+    @DisplayName("Deve montar o feed com uma consulta de página, uma de contagem e uma de destaques")
+    void testListarFeed() {
+        // Arrange
+        LocalDateTime agora = LocalDateTime.of(2024, 6, 1, 12, 0);
+        when(avaliacaoRepository.findFeedByMercadoId(eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(avaliacao(20L, 7L, agora), avaliacao(10L, 8L, agora.minusDays(1))),
+                        PageRequest.of(0, 2), true));
+        when(comentarioRepository.countAtivosPorAvaliacao(List.of(20L, 10L)))
+                .thenReturn(List.<Object[]>of(new Object[]{20L, 5L}));
+        when(comentarioRepository.findDestaquesPorAvaliacoes(List.of(20L, 10L), 2))
+                .thenReturn(List.of(
+                        new Object[]{100L, 20L, "Concordo", 4L, Timestamp.valueOf(agora), 9L, "Leitor", null},
+                        new Object[]{101L, 20L, "Também acho", 1L, Timestamp.valueOf(agora), 8L, "Autor 8", null}));
+
+        // Act
+        PageResponse<AvaliacaoFeedResponse> feed = avaliacaoFeedService.listarFeed(1L, null, 2);
+
+        // Assert
+        assertThat(feed.getConteudo()).hasSize(2);
+        AvaliacaoFeedResponse primeira = feed.getConteudo().get(0);
+        assertThat(primeira.getAvaliacao().getId()).isEqualTo(20L);
+        assertThat(primeira.getAutor().getNome()).isEqualTo("Autor 7");
+        assertThat(primeira.getTotalComentarios()).isEqualTo(5L);
+        assertThat(primeira.getRespostasEmDestaque()).extracting(r -> r.getId()).containsExactly(100L, 101L);
+        AvaliacaoFeedResponse segunda = feed.getConteudo().get(1);
+        assertThat(segunda.getTotalComentarios()).isZero();
+        assertThat(segunda.getRespostasEmDestaque()).isEmpty();
+        assertThat(feed.getProximoCursor()).isNotNull();
+        verifyNoInteractions(mercadoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando o mercado do feed não existe")
+    void testListarFeedMercadoInexistente() {
+        // Arrange
+        when(avaliacaoRepository.findFeedByMercadoId(eq(99L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, 20), false));
+        when(mercadoRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> avaliacaoFeedService.listarFeed(99L, null, 20))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(comentarioRepository);
+    }
+}
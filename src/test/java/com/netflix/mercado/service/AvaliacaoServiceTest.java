@@ -1,6 +1,7 @@
 package com.netflix.mercado.service;
 
 import com.netflix.mercado.entity.Avaliacao;
+import com.netflix.mercado.entity.ConjuntoVotantes;
 import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.exception.ResourceNotFoundException;
@@ -9,18 +10,28 @@ import com.netflix.mercado.repository.AvaliacaoRepository;
 import com.netflix.mercado.repository.AuditLogRepository;
 import com.netflix.mercado.dto.avaliacao.CreateAvaliacaoRequest;
 import com.netflix.mercado.dto.avaliacao.UpdateAvaliacaoRequest;
+import com.netflix.mercado.dto.avaliacao.AvaliacaoResponse;
+import com.netflix.mercado.dto.common.PageResponse;
+import com.netflix.mercado.util.CursorPaginacao;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.Arrays;
 
@@ -41,6 +52,18 @@ class AvaliacaoServiceTest {
     @Mock
     private AuditLogRepository auditLogRepository;
 
+    @Mock
+    private AvaliacaoAgregadoService avaliacaoAgregadoService;
+
+    @Mock
+    private ContadorVotosService contadorVotosService;
+
+    @Mock
+    private VotoService votoService;
+
+    @Mock
+    private FiltroConteudoService filtroConteudoService;
+
     @InjectMocks
     private AvaliacaoService avaliacaoService;
 
@@ -151,14 +174,83 @@ class AvaliacaoServiceTest {
     @DisplayName("Deve marcar avaliação como útil")
     void testMarkAsUtil() {
         // Arrange
-        when(avaliacaoRepository.findById(1L)).thenReturn(Optional.of(testAvaliacao));
-        when(avaliacaoRepository.save(any(Avaliacao.class))).thenReturn(testAvaliacao);
+        when(avaliacaoRepository.existsById(1L)).thenReturn(true);
+        when(votoService.adicionar(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, 1L, 1L)).thenReturn(true);
+        when(votoService.remover(ConjuntoVotantes.Tipo.AVALIACAO_INUTIL, 1L, 1L)).thenReturn(false);
 
         // Act
-        avaliacaoService.marcarComoUtil(1L);
+        avaliacaoService.marcarComoUtil(1L, testUser);
 
         // Assert
-        verify(avaliacaoRepository).save(any(Avaliacao.class));
+        verify(contadorVotosService).registrarVoto(1L, 1, 0);
+        verify(avaliacaoRepository, never()).save(any(Avaliacao.class));
+    }
+
+    @Test
+    @DisplayName("Deve trocar o voto inútil do usuário por útil")
+    void testTrocaVotoInutilPorUtil() {
+        // Arrange
+        when(avaliacaoRepository.existsById(1L)).thenReturn(true);
+        when(votoService.adicionar(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, 1L, 1L)).thenReturn(true);
+        when(votoService.remover(ConjuntoVotantes.Tipo.AVALIACAO_INUTIL, 1L, 1L)).thenReturn(true);
+
+        // Act
+        avaliacaoService.marcarComoUtil(1L, testUser);
+
+        // Assert
+        verify(contadorVotosService).registrarVoto(1L, 1, -1);
+    }
+
+    @Test
+    @DisplayName("Deve travar a linha de votos úteis antes da de inúteis também ao votar inútil")
+    void testTrocaVotoUtilPorInutilNaOrdemDosTipos() {
+        // Arrange
+        when(avaliacaoRepository.existsById(1L)).thenReturn(true);
+        when(votoService.remover(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, 1L, 1L)).thenReturn(true);
+        when(votoService.adicionar(ConjuntoVotantes.Tipo.AVALIACAO_INUTIL, 1L, 1L)).thenReturn(true);
+
+        // Act
+        avaliacaoService.marcarComoInutil(1L, testUser);
+
+        // Assert
+        InOrder ordem = inOrder(votoService);
+        ordem.verify(votoService).remover(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, 1L, 1L);
+        ordem.verify(votoService).adicionar(ConjuntoVotantes.Tipo.AVALIACAO_INUTIL, 1L, 1L);
+        verify(contadorVotosService).registrarVoto(1L, -1, 1);
+    }
+
+    @Test
+    @DisplayName("Não deve somar o voto ao contador quando a transação sofre rollback")
+    void testVotoComRollback() {
+        // Arrange
+        when(avaliacaoRepository.existsById(1L)).thenReturn(true);
+        when(votoService.adicionar(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, 1L, 1L)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            avaliacaoService.marcarComoUtil(1L, testUser);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Assert
+            verifyNoInteractions(contadorVotosService);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Não deve contar de novo o voto repetido do mesmo usuário")
+    void testVotoRepetido() {
+        // Arrange
+        when(avaliacaoRepository.existsById(1L)).thenReturn(true);
+        when(votoService.adicionar(ConjuntoVotantes.Tipo.AVALIACAO_UTIL, 1L, 1L)).thenReturn(false);
+
+        // Act
+        avaliacaoService.marcarComoUtil(1L, testUser);
+
+        // Assert
+        verifyNoInteractions(contadorVotosService);
     }
 
     @Test
@@ -221,4 +313,24 @@ class AvaliacaoServiceTest {
         assertThat(result).isPresent();
         assertThat(result.get().getId()).isEqualTo(1L);
     }
+
+    @Test
+    @DisplayName("Deve continuar a rolagem de avaliações a partir do cursor")
+    void testListarAvaliacoesPorCursor() {
+        // Arrange
+        LocalDateTime criadaEm = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123456000);
+        String cursor = CursorPaginacao.codificar(7L, criadaEm);
+        testAvaliacao.setCreatedAt(criadaEm.minusHours(1));
+        when(avaliacaoRepository.findByMercadoIdApos(1L, criadaEm, 7L, PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of(testAvaliacao), PageRequest.of(0, 20), false));
+
+        // Act
+        PageResponse<AvaliacaoResponse> result = avaliacaoService.listAvaliacoesByMercadoCursor(1L, cursor, 20);
+
+        // Assert
+        assertThat(result.getConteudo()).hasSize(1);
+        assertThat(result.getTemProxima()).isFalse();
+        assertThat(result.getProximoCursor()).isNull();
+        assertThat(result.getPrimeiraPage()).isFalse();
+    }
 }
@@ -4,12 +4,16 @@ import com.netflix.mercado.entity.Comentario;
 import com.netflix.mercado.entity.Avaliacao;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.entity.AuditLog;
+import com.netflix.mercado.entity.ConjuntoVotantes;
 import com.netflix.mercado.exception.ResourceNotFoundException;
 import com.netflix.mercado.exception.UnauthorizedException;
+import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.repository.ComentarioRepository;
 import com.netflix.mercado.repository.AuditLogRepository;
 import com.netflix.mercado.dto.comentario.CreateComentarioRequest;
 import com.netflix.mercado.dto.comentario.UpdateComentarioRequest;
+import com.netflix.mercado.dto.comentario.ComentarioResponse;
+import com.netflix.mercado.dto.common.PageResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,11 +23,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -45,6 +53,18 @@ class ComentarioServiceTest {
     @Mock
     private AvaliacaoService avaliacaoService;
 
+    @Mock
+    private ContadorVotosService contadorVotosService;
+
+    @Mock
+    private VotoService votoService;
+
+    @Mock
+    private FiltroConteudoService filtroConteudoService;
+
+    @Mock
+    private ModeracaoService moderacaoService;
+
     @InjectMocks
     private ComentarioService comentarioService;
 
@@ -180,14 +200,15 @@ class ComentarioServiceTest {
     @DisplayName("Deve adicionar curtida ao comentário")
     void testAddCurtida() {
         // Arrange
-        when(comentarioRepository.findById(1L)).thenReturn(Optional.of(testComentario));
-        when(comentarioRepository.save(any(Comentario.class))).thenReturn(testComentario);
+        when(comentarioRepository.existsById(1L)).thenReturn(true);
+        when(votoService.adicionar(ConjuntoVotantes.Tipo.COMENTARIO_CURTIDA, 1L, testUser.getId())).thenReturn(true);
 
         // Act
         comentarioService.adicionarCurtida(1L, testUser);
 
         // Assert
-        verify(comentarioRepository).save(any(Comentario.class));
+        verify(contadorVotosService).registrarCurtida(1L, 1);
+        verify(comentarioRepository, never()).save(any(Comentario.class));
     }
 
     @Test
@@ -218,4 +239,163 @@ class ComentarioServiceTest {
         assertThat(result).isEqualTo(3L);
         verify(comentarioRepository).countByAvaliacao(testAvaliacao);
     }
+
+    @Test
+    @DisplayName("Deve gravar o caminho da resposta a partir do caminho do pai")
+    void testResponderGravaCaminho() {
+        // Arrange
+        testComentario.posicionar();
+        CreateComentarioRequest request = new CreateComentarioRequest();
+        request.setConteudo("Resposta ao comentário");
+        when(comentarioRepository.findById(1L)).thenReturn(Optional.of(testComentario));
+        when(comentarioRepository.save(any(Comentario.class))).thenAnswer(invocation -> {
+            Comentario salvo = invocation.getArgument(0);
+            salvo.setId(42L);
+            return salvo;
+        });
+
+        // Act
+        Comentario resposta = comentarioService.responderComentario(1L, request, testUser);
+
+        // Assert
+        assertThat(resposta.getCaminho()).isEqualTo("000000000001/000000000042/");
+        assertThat(resposta.getProfundidade()).isEqualTo(1);
+        assertThat(testComentario.ehAncestralDe(resposta)).isTrue();
+        assertThat(resposta.ehAncestralDe(testComentario)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve recusar resposta além da profundidade máxima sem percorrer ancestrais")
+    void testResponderAlemDaProfundidadeMaxima() {
+        // Arrange
+        testComentario.setCaminho("000000000001/");
+        testComentario.setProfundidade(Comentario.PROFUNDIDADE_MAXIMA);
+        CreateComentarioRequest request = new CreateComentarioRequest();
+        request.setConteudo("Resposta ao comentário");
+        when(comentarioRepository.findById(1L)).thenReturn(Optional.of(testComentario));
+
+        // Act & Assert
+        assertThatThrownBy(() -> comentarioService.responderComentario(1L, request, testUser))
+                .isInstanceOf(ValidationException.class);
+        verify(comentarioRepository, never()).save(any(Comentario.class));
+    }
+
+    @Test
+    @DisplayName("Deve recusar resposta a comentário antigo sem caminho abaixo do limite de profundidade")
+    void testResponderComentarioLegadoSemCaminho() {
+        // Arrange
+        CreateComentarioRequest request = new CreateComentarioRequest();
+        request.setConteudo("Resposta ao comentário");
+        when(comentarioRepository.findById(1L)).thenReturn(Optional.of(testComentario));
+
+        // Act & Assert
+        assertThatThrownBy(() -> comentarioService.responderComentario(1L, request, testUser))
+                .isInstanceOf(ValidationException.class);
+        verify(comentarioRepository, never()).save(any(Comentario.class));
+    }
+
+    @Test
+    @DisplayName("Deve carregar a subárvore em uma consulta pelo prefixo do caminho")
+    void testListarSubarvore() {
+        // Arrange
+        testComentario.setCaminho("000000000001/000000000002/");
+        testComentario.setProfundidade(1);
+        when(comentarioRepository.findById(1L)).thenReturn(Optional.of(testComentario));
+        when(comentarioRepository.findSubarvore(eq(1L), eq("000000000001/000000000002/"), eq(3), any(Pageable.class)))
+                .thenReturn(List.of(testComentario));
+
+        // Act
+        List<ComentarioResponse> result = comentarioService.listarSubarvore(1L, 2);
+
+        // Assert
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getProfundidade()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve carregar a subárvore pelo pai quando o caminho ainda não foi calculado")
+    void testListarSubarvoreSemCaminho() {
+        // Arrange
+        Comentario resposta2 = resposta(2L, testComentario);
+        Comentario resposta3 = resposta(3L, testComentario);
+        Comentario resposta4 = resposta(4L, resposta2);
+        when(comentarioRepository.findById(1L)).thenReturn(Optional.of(testComentario));
+        when(comentarioRepository.findRespostasDe(List.of(1L))).thenReturn(List.of(resposta2, resposta3));
+        when(comentarioRepository.findRespostasDe(List.of(2L, 3L))).thenReturn(List.of(resposta4));
+
+        // Act
+        List<ComentarioResponse> result = comentarioService.listarSubarvore(1L, 2);
+
+        // Assert
+        assertThat(result).extracting(ComentarioResponse::getId).containsExactly(1L, 2L, 4L, 3L);
+        verify(comentarioRepository, never()).findSubarvore(any(), any(), any(), any(Pageable.class));
+    }
+
+    private Comentario resposta(Long id, Comentario pai) {
+        Comentario resposta = new Comentario();
+        resposta.setId(id);
+        resposta.setAvaliacao(testAvaliacao);
+        resposta.setUser(testUser);
+        resposta.setConteudo("Resposta " + id);
+        resposta.setComentarioPai(pai);
+        resposta.setCurtidas(0L);
+        return resposta;
+    }
+
+    @Test
+    @DisplayName("Deve empatar comentário 8 horas mais antigo com o dobro de curtidas")
+    void testPontuacaoDestaque() {
+        // Arrange
+        LocalDateTime agora = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+        // Act
+        double novo = Comentario.pontuacaoDestaque(3, agora);
+        double antigoComDobro = Comentario.pontuacaoDestaque(7, agora.minusHours(8));
+        double antigoComMenos = Comentario.pontuacaoDestaque(6, agora.minusHours(8));
+
+        // Assert
+        assertThat(antigoComDobro).isCloseTo(novo, within(1e-9));
+        assertThat(antigoComMenos).isLessThan(novo);
+    }
+
+    @Test
+    @DisplayName("Deve continuar os destaques a partir do cursor da página anterior")
+    void testListarDestaquesPorCursor() {
+        // Arrange
+        Comentario segundo = new Comentario();
+        segundo.setId(2L);
+        segundo.setAvaliacao(testAvaliacao);
+        segundo.setUser(testUser);
+        segundo.setConteudo("Outro comentário");
+        segundo.setCurtidas(1L);
+        segundo.setPontuacaoDestaque(12.5);
+        when(avaliacaoService.obterAvaliacaoPorId(1L)).thenReturn(testAvaliacao);
+        when(comentarioRepository.findDestaquesByAvaliacaoId(eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(segundo), PageRequest.of(0, 1), true));
+        when(comentarioRepository.findDestaquesByAvaliacaoIdApos(eq(1L), eq(12.5), eq(2L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(testComentario), PageRequest.of(0, 1), false));
+
+        // Act
+        PageResponse<ComentarioResponse> primeira = comentarioService.listarDestaques(1L, null, 1);
+        PageResponse<ComentarioResponse> segunda = comentarioService.listarDestaques(1L, primeira.getProximoCursor(), 1);
+
+        // Assert
+        assertThat(primeira.getConteudo()).extracting(ComentarioResponse::getId).containsExactly(2L);
+        assertThat(primeira.getProximoCursor()).isNotNull();
+        assertThat(segunda.getConteudo()).extracting(ComentarioResponse::getId).containsExactly(1L);
+        assertThat(segunda.getProximoCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Não deve rejeitar comentário reservado por outro moderador")
+    void testRejeitarComentarioReservadoPorOutro() {
+        // Arrange
+        when(comentarioRepository.existsById(1L)).thenReturn(true);
+        when(moderacaoService.decidirComentario(1L, false, "spam", testUser)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> comentarioService.rejeitarComentario(1L, "spam", testUser))
+                .isInstanceOf(ValidationException.class);
+        verify(comentarioRepository, never()).save(any(Comentario.class));
+    }
 }
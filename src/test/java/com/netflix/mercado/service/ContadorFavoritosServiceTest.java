@@ -0,0 +1,94 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.FragmentoFavoritos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ContadorFavoritosService - Testes Unitários")
+class ContadorFavoritosServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ContadorFavoritosService contadorFavoritosService;
+
+    @Test
+    @DisplayName("Deve somar o total do mercado às parcelas em uma consulta")
+    void testTotalFavoritos() {
+        // Arrange
+        when(jdbcTemplate.queryForList(contains("favoritos_fragmentos"), eq(Long.class), eq(1L))).thenReturn(List.of(1205L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2L))).thenReturn(List.of());
+
+        // Act & Assert
+        assertThat(contadorFavoritosService.totalFavoritos(1L)).isEqualTo(1205L);
+        assertThat(contadorFavoritosService.totalFavoritos(2L)).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve transferir as parcelas lidas para o mercado, somadas por mercado")
+    void testConsolidarParcelas() throws Exception {
+        // Arrange
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("mercado_id")).thenReturn(1L, 1L, 2L);
+        when(rs.getLong("total")).thenReturn(3L, -1L, 5L);
+        when(rs.getInt("faixa")).thenReturn(0, 4, 2);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int linha = 0; linha < 3; linha++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("FOR UPDATE"), any(RowCallbackHandler.class));
+
+        // Act
+        contadorFavoritosService.consolidar();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> parcelas = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE favoritos_fragmentos SET total = total - ?"), parcelas.capture());
+        assertThat(parcelas.getValue()).extracting(p -> p[0]).containsExactly(3L, -1L, 5L);
+
+        ArgumentCaptor<List<Object[]>> mercados = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE mercados"), mercados.capture());
+        assertThat(mercados.getValue()).containsExactly(new Object[]{2L, 1L}, new Object[]{5L, 2L});
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve criar as faixas dos mercados que passaram do limiar")
+    void testFragmentarMercadosPopulares() {
+        // Arrange
+        when(jdbcTemplate.queryForList(contains("NOT EXISTS"), eq(Long.class), anyLong())).thenReturn(List.of(9L));
+
+        // Act
+        contadorFavoritosService.consolidar();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> faixas = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO favoritos_fragmentos"), faixas.capture());
+        assertThat(faixas.getValue()).hasSize(FragmentoFavoritos.FAIXAS)
+                .allSatisfy(faixa -> assertThat(faixa[0]).isEqualTo(9L));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE"), anyList());
+    }
+}
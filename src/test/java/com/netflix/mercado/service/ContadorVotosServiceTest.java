@@ -0,0 +1,104 @@
+package com.netflix.mercado.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ContadorVotosService - Testes Unitários")
+class ContadorVotosServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ContadorVotosService contadorVotosService;
+
+    @Test
+    @DisplayName("Deve expor os votos pendentes antes da gravação")
+    void testPendentesVisiveis() {
+        // Act
+        contadorVotosService.registrarUtil(1L);
+        contadorVotosService.registrarUtil(1L);
+        contadorVotosService.registrarInutil(1L);
+        contadorVotosService.registrarCurtida(7L, 1);
+        contadorVotosService.registrarCurtida(7L, 1);
+        contadorVotosService.registrarCurtida(7L, -1);
+
+        // Assert
+        assertThat(contadorVotosService.pendenteUteis(1L)).isEqualTo(2);
+        assertThat(contadorVotosService.pendenteInuteis(1L)).isEqualTo(1);
+        assertThat(contadorVotosService.pendenteCurtidas(7L)).isEqualTo(1);
+        assertThat(contadorVotosService.pendenteUteis(2L)).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve gravar os deltas em um lote por tabela, em ordem de ID")
+    void testDescarregarEmLote() {
+        // Arrange
+        contadorVotosService.registrarUtil(3L);
+        contadorVotosService.registrarUtil(1L);
+        contadorVotosService.registrarInutil(1L);
+        contadorVotosService.registrarCurtida(5L, 1);
+        contadorVotosService.registrarCurtida(6L, 1);
+        contadorVotosService.registrarCurtida(6L, -1);
+
+        // Act
+        contadorVotosService.descarregar();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> avaliacoes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE avaliacoes"), avaliacoes.capture());
+        assertThat(avaliacoes.getValue()).containsExactly(new Object[]{1L, 1L, 1L}, new Object[]{1L, 0L, 3L});
+
+        ArgumentCaptor<List<Object[]>> comentarios = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE comentarios"), comentarios.capture());
+        assertThat(comentarios.getValue()).containsExactly(new Object[]{1L, 1L, 5L});
+
+        assertThat(contadorVotosService.pendenteUteis(1L)).isZero();
+        assertThat(contadorVotosService.pendenteCurtidas(5L)).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve manter os deltas pendentes quando a gravação falha")
+    void testDescarregarComFalha() {
+        // Arrange
+        contadorVotosService.registrarUtil(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("banco indisponível"));
+
+        // Act
+        contadorVotosService.descarregar();
+
+        // Assert
+        assertThat(contadorVotosService.pendenteUteis(1L)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve acessar o banco quando não há deltas")
+    void testDescarregarSemDeltas() {
+        // Act
+        contadorVotosService.descarregar();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+}
@@ -0,0 +1,101 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavoritoEscritaService - Testes Unitários")
+class FavoritoEscritaServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    @InjectMocks
+    private FavoritoEscritaService favoritoEscritaService;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+        when(jdbcOperations.execute(ArgumentMatchers.<ConnectionCallback<Boolean>>any())).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Deve incluir favorito e auditoria em um único comando no PostgreSQL")
+    void testInserirUmComando() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(7L))
+                .thenReturn(List.of());
+
+        // Act
+        Long criado = favoritoEscritaService.inserir(1L, 2L);
+        Long repetido = favoritoEscritaService.inserir(1L, 2L);
+
+        // Assert
+        assertThat(criado).isEqualTo(7L);
+        assertThat(repetido).isNull();
+        verify(jdbcTemplate, times(2)).queryForList(
+                argThat((String sql) -> sql.contains("ON CONFLICT (usuario_id, mercado_id) DO NOTHING")
+                        && sql.contains("INSERT INTO audit_logs")
+                        && sql.contains("UPDATE mercados SET total_favoritos = total_favoritos + (SELECT COUNT(*) FROM inserido)")
+                        && sql.contains("UPDATE favoritos_fragmentos SET total = total + (SELECT COUNT(*) FROM inserido)")),
+                any(SqlParameterSource.class), eq(Long.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    @DisplayName("Deve alternar com DELETE RETURNING e INSERT no mesmo comando")
+    @SuppressWarnings("unchecked")
+    void testAlternarUmComando() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(false);
+
+        // Act
+        boolean favorito = favoritoEscritaService.alternar(1L, 2L);
+
+        // Assert
+        assertThat(favorito).isFalse();
+        verify(jdbcTemplate).queryForObject(
+                argThat((String sql) -> sql.contains("DELETE FROM favoritos") && sql.contains("RETURNING id")
+                        && sql.contains("WHERE NOT EXISTS (SELECT 1 FROM removido)")),
+                any(SqlParameterSource.class), any(RowMapper.class));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve traduzir violação da chave estrangeira em mercado não encontrado")
+    @SuppressWarnings("unchecked")
+    void testMercadoInexistente() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenThrow(new DataIntegrityViolationException("fk_favorito_mercado"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> favoritoEscritaService.alternar(1L, 99L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("99");
+    }
+}
@@ -3,10 +3,10 @@ package com.netflix.mercado.service;
 import com.netflix.mercado.entity.Favorito;
 import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.User;
-import com.netflix.mercado.exception.ResourceNotFoundException;
-import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.AuditLogRepository;
 import com.netflix.mercado.repository.FavoritoRepository;
 import com.netflix.mercado.dto.favorito.CreateFavoritoRequest;
+import com.netflix.mercado.dto.mercado.MercadoResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,6 +21,8 @@ import org.springframework.data.domain.Pageable;
 import java.util.Optional;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -36,9 +38,21 @@ class FavoritoServiceTest {
     @Mock
     private FavoritoRepository favoritoRepository;
 
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
     @Mock
     private MercadoService mercadoService;
 
+    @Mock
+    private FavoritoCacheService favoritoCacheService;
+
+    @Mock
+    private FavoritoEscritaService favoritoEscritaService;
+
+    @Mock
+    private ContadorFavoritosService contadorFavoritosService;
+
     @InjectMocks
     private FavoritoService favoritoService;
 
@@ -69,9 +83,8 @@ class FavoritoServiceTest {
     @DisplayName("Deve adicionar favorito com sucesso")
     void testAddFavorito() {
         // Arrange
-        when(mercadoService.getMercadoEntityById(1L)).thenReturn(testMercado);
-        when(favoritoRepository.existsByUserAndMercado(testUser, testMercado)).thenReturn(false);
-        when(favoritoRepository.save(any(Favorito.class))).thenReturn(testFavorito);
+        when(favoritoEscritaService.inserir(1L, 1L)).thenReturn(1L);
+        when(favoritoRepository.findByUsuarioIdAndMercadoId(1L, 1L)).thenReturn(Optional.of(testFavorito));
 
         // Act
         Favorito result = favoritoService.adicionarFavorito(1L, testUser);
@@ -79,46 +92,49 @@ class FavoritoServiceTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.getMercado().getId()).isEqualTo(1L);
-        verify(favoritoRepository).save(any(Favorito.class));
+        verify(favoritoEscritaService).inserir(1L, 1L);
+        verifyNoInteractions(mercadoService);
     }
 
     @Test
-    @DisplayName("Deve lançar exceção ao adicionar favorito duplicado")
+    @DisplayName("Deve devolver o favorito existente ao adicionar duplicado")
     void testAddFavoritoDuplicate() {
         // Arrange
-        when(mercadoService.getMercadoEntityById(1L)).thenReturn(testMercado);
-        when(favoritoRepository.existsByUserAndMercado(testUser, testMercado)).thenReturn(true);
+        when(favoritoEscritaService.inserir(1L, 1L)).thenReturn(null);
+        when(favoritoRepository.findByUsuarioIdAndMercadoId(1L, 1L)).thenReturn(Optional.of(testFavorito));
 
-        // Act & Assert
-        assertThatThrownBy(() -> favoritoService.adicionarFavorito(1L, testUser))
-                .isInstanceOf(ValidationException.class);
+        // Act
+        Favorito result = favoritoService.adicionarFavorito(1L, testUser);
+
+        // Assert
+        assertThat(result).isSameAs(testFavorito);
+        verify(favoritoCacheService, never()).invalidar(anyLong());
     }
 
     @Test
     @DisplayName("Deve remover favorito com sucesso")
     void testRemoveFavorito() {
         // Arrange
-        when(mercadoService.getMercadoEntityById(1L)).thenReturn(testMercado);
-        when(favoritoRepository.findByUserAndMercado(testUser, testMercado)).thenReturn(Optional.of(testFavorito));
-        doNothing().when(favoritoRepository).delete(any(Favorito.class));
+        when(favoritoEscritaService.excluir(1L, 1L)).thenReturn(1L);
 
         // Act
         favoritoService.removerFavorito(1L, testUser);
 
         // Assert
-        verify(favoritoRepository).delete(any(Favorito.class));
+        verify(favoritoEscritaService).excluir(1L, 1L);
+        verify(favoritoCacheService).invalidar(1L);
     }
 
     @Test
-    @DisplayName("Deve lançar exceção ao remover favorito inexistente")
+    @DisplayName("Deve ignorar remoção de favorito inexistente")
     void testRemoveFavoritoNotFound() {
         // Arrange
-        when(mercadoService.getMercadoEntityById(1L)).thenReturn(testMercado);
-        when(favoritoRepository.findByUserAndMercado(testUser, testMercado)).thenReturn(Optional.empty());
+        when(favoritoEscritaService.excluir(1L, 1L)).thenReturn(null);
 
         // Act & Assert
-        assertThatThrownBy(() -> favoritoService.removerFavorito(1L, testUser))
-                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatCode(() -> favoritoService.removerFavorito(1L, testUser))
+                .doesNotThrowAnyException();
+        verify(favoritoCacheService, never()).invalidar(anyLong());
     }
 
     @Test
@@ -146,8 +162,7 @@ class FavoritoServiceTest {
     @DisplayName("Deve verificar se mercado é favorito")
     void testIsFavorito() {
         // Arrange
-        when(mercadoService.getMercadoEntityById(1L)).thenReturn(testMercado);
-        when(favoritoRepository.existsByUserAndMercado(testUser, testMercado)).thenReturn(true);
+        when(favoritoCacheService.contem(1L, 1L)).thenReturn(true);
 
         // Act
         Boolean result = favoritoService.verificarFavorito(1L, testUser);
@@ -160,8 +175,7 @@ class FavoritoServiceTest {
     @DisplayName("Deve verificar que mercado não é favorito")
     void testIsNotFavorito() {
         // Arrange
-        when(mercadoService.getMercadoEntityById(1L)).thenReturn(testMercado);
-        when(favoritoRepository.existsByUserAndMercado(testUser, testMercado)).thenReturn(false);
+        when(favoritoCacheService.contem(1L, 1L)).thenReturn(false);
 
         // Act
         Boolean result = favoritoService.verificarFavorito(1L, testUser);
@@ -201,19 +215,70 @@ class FavoritoServiceTest {
         assertThat(result).isEqualTo(3L);
     }
 
+    @Test
+    @DisplayName("Deve contar favoritos do mercado pelo total desnormalizado")
+    void testContarFavoritosDoMercado() {
+        // Arrange
+        when(contadorFavoritosService.totalFavoritos(1L)).thenReturn(42L);
+
+        // Act
+        Long result = favoritoService.contarFavoritosDomercado(1L);
+
+        // Assert
+        assertThat(result).isEqualTo(42L);
+        verifyNoInteractions(favoritoRepository);
+    }
+
     @Test
     @DisplayName("Deve fazer toggle de favorito")
     void testToggleFavorito() {
         // Arrange
-        when(mercadoService.getMercadoEntityById(1L)).thenReturn(testMercado);
-        when(favoritoRepository.existsByUserAndMercado(testUser, testMercado)).thenReturn(false);
-        when(favoritoRepository.save(any(Favorito.class))).thenReturn(testFavorito);
+        when(favoritoEscritaService.alternar(1L, 1L)).thenReturn(true);
 
         // Act
         Boolean result = favoritoService.toggleFavorito(1L, testUser);
 
         // Assert
         assertThat(result).isTrue();
-        verify(favoritoRepository).save(any(Favorito.class));
+        verify(favoritoEscritaService).alternar(1L, 1L);
+        verifyNoInteractions(mercadoService, favoritoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve verificar uma página de mercados com uma única consulta ao cache")
+    void testVerificarFavoritosEmLote() {
+        // Arrange
+        List<Long> ids = List.of(3L, 1L, 2L);
+        when(favoritoCacheService.favoritos(1L, ids)).thenReturn(Set.of(1L, 3L));
+        MercadoResponse primeiro = new MercadoResponse();
+        primeiro.setId(1L);
+        MercadoResponse segundo = new MercadoResponse();
+        segundo.setId(2L);
+        when(favoritoCacheService.favoritos(eq(1L), eq(List.of(1L, 2L)))).thenReturn(Set.of(1L));
+
+        // Act
+        Map<Long, Boolean> result = favoritoService.verificarFavoritos(ids, testUser);
+        favoritoService.preencherFavoritosDoUsuario(List.of(primeiro, segundo), testUser);
+
+        // Assert
+        assertThat(result).containsExactly(entry(3L, true), entry(1L, true), entry(2L, false));
+        assertThat(primeiro.getFavorito()).isTrue();
+        assertThat(segundo.getFavorito()).isFalse();
+        verify(favoritoCacheService, times(2)).favoritos(eq(1L), anyCollection());
+        verifyNoInteractions(favoritoRepository, mercadoService);
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o cache de favoritos do usuário ao adicionar")
+    void testAdicionarInvalidaCache() {
+        // Arrange
+        when(favoritoEscritaService.inserir(1L, 1L)).thenReturn(1L);
+        when(favoritoRepository.findByUsuarioIdAndMercadoId(1L, 1L)).thenReturn(Optional.of(testFavorito));
+
+        // Act
+        favoritoService.adicionarFavorito(1L, testUser);
+
+        // Assert
+        verify(favoritoCacheService).invalidar(1L);
     }
 }
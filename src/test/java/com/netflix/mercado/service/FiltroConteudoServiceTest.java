@@ -0,0 +1,164 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.TermoBloqueadoRepository;
+import com.netflix.mercado.util.FiltroConteudo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FiltroConteudoService - Testes Unitários")
+class FiltroConteudoServiceTest {
+
+    @Mock
+    private TermoBloqueadoRepository termoBloqueadoRepository;
+
+    @InjectMocks
+    private FiltroConteudoService filtroConteudoService;
+
+    private void carregar(List<String> termos) {
+        when(termoBloqueadoRepository.findAllTermos()).thenReturn(termos);
+        filtroConteudoService.recarregar();
+    }
+
+    @Test
+    @DisplayName("Deve encontrar termos ignorando maiúsculas, acentos e espaços repetidos")
+    void testAnalisarNormalizado() {
+        // Arrange
+        carregar(List.of("ganhe dinheiro rápido", "golpe"));
+        String texto = "Atenção: GANHE   Dinheiro RAPIDO aqui, é um golpe!";
+
+        // Act
+        List<FiltroConteudo.Ocorrencia> ocorrencias = filtroConteudoService.analisar(texto).getOcorrencias();
+
+        // Assert
+        assertThat(ocorrencias).extracting(FiltroConteudo.Ocorrencia::getTermo)
+                .containsExactly("ganhe dinheiro rápido", "golpe");
+        FiltroConteudo.Ocorrencia primeira = ocorrencias.get(0);
+        assertThat(texto.substring(primeira.getInicio(), primeira.getFim())).isEqualTo("GANHE   Dinheiro RAPIDO");
+        FiltroConteudo.Ocorrencia segunda = ocorrencias.get(1);
+        assertThat(texto.substring(segunda.getInicio(), segunda.getFim())).isEqualTo("golpe");
+    }
+
+    @Test
+    @DisplayName("Deve aceitar apenas ocorrências em fronteira de palavra e reportar sobreposições")
+    void testFronteiraESobreposicao() {
+        // Arrange
+        carregar(List.of("ass", "preco baixo", "baixo"));
+
+        // Act
+        List<FiltroConteudo.Ocorrencia> dentroDePalavra = filtroConteudoService.analisar("Uma classe de preços").getOcorrencias();
+        List<FiltroConteudo.Ocorrencia> sobrepostas = filtroConteudoService.analisar("Preço baixo!").getOcorrencias();
+
+        // Assert
+        assertThat(dentroDePalavra).isEmpty();
+        assertThat(sobrepostas).containsExactlyInAnyOrder(
+                new FiltroConteudo.Ocorrencia("preco baixo", 0, 11),
+                new FiltroConteudo.Ocorrencia("baixo", 6, 11));
+    }
+
+    @Test
+    @DisplayName("Deve escapar HTML na mesma passada, como as substituições anteriores")
+    void testEscapeHtml() {
+        // Arrange
+        carregar(List.of("golpe"));
+        String texto = "  <script>alert(\"x's\")</script> golpe / fim \n";
+        String esperado = texto
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#x27;")
+                .replace("/", "&#x2F;")
+                .trim();
+
+        // Act
+        FiltroConteudo.Resultado resultado = filtroConteudoService.analisar(texto);
+
+        // Assert
+        assertThat(resultado.getTextoEscapado()).isEqualTo(esperado);
+        assertThat(FiltroConteudo.escapar(texto)).isEqualTo(esperado);
+        assertThat(resultado.getOcorrencias()).extracting(FiltroConteudo.Ocorrencia::getInicio)
+                .containsExactly(texto.indexOf("golpe"));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar texto com termo bloqueado informando a posição")
+    void testVerificar() {
+        // Arrange
+        carregar(List.of("golpe"));
+
+        // Act & Assert
+        assertThatCode(() -> filtroConteudoService.verificar("Ótimo atendimento", "Comentário"))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> filtroConteudoService.verificar("Isso é GOLPE", "Comentário"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("\"golpe\" [7, 12)");
+    }
+
+    @Test
+    @DisplayName("Deve encontrar as mesmas ocorrências que a busca ingênua com 5000 termos")
+    void testDicionarioGrande() {
+        // Arrange
+        Random random = new Random(42);
+        List<String> termos = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            termos.add(palavra(random, 3 + random.nextInt(4)));
+        }
+        carregar(termos);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append(palavra(random, 3 + random.nextInt(4))).append(' ');
+        }
+        String texto = sb.toString();
+
+        // Act
+        List<FiltroConteudo.Ocorrencia> ocorrencias = FiltroConteudo.compilar(termos).analisar(texto).getOcorrencias();
+
+        // Assert
+        List<String> esperadas = new ArrayList<>();
+        for (String token : texto.trim().split(" ")) {
+            if (termos.contains(token)) {
+                esperadas.add(token);
+            }
+        }
+        assertThat(esperadas).isNotEmpty();
+        assertThat(ocorrencias).extracting(FiltroConteudo.Ocorrencia::getTermo)
+                .containsExactlyElementsOf(esperadas.subList(0, Math.min(esperadas.size(), FiltroConteudo.MAXIMO_OCORRENCIAS)));
+    }
+
+    @Test
+    @DisplayName("Deve trocar o dicionário na recarga")
+    void testRecarregar() {
+        // Arrange
+        carregar(List.of("golpe"));
+        assertThat(filtroConteudoService.analisar("golpe").getOcorrencias()).hasSize(1);
+
+        // Act
+        when(termoBloqueadoRepository.findAllTermos()).thenReturn(List.of("fraude"));
+        int total = filtroConteudoService.recarregar();
+
+        // Assert
+        assertThat(total).isEqualTo(1);
+        assertThat(filtroConteudoService.analisar("golpe").getOcorrencias()).isEmpty();
+        assertThat(filtroConteudoService.analisar("fraude").getOcorrencias()).hasSize(1);
+    }
+
+    private static String palavra(Random random, int tamanho) {
+        char[] letras = new char[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            letras[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(letras);
+    }
+}
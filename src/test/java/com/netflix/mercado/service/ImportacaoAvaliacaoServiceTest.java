@@ -0,0 +1,147 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.avaliacao.ImportacaoAvaliacaoResponse;
+import com.netflix.mercado.entity.User;
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportacaoAvaliacaoService - Testes Unitários")
+class ImportacaoAvaliacaoServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AvaliacaoAgregadoService avaliacaoAgregadoService;
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @InjectMocks
+    private ImportacaoAvaliacaoService importacaoAvaliacaoService;
+
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new User();
+        admin.setId(1L);
+        admin.setEmail("admin@example.com");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve importar as linhas válidas em lote e recalcular cada mercado uma vez")
+    void testImportarJsonl() {
+        // Arrange
+        String conteudo = String.join("\n",
+                "{\"mercadoId\": 1, \"usuarioId\": 10, \"estrelas\": 5, \"comentario\": \"Ótimo atendimento sempre\"}",
+                "{\"mercadoId\": 1, \"usuarioId\": 11, \"estrelas\": 4}",
+                "{\"mercadoId\": 2, \"usuarioId\": 10, \"estrelas\": 9}",
+                "{\"mercadoId\": 1, \"usuarioId\": 10, \"estrelas\": 3}",
+                "não é json",
+                "",
+                "{\"mercadoId\": 3, \"usuarioId\": 12, \"estrelas\": 2}",
+                "{\"mercadoId\": 1, \"usuarioId\": 12, \"estrelas\": 1}");
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM mercados"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM users"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(10L, 11L, 12L));
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(1L);
+            when(rs.getLong(2)).thenReturn(11L);
+            invocation.<RowCallbackHandler>getArgument(2).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT mercado_id"), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+
+        // Act
+        ImportacaoAvaliacaoResponse response = importacaoAvaliacaoService.importar(
+                entrada(conteudo), ImportacaoAvaliacaoService.Formato.JSONL, admin);
+
+        // Assert
+        assertThat(response.getTotalLinhas()).isEqualTo(7L);
+        assertThat(response.getImportadas()).isEqualTo(2L);
+        assertThat(response.getDuplicadas()).isEqualTo(2L);
+        assertThat(response.getComErro()).isEqualTo(3L);
+        assertThat(response.getMercadosAtualizados()).isEqualTo(1);
+        assertThat(response.getErros()).extracting(ImportacaoAvaliacaoResponse.ErroLinha::getLinha)
+                .containsExactly(3L, 5L, 7L);
+
+        ArgumentCaptor<List<Object[]>> lote = ArgumentCaptor.forClass(List.class);
+        verify(jdbcOperations, times(1)).batchUpdate(startsWith("INSERT INTO avaliacoes"), lote.capture());
+        assertThat(lote.getValue()).hasSize(2);
+        assertThat(lote.getValue().get(0)).startsWith(10L, 1L, 5, "Ótimo atendimento sempre", false);
+        assertThat(lote.getValue().get(1)).startsWith(12L, 1L, 1, null, false);
+        verify(avaliacaoAgregadoService, times(1)).recalcular(1L);
+        verify(auditLogRepository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve ler CSV com colunas em qualquer ordem e campos entre aspas")
+    void testImportarCsv() {
+        // Arrange
+        String conteudo = "estrelas,comentario,mercadoId,usuarioId\n"
+                + "4,\"Bom, mas \"\"caro\"\" demais\",1,10\n";
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L))
+                .thenReturn(List.of(10L));
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+
+        // Act
+        ImportacaoAvaliacaoResponse response = importacaoAvaliacaoService.importar(
+                entrada(conteudo), ImportacaoAvaliacaoService.Formato.CSV, admin);
+
+        // Assert
+        assertThat(response.getImportadas()).isEqualTo(1L);
+        assertThat(response.getComErro()).isZero();
+        verify(jdbcOperations).batchUpdate(anyString(),
+                argThat((List<Object[]> lote) -> "Bom, mas \"caro\" demais".equals(lote.get(0)[3])));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar CSV sem coluna obrigatória antes de gravar")
+    void testCabecalhoCsvIncompleto() {
+        // Act & Assert
+        assertThatThrownBy(() -> importacaoAvaliacaoService.importar(
+                entrada("mercadoId,estrelas\n1,5\n"), ImportacaoAvaliacaoService.Formato.CSV, admin))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("usuarioId");
+        verifyNoInteractions(jdbcTemplate, avaliacaoAgregadoService);
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,235 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.IndiceAproximado;
+import com.netflix.mercado.util.IndiceTextual;
+import com.netflix.mercado.util.StemmerPortugues;
+import com.netflix.mercado.util.TextoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoBuscaTextualService - Testes Unitários")
+class MercadoBuscaTextualServiceTest {
+
+    @Mock
+    private MercadoRepository mercadoRepository;
+
+    @InjectMocks
+    private MercadoBuscaTextualService buscaTextualService;
+
+    @BeforeEach
+    void setUp() {
+        buscaTextualService.indexar(mercado(1L, "Supermercado Central", "Hortifruti e padaria", "Centro", "São Paulo", "4.0"));
+        buscaTextualService.indexar(mercado(2L, "Padaria Pão Quente", "Pães artesanais", "Vila Mariana", "São Paulo", "4.8"));
+        buscaTextualService.indexar(mercado(3L, "Mercadinho da Esquina", "Conveniência", "Copacabana", "Rio de Janeiro", "3.5"));
+        buscaTextualService.indexar(mercado(4L, "Atacadão Campinas", "Atacado e varejo", "Centro", "Campinas", "4.2"));
+    }
+
+    @Test
+    @DisplayName("Deve encontrar cidade acentuada buscando sem acento")
+    void testIgnorarAcentos() {
+        // Act
+        List<IndiceTextual.Resultado> result = buscaTextualService.buscar("sao paulo", 10);
+
+        // Assert
+        assertThat(result).extracting(IndiceTextual.Resultado::getId).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Deve reduzir plurais e diminutivos ao mesmo radical")
+    void testRadicais() {
+        // Assert
+        assertThat(StemmerPortugues.reduzir("mercadinhos")).isEqualTo(StemmerPortugues.reduzir("mercado"));
+        assertThat(StemmerPortugues.reduzir("padarias")).isEqualTo(StemmerPortugues.reduzir("padaria"));
+        assertThat(buscaTextualService.buscar("mercados", 10))
+                .extracting(IndiceTextual.Resultado::getId).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Deve priorizar termos no nome e considerar a avaliação")
+    void testRelevanciaComAvaliacao() {
+        // Act
+        List<IndiceTextual.Resultado> result = buscaTextualService.buscar("padaria", 10);
+
+        // Assert - mercado 2 tem "padaria" no nome e avaliação maior
+        assertThat(result).extracting(IndiceTextual.Resultado::getId).containsExactly(2L, 1L);
+        assertThat(result.get(0).getPontuacao()).isGreaterThan(result.get(1).getPontuacao());
+    }
+
+    @Test
+    @DisplayName("Deve exigir todos os termos da consulta")
+    void testTodosOsTermos() {
+        // Assert
+        assertThat(buscaTextualService.buscar("padaria centro", 10))
+                .extracting(IndiceTextual.Resultado::getId).containsExactly(1L);
+        assertThat(buscaTextualService.buscar("padaria campinas", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve atualizar e remover documentos conforme as escritas")
+    void testSincronizacao() {
+        // Act
+        Mercado renomeado = mercado(4L, "Atacadista Campinas", "Atacado", "Centro", "Campinas", "4.2");
+        buscaTextualService.indexar(renomeado);
+        Mercado inativo = mercado(3L, "Mercadinho da Esquina", "Conveniência", "Copacabana", "Rio de Janeiro", "3.5");
+        inativo.setActive(false);
+        buscaTextualService.indexar(inativo);
+        buscaTextualService.remover(1L);
+
+        // Assert
+        assertThat(buscaTextualService.buscar("atacadao", 10)).isEmpty();
+        assertThat(buscaTextualService.buscar("atacadista", 10)).extracting(IndiceTextual.Resultado::getId).containsExactly(4L);
+        assertThat(buscaTextualService.buscar("mercadinho", 10)).isEmpty();
+        assertThat(buscaTextualService.buscar("supermercado", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir o índice a partir do banco")
+    void testReconstruirIndice() {
+        // Arrange
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{10L, "Empório Bela Vista", null, "Bela Vista", "São Paulo", new BigDecimal("4.5")});
+        when(mercadoRepository.findTextosAtivos()).thenReturn(linhas);
+
+        // Act
+        buscaTextualService.reconstruirIndice();
+
+        // Assert
+        assertThat(buscaTextualService.buscar("emporio", 10)).extracting(IndiceTextual.Resultado::getId).containsExactly(10L);
+        assertThat(buscaTextualService.buscar("padaria", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve tolerar erros de digitação no nome")
+    void testBuscaAproximada() {
+        // Arrange
+        buscaTextualService.indexar(mercado(5L, "Carrefour Bairro", "Hipermercado", "Pinheiros", "São Paulo", "3.9"));
+
+        // Assert
+        assertThat(buscaTextualService.buscarAproximado("supermecado", 10))
+                .extracting(IndiceAproximado.Resultado::getId).containsExactly(1L);
+        assertThat(buscaTextualService.buscarAproximado("atacadao", 10))
+                .extracting(IndiceAproximado.Resultado::getId).containsExactly(4L);
+        assertThat(buscaTextualService.buscarAproximado("carefour", 10))
+                .extracting(IndiceAproximado.Resultado::getId, IndiceAproximado.Resultado::getDistancia)
+                .containsExactly(tuple(5L, 1));
+        assertThat(buscaTextualService.buscarAproximado("xyzmercado", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve ordenar a busca aproximada por distância e depois por avaliação")
+    void testOrdemBuscaAproximada() {
+        // Arrange
+        buscaTextualService.indexar(mercado(5L, "Padaria Pao Quenta", null, "Centro", "Santos", "5.0"));
+        buscaTextualService.indexar(mercado(6L, "Padaria Pão Quente Filial", null, "Centro", "Santos", "3.0"));
+
+        // Act
+        List<IndiceAproximado.Resultado> result = buscaTextualService.buscarAproximado("padaria pao quente", 10);
+
+        // Assert - distância 0 primeiro (maior avaliação antes), depois distância 1
+        assertThat(result).extracting(IndiceAproximado.Resultado::getId).containsExactly(2L, 6L, 5L);
+    }
+
+    @Test
+    @DisplayName("Deve combinar texto livre e nome aproximado nos candidatos")
+    void testBuscarCandidatos() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setTexto("centro");
+        filtro.setNome("atacadao campina");
+        filtro.setFuzzy(true);
+        MercadoSearchRequest semIndice = new MercadoSearchRequest();
+        semIndice.setNome("atacadao");
+
+        // Assert
+        assertThat(buscaTextualService.buscarCandidatos(filtro)).contains(List.of(4L));
+        assertThat(buscaTextualService.buscarCandidatos(semIndice)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve encontrar as mesmas palavras que uma comparação exaustiva")
+    void testBuscaAproximadaEquivalenteAExaustiva() {
+        // Arrange
+        Random random = new Random(11);
+        String alfabeto = "aeiosrmc";
+        IndiceAproximado indice = new IndiceAproximado();
+        List<String> palavras = new ArrayList<>();
+        for (long id = 0; id < 300; id++) {
+            String palavra = palavraAleatoria(random, alfabeto, 4 + random.nextInt(6));
+            palavras.add(palavra);
+            indice.indexar(id, palavra, 0);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            // Act
+            String consulta = palavraAleatoria(random, alfabeto, 4 + random.nextInt(6));
+            int maxima = IndiceAproximado.distanciaMaxima(consulta.length());
+            Set<Long> encontrados = new HashSet<>();
+            for (IndiceAproximado.Resultado resultado : indice.buscar(consulta, 1000)) {
+                encontrados.add(resultado.getId());
+            }
+
+            // Assert
+            Set<Long> esperados = new HashSet<>();
+            for (int id = 0; id < palavras.size(); id++) {
+                if (!TextoUtils.isStopword(palavras.get(id)) && levenshtein(consulta, palavras.get(id)) <= maxima) {
+                    esperados.add((long) id);
+                }
+            }
+            assertThat(encontrados).as(consulta).isEqualTo(esperados);
+        }
+    }
+
+    private static String palavraAleatoria(Random random, String alfabeto, int tamanho) {
+        StringBuilder palavra = new StringBuilder();
+        for (int i = 0; i < tamanho; i++) {
+            palavra.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+        }
+        return palavra.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(d[i - 1][j - 1] + custo, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static Mercado mercado(Long id, String nome, String descricao, String bairro, String cidade, String avaliacao) {
+        Mercado mercado = new Mercado();
+        mercado.setId(id);
+        mercado.setNome(nome);
+        mercado.setDescricao(descricao);
+        mercado.setBairro(bairro);
+        mercado.setCidade(cidade);
+        mercado.setAvaliacaoMedia(new BigDecimal(avaliacao));
+        mercado.setActive(true);
+        return mercado;
+    }
+}
@@ -0,0 +1,126 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.MercadoClusterResponse;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.MercadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoClusterService - Testes Unitários")
+class MercadoClusterServiceTest {
+
+    @Mock
+    private MercadoRepository mercadoRepository;
+
+    @InjectMocks
+    private MercadoClusterService clusterService;
+
+    private List<Object[]> linhas;
+
+    @BeforeEach
+    void setUp() {
+        linhas = new ArrayList<>();
+        linhas.add(linha(1L, -23.5505, -46.6333, "4.00", 10L));
+        linhas.add(linha(2L, -23.5510, -46.6340, "5.00", 3L));
+        linhas.add(linha(3L, -23.5520, -46.6345, "0", 0L));
+        linhas.add(linha(4L, -22.9068, -43.1729, "3.00", 1L));
+        lenient().when(mercadoRepository.findResumoGeograficoNaArea(any(), any(), any(), any())).thenReturn(linhas);
+    }
+
+    @Test
+    @DisplayName("Deve agrupar mercados próximos com centróide e média das avaliações")
+    void testAgruparMercados() {
+        // Act
+        List<MercadoClusterResponse> result = clusterService.buscarClusters(-23.7, -23.4, -46.8, -46.4, 10);
+
+        // Assert
+        assertThat(result).hasSize(1);
+        MercadoClusterResponse cluster = result.get(0);
+        assertThat(cluster.getQuantidade()).isEqualTo(3);
+        assertThat(cluster.getAvaliacaoMedia()).isEqualTo(4.5);
+        assertThat(cluster.getLatitude()).isCloseTo(-23.5512, within(1e-4));
+        assertThat(cluster.getMercadoId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve separar mercados distantes em zoom alto e informar o ID de mercados isolados")
+    void testZoomAlto() {
+        // Act
+        List<MercadoClusterResponse> result = clusterService.buscarClusters(-23.553, -23.550, -46.635, -46.633, 18);
+
+        // Assert
+        assertThat(result).extracting(MercadoClusterResponse::getQuantidade).containsOnly(1);
+        assertThat(result).extracting(MercadoClusterResponse::getMercadoId).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Deve reutilizar tiles em cache e recalcular após invalidação")
+    void testCacheEInvalidacao() {
+        // Arrange
+        clusterService.buscarClusters(-23.7, -23.4, -46.8, -46.4, 10);
+        clusterService.buscarClusters(-23.7, -23.4, -46.8, -46.4, 10);
+        verify(mercadoRepository, times(1)).findResumoGeograficoNaArea(any(), any(), any(), any());
+
+        // Act - mercado 1 muda para o Rio de Janeiro
+        linhas.set(0, linha(1L, -22.9070, -43.1730, "4.00", 10L));
+        Mercado movido = new Mercado();
+        movido.setId(1L);
+        movido.setLatitude(BigDecimal.valueOf(-22.9070));
+        movido.setLongitude(BigDecimal.valueOf(-43.1730));
+        clusterService.invalidar(movido);
+        List<MercadoClusterResponse> result = clusterService.buscarClusters(-23.7, -23.4, -46.8, -46.4, 10);
+
+        // Assert
+        verify(mercadoRepository, times(2)).findResumoGeograficoNaArea(any(), any(), any(), any());
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getQuantidade()).isEqualTo(2);
+        assertThat(result.get(0).getAvaliacaoMedia()).isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("Deve invalidar tiles de mercado removido")
+    void testInvalidarRemocao() {
+        // Arrange
+        clusterService.buscarClusters(-23.7, -23.4, -46.8, -46.4, 10);
+        linhas.remove(1);
+
+        // Act
+        clusterService.invalidar(2L);
+        List<MercadoClusterResponse> result = clusterService.buscarClusters(-23.7, -23.4, -46.8, -46.4, 10);
+
+        // Assert
+        assertThat(result.get(0).getQuantidade()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar área inválida ou grande demais para o zoom")
+    void testValidacao() {
+        assertThatThrownBy(() -> clusterService.buscarClusters(-23.4, -23.7, -46.8, -46.4, 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> clusterService.buscarClusters(-23.7, -23.4, -46.8, -46.4, 21))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> clusterService.buscarClusters(-33.0, 5.0, -74.0, -34.0, 12))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(mercadoRepository);
+    }
+
+    private static Object[] linha(Long id, double latitude, double longitude, String avaliacao, Long total) {
+        return new Object[]{id, BigDecimal.valueOf(latitude), BigDecimal.valueOf(longitude),
+                new BigDecimal(avaliacao), total};
+    }
+}
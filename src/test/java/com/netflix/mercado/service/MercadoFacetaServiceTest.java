@@ -0,0 +1,213 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.MercadoFacetasResponse;
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoFacetaService - Testes Unitários")
+class MercadoFacetaServiceTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+    @Mock
+    private MercadoRepository mercadoRepository;
+
+    @Mock
+    private MercadoBuscaTextualService mercadoBuscaTextualService;
+
+    @Mock
+    private AgendaSemanalService agendaSemanalService;
+
+    @InjectMocks
+    private MercadoFacetaService facetaService;
+
+    @BeforeEach
+    void setUp() {
+        facetaService.indexar(mercado(1L, "Supermercado Central", "São Paulo", "SP", "4.5", true));
+        facetaService.indexar(mercado(2L, "Padaria Pão Quente", "São Paulo", "SP", "3.2", false));
+        facetaService.indexar(mercado(3L, "Mercadinho da Esquina", "Rio de Janeiro", "RJ", "4.0", true));
+        facetaService.indexar(mercado(4L, "Atacadão Campinas", "Campinas", "SP", null, true));
+        facetaService.indexar(mercado(5L, "Mercado Bom Jesus", "Bom Jesus", "PI", "5.0", true));
+        facetaService.indexar(mercado(6L, "Empório Gaúcho", "Bom Jesus", "RS", "2.0", true));
+        lenient().when(agendaSemanalService.estaAberto(anyLong(), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(0, Long.class) % 2 == 1);
+    }
+
+    @Test
+    @DisplayName("Deve contar todas as facetas sobre os mercados ativos")
+    void testContagensSemFiltros() {
+        // Act
+        MercadoFacetasResponse result = facetaService.calcular(new MercadoSearchRequest(), AGORA);
+
+        // Assert
+        assertThat(result.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor, MercadoFacetasResponse.Valor::getQuantidade)
+                .containsExactly(tuple("SP", 3), tuple("PI", 1), tuple("RJ", 1), tuple("RS", 1));
+        assertThat(result.getCidades().get(0).getValor()).isEqualTo("São Paulo");
+        assertThat(result.getCidades().get(0).getQuantidade()).isEqualTo(2);
+        assertThat(result.getAvaliacaoMinima()).extracting(MercadoFacetasResponse.Valor::getValor, MercadoFacetasResponse.Valor::getQuantidade)
+                .containsExactly(tuple("5", 1), tuple("4", 3), tuple("3", 4), tuple("2", 5), tuple("1", 5));
+        assertThat(result.getAbertosAgora()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve contar apenas os mercados que atendem aos filtros")
+    void testContagensComFiltros() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setEstado("sp");
+        filtro.setMinAvaliacao(new BigDecimal("3.0"));
+
+        // Act
+        MercadoFacetasResponse result = facetaService.calcular(filtro, AGORA);
+
+        // Assert - o mercado 4 não tem avaliação e fica de fora, como no banco
+        assertThat(result.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor, MercadoFacetasResponse.Valor::getQuantidade)
+                .containsExactly(tuple("SP", 2));
+        assertThat(result.getCidades()).extracting(MercadoFacetasResponse.Valor::getValor).containsExactly("São Paulo");
+        assertThat(result.getAbertosAgora()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve separar cidades homônimas por UF")
+    void testCidadesHomonimas() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setCidade("Bom Jesus");
+
+        // Act
+        MercadoFacetasResponse result = facetaService.calcular(filtro, AGORA);
+
+        // Assert
+        assertThat(result.getCidades()).extracting(MercadoFacetasResponse.Valor::getValor, MercadoFacetasResponse.Valor::getEstado)
+                .containsExactly(tuple("Bom Jesus", "PI"), tuple("Bom Jesus", "RS"));
+    }
+
+    @Test
+    @DisplayName("Deve aplicar filtro de nome e candidatos da busca em memória")
+    void testNomeETexto() {
+        // Arrange
+        MercadoSearchRequest porNome = new MercadoSearchRequest();
+        porNome.setNome("MERCADO");
+        MercadoSearchRequest porTexto = new MercadoSearchRequest();
+        porTexto.setTexto("esquina");
+        when(mercadoBuscaTextualService.buscarCandidatos(any(MercadoSearchRequest.class))).thenAnswer(invocation ->
+                invocation.getArgument(0) == porTexto ? Optional.of(List.of(3L)) : Optional.empty());
+
+        // Act
+        MercadoFacetasResponse resultNome = facetaService.calcular(porNome, AGORA);
+        MercadoFacetasResponse resultTexto = facetaService.calcular(porTexto, AGORA);
+
+        // Assert
+        assertThat(resultNome.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor).containsExactly("PI", "SP");
+        assertThat(resultTexto.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor).containsExactly("RJ");
+    }
+
+    @Test
+    @DisplayName("Deve contar sobre os candidatos recebidos sem repetir a busca textual")
+    void testCandidatosRecebidos() {
+        // Arrange
+        MercadoSearchRequest porTexto = new MercadoSearchRequest();
+        porTexto.setTexto("esquina");
+
+        // Act
+        MercadoFacetasResponse result = facetaService.calcular(porTexto, Optional.of(List.of(3L, 5L)), AGORA);
+
+        // Assert
+        assertThat(result.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor).containsExactly("PI", "RJ");
+        verify(mercadoBuscaTextualService, never()).buscarCandidatos(any(MercadoSearchRequest.class));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar nome por substring, inclusive curta e após renomear")
+    void testNomePorSubstring() {
+        // Arrange
+        facetaService.indexar(mercado(6L, "Empório Sul", "Bom Jesus", "RS", "2.0", true));
+        MercadoSearchRequest entrePalavras = new MercadoSearchRequest();
+        entrePalavras.setNome("o da es");
+        MercadoSearchRequest curto = new MercadoSearchRequest();
+        curto.setNome("ão");
+        MercadoSearchRequest nomeAntigo = new MercadoSearchRequest();
+        nomeAntigo.setNome("gaúcho");
+        when(mercadoBuscaTextualService.buscarCandidatos(any(MercadoSearchRequest.class))).thenReturn(Optional.empty());
+
+        // Act
+        MercadoFacetasResponse resultEntrePalavras = facetaService.calcular(entrePalavras, AGORA);
+        MercadoFacetasResponse resultCurto = facetaService.calcular(curto, AGORA);
+        MercadoFacetasResponse resultNomeAntigo = facetaService.calcular(nomeAntigo, AGORA);
+
+        // Assert
+        assertThat(resultEntrePalavras.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor).containsExactly("RJ");
+        assertThat(resultCurto.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor, MercadoFacetasResponse.Valor::getQuantidade)
+                .containsExactly(tuple("SP", 2));
+        assertThat(resultNomeAntigo.getEstados()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve refletir remoções, inativações e exigir coordenadas na ordenação por distância")
+    void testSincronizacaoECoordenadas() {
+        // Arrange
+        facetaService.remover(1L);
+        Mercado inativo = mercado(3L, "Mercadinho da Esquina", "Rio de Janeiro", "RJ", "4.0", true);
+        inativo.setActive(false);
+        facetaService.indexar(inativo);
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setOrdenarPor(MercadoSearchRequest.Ordenacao.DISTANCIA);
+
+        // Act
+        MercadoFacetasResponse result = facetaService.calcular(filtro, AGORA);
+
+        // Assert - mercado 2 não tem coordenadas
+        assertThat(result.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor, MercadoFacetasResponse.Valor::getQuantidade)
+                .containsExactly(tuple("PI", 1), tuple("RS", 1), tuple("SP", 1));
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir o índice a partir do banco")
+    void testReconstruirIndice() {
+        // Arrange
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{10L, "Empório Bela Vista", "Curitiba", "PR", new BigDecimal("4.5"), null, null});
+        when(mercadoRepository.findFacetasAtivas()).thenReturn(linhas);
+
+        // Act
+        facetaService.reconstruirIndice();
+        MercadoFacetasResponse result = facetaService.calcular(new MercadoSearchRequest(), AGORA);
+
+        // Assert
+        assertThat(result.getEstados()).extracting(MercadoFacetasResponse.Valor::getValor).containsExactly("PR");
+        assertThat(result.getAvaliacaoMinima().get(1).getQuantidade()).isEqualTo(1);
+    }
+
+    private static Mercado mercado(Long id, String nome, String cidade, String estado, String avaliacao, boolean comCoordenadas) {
+        Mercado mercado = new Mercado();
+        mercado.setId(id);
+        mercado.setNome(nome);
+        mercado.setCidade(cidade);
+        mercado.setEstado(estado);
+        mercado.setAvaliacaoMedia(avaliacao != null ? new BigDecimal(avaliacao) : null);
+        if (comCoordenadas) {
+            mercado.setLatitude(new BigDecimal("-23.55"));
+            mercado.setLongitude(new BigDecimal("-46.63"));
+        }
+        mercado.setActive(true);
+        return mercado;
+    }
+}
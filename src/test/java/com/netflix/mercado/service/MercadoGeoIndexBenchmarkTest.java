@@ -0,0 +1,146 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.GeoUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark do índice espacial em memória contra a consulta nativa de proximidade.
+ * A consulta SQL precisa ampliar o raio até encontrar k mercados; o índice responde direto.
+ *
+ * Desabilitado por padrão. Para executar:
+ * mvn test -Dtest=MercadoGeoIndexBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("MercadoGeoIndexService - Benchmark kNN vs consulta nativa")
+class MercadoGeoIndexBenchmarkTest {
+
+    private static final Logger log = Logger.getLogger(MercadoGeoIndexBenchmarkTest.class.getName());
+
+    private static final int K = 10;
+    private static final int CONSULTAS = 200;
+
+    @ParameterizedTest(name = "{0} mercados")
+    @ValueSource(ints = {100_000, 1_000_000})
+    void benchmarkKnnVersusConsultaNativa(int quantidade) throws Exception {
+        Random random = new Random(7);
+        long[] ids = new long[quantidade];
+        double[] latitudes = new double[quantidade];
+        double[] longitudes = new double[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ids[i] = i + 1;
+            latitudes[i] = -33.0 + random.nextDouble() * 38.0;
+            longitudes[i] = -74.0 + random.nextDouble() * 40.0;
+        }
+
+        MercadoGeoIndexService indice = new MercadoGeoIndexService();
+        long inicioConstrucao = System.nanoTime();
+        indice.carregar(ids, latitudes, longitudes);
+        double construcaoMs = (System.nanoTime() - inicioConstrucao) / 1e6;
+
+        double[][] pontos = new double[CONSULTAS][2];
+        for (int i = 0; i < CONSULTAS; i++) {
+            pontos[i][0] = -33.0 + random.nextDouble() * 38.0;
+            pontos[i][1] = -74.0 + random.nextDouble() * 40.0;
+        }
+
+        for (int aquecimento = 0; aquecimento < 20; aquecimento++) {
+            for (double[] p : pontos) {
+                indice.buscarMaisProximos(p[0], p[1], K);
+            }
+        }
+        int encontradosIndice = 0;
+        long inicioIndice = System.nanoTime();
+        for (double[] p : pontos) {
+            encontradosIndice += indice.buscarMaisProximos(p[0], p[1], K).size();
+        }
+        double indiceUs = (System.nanoTime() - inicioIndice) / 1e3 / CONSULTAS;
+        assertThat(encontradosIndice).isEqualTo(K * CONSULTAS);
+
+        try (Connection conexao = DriverManager.getConnection("jdbc:h2:mem:geo" + quantidade)) {
+            popularBanco(conexao, ids, latitudes, longitudes);
+
+            long inicioSql = System.nanoTime();
+            int raiosTentados = 0;
+            for (double[] p : pontos) {
+                raiosTentados += knnPorRaioCrescente(conexao, p[0], p[1]);
+            }
+            double sqlUs = (System.nanoTime() - inicioSql) / 1e3 / CONSULTAS;
+
+            log.info(String.format(Locale.ROOT,
+                    "[benchmark] n=%d construcao=%.1fms indice=%.1fus/consulta sql=%.1fus/consulta "
+                            + "(%.1f raios por consulta) ganho=%.0fx",
+                    quantidade, construcaoMs, indiceUs, sqlUs, raiosTentados / (double) CONSULTAS, sqlUs / indiceUs));
+        }
+    }
+
+    /**
+     * Estratégia sem índice em memória: dobra o raio até a consulta nativa retornar k mercados.
+     */
+    private int knnPorRaioCrescente(Connection conexao, double latitude, double longitude) throws Exception {
+        double raio = 1.0;
+        int tentativas = 0;
+        while (true) {
+            tentativas++;
+            double[] caixa = GeoUtils.calcularCaixaDelimitadora(latitude, longitude, raio);
+            String sql = "SELECT m.id FROM mercados m WHERE " + MercadoRepository.FILTRO_CAIXA_DELIMITADORA
+                    + "AND " + MercadoRepository.DISTANCIA_HAVERSINE_KM + " <= :raio "
+                    + "ORDER BY " + MercadoRepository.DISTANCIA_HAVERSINE_KM + ", m.id LIMIT " + K;
+            sql = sql.replace(":latitude", literal(latitude))
+                    .replace(":longitude", literal(longitude))
+                    .replace(":raio", literal(raio))
+                    .replace(":latMin", literal(caixa[0]))
+                    .replace(":latMax", literal(caixa[1]))
+                    .replace(":lonMin", literal(caixa[2]))
+                    .replace(":lonMax", literal(caixa[3]));
+            int encontrados = 0;
+            try (Statement st = conexao.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+                while (rs.next()) {
+                    encontrados++;
+                }
+            }
+            if (encontrados >= K || raio > 20000) {
+                return tentativas;
+            }
+            raio *= 2;
+        }
+    }
+
+    private void popularBanco(Connection conexao, long[] ids, double[] latitudes, double[] longitudes) throws Exception {
+        try (Statement st = conexao.createStatement()) {
+            st.execute("CREATE TABLE mercados (id BIGINT PRIMARY KEY, active BOOLEAN NOT NULL, "
+                    + "latitude NUMERIC(10,8) NOT NULL, longitude NUMERIC(11,8) NOT NULL)");
+            st.execute("CREATE INDEX idx_mercado_coordenadas ON mercados (latitude, longitude)");
+        }
+        try (PreparedStatement ps = conexao.prepareStatement("INSERT INTO mercados VALUES (?, TRUE, ?, ?)")) {
+            for (int i = 0; i < ids.length; i++) {
+                ps.setLong(1, ids[i]);
+                ps.setDouble(2, latitudes[i]);
+                ps.setDouble(3, longitudes[i]);
+                ps.addBatch();
+                if (i % 10_000 == 9_999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static String literal(double valor) {
+        return String.format(Locale.ROOT, "%.8f", valor);
+    }
+}
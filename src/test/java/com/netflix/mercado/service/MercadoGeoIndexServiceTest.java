@@ -0,0 +1,162 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.GeoKdTree;
+import com.netflix.mercado.util.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoGeoIndexService - Testes Unitários")
+class MercadoGeoIndexServiceTest {
+
+    @Mock
+    private MercadoRepository mercadoRepository;
+
+    @InjectMocks
+    private MercadoGeoIndexService geoIndexService;
+
+    private long[] ids;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        int n = 5000;
+        ids = new long[n];
+        latitudes = new double[n];
+        longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+            latitudes[i] = -33.0 + random.nextDouble() * 38.0;
+            longitudes[i] = -74.0 + random.nextDouble() * 40.0;
+        }
+        geoIndexService.carregar(ids, latitudes, longitudes);
+    }
+
+    @Test
+    @DisplayName("Deve retornar os mesmos vizinhos que a busca exaustiva")
+    void testBuscarMaisProximosIgualForcaBruta() {
+        // Act
+        List<GeoKdTree.Vizinho> result = geoIndexService.buscarMaisProximos(-23.5505, -46.6333, 10);
+
+        // Assert
+        assertThat(result).hasSize(10);
+        assertThat(result.stream().map(GeoKdTree.Vizinho::getId).collect(Collectors.toList()))
+                .isEqualTo(forcaBruta(-23.5505, -46.6333, 10));
+        assertThat(result).isSortedAccordingTo(Comparator.comparingDouble(GeoKdTree.Vizinho::getDistanciaKm));
+    }
+
+    @Test
+    @DisplayName("Deve retornar apenas pontos dentro do raio")
+    void testBuscarNoRaio() {
+        // Act
+        List<GeoKdTree.Vizinho> result = geoIndexService.buscarNoRaio(-15.7939, -47.8828, 150.0);
+
+        // Assert
+        long esperado = Arrays.stream(indices())
+                .filter(i -> GeoUtils.calcularDistanciaKm(-15.7939, -47.8828, latitudes[i], longitudes[i]) <= 150.0)
+                .count();
+        assertThat(result).hasSize((int) esperado);
+        assertThat(result).allMatch(v -> v.getDistanciaKm() <= 150.0);
+    }
+
+    @Test
+    @DisplayName("Deve refletir inclusão, movimentação e remoção de mercados")
+    void testAtualizacoesIncrementais() {
+        // Arrange
+        Mercado novo = new Mercado();
+        novo.setId(99999L);
+        novo.setActive(true);
+        novo.setLatitude(BigDecimal.valueOf(-23.5505));
+        novo.setLongitude(BigDecimal.valueOf(-46.6333));
+
+        // Act & Assert - inclusão
+        geoIndexService.indexar(novo);
+        assertThat(geoIndexService.buscarMaisProximos(-23.5505, -46.6333, 1).get(0).getId()).isEqualTo(99999L);
+
+        // Movimentação para longe
+        novo.setLatitude(BigDecimal.valueOf(60.0));
+        novo.setLongitude(BigDecimal.valueOf(100.0));
+        geoIndexService.indexar(novo);
+        assertThat(geoIndexService.buscarMaisProximos(-23.5505, -46.6333, 1).get(0).getId()).isNotEqualTo(99999L);
+
+        // Remoção de um ponto da árvore
+        long maisProximo = geoIndexService.buscarMaisProximos(-23.5505, -46.6333, 1).get(0).getId();
+        geoIndexService.remover(maisProximo);
+        assertThat(geoIndexService.buscarMaisProximos(-23.5505, -46.6333, 5))
+                .noneMatch(v -> v.getId() == maisProximo);
+
+        // Inativação remove do índice
+        novo.setActive(false);
+        geoIndexService.indexar(novo);
+        assertThat(geoIndexService.buscarMaisProximos(60.0, 100.0, 1).get(0).getId()).isNotEqualTo(99999L);
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir a árvore ao exceder o limite de pendências")
+    void testCompactacao() {
+        // Act
+        for (int i = 0; i <= MercadoGeoIndexService.LIMITE_PENDENCIAS; i++) {
+            geoIndexService.indexar(100000L + i, -10.0 + i * 0.001, -50.0);
+        }
+
+        // Assert
+        List<GeoKdTree.Vizinho> result = geoIndexService.buscarMaisProximos(-10.0, -50.0, 1);
+        assertThat(result.get(0).getId()).isEqualTo(100000L);
+    }
+
+    @Test
+    @DisplayName("Deve construir o índice a partir do banco")
+    void testReconstruirIndice() {
+        // Arrange
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{1L, BigDecimal.valueOf(-23.5505), BigDecimal.valueOf(-46.6333)});
+        linhas.add(new Object[]{2L, BigDecimal.valueOf(-22.9068), BigDecimal.valueOf(-43.1729)});
+        when(mercadoRepository.findCoordenadasAtivas()).thenReturn(linhas);
+
+        // Act
+        geoIndexService.reconstruirIndice();
+
+        // Assert
+        List<GeoKdTree.Vizinho> result = geoIndexService.buscarMaisProximos(-22.9, -43.2, 5);
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getId()).isEqualTo(2L);
+        assertThat(result.get(1).getDistanciaKm()).isBetween(350.0, 370.0);
+    }
+
+    private List<Long> forcaBruta(double latitude, double longitude, int k) {
+        return Arrays.stream(indices()).boxed()
+                .sorted(Comparator.comparingDouble(i ->
+                        GeoUtils.calcularDistanciaKm(latitude, longitude, latitudes[i], longitudes[i])))
+                .limit(k)
+                .map(i -> ids[i])
+                .collect(Collectors.toList());
+    }
+
+    private int[] indices() {
+        int[] indices = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+}
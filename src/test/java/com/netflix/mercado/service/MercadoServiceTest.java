@@ -1,26 +1,39 @@
 package com.netflix.mercado.service;
 
+import com.netflix.mercado.dto.common.PageResponse;
 import com.netflix.mercado.dto.mercado.CreateMercadoRequest;
 import com.netflix.mercado.dto.mercado.MercadoResponse;
+import com.netflix.mercado.dto.mercado.MercadoSearchRequest;
 import com.netflix.mercado.dto.mercado.UpdateMercadoRequest;
 import com.netflix.mercado.entity.Mercado;
 import com.netflix.mercado.entity.User;
 import com.netflix.mercado.exception.ResourceNotFoundException;
+import com.netflix.mercado.exception.ValidationException;
 import com.netflix.mercado.repository.AuditLogRepository;
 import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.AgendaSemanal;
+import com.netflix.mercado.util.GeoKdTree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -37,6 +50,24 @@ class MercadoServiceTest {
     @Mock
     private AuditLogRepository auditLogRepository;
 
+    @Mock
+    private MercadoGeoIndexService mercadoGeoIndexService;
+
+    @Mock
+    private AgendaSemanalService agendaSemanalService;
+
+    @Mock
+    private MercadoClusterService mercadoClusterService;
+
+    @Mock
+    private MercadoBuscaTextualService mercadoBuscaTextualService;
+
+    @Mock
+    private MercadoSugestaoService mercadoSugestaoService;
+
+    @Mock
+    private MercadoFacetaService mercadoFacetaService;
+
     @InjectMocks
     private MercadoService mercadoService;
 
@@ -165,6 +196,42 @@ class MercadoServiceTest {
         assertThat(result.getTotalElements()).isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("Deve rolar mercados por cursor continuando após o último item")
+    void testListarMercadosPorCursor() {
+        // Arrange
+        testMercado.setAvaliacaoMedia(new BigDecimal("4.50"));
+        Mercado mercado2 = new Mercado();
+        mercado2.setId(2L);
+        mercado2.setNome("Mercado 2");
+        mercado2.setAvaliacaoMedia(new BigDecimal("4.50"));
+        when(mercadoRepository.findAllActiveCursor(PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(mercado2), PageRequest.of(0, 1), true));
+        when(mercadoRepository.findAllActiveApos(new BigDecimal("4.50"), 2L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(testMercado), PageRequest.of(0, 1), false));
+
+        // Act
+        PageResponse<MercadoResponse> primeira = mercadoService.getAllMercadosCursor(null, 1);
+        PageResponse<MercadoResponse> segunda = mercadoService.getAllMercadosCursor(primeira.getProximoCursor(), 1);
+
+        // Assert
+        assertThat(primeira.getConteudo()).extracting(MercadoResponse::getId).containsExactly(2L);
+        assertThat(primeira.getTemProxima()).isTrue();
+        assertThat(primeira.getTotalElementos()).isNull();
+        assertThat(segunda.getConteudo()).extracting(MercadoResponse::getId).containsExactly(1L);
+        assertThat(segunda.getProximoCursor()).isNull();
+        assertThat(segunda.getTemAnterior()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar cursor malformado")
+    void testListarMercadosPorCursorInvalido() {
+        // Act & Assert
+        assertThatThrownBy(() -> mercadoService.getAllMercadosCursor("nao-e-um-cursor", 20))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(mercadoRepository);
+    }
+
     @Test
     @DisplayName("Deve buscar mercados por nome")
     void testSearchMercadosByNome() {
@@ -197,6 +264,104 @@ class MercadoServiceTest {
         assertThat(result.getTotalElements()).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("Deve buscar com filtros combinados e ordenar por avaliação")
+    void testBuscarMercadosComFiltros() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest(null, "São Paulo", "sp", null, 0, 20);
+        filtro.setOrdenarPor(MercadoSearchRequest.Ordenacao.AVALIACAO);
+        when(mercadoRepository.findAll(ArgumentMatchers.<Specification<Mercado>>any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(testMercado)));
+
+        // Act
+        Page<MercadoResponse> result = mercadoService.buscarMercados(filtro, PageRequest.of(0, 20));
+
+        // Assert
+        assertThat(result.getContent()).extracting(MercadoResponse::getId).containsExactly(1L);
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(mercadoRepository).findAll(ArgumentMatchers.<Specification<Mercado>>any(), pageableCaptor.capture());
+        assertThat(pageableCaptor.getValue().getSort().getOrderFor("avaliacaoMedia").isDescending()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve paginar busca textual na ordem de relevância")
+    void testBuscarMercadosPorTexto() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setTexto("padaria");
+        when(mercadoBuscaTextualService.buscarCandidatos(filtro)).thenReturn(Optional.of(List.of(2L, 1L)));
+        Mercado mercado2 = new Mercado();
+        mercado2.setId(2L);
+        mercado2.setActive(true);
+        when(mercadoRepository.findIds(ArgumentMatchers.<Specification<Mercado>>any(), eq(Sort.unsorted()))).thenReturn(List.of(1L, 2L));
+        when(mercadoRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testMercado, mercado2));
+
+        // Act
+        Page<MercadoResponse> result = mercadoService.buscarMercados(filtro, PageRequest.of(0, 20));
+
+        // Assert
+        assertThat(result.getContent()).extracting(MercadoResponse::getId).containsExactly(2L, 1L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve carregar apenas os mercados da página na busca textual")
+    void testBuscarMercadosPorTextoSegundaPagina() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setTexto("padaria");
+        when(mercadoBuscaTextualService.buscarCandidatos(filtro)).thenReturn(Optional.of(List.of(2L, 3L, 1L)));
+        when(mercadoRepository.findIds(ArgumentMatchers.<Specification<Mercado>>any(), eq(Sort.unsorted()))).thenReturn(List.of(1L, 2L));
+        when(mercadoRepository.findAllById(List.of(1L))).thenReturn(List.of(testMercado));
+
+        // Act
+        Page<MercadoResponse> result = mercadoService.buscarMercados(filtro, PageRequest.of(1, 1));
+
+        // Assert
+        assertThat(result.getContent()).extracting(MercadoResponse::getId).containsExactly(1L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        verify(mercadoRepository, never()).findAll(ArgumentMatchers.<Specification<Mercado>>any());
+    }
+
+    @Test
+    @DisplayName("Deve ordenar a busca textual filtrada pelo banco e contar todos os candidatos")
+    void testBuscarMercadosPorTextoOrdenadoPorAvaliacao() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setTexto("mercado");
+        filtro.setEstado("AC");
+        filtro.setOrdenarPor(MercadoSearchRequest.Ordenacao.AVALIACAO);
+        when(mercadoBuscaTextualService.buscarCandidatos(filtro)).thenReturn(Optional.of(List.of(1L, 3L, 2L)));
+        when(mercadoRepository.findIds(ArgumentMatchers.<Specification<Mercado>>any(), any(Sort.class)))
+                .thenReturn(List.of(4L, 2L, 1L));
+        Mercado mercado2 = new Mercado();
+        mercado2.setId(2L);
+        when(mercadoRepository.findAllById(List.of(2L))).thenReturn(List.of(mercado2));
+
+        // Act
+        Page<MercadoResponse> result = mercadoService.buscarMercados(filtro, PageRequest.of(0, 1));
+
+        // Assert
+        assertThat(result.getContent()).extracting(MercadoResponse::getId).containsExactly(2L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        ArgumentCaptor<Sort> sortCaptor = ArgumentCaptor.forClass(Sort.class);
+        verify(mercadoRepository).findIds(ArgumentMatchers.<Specification<Mercado>>any(), sortCaptor.capture());
+        assertThat(sortCaptor.getValue().getOrderFor("avaliacaoMedia").isDescending()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve exigir coordenadas para ordenar por distância")
+    void testBuscarMercadosDistanciaSemCoordenadas() {
+        // Arrange
+        MercadoSearchRequest filtro = new MercadoSearchRequest();
+        filtro.setOrdenarPor(MercadoSearchRequest.Ordenacao.DISTANCIA);
+
+        // Act & Assert
+        assertThatThrownBy(() -> mercadoService.buscarMercados(filtro, PageRequest.of(0, 20)))
+                .isInstanceOf(ValidationException.class);
+        verify(mercadoRepository, never()).findAll(ArgumentMatchers.<Specification<Mercado>>any(), any(Pageable.class));
+    }
+
     @Test
     @DisplayName("Deve buscar mercados próximos por geolocalização")
     void testBuscarMercadosProximos() {
@@ -215,6 +380,100 @@ class MercadoServiceTest {
         assertThat(result).hasSize(1);
     }
 
+    @Test
+    @DisplayName("Deve buscar mercados próximos com paginação")
+    void testFindNearbyPaginado() {
+        // Arrange
+        Page<Mercado> page = new PageImpl<>(Arrays.asList(testMercado));
+        when(mercadoRepository.findByProximidade(
+                anyDouble(),
+                anyDouble(),
+                anyDouble(),
+                any(Pageable.class)))
+                .thenReturn(page);
+
+        // Act
+        Page<MercadoResponse> result = mercadoService.findNearby(-23.5505, -46.6333, 5.0, PageRequest.of(0, 20));
+
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar busca por proximidade com raio inválido")
+    void testFindNearbyRaioInvalido() {
+        // Act & Assert
+        assertThatThrownBy(() -> mercadoService.findNearby(-23.5505, -46.6333, 0.0, PageRequest.of(0, 20)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    @DisplayName("Deve buscar os k mercados mais próximos pelo índice espacial")
+    void testBuscarMaisProximos() {
+        // Arrange
+        Mercado mercado2 = new Mercado();
+        mercado2.setId(2L);
+        mercado2.setNome("Mercado 2");
+        mercado2.setActive(true);
+
+        when(mercadoGeoIndexService.buscarMaisProximos(-23.5505, -46.6333, 2))
+                .thenReturn(Arrays.asList(
+                        new GeoKdTree.Vizinho(2L, -23.55, -46.63, 0.1),
+                        new GeoKdTree.Vizinho(1L, -23.5505, -46.6333, 0.5)));
+        when(mercadoRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(testMercado, mercado2));
+
+        // Act
+        List<MercadoResponse> result = mercadoService.buscarMaisProximos(-23.5505, -46.6333, 2);
+
+        // Assert
+        assertThat(result).extracting(MercadoResponse::getId).containsExactly(2L, 1L);
+        assertThat(result.get(0).getDistanciaKm()).isEqualTo(0.1);
+        verify(mercadoRepository, never()).findByProximidade(anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("Deve buscar apenas mercados próximos abertos no momento")
+    void testBuscarProximosAbertos() {
+        // Arrange
+        LocalDateTime segundaAsDez = LocalDateTime.of(2024, 1, 1, 10, 0);
+        int minuto = AgendaSemanal.minutoDaSemana(segundaAsDez);
+        when(mercadoGeoIndexService.buscarNoRaio(-23.5505, -46.6333, 3.0))
+                .thenReturn(Arrays.asList(
+                        new GeoKdTree.Vizinho(2L, -23.55, -46.63, 0.1),
+                        new GeoKdTree.Vizinho(1L, -23.5505, -46.6333, 0.5)));
+        when(agendaSemanalService.estaAberto(2L, minuto)).thenReturn(false);
+        when(agendaSemanalService.estaAberto(1L, minuto)).thenReturn(true);
+        when(mercadoRepository.findAllById(anyIterable())).thenReturn(List.of(testMercado));
+
+        // Act
+        Page<MercadoResponse> result = mercadoService.buscarProximosAbertos(
+                -23.5505, -46.6333, 3.0, segundaAsDez, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent()).extracting(MercadoResponse::getId).containsExactly(1L);
+        assertThat(result.getContent().get(0).getDistanciaKm()).isEqualTo(0.5);
+        verify(mercadoRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar índice espacial ao aprovar e rejeitar mercado")
+    void testSincronizaIndiceAoAprovarERejeitar() {
+        // Arrange
+        when(mercadoRepository.findById(1L)).thenReturn(Optional.of(testMercado));
+
+        // Act
+        mercadoService.aprovarMercado(1L);
+        mercadoService.rejeitarMercado(1L, "Dados incompletos");
+
+        // Assert
+        verify(mercadoGeoIndexService).indexar(testMercado);
+        verify(mercadoGeoIndexService).remover(1L);
+        verify(mercadoClusterService).invalidar(testMercado);
+        verify(mercadoClusterService).invalidar(1L);
+    }
+
     @Test
     @DisplayName("Deve aprovar mercado")
     void testAprovarMercado() {
@@ -229,4 +488,26 @@ class MercadoServiceTest {
         // Assert
         verify(mercadoRepository).save(any(Mercado.class));
     }
+
+    @Test
+    @DisplayName("Deve reindexar em lote os mercados com avaliações alteradas")
+    void testReindexarAvaliacoesPendentes() {
+        // Arrange
+        testMercado.setAvaliacaoMedia(new BigDecimal("4.50"));
+        when(mercadoRepository.recalcularAgregadoAvaliacoes(1L)).thenReturn(1);
+        when(mercadoRepository.findAllById(List.of(1L))).thenReturn(List.of(testMercado));
+        mercadoService.atualizarAvaliacaoMedia(1L);
+        mercadoService.sincronizarAvaliacoes(List.of(1L));
+
+        // Act
+        mercadoService.reindexarAvaliacoesPendentes();
+        mercadoService.reindexarAvaliacoesPendentes();
+
+        // Assert - uma leitura e uma reindexação por mercado, sem repetir na rodada seguinte
+        verify(mercadoRepository, times(1)).findAllById(List.of(1L));
+        verify(mercadoBuscaTextualService).indexar(testMercado);
+        verify(mercadoFacetaService).indexar(testMercado);
+        verify(mercadoSugestaoService).indexar(testMercado);
+        verify(mercadoClusterService).invalidar(testMercado);
+    }
 }
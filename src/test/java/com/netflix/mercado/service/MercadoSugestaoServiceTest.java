@@ -0,0 +1,170 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.mercado.SugestaoResponse;
+import com.netflix.mercado.entity.Mercado;
+import com.netflix.mercado.repository.MercadoRepository;
+import com.netflix.mercado.util.TriePrefixos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MercadoSugestaoService - Testes Unitários")
+class MercadoSugestaoServiceTest {
+
+    @Mock
+    private MercadoRepository mercadoRepository;
+
+    @InjectMocks
+    private MercadoSugestaoService sugestaoService;
+
+    @BeforeEach
+    void setUp() {
+        sugestaoService.indexar(mercado(1L, "Supermercado Central", "Centro", "São Paulo", "SP", 120L));
+        sugestaoService.indexar(mercado(2L, "Super Econômico", "Vila Mariana", "São Paulo", "SP", 300L));
+        sugestaoService.indexar(mercado(3L, "Sacolão Santana", "Santana", "São Paulo", "SP", 15L));
+        sugestaoService.indexar(mercado(4L, "Atacadão Campinas", "Centro", "Campinas", "SP", 80L));
+    }
+
+    @Test
+    @DisplayName("Deve sugerir pelo início de qualquer palavra, ignorando acentos")
+    void testPrefixoDePalavra() {
+        // Act
+        List<SugestaoResponse> result = sugestaoService.sugerir("econo", 10);
+
+        // Assert
+        assertThat(result).extracting(SugestaoResponse::getMercadoId).containsExactly(2L);
+        assertThat(result.get(0).getDetalhe()).isEqualTo("Vila Mariana, São Paulo - SP");
+    }
+
+    @Test
+    @DisplayName("Deve ordenar pelo total de avaliações e respeitar o limite")
+    void testOrdenacaoPorPeso() {
+        // Act
+        List<SugestaoResponse> result = sugestaoService.sugerir("SUP", 10);
+        List<SugestaoResponse> limitado = sugestaoService.sugerir("sup", 1);
+
+        // Assert
+        assertThat(result).extracting(SugestaoResponse::getMercadoId).containsExactly(2L, 1L);
+        assertThat(limitado).extracting(SugestaoResponse::getMercadoId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Deve agregar bairros e cidades somando as avaliações dos mercados")
+    void testBairrosECidades() {
+        // Act
+        List<SugestaoResponse> sao = sugestaoService.sugerir("sao", 10);
+        List<SugestaoResponse> centro = sugestaoService.sugerir("centr", 10);
+
+        // Assert
+        assertThat(sao).hasSize(1);
+        assertThat(sao.get(0).getTipo()).isEqualTo(SugestaoResponse.Tipo.CIDADE);
+        assertThat(sao.get(0).getTexto()).isEqualTo("São Paulo");
+        assertThat(centro).extracting(SugestaoResponse::getTipo, SugestaoResponse::getDetalhe)
+                .containsExactly(
+                        tuple(SugestaoResponse.Tipo.BAIRRO, "São Paulo - SP"),
+                        tuple(SugestaoResponse.Tipo.MERCADO, "Centro, São Paulo - SP"),
+                        tuple(SugestaoResponse.Tipo.BAIRRO, "Campinas - SP"));
+    }
+
+    @Test
+    @DisplayName("Deve atualizar e remover sugestões conforme as escritas")
+    void testSincronizacao() {
+        // Act
+        sugestaoService.indexar(mercado(3L, "Sacolão Santana", "Santana", "São Paulo", "SP", 1000L));
+        sugestaoService.remover(2L);
+        Mercado inativo = mercado(4L, "Atacadão Campinas", "Centro", "Campinas", "SP", 80L);
+        inativo.setActive(false);
+        sugestaoService.indexar(inativo);
+
+        // Assert
+        assertThat(sugestaoService.sugerir("s", 10)).extracting(SugestaoResponse::getTexto)
+                .containsExactly("São Paulo", "Santana", "Sacolão Santana", "Supermercado Central");
+        assertThat(sugestaoService.sugerir("econ", 10)).isEmpty();
+        assertThat(sugestaoService.sugerir("campinas", 10)).isEmpty();
+        assertThat(sugestaoService.sugerir("vila", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve reconstruir as sugestões a partir do banco")
+    void testReconstruirIndice() {
+        // Arrange
+        List<Object[]> linhas = new ArrayList<>();
+        linhas.add(new Object[]{10L, "Empório Bela Vista", "Bela Vista", "São Paulo", "SP", 42L});
+        when(mercadoRepository.findSugestoesAtivas()).thenReturn(linhas);
+
+        // Act
+        sugestaoService.reconstruirIndice();
+
+        // Assert
+        assertThat(sugestaoService.sugerir("bela", 10)).extracting(SugestaoResponse::getTipo)
+                .containsExactly(SugestaoResponse.Tipo.BAIRRO, SugestaoResponse.Tipo.MERCADO);
+        assertThat(sugestaoService.sugerir("super", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve manter as listas dos nós iguais a uma busca exaustiva após inclusões e remoções")
+    void testTrieEquivalenteABuscaExaustiva() {
+        // Arrange
+        Random random = new Random(7);
+        String[] palavras = {"super", "supra", "sacolao", "santa", "sul", "mercado", "mercearia", "mega", "central"};
+        TriePrefixos trie = new TriePrefixos();
+        Map<String, TriePrefixos.Entrada> atuais = new HashMap<>();
+
+        // Act
+        for (int i = 0; i < 2000; i++) {
+            String id = Integer.toString(random.nextInt(150));
+            TriePrefixos.Entrada anterior = atuais.remove(id);
+            if (anterior != null) {
+                trie.remover(anterior);
+            }
+            if (random.nextInt(4) > 0) {
+                String texto = palavras[random.nextInt(palavras.length)] + " " + palavras[random.nextInt(palavras.length)];
+                TriePrefixos.Entrada entrada = new TriePrefixos.Entrada("MERCADO", id, texto, null, null, random.nextInt(50));
+                trie.adicionar(entrada);
+                atuais.put(id, entrada);
+            }
+        }
+
+        // Assert
+        for (String prefixo : List.of("s", "su", "sup", "m", "me", "mer", "c", "santa m", "x")) {
+            List<String> esperado = atuais.values().stream()
+                    .filter(e -> e.getChave().startsWith(prefixo) || e.getChave().contains(" " + prefixo))
+                    .sorted(Comparator.comparingLong(TriePrefixos.Entrada::getPeso).reversed()
+                            .thenComparing(TriePrefixos.Entrada::getChave)
+                            .thenComparing(TriePrefixos.Entrada::getIdentidade))
+                    .limit(TriePrefixos.K_MAXIMO)
+                    .map(TriePrefixos.Entrada::getIdentidade)
+                    .collect(Collectors.toList());
+            assertThat(trie.buscar(prefixo, TriePrefixos.K_MAXIMO))
+                    .extracting(TriePrefixos.Entrada::getIdentidade).as(prefixo).isEqualTo(esperado);
+        }
+    }
+
+    private static Mercado mercado(Long id, String nome, String bairro, String cidade, String estado, Long total) {
+        Mercado mercado = new Mercado();
+        mercado.setId(id);
+        mercado.setNome(nome);
+        mercado.setBairro(bairro);
+        mercado.setCidade(cidade);
+        mercado.setEstado(estado);
+        mercado.setTotalAvaliacoes(total);
+        mercado.setActive(true);
+        return mercado;
+    }
+}
@@ -0,0 +1,183 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.comentario.DecisaoModeracaoResponse;
+import com.netflix.mercado.dto.comentario.ReservaModeracaoResponse;
+import com.netflix.mercado.entity.Comentario;
+import com.netflix.mercado.entity.User;
+import com.netflix.mercado.exception.ValidationException;
+import com.netflix.mercado.repository.ComentarioRepository;
+import com.netflix.mercado.repository.DenunciaComentarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ModeracaoService - Testes Unitários")
+class ModeracaoServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ComentarioRepository comentarioRepository;
+
+    @Mock
+    private DenunciaComentarioRepository denunciaComentarioRepository;
+
+    @InjectMocks
+    private ModeracaoService moderacaoService;
+
+    private User moderador;
+
+    @BeforeEach
+    void setUp() {
+        moderador = new User();
+        moderador.setId(9L);
+        moderador.setEmail("moderador@example.com");
+    }
+
+    @Test
+    @DisplayName("Deve antecipar na fila os comentários de autores com rejeições")
+    void testPrazoInicial() {
+        // Arrange
+        LocalDateTime criadoEm = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        // Act
+        long semHistorico = ModeracaoService.prazoInicial(criadoEm, 0);
+        long comHistorico = ModeracaoService.prazoInicial(criadoEm, 3);
+        long historicoLongo = ModeracaoService.prazoInicial(criadoEm, 1000);
+
+        // Assert
+        assertThat(semHistorico - comHistorico).isEqualTo(3 * ModeracaoService.ANTECIPACAO_POR_REJEICAO);
+        assertThat(historicoLongo).isGreaterThan(semHistorico - 13 * ModeracaoService.ANTECIPACAO_POR_REJEICAO);
+    }
+
+    @Test
+    @DisplayName("Deve buscar de novo quando outro moderador leva parte dos candidatos")
+    void testReservarComConcorrencia() {
+        // Arrange
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM comentarios"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L, 2L, 3L))
+                .thenReturn(List.of(4L));
+        when(jdbcTemplate.update(startsWith("UPDATE comentarios SET reservado_por_id"), any(SqlParameterSource.class)))
+                .thenReturn(2, 1);
+        Comentario comentario = new Comentario();
+        comentario.setId(1L);
+        when(comentarioRepository.findReservados(eq(List.of(1L, 2L, 3L, 4L)), anyString()))
+                .thenReturn(List.of(comentario));
+
+        // Act
+        ReservaModeracaoResponse response = moderacaoService.reservar(moderador, 3);
+
+        // Assert
+        assertThat(response.getItens()).hasSize(1);
+        assertThat(response.getReservadoAte()).isAfter(LocalDateTime.now());
+        verify(jdbcTemplate, times(2)).update(startsWith("UPDATE comentarios SET reservado_por_id"), any(SqlParameterSource.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve aprovar em um UPDATE e auditar só os IDs aplicados em um lote")
+    void testAprovarEmLote() {
+        // Arrange
+        when(jdbcTemplate.update(startsWith("UPDATE comentarios SET moderado"), any(SqlParameterSource.class))).thenReturn(2);
+        when(jdbcTemplate.queryForList(contains("reserva_token = :token"), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L, 3L));
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+
+        // Act
+        DecisaoModeracaoResponse response = moderacaoService.aprovar(List.of(1L, 2L, 3L, 3L), moderador);
+
+        // Assert
+        assertThat(response.getSolicitados()).isEqualTo(3);
+        assertThat(response.getAplicados()).containsExactly(1L, 3L);
+        assertThat(response.getIgnorados()).containsExactly(2L);
+        ArgumentCaptor<List<Object[]>> auditoria = ArgumentCaptor.forClass(List.class);
+        verify(jdbcOperations, times(1)).batchUpdate(startsWith("INSERT INTO audit_logs"), auditoria.capture());
+        assertThat(auditoria.getValue()).extracting(linha -> linha[1]).containsExactly(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Deve recusar decisões acima do limite sem acessar o banco")
+    void testDecisaoAcimaDoLimite() {
+        // Arrange
+        List<Long> ids = LongStream.rangeClosed(1, ModeracaoService.MAXIMO_POR_DECISAO + 1).boxed().collect(Collectors.toList());
+
+        // Act & Assert
+        assertThatThrownBy(() -> moderacaoService.rejeitar(ids, "spam", moderador))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Não deve registrar denúncia repetida do mesmo usuário")
+    void testDenunciaRepetida() {
+        // Arrange
+        when(comentarioRepository.existsById(1L)).thenReturn(true);
+        when(denunciaComentarioRepository.existsByComentarioIdAndUsuarioId(1L, 9L)).thenReturn(true);
+
+        // Act
+        boolean nova = moderacaoService.denunciar(1L, "spam", moderador);
+
+        // Assert
+        assertThat(nova).isFalse();
+        verify(denunciaComentarioRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar um comentário individual registrando o moderador e auditando")
+    void testDecidirComentarioRegistraModerador() {
+        // Arrange
+        ArgumentCaptor<SqlParameterSource> parametros = ArgumentCaptor.forClass(SqlParameterSource.class);
+        when(jdbcTemplate.update(startsWith("UPDATE comentarios SET moderado"), parametros.capture())).thenReturn(1);
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+
+        // Act
+        boolean aplicada = moderacaoService.decidirComentario(5L, false, null, moderador);
+
+        // Assert
+        assertThat(aplicada).isTrue();
+        assertThat(parametros.getValue().getValue("moderador")).isEqualTo(9L);
+        assertThat(parametros.getValue().getValue("motivo")).isEqualTo("Conteúdo inapropriado");
+        verify(jdbcOperations).update(startsWith("INSERT INTO audit_logs"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Não deve decidir comentário reservado por outro moderador")
+    void testDecidirComentarioReservadoPorOutro() {
+        // Arrange
+        when(jdbcTemplate.update(contains("reservado_por_id = :moderador OR"), any(SqlParameterSource.class))).thenReturn(0);
+
+        // Act
+        boolean aplicada = moderacaoService.decidirComentario(5L, true, null, moderador);
+
+        // Assert
+        assertThat(aplicada).isFalse();
+        verify(jdbcTemplate, never()).getJdbcOperations();
+    }
+}
@@ -0,0 +1,117 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.dto.promocao.PromocaoInstantanea;
+import com.netflix.mercado.entity.Promocao;
+import com.netflix.mercado.repository.PromocaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromocaoCacheService - Testes Unitários")
+class PromocaoCacheServiceTest {
+
+    @Mock
+    private PromocaoRepository promocaoRepository;
+
+    @InjectMocks
+    private PromocaoCacheService promocaoCacheService;
+
+    private Promocao promocao;
+
+    @BeforeEach
+    void setUp() {
+        promocao = new Promocao();
+        promocao.setId(1L);
+        promocao.setCodigo("PROMO10");
+        promocao.setPercentualDesconto(BigDecimal.TEN);
+        promocao.setDataValidade(LocalDateTime.now().plusDays(30));
+        promocao.setAtiva(true);
+    }
+
+    @Test
+    @DisplayName("Deve barrar códigos fora do filtro sem consultar o banco")
+    void testCodigoInexistenteNaoConsultaBanco() {
+        // Arrange
+        when(promocaoRepository.findCodigosAtivos()).thenReturn(List.of("PROMO10", "FRUTA50"));
+        promocaoCacheService.recarregarFiltro();
+
+        // Act
+        int encontrados = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (promocaoCacheService.buscarPorCodigo("BOT" + i).isPresent()) {
+                encontrados++;
+            }
+        }
+
+        // Assert
+        assertThat(encontrados).isZero();
+        // Só os raros falsos positivos do filtro chegam ao banco
+        verify(promocaoRepository, atMost(50)).findByCodigo(anyString());
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco uma vez por código e guardar a promoção")
+    void testGuardaPromocao() {
+        // Arrange
+        when(promocaoRepository.findCodigosAtivos()).thenReturn(List.of("PROMO10"));
+        when(promocaoRepository.findByCodigo("PROMO10")).thenReturn(Optional.of(promocao));
+        promocaoCacheService.recarregarFiltro();
+
+        // Act
+        Optional<PromocaoInstantanea> primeira = promocaoCacheService.buscarPorCodigo("PROMO10");
+        Optional<PromocaoInstantanea> segunda = promocaoCacheService.buscarPorCodigo("PROMO10");
+
+        // Assert
+        assertThat(primeira).isPresent();
+        assertThat(segunda.get()).isSameAs(primeira.get());
+        assertThat(segunda.get().getPercentualDesconto()).isEqualTo(BigDecimal.TEN);
+        verify(promocaoRepository, times(1)).findByCodigo("PROMO10");
+    }
+
+    @Test
+    @DisplayName("Deve recarregar a promoção após invalidação")
+    void testInvalidarRecarrega() {
+        // Arrange
+        when(promocaoRepository.findByCodigo("PROMO10")).thenReturn(Optional.of(promocao));
+        promocaoCacheService.buscarPorCodigo("PROMO10");
+
+        // Act
+        promocao.setPercentualDesconto(new BigDecimal("20"));
+        promocaoCacheService.invalidar("PROMO10");
+        Optional<PromocaoInstantanea> recarregada = promocaoCacheService.buscarPorCodigo("PROMO10");
+
+        // Assert
+        assertThat(recarregada.get().getPercentualDesconto()).isEqualByComparingTo("20");
+        verify(promocaoRepository, times(2)).findByCodigo("PROMO10");
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer código criado depois da carga do filtro")
+    void testRegistrarCodigoCriado() {
+        // Arrange
+        when(promocaoRepository.findCodigosAtivos()).thenReturn(List.of());
+        promocaoCacheService.recarregarFiltro();
+        assertThat(promocaoCacheService.buscarPorCodigo("PROMO10")).isEmpty();
+        when(promocaoRepository.findByCodigo("PROMO10")).thenReturn(Optional.of(promocao));
+
+        // Act
+        promocaoCacheService.registrarCodigo("PROMO10");
+
+        // Assert
+        assertThat(promocaoCacheService.buscarPorCodigo("PROMO10")).isPresent();
+    }
+}
@@ -0,0 +1,125 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.repository.PromocaoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UtilizacaoPromocaoService - Testes Unitários")
+class UtilizacaoPromocaoServiceTest {
+
+    @Mock
+    private PromocaoRepository promocaoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UtilizacaoPromocaoService utilizacaoPromocaoService;
+
+    @Test
+    @DisplayName("Deve registrar cada utilização com a instrução condicional fora de pico")
+    void testUtilizarInstrucaoCondicional() {
+        // Arrange
+        when(promocaoRepository.reservarUtilizacoes(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(1, 0);
+
+        // Act & Assert
+        assertThat(utilizacaoPromocaoService.utilizar(1L)).isTrue();
+        assertThat(utilizacaoPromocaoService.utilizar(1L)).isFalse();
+        verify(promocaoRepository, never()).findUtilizacoesRestantes(any());
+    }
+
+    @Test
+    @DisplayName("Deve reservar em bloco em pico e distribuir o bloco em memória")
+    void testReservarEmBloco() {
+        // Arrange
+        ReflectionTestUtils.setField(utilizacaoPromocaoService, "limiarReserva", 0);
+        when(promocaoRepository.findUtilizacoesRestantes(1L)).thenReturn(Optional.of(1000L));
+        when(promocaoRepository.reservarUtilizacoes(eq(1L), eq(100L), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertThat(utilizacaoPromocaoService.utilizar(1L)).isTrue();
+        }
+
+        // Assert
+        verify(promocaoRepository, times(1)).reservarUtilizacoes(eq(1L), anyLong(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Deve encolher o bloco perto do fim e recusar quando esgotar")
+    void testBlocoEncolheNoFim() {
+        // Arrange
+        ReflectionTestUtils.setField(utilizacaoPromocaoService, "limiarReserva", 0);
+        when(promocaoRepository.findUtilizacoesRestantes(1L)).thenReturn(Optional.of(2L))
+                .thenReturn(Optional.of(0L));
+        when(promocaoRepository.reservarUtilizacoes(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act & Assert
+        assertThat(utilizacaoPromocaoService.utilizar(1L)).isTrue();
+        assertThat(utilizacaoPromocaoService.utilizar(1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve devolver ao banco as sobras do bloco ao descartar")
+    void testDescartarDevolveSobras() {
+        // Arrange
+        ReflectionTestUtils.setField(utilizacaoPromocaoService, "limiarReserva", 0);
+        when(promocaoRepository.findUtilizacoesRestantes(1L)).thenReturn(Optional.of(1000L));
+        when(promocaoRepository.reservarUtilizacoes(eq(1L), eq(100L), any(LocalDateTime.class))).thenReturn(1);
+        utilizacaoPromocaoService.utilizar(1L);
+        utilizacaoPromocaoService.utilizar(1L);
+
+        // Act
+        utilizacaoPromocaoService.descartar(1L);
+
+        // Assert
+        verify(promocaoRepository).devolverUtilizacoes(1L, 98L);
+    }
+
+    @Test
+    @DisplayName("Não deve esperar pela reserva de bloco de outra thread")
+    void testSemEsperaDuranteReservaDeBloco() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(utilizacaoPromocaoService, "limiarReserva", 0);
+        CountDownLatch reservando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(promocaoRepository.findUtilizacoesRestantes(1L)).thenReturn(Optional.of(1000L));
+        when(promocaoRepository.reservarUtilizacoes(eq(1L), eq(100L), any(LocalDateTime.class))).thenAnswer(invocacao -> {
+            reservando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        when(promocaoRepository.reservarUtilizacoes(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        CompletableFuture<Boolean> bloco = CompletableFuture.supplyAsync(() -> utilizacaoPromocaoService.utilizar(1L));
+        assertThat(reservando.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            // Act
+            boolean utilizada = utilizacaoPromocaoService.utilizar(1L);
+
+            // Assert - registrada pela instrução de uma utilização enquanto o bloco está em curso
+            assertThat(utilizada).isTrue();
+            verify(promocaoRepository).reservarUtilizacoes(eq(1L), eq(1L), any(LocalDateTime.class));
+        } finally {
+            liberar.countDown();
+        }
+        assertThat(bloco.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
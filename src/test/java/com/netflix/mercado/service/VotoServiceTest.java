@@ -0,0 +1,134 @@
+package com.netflix.mercado.service;
+
+import com.netflix.mercado.entity.ConjuntoVotantes;
+import com.netflix.mercado.repository.ConjuntoVotantesRepository;
+import com.netflix.mercado.util.BitmapCompacto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VotoService - Testes Unitários")
+class VotoServiceTest {
+
+    private static final ConjuntoVotantes.Tipo UTIL = ConjuntoVotantes.Tipo.AVALIACAO_UTIL;
+
+    @Mock
+    private ConjuntoVotantesRepository conjuntoVotantesRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private VotoService votoService;
+
+    @Test
+    @DisplayName("Deve registrar o voto uma única vez por usuário")
+    void testVotoUnicoPorUsuario() {
+        // Arrange
+        ConjuntoVotantes conjunto = new ConjuntoVotantes(UTIL, 10L, 0);
+        when(conjuntoVotantesRepository.existsByTipoAndEntidadeIdAndBloco(UTIL, 10L, 0)).thenReturn(true);
+        when(conjuntoVotantesRepository.findParaAtualizacao(UTIL, 10L, 0)).thenReturn(Optional.of(conjunto));
+
+        // Act
+        boolean primeiro = votoService.adicionar(UTIL, 10L, 7L);
+        boolean segundo = votoService.adicionar(UTIL, 10L, 7L);
+
+        // Assert
+        assertThat(primeiro).isTrue();
+        assertThat(segundo).isFalse();
+        assertThat(conjunto.getQuantidade()).isEqualTo(1L);
+        assertThat(conjunto.getRevisao()).isEqualTo(1L);
+        assertThat(BitmapCompacto.desserializar(conjunto.getBitmap()).contem(7L)).isTrue();
+        verify(conjuntoVotantesRepository, times(1)).save(conjunto);
+    }
+
+    @Test
+    @DisplayName("Deve criar a linha do bloco em transação própria no primeiro voto")
+    void testPrimeiroVotoCriaBloco() {
+        // Arrange
+        ConjuntoVotantes conjunto = new ConjuntoVotantes(UTIL, 10L, 1);
+        when(conjuntoVotantesRepository.existsByTipoAndEntidadeIdAndBloco(UTIL, 10L, 1)).thenReturn(false);
+        when(conjuntoVotantesRepository.findParaAtualizacao(UTIL, 10L, 1)).thenReturn(Optional.of(conjunto));
+
+        // Act
+        boolean novo = votoService.adicionar(UTIL, 10L, 65536L + 3);
+
+        // Assert
+        assertThat(novo).isTrue();
+        verify(conjuntoVotantesRepository).saveAndFlush(argThat(c -> c.getBloco() == 1 && c.getEntidadeId() == 10L));
+    }
+
+    @Test
+    @DisplayName("Deve verificar a página inteira com uma consulta e usar o cache depois")
+    void testVerificacaoEmLote() {
+        // Arrange
+        ConjuntoVotantes votado = new ConjuntoVotantes(UTIL, 1L, 0);
+        votado.setBitmap(BitmapCompacto.VAZIO.com(7L).com(8L).serializar());
+        when(conjuntoVotantesRepository.findByTipoAndBlocoAndEntidadeIdIn(eq(UTIL), eq(0), anyCollection()))
+                .thenReturn(List.of(votado));
+
+        // Act
+        Set<Long> primeira = votoService.votados(UTIL, List.of(1L, 2L, 3L), 7L);
+        Set<Long> segunda = votoService.votados(UTIL, List.of(1L, 2L, 3L), 8L);
+
+        // Assert
+        assertThat(primeira).containsExactly(1L);
+        assertThat(segunda).containsExactly(1L);
+        verify(conjuntoVotantesRepository, times(1)).findByTipoAndBlocoAndEntidadeIdIn(eq(UTIL), eq(0), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Não deve remover voto de bloco inexistente")
+    void testRemoverSemVoto() {
+        // Arrange
+        when(conjuntoVotantesRepository.existsByTipoAndEntidadeIdAndBloco(UTIL, 10L, 0)).thenReturn(false);
+
+        // Act
+        boolean removido = votoService.remover(UTIL, 10L, 7L);
+
+        // Assert
+        assertThat(removido).isFalse();
+        verify(conjuntoVotantesRepository, never()).findParaAtualizacao(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Bitmap deve manter os valores ao trocar de vetor para bitmap e voltar")
+    void testBitmapLimiteDoVetor() {
+        // Arrange
+        BitmapCompacto bitmap = BitmapCompacto.VAZIO;
+        for (long valor = 0; valor < 5000; valor += 1) {
+            bitmap = bitmap.com(valor * 3);
+        }
+
+        // Act
+        BitmapCompacto lido = BitmapCompacto.desserializar(bitmap.serializar());
+        BitmapCompacto reduzido = lido;
+        for (long valor = 0; valor < 1000; valor++) {
+            reduzido = reduzido.sem(valor * 3);
+        }
+
+        // Assert
+        assertThat(lido.cardinalidade()).isEqualTo(5000);
+        assertThat(lido.contem(3 * 4999)).isTrue();
+        assertThat(lido.contem(1)).isFalse();
+        assertThat(lido.serializar().length).isLessThan(5000 * 2);
+        assertThat(reduzido.cardinalidade()).isEqualTo(4000);
+        assertThat(reduzido.contem(0)).isFalse();
+        assertThat(reduzido.contem(3000)).isTrue();
+        assertThat(BitmapCompacto.desserializar(reduzido.serializar()).contem(3000)).isTrue();
+        assertThat(bitmap.contem(0)).isTrue();
+    }
+}